@@ -32,6 +32,8 @@ import android.telephony.TelephonyCallback
 import android.telephony.TelephonyManager
 import androidx.annotation.RequiresApi
 import androidx.core.content.ContextCompat
+import com.dimowner.audiorecorder.app.TrashExpiryJobService
+import com.dimowner.audiorecorder.metrics.UiFrameMetrics
 import com.dimowner.audiorecorder.util.AndroidUtils
 import timber.log.Timber
 import timber.log.Timber.DebugTree
@@ -51,18 +53,43 @@ class ARApplication : Application() {
         super.onCreate()
         PACKAGE_NAME = applicationContext.packageName
         applicationHandler = Handler(applicationContext.mainLooper)
-        screenWidthDp = AndroidUtils.pxToDp(
-            AndroidUtils.getScreenWidth(
-                applicationContext
-            )
-        )
-        val prefs = injector.providePrefs(applicationContext)
-        if (!prefs.isMigratedSettings) {
-            prefs.migrateSettings()
-        }
-        registerAudioOutputChangeReceiver()
-        registerRebootReceiver()
+        //Read by decoding and recording threads, so it is ready before any of them starts.
+        screenWidthDp = AndroidUtils.pxToDp(AndroidUtils.getScreenWidth(applicationContext))
+        startupGraph = createStartupGraph()
+        //Every entry point reads settings, so they are migrated right away.
+        startupGraph.ensure(STARTUP_SETTINGS)
+        startupGraph.deferRemaining()
+        //		FirebaseApp.initializeApp(this);
+    }
 
+    /**
+     * Components initialized on start-up. Entry points ensure what they need: recording from
+     * widget or wake word needs only settings and reboot receiver, list screens need metrics and
+     * warm database as well. Everything else is initialized when the main thread is idle.
+     */
+    private fun createStartupGraph(): StartupGraph {
+        return StartupGraph(applicationContext, injector.provideTaskExecutor())
+            .add(STARTUP_SETTINGS, {
+                val prefs = injector.providePrefs(it)
+                if (!prefs.isMigratedSettings) {
+                    prefs.migrateSettings()
+                }
+            })
+            .add(STARTUP_REBOOT_RECEIVER, { registerRebootReceiver() })
+            .add(STARTUP_AUDIO_OUTPUT_RECEIVER, { registerAudioOutputChangeReceiver() })
+            .add(STARTUP_CALL_STATE_LISTENER, { registerCallStateListener() })
+            .add(STARTUP_TRASH_EXPIRY, { TrashExpiryJobService.schedule(it) })
+            .add(STARTUP_METRICS, {
+                injector.setMetricsEnabled(it, BuildConfig.DEBUG)
+                registerActivityLifecycleCallbacks(UiFrameMetrics(injector.provideMetricsRegistry()))
+            })
+            .addBackground(STARTUP_DATABASE, { injector.provideLocalRepository(it).open() }, STARTUP_SETTINGS)
+            .add(STARTUP_RECORDING, {}, STARTUP_SETTINGS, STARTUP_REBOOT_RECEIVER)
+            .add(STARTUP_LIBRARY, {}, STARTUP_SETTINGS, STARTUP_AUDIO_OUTPUT_RECEIVER,
+                STARTUP_METRICS, STARTUP_DATABASE)
+    }
+
+    private fun registerCallStateListener() {
         // feature: pause when phone functions ringing or off-hook
         try {
             val telephonyMgr = getSystemService(TELEPHONY_SERVICE) as TelephonyManager
@@ -74,7 +101,6 @@ class ARApplication : Application() {
         } catch (e: Exception) {
             Timber.e(e)
         }
-        //		FirebaseApp.initializeApp(this);
     }
 
     override fun onTerminate() {
@@ -82,8 +108,8 @@ class ARApplication : Application() {
         //This method is never called on real Android devices
         injector.releaseMainPresenter()
         injector.closeTasks()
-        unregisterReceiver(audioOutputChangeReceiver)
-        unregisterReceiver(rebootReceiver)
+        audioOutputChangeReceiver?.let { unregisterReceiver(it) }
+        rebootReceiver?.let { unregisterReceiver(it) }
     }
 
     fun pausePlayback() {
@@ -168,6 +194,18 @@ class ARApplication : Application() {
     }
 
     companion object {
+        /** Start-up components needed to record. */
+        const val STARTUP_RECORDING = "recording"
+        /** Start-up components needed to show records. */
+        const val STARTUP_LIBRARY = "library"
+        private const val STARTUP_SETTINGS = "settings"
+        private const val STARTUP_REBOOT_RECEIVER = "rebootReceiver"
+        private const val STARTUP_AUDIO_OUTPUT_RECEIVER = "audioOutputReceiver"
+        private const val STARTUP_CALL_STATE_LISTENER = "callStateListener"
+        private const val STARTUP_TRASH_EXPIRY = "trashExpiry"
+        private const val STARTUP_DATABASE = "database"
+        private const val STARTUP_METRICS = "metrics"
+
         private var PACKAGE_NAME: String? = null
 
         @JvmField
@@ -175,6 +213,7 @@ class ARApplication : Application() {
         var applicationHandler: Handler? = null
 
         /** Screen width in dp  */
+        @Volatile
         private var screenWidthDp = 0f
         @JvmStatic
 		var injector = Injector()
@@ -183,6 +222,23 @@ class ARApplication : Application() {
             return PACKAGE_NAME
         }
 
+        @JvmStatic
+        lateinit var startupGraph: StartupGraph
+            private set
+
+        /**
+         * Initialize start-up components needed by an entry point of the app.
+         * @param name [STARTUP_RECORDING] or [STARTUP_LIBRARY].
+         */
+        @JvmStatic
+        fun ensureStartup(name: String) {
+            startupGraph.ensure(name)
+        }
+
+        private fun getScreenWidthDp(): Float {
+            return screenWidthDp
+        }
+
         /**
          * Calculate density pixels per second for record duration.
          * Used for visualisation waveform in view.
@@ -191,7 +247,7 @@ class ARApplication : Application() {
 		@JvmStatic
 		fun getDpPerSecond(durationSec: Float): Float {
             return if (durationSec > AppConstants.LONG_RECORD_THRESHOLD_SECONDS) {
-                AppConstants.WAVEFORM_WIDTH * screenWidthDp / durationSec
+                AppConstants.WAVEFORM_WIDTH * getScreenWidthDp() / durationSec
             } else {
                 AppConstants.SHORT_RECORD_DP_PER_SECOND.toFloat()
             }
@@ -199,6 +255,6 @@ class ARApplication : Application() {
 
         @JvmStatic
 		val longWaveformSampleCount: Int
-            get() = (AppConstants.WAVEFORM_WIDTH * screenWidthDp).toInt()
+            get() = (AppConstants.WAVEFORM_WIDTH * getScreenWidthDp()).toInt()
     }
 }
\ No newline at end of file
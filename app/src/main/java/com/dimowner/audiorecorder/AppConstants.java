@@ -153,5 +153,6 @@ public class AppConstants {
 
 	public final static int RECORD_BYTES_PER_SECOND = RECORD_ENCODING_BITRATE_48000 /8; //bits per sec converted to bytes per sec.
 	public final static int MIGRATE_PUBLIC_STORAGE_WARNING_COOLDOWN_MILLS = 12*60*60*1000; //12 hours
+	public final static long STATISTICS_REPAIR_INTERVAL_MILLS = 7L*24*60*60*1000; //7 days
 
 }
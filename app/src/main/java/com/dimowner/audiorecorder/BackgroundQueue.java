@@ -1,75 +1,214 @@
 package com.dimowner.audiorecorder;
 
-import android.os.Handler;
-import android.os.Looper;
-import android.os.Message;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-import java.util.concurrent.CountDownLatch;
+/**
+ * Serial queue of tasks run on workers of {@link TaskExecutor}. Tasks of one queue run one after
+ * another in order of posting, like on a single thread, while tasks of different queues run in
+ * parallel and are ordered by priority of their queues.
+ * Tasks posted with a key are coalesced: a newer task of the key either supersedes the older one
+ * ({@link #postLatest(String, Runnable)}) or joins it ({@link #postOnce(String, Runnable)}).
+ */
+public class BackgroundQueue {
 
-import timber.log.Timber;
+	private final String name;
+	private final int priority;
+	private final TaskExecutor executor;
+	private final TaskExecutor.Stats stats;
 
-public class BackgroundQueue extends Thread {
+	/** Due tasks waiting for the running task of this queue. */
+	private final ArrayDeque<TaskHandle> pending = new ArrayDeque<>();
+	/** Posted tasks which are not finished, including delayed ones. */
+	private final List<TaskHandle> scheduled = new ArrayList<>();
+	/** The newest not finished task of every key. */
+	private final Map<String, TaskHandle> keyed = new HashMap<>();
+	private TaskHandle active = null;
+	private boolean isClosed = false;
 
-	private volatile Handler handler = null;
-	private final CountDownLatch countDownLatch = new CountDownLatch(1);
+	/**
+	 * Queue of background priority on the shared executor.
+	 */
+	public BackgroundQueue(final String name) {
+		this(name, TaskExecutor.PRIORITY_BACKGROUND, TaskExecutor.getDefault());
+	}
+
+	/**
+	 * @param priority One of {@link TaskExecutor} PRIORITY constants.
+	 */
+	public BackgroundQueue(final String name, int priority, TaskExecutor executor) {
+		this.name = name;
+		this.priority = priority;
+		this.executor = executor;
+		this.stats = executor.getStats(name);
+	}
+
+	public String getName() {
+		return name;
+	}
 
-	public BackgroundQueue(final String threadName) {
-		setName(threadName);
-		start();
+	public TaskHandle postRunnable(Runnable runnable) {
+		return postRunnable(runnable, 0);
 	}
 
-	public void postRunnable(Runnable runnable) {
-		postRunnable(runnable, 0);
+	public TaskHandle postRunnable(Runnable runnable, long delay) {
+		return post(new TaskHandle(stats, priority, runnable, null, delay, this), delay);
+	}
+
+	/**
+	 * Post the task with its own name in statistics instead of the queue name, for queues which
+	 * run different kinds of calls one by one.
+	 */
+	public TaskHandle postRunnable(String name, Runnable runnable) {
+		return post(new TaskHandle(executor.getStats(name), priority, runnable, null, 0, this), 0);
+	}
+
+	/**
+	 * Post the task and cancel the previous task of the key. Previous task is dropped if it is
+	 * not started, running task is only marked cancelled and should stop when it checks
+	 * {@link TaskExecutor#isCurrentTaskCancelled()}, e.g. before showing loaded data.
+	 */
+	public TaskHandle postLatest(String key, Runnable runnable) {
+		TaskHandle handle = new TaskHandle(stats, priority, runnable, key, 0, this);
+		TaskHandle previous;
+		synchronized (this) {
+			previous = isClosed ? null : keyed.put(key, handle);
+		}
+		if (previous != null && !previous.isDone()) {
+			stats.addSuperseded();
+			previous.cancel();
+		}
+		return post(handle, 0);
+	}
+
+	/**
+	 * Post the task unless a task of the key is waiting or running, then the task joins it.
+	 * @return Handle of the posted task or of the task joined.
+	 */
+	public TaskHandle postOnce(String key, Runnable runnable) {
+		TaskHandle handle;
+		synchronized (this) {
+			TaskHandle current = keyed.get(key);
+			if (current != null && !current.isDone() && !current.isCancelled()) {
+				stats.addJoined();
+				return current;
+			}
+			handle = new TaskHandle(stats, priority, runnable, key, 0, this);
+			if (!isClosed) {
+				keyed.put(key, handle);
+			}
+		}
+		return post(handle, 0);
+	}
+
+	/**
+	 * Cancel task of the key, running task is marked cancelled.
+	 */
+	public void cancel(String key) {
+		TaskHandle handle;
+		synchronized (this) {
+			handle = keyed.remove(key);
+		}
+		if (handle != null) {
+			handle.cancel();
+		}
 	}
 
-	public void postRunnable(Runnable runnable, long delay) {
-		try {
-			countDownLatch.await();
-			if (delay <= 0) {
-				handler.post(runnable);
-			} else {
-				handler.postDelayed(runnable, delay);
+	private TaskHandle post(final TaskHandle handle, long delay) {
+		synchronized (this) {
+			if (isClosed) {
+				handle.cancel();
+				return handle;
 			}
-		} catch (Exception e) {
-			Timber.e(e);
+			scheduled.add(handle);
+		}
+		if (delay <= 0) {
+			enqueue(handle);
+		} else {
+			executor.schedule(handle, delay, () -> enqueue(handle));
 		}
+		return handle;
 	}
 
+	/**
+	 * Cancel all posted tasks of the runnable which are not started yet.
+	 */
 	public void cancelRunnable(Runnable runnable) {
-		try {
-			countDownLatch.await();
-			handler.removeCallbacks(runnable);
-		} catch (Exception e) {
-			Timber.e(e);
+		for (TaskHandle handle : getScheduled()) {
+			if (handle.runnable == runnable) {
+				handle.cancel();
+			}
 		}
 	}
 
+	/**
+	 * Cancel all tasks which are not started yet.
+	 */
 	public void cleanupQueue() {
-		try {
-			countDownLatch.await();
-			handler.removeCallbacksAndMessages(null);
-		} catch (Exception e) {
-			Timber.e(e);
+		for (TaskHandle handle : getScheduled()) {
+			handle.cancel();
 		}
 	}
 
-	public void handleMessage(Message inputMessage) {
+	/**
+	 * Cancel waiting tasks and ignore tasks posted later, the running task is finished.
+	 */
+	public void close() {
+		synchronized (this) {
+			isClosed = true;
+		}
+		cleanupQueue();
 	}
 
-	public void close() {
-		handler.getLooper().quit();
+	private synchronized List<TaskHandle> getScheduled() {
+		return new ArrayList<>(scheduled);
 	}
 
-	@Override
-	public void run() {
-		Looper.prepare();
-		handler = new Handler() {
-			@Override
-			public void handleMessage(Message msg) {
-				BackgroundQueue.this.handleMessage(msg);
+	private void enqueue(TaskHandle handle) {
+		synchronized (this) {
+			if (handle.isCancelled()) {
+				scheduled.remove(handle);
+				return;
+			}
+			if (active != null) {
+				pending.add(handle);
+				return;
 			}
-		};
-		countDownLatch.countDown();
-		Looper.loop();
+			active = handle;
+		}
+		executor.enqueue(handle);
+	}
+
+	void onCancelled(TaskHandle handle) {
+		synchronized (this) {
+			pending.remove(handle);
+			//Active task is removed when a worker is done with it.
+			if (handle != active) {
+				scheduled.remove(handle);
+				removeKeyed(handle);
+			}
+		}
+	}
+
+	void onFinished(TaskHandle handle) {
+		TaskHandle next;
+		synchronized (this) {
+			scheduled.remove(handle);
+			removeKeyed(handle);
+			next = pending.poll();
+			active = next;
+		}
+		if (next != null) {
+			executor.enqueue(next);
+		}
+	}
+
+	private void removeKeyed(TaskHandle handle) {
+		if (handle.key != null && keyed.get(handle.key) == handle) {
+			keyed.remove(handle.key);
+		}
 	}
 }
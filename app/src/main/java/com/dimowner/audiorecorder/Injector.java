@@ -31,21 +31,27 @@ import com.dimowner.audiorecorder.app.setup.SetupContract;
 import com.dimowner.audiorecorder.app.setup.SetupPresenter;
 import com.dimowner.audiorecorder.app.trash.TrashContract;
 import com.dimowner.audiorecorder.app.trash.TrashPresenter;
-import com.dimowner.audiorecorder.audio.AudioWaveformVisualization;
+import com.dimowner.audiorecorder.audio.DecodeCheckpointStore;
+import com.dimowner.audiorecorder.audio.DecodeScheduler;
 import com.dimowner.audiorecorder.audio.player.AudioPlayerNew;
 import com.dimowner.audiorecorder.audio.player.PlayerContractNew;
 import com.dimowner.audiorecorder.audio.recorder.AudioRecorder;
 import com.dimowner.audiorecorder.audio.recorder.ThreeGpRecorder;
 import com.dimowner.audiorecorder.audio.recorder.RecorderContract;
 import com.dimowner.audiorecorder.audio.recorder.WavRecorder;
+import com.dimowner.audiorecorder.audio.spectrogram.SpectrogramEngine;
+import com.dimowner.audiorecorder.audio.spectrogram.SpectrogramTileCache;
 import com.dimowner.audiorecorder.data.RecordDataSource;
 import com.dimowner.audiorecorder.data.FileRepository;
 import com.dimowner.audiorecorder.data.FileRepositoryImpl;
 import com.dimowner.audiorecorder.data.Prefs;
 import com.dimowner.audiorecorder.data.PrefsImpl;
+import com.dimowner.audiorecorder.data.database.AsyncLocalRepository;
 import com.dimowner.audiorecorder.data.database.LocalRepository;
 import com.dimowner.audiorecorder.data.database.LocalRepositoryImpl;
 import com.dimowner.audiorecorder.data.database.RecordsDataSource;
+import com.dimowner.audiorecorder.data.database.SeekIndexDataSource;
+import com.dimowner.audiorecorder.data.database.StatisticsDataSource;
 import com.dimowner.audiorecorder.app.main.MainContract;
 import com.dimowner.audiorecorder.app.main.MainPresenter;
 import com.dimowner.audiorecorder.app.records.RecordsContract;
@@ -53,14 +59,27 @@ import com.dimowner.audiorecorder.app.records.RecordsPresenter;
 import com.dimowner.audiorecorder.app.settings.SettingsContract;
 import com.dimowner.audiorecorder.app.settings.SettingsPresenter;
 import com.dimowner.audiorecorder.data.database.TrashDataSource;
+import com.dimowner.audiorecorder.metrics.MetricsRegistry;
+import com.dimowner.audiorecorder.util.AndroidUtils;
+
+import java.io.File;
+
+import timber.log.Timber;
 
 public class Injector {
 
+	private static final String DECODE_CHECKPOINTS_DIR = "decode_checkpoints";
+	private static final String SPECTROGRAM_DIR = "spectrogram";
+	private static final String METRICS_DIR = "metrics";
+	private static final String METRICS_SNAPSHOTS_FILE = "snapshots.txt";
+	public static final String METRICS_DUMP_FILE = "dump.txt";
+
 	private BackgroundQueue loadingTasks;
 	private BackgroundQueue recordingTasks;
 	private BackgroundQueue importTasks;
 	private BackgroundQueue processingTasks;
 	private BackgroundQueue copyTasks;
+	private BackgroundQueue metricsTasks;
 
 	private MainContract.UserActionsListener mainPresenter;
 	private RecordDataSource recordDataSource;
@@ -75,6 +94,11 @@ public class Injector {
 
 	private AudioPlayerNew audioPlayer = null;
 
+	private DecodeCheckpointStore decodeCheckpointStore;
+	private DecodeScheduler decodeScheduler;
+	private SpectrogramEngine spectrogramEngine;
+	private AsyncLocalRepository asyncLocalRepository;
+
 	public Prefs providePrefs(Context context) {
 		return PrefsImpl.getInstance(context);
 	}
@@ -87,6 +111,14 @@ public class Injector {
 		return TrashDataSource.getInstance(context);
 	}
 
+	public SeekIndexDataSource provideSeekIndexDataSource(Context context) {
+		return SeekIndexDataSource.getInstance(context);
+	}
+
+	public StatisticsDataSource provideStatisticsDataSource(Context context) {
+		return StatisticsDataSource.getInstance(context);
+	}
+
 	public FileRepository provideFileRepository(Context context) {
 		return FileRepositoryImpl.getInstance(context, providePrefs(context));
 	}
@@ -95,46 +127,105 @@ public class Injector {
 		return LocalRepositoryImpl.getInstance(provideRecordsDataSource(context), provideTrashDataSource(context), provideFileRepository(context), providePrefs(context));
 	}
 
+	public AsyncLocalRepository provideAsyncLocalRepository(Context context) {
+		if (asyncLocalRepository == null) {
+			asyncLocalRepository = new AsyncLocalRepository(provideLocalRepository(context), provideTaskExecutor(),
+					AndroidUtils::runOnUIThread);
+		}
+		return asyncLocalRepository;
+	}
+
 	public AppRecorder provideAppRecorder(Context context) {
 		return AppRecorderImpl.getInstance(provideAudioRecorder(context), provideLocalRepository(context),
 				provideLoadingTasksQueue(), provideRecordDataSource(context));
 	}
 
-	public AudioWaveformVisualization provideAudioWaveformVisualization() {
-		return new AudioWaveformVisualization(provideProcessingTasksQueue());
+	public DecodeScheduler provideDecodeScheduler(Context context) {
+		if (decodeScheduler == null) {
+			decodeScheduler = new DecodeScheduler(provideDecodeCheckpointStore(context));
+		}
+		return decodeScheduler;
+	}
+
+	public DecodeCheckpointStore provideDecodeCheckpointStore(Context context) {
+		if (decodeCheckpointStore == null) {
+			decodeCheckpointStore = new DecodeCheckpointStore(new File(context.getCacheDir(), DECODE_CHECKPOINTS_DIR));
+		}
+		return decodeCheckpointStore;
+	}
+
+	public SpectrogramEngine provideSpectrogramEngine(Context context) {
+		if (spectrogramEngine == null) {
+			spectrogramEngine = new SpectrogramEngine(new SpectrogramTileCache(new File(context.getCacheDir(), SPECTROGRAM_DIR)),
+					provideTaskExecutor());
+		}
+		return spectrogramEngine;
+	}
+
+	public TaskExecutor provideTaskExecutor() {
+		return TaskExecutor.getDefault();
+	}
+
+	public MetricsRegistry provideMetricsRegistry() {
+		return MetricsRegistry.getInstance();
+	}
+
+	public File provideMetricsDir(Context context) {
+		File dir = new File(context.getFilesDir(), METRICS_DIR);
+		if (!dir.exists() && !dir.mkdirs()) {
+			Timber.e("Failed to create metrics dir");
+		}
+		return dir;
+	}
+
+	/**
+	 * Enable or disable metrics. Snapshots of enabled metrics are written into app files periodically.
+	 */
+	public void setMetricsEnabled(Context context, boolean enabled) {
+		MetricsRegistry registry = provideMetricsRegistry();
+		registry.setEnabled(enabled);
+		if (enabled) {
+			if (metricsTasks == null) {
+				metricsTasks = new BackgroundQueue("MetricsTasks");
+			}
+			registry.startSnapshots(new File(provideMetricsDir(context), METRICS_SNAPSHOTS_FILE),
+					metricsTasks, MetricsRegistry.DEFAULT_SNAPSHOT_INTERVAL_MILLIS);
+		} else {
+			registry.stopSnapshots();
+		}
 	}
 
 	public BackgroundQueue provideLoadingTasksQueue() {
 		if (loadingTasks == null) {
-			loadingTasks = new BackgroundQueue("LoadingTasks");
+			loadingTasks = new BackgroundQueue("LoadingTasks", TaskExecutor.PRIORITY_INTERACTIVE, provideTaskExecutor());
 		}
 		return loadingTasks;
 	}
 
 	public BackgroundQueue provideRecordingTasksQueue() {
 		if (recordingTasks == null) {
-			recordingTasks = new BackgroundQueue("RecordingTasks");
+			recordingTasks = new BackgroundQueue("RecordingTasks", TaskExecutor.PRIORITY_RECORDING, provideTaskExecutor());
 		}
 		return recordingTasks;
 	}
 
 	public BackgroundQueue provideImportTasksQueue() {
 		if (importTasks == null) {
-			importTasks = new BackgroundQueue("ImportTasks");
+			importTasks = new BackgroundQueue("ImportTasks", TaskExecutor.PRIORITY_BACKGROUND, provideTaskExecutor());
 		}
 		return importTasks;
 	}
 
 	public BackgroundQueue provideProcessingTasksQueue() {
 		if (processingTasks == null) {
-			processingTasks = new BackgroundQueue("ProcessingTasks");
+			processingTasks = new BackgroundQueue("ProcessingTasks", TaskExecutor.PRIORITY_BACKGROUND, provideTaskExecutor());
 		}
 		return processingTasks;
 	}
 
 	public BackgroundQueue provideCopyTasksQueue() {
 		if (copyTasks == null) {
-			copyTasks = new BackgroundQueue("CopyTasks");
+			copyTasks = new BackgroundQueue("CopyTasks", TaskExecutor.PRIORITY_BACKGROUND, provideTaskExecutor());
 		}
 		return copyTasks;
 	}
@@ -185,16 +276,19 @@ public class Injector {
 			mainPresenter = new MainPresenter(providePrefs(context), provideFileRepository(context),
 					provideLocalRepository(context), provideAudioPlayer(), provideAppRecorder(context),
 					provideRecordingTasksQueue(), provideLoadingTasksQueue(), provideProcessingTasksQueue(),
-					provideImportTasksQueue(), provideSettingsMapper(context), provideRecordDataSource(context));
+					provideImportTasksQueue(), provideSettingsMapper(context), provideRecordDataSource(context),
+					provideSeekIndexDataSource(context), provideStatisticsDataSource(context));
 		}
 		return mainPresenter;
 	}
 
 	public RecordsContract.UserActionsListener provideRecordsPresenter(Context context) {
 		if (recordsPresenter == null) {
-			recordsPresenter = new RecordsPresenter(provideLocalRepository(context), provideFileRepository(context),
-					provideLoadingTasksQueue(), provideRecordingTasksQueue(),
-					provideAudioPlayer(), provideAppRecorder(context), providePrefs(context));
+			recordsPresenter = new RecordsPresenter(provideLocalRepository(context),
+					provideAsyncLocalRepository(context), provideFileRepository(context),
+					provideLoadingTasksQueue(), provideProcessingTasksQueue(),
+					provideAudioPlayer(), provideAppRecorder(context), providePrefs(context),
+					provideSeekIndexDataSource(context));
 		}
 		return recordsPresenter;
 	}
@@ -203,15 +297,14 @@ public class Injector {
 		if (settingsPresenter == null) {
 			settingsPresenter = new SettingsPresenter(provideLocalRepository(context), provideFileRepository(context),
 					provideRecordingTasksQueue(), provideLoadingTasksQueue(), providePrefs(context),
-					provideSettingsMapper(context), provideAppRecorder(context));
+					provideSettingsMapper(context), provideAppRecorder(context), provideStatisticsDataSource(context));
 		}
 		return settingsPresenter;
 	}
 
 	public TrashContract.UserActionsListener provideTrashPresenter(Context context) {
 		if (trashPresenter == null) {
-			trashPresenter = new TrashPresenter(provideLoadingTasksQueue(), provideRecordingTasksQueue(),
-					provideFileRepository(context), provideLocalRepository(context));
+			trashPresenter = new TrashPresenter(provideFileRepository(context), provideAsyncLocalRepository(context));
 		}
 		return trashPresenter;
 	}
@@ -314,6 +407,7 @@ public class Injector {
 	}
 
 	public void closeTasks() {
+		provideMetricsRegistry().stopSnapshots();
 		loadingTasks.cleanupQueue();
 		loadingTasks.close();
 		importTasks.cleanupQueue();
@@ -322,5 +416,17 @@ public class Injector {
 		processingTasks.close();
 		recordingTasks.cleanupQueue();
 		recordingTasks.close();
+		if (decodeScheduler != null) {
+			decodeScheduler.release();
+			decodeScheduler = null;
+		}
+		if (spectrogramEngine != null) {
+			spectrogramEngine.release();
+			spectrogramEngine = null;
+		}
+		if (asyncLocalRepository != null) {
+			asyncLocalRepository.release();
+			asyncLocalRepository = null;
+		}
 	}
 }
@@ -24,12 +24,17 @@ public class IntArrayList {
 	public void add(int val) {
 		if (data.length == size) {
 			grow();
-			add(val);
 		}
 		data[size] = val;
 		size++;
 	}
 
+	public void addAll(int[] values) {
+		for (int i = 0; i < values.length; i++) {
+			add(values[i]);
+		}
+	}
+
 	public int get(int index) {
 		return data[index];
 	}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder;
+
+import android.content.Context;
+import android.os.Looper;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import timber.log.Timber;
+
+/**
+ * Initialization of app components declared with their dependencies. An entry point of the app
+ * (recording from widget, opening the list) runs only the components it needs by
+ * {@link #ensure(String)}, the rest is run later when the main thread is idle.
+ * Components are run on the main thread or, if declared as background, on the executor.
+ * Every component is run once, its timing is kept in the start-up trace.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class StartupGraph {
+
+	public interface Initializer {
+		void init(Context context);
+	}
+
+	private static class Node {
+		final String name;
+		final String[] dependencies;
+		final boolean isBackground;
+		final Initializer initializer;
+		boolean isDone = false;
+		boolean isPosted = false;
+
+		Node(String name, String[] dependencies, boolean isBackground, Initializer initializer) {
+			this.name = name;
+			this.dependencies = dependencies;
+			this.isBackground = isBackground;
+			this.initializer = initializer;
+		}
+	}
+
+	/**
+	 * Timing of one component.
+	 */
+	public static class Trace {
+		public final String name;
+		public final String threadName;
+		/** Start time since the graph was created. */
+		public final long startMillis;
+		public final long durationMillis;
+
+		Trace(String name, String threadName, long startMillis, long durationMillis) {
+			this.name = name;
+			this.threadName = threadName;
+			this.startMillis = startMillis;
+			this.durationMillis = durationMillis;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.US, "%s +%dms %dms [%s]", name, startMillis, durationMillis, threadName);
+		}
+	}
+
+	private final Context context;
+	private final TaskExecutor executor;
+	private final long createdNanos = System.nanoTime();
+	private final Map<String, Node> nodes = new LinkedHashMap<>();
+	private final List<Trace> trace = new ArrayList<>();
+	private final Thread mainThread = Thread.currentThread();
+
+	/**
+	 * Must be called on the main thread.
+	 */
+	public StartupGraph(Context context, TaskExecutor executor) {
+		this.context = context;
+		this.executor = executor;
+	}
+
+	/**
+	 * Declare component run on the main thread.
+	 * @param dependencies Components which must be run before, they must be declared already.
+	 */
+	public StartupGraph add(String name, Initializer initializer, String... dependencies) {
+		return addNode(new Node(name, dependencies, false, initializer));
+	}
+
+	/**
+	 * Declare component run on the executor. Components which depend on it only start it and
+	 * don't wait for it, entry points use it to warm up components they will need soon.
+	 */
+	public StartupGraph addBackground(String name, Initializer initializer, String... dependencies) {
+		return addNode(new Node(name, dependencies, true, initializer));
+	}
+
+	/**
+	 * Run the component with its dependencies unless they were run already. Background component
+	 * is posted into the executor and the method returns right away, its main thread dependencies
+	 * are run before.
+	 * @throws IllegalStateException if a main thread component which is not run yet is ensured
+	 * on another thread.
+	 */
+	public void ensure(String name) {
+		Node node = getNode(name);
+		synchronized (node) {
+			if (node.isDone) {
+				return;
+			}
+		}
+		if (node.isBackground) {
+			for (String dependency : node.dependencies) {
+				if (!getNode(dependency).isBackground) {
+					ensure(dependency);
+				}
+			}
+			synchronized (node) {
+				if (node.isDone || node.isPosted) {
+					return;
+				}
+				node.isPosted = true;
+			}
+			executor.execute("Startup", TaskExecutor.PRIORITY_INTERACTIVE, () -> run(node));
+		} else {
+			if (Thread.currentThread() != mainThread) {
+				throw new IllegalStateException("Component " + name + " must be initialized on the main thread");
+			}
+			run(node);
+		}
+	}
+
+	/**
+	 * Run components which are not run yet one by one when the main thread is idle.
+	 * Must be called from the main thread.
+	 */
+	public void deferRemaining() {
+		final List<String> names = new ArrayList<>(nodes.keySet());
+		Looper.myQueue().addIdleHandler(() -> {
+			while (!names.isEmpty()) {
+				Node node = getNode(names.remove(0));
+				synchronized (node) {
+					if (node.isDone || node.isPosted) {
+						continue;
+					}
+				}
+				ensure(node.name);
+				//Give the main thread back after every component which did some work.
+				return !names.isEmpty();
+			}
+			Timber.d("Start-up finished: %s", getTrace());
+			return false;
+		});
+	}
+
+	public boolean isDone(String name) {
+		Node node = getNode(name);
+		synchronized (node) {
+			return node.isDone;
+		}
+	}
+
+	public List<Trace> getTrace() {
+		synchronized (trace) {
+			return new ArrayList<>(trace);
+		}
+	}
+
+	public void dump(PrintWriter writer) {
+		writer.println("Start-up trace:");
+		for (Trace t : getTrace()) {
+			writer.println("  " + t);
+		}
+		writer.flush();
+	}
+
+	private StartupGraph addNode(Node node) {
+		if (nodes.containsKey(node.name)) {
+			throw new IllegalArgumentException("Component is already declared: " + node.name);
+		}
+		//Dependencies are declared first, so the graph has no cycles.
+		for (String dependency : node.dependencies) {
+			if (!nodes.containsKey(dependency)) {
+				throw new IllegalArgumentException("Unknown dependency " + dependency + " of " + node.name);
+			}
+		}
+		nodes.put(node.name, node);
+		return this;
+	}
+
+	private Node getNode(String name) {
+		Node node = nodes.get(name);
+		if (node == null) {
+			throw new IllegalArgumentException("Unknown component: " + name);
+		}
+		return node;
+	}
+
+	/**
+	 * Main thread components are run only on the main thread and background ones are posted once,
+	 * so a component is never run concurrently and no lock is held by its initializer.
+	 */
+	private void run(Node node) {
+		for (String dependency : node.dependencies) {
+			ensure(dependency);
+		}
+		synchronized (node) {
+			if (node.isDone) {
+				return;
+			}
+		}
+		long start = System.nanoTime();
+		try {
+			node.initializer.init(context);
+		} catch (Exception e) {
+			Timber.e(e, "Failed to initialize %s", node.name);
+		}
+		long end = System.nanoTime();
+		synchronized (node) {
+			node.isDone = true;
+		}
+		synchronized (trace) {
+			trace.add(new Trace(node.name, Thread.currentThread().getName(),
+					(start - createdNanos) / 1_000_000, (end - start) / 1_000_000));
+		}
+	}
+}
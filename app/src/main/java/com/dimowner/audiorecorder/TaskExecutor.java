@@ -0,0 +1,344 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder;
+
+import com.dimowner.audiorecorder.data.database.QueryStats;
+import com.dimowner.audiorecorder.metrics.Gauge;
+import com.dimowner.audiorecorder.metrics.Histogram;
+import com.dimowner.audiorecorder.metrics.MetricsRegistry;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import timber.log.Timber;
+
+/**
+ * Pool of worker threads shared by all {@link BackgroundQueue}s. Ready tasks are taken by
+ * priority lane and then in order of posting, so a task of a higher lane never waits behind
+ * tasks of lower lanes. Background tasks may take all workers but two, which are left for
+ * interactive and recording tasks, so a long copy or decode doesn't delay loading of the screen.
+ * Queue wait and run time of tasks are counted by task name.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class TaskExecutor {
+
+	/** Tasks the user waits for: loading of screens, reading records. */
+	public static final int PRIORITY_INTERACTIVE = 0;
+	/** Tasks of recording, which must not be delayed by long background work. */
+	public static final int PRIORITY_RECORDING = 1;
+	/** Long tasks: import, copy, decode, reconciliation. */
+	public static final int PRIORITY_BACKGROUND = 2;
+
+	private static final int MIN_POOL_SIZE = 3;
+	private static final int MAX_POOL_SIZE = 8;
+	/** Workers kept free from background tasks for interactive and recording lanes. */
+	private static final int RESERVED_WORKERS_COUNT = 2;
+	private static volatile TaskExecutor defaultExecutor;
+
+	/**
+	 * @return Executor shared by the app, sized by count of device processors.
+	 */
+	public static TaskExecutor getDefault() {
+		if (defaultExecutor == null) {
+			synchronized (TaskExecutor.class) {
+				if (defaultExecutor == null) {
+					int processors = Runtime.getRuntime().availableProcessors();
+					defaultExecutor = new TaskExecutor(Math.max(MIN_POOL_SIZE, Math.min(MAX_POOL_SIZE, processors)));
+				}
+			}
+		}
+		return defaultExecutor;
+	}
+
+	private static final ThreadLocal<TaskHandle> currentTask = new ThreadLocal<>();
+
+	/**
+	 * @return True when the task running on the current thread was cancelled, long tasks check
+	 * it to stop early.
+	 */
+	public static boolean isCurrentTaskCancelled() {
+		TaskHandle task = currentTask.get();
+		return task != null && task.isCancelled();
+	}
+
+	private final Object lock = new Object();
+	private final PriorityQueue<TaskHandle> ready = new PriorityQueue<>(16, (t1, t2) -> {
+		if (t1.priority != t2.priority) {
+			return Integer.compare(t1.priority, t2.priority);
+		}
+		return Long.compare(t1.sequence, t2.sequence);
+	});
+	private final Thread[] workers;
+	private final int maxBackgroundCount;
+	private final ScheduledExecutorService timer;
+	private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+	private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+	private final Gauge readyCount;
+	private int runningBackgroundCount = 0;
+	private long sequence = 0;
+	private boolean isReleased = false;
+
+	public TaskExecutor(int poolSize) {
+		maxBackgroundCount = Math.max(1, poolSize - RESERVED_WORKERS_COUNT);
+		readyCount = metrics.gauge("tasks.ready");
+		final AtomicInteger counter = new AtomicInteger();
+		workers = new Thread[poolSize];
+		for (int i = 0; i < poolSize; i++) {
+			workers[i] = new Thread(this::work, "Tasks-" + counter.incrementAndGet());
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+		timer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "TasksTimer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Run task which is not ordered with other tasks.
+	 * @param name Name of the task in statistics.
+	 * @param priority One of PRIORITY constants.
+	 */
+	public TaskHandle execute(String name, int priority, Runnable runnable) {
+		TaskHandle handle = new TaskHandle(getStats(name), priority, runnable, null, 0, null);
+		enqueue(handle);
+		return handle;
+	}
+
+	/**
+	 * @return Statistics of all task names, sorted by name.
+	 */
+	public List<Stats> getStats() {
+		List<Stats> list = new ArrayList<>(stats.values());
+		Collections.sort(list, (o1, o2) -> o1.name.compareTo(o2.name));
+		return list;
+	}
+
+	public void dump(PrintWriter writer) {
+		writer.println("Tasks (" + workers.length + " workers, " + maxBackgroundCount + " for background):");
+		for (Stats s : getStats()) {
+			writer.println("  " + s);
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Stop workers, tasks which are not started are dropped.
+	 */
+	public void release() {
+		synchronized (lock) {
+			isReleased = true;
+			ready.clear();
+			lock.notifyAll();
+		}
+		timer.shutdownNow();
+	}
+
+	Stats getStats(String name) {
+		Stats s = stats.get(name);
+		if (s == null) {
+			Stats created = new Stats(name, metrics);
+			s = stats.putIfAbsent(name, created);
+			if (s == null) {
+				s = created;
+			}
+		}
+		return s;
+	}
+
+	void enqueue(TaskHandle handle) {
+		synchronized (lock) {
+			if (isReleased) {
+				return;
+			}
+			handle.sequence = sequence++;
+			ready.add(handle);
+			readyCount.set(ready.size());
+			lock.notify();
+		}
+	}
+
+	void schedule(TaskHandle handle, long delayMillis, Runnable whenDue) {
+		try {
+			handle.setTimerFuture(timer.schedule(whenDue, delayMillis, TimeUnit.MILLISECONDS));
+		} catch (Exception e) {
+			//Executor is released.
+			Timber.e(e);
+		}
+	}
+
+	private void work() {
+		while (true) {
+			TaskHandle task;
+			synchronized (lock) {
+				while ((task = pollReady()) == null) {
+					if (isReleased) {
+						return;
+					}
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+			try {
+				runTask(task);
+			} finally {
+				if (task.priority == PRIORITY_BACKGROUND) {
+					synchronized (lock) {
+						runningBackgroundCount--;
+						lock.notifyAll();
+					}
+				}
+				task.onFinished();
+			}
+		}
+	}
+
+	private TaskHandle pollReady() {
+		TaskHandle head = ready.peek();
+		if (head == null) {
+			return null;
+		}
+		//Lanes are ordered, so only background tasks are left behind the head.
+		if (head.priority == PRIORITY_BACKGROUND) {
+			if (runningBackgroundCount >= maxBackgroundCount) {
+				return null;
+			}
+			runningBackgroundCount++;
+		}
+		TaskHandle task = ready.poll();
+		readyCount.set(ready.size());
+		return task;
+	}
+
+	private void runTask(TaskHandle task) {
+		if (!task.start()) {
+			return;
+		}
+		Thread thread = Thread.currentThread();
+		thread.setPriority(task.priority == PRIORITY_BACKGROUND ? Thread.MIN_PRIORITY : Thread.NORM_PRIORITY);
+		QueryStats queryStats = QueryStats.getInstance();
+		long waitNanos = task.getQueueWaitNanos();
+		queryStats.setQueueWait(waitNanos);
+		currentTask.set(task);
+		try {
+			task.runnable.run();
+		} catch (Exception e) {
+			Timber.e(e, "Task %s failed", task.stats.name);
+		} finally {
+			currentTask.set(null);
+			queryStats.clearQueueWait();
+			thread.setPriority(Thread.NORM_PRIORITY);
+			task.finish();
+		}
+	}
+
+	/**
+	 * Queue wait and run time of tasks of one name, kept by histograms of {@link MetricsRegistry}
+	 * named "tasks." + name + ".wait_us" and ".run_us". Times are not recorded while the registry
+	 * is disabled, counts of cancelled, superseded and joined tasks always are.
+	 */
+	public static class Stats {
+		public final String name;
+		private final Histogram waitTime;
+		private final Histogram runTime;
+		private long cancelledCount = 0;
+		private long supersededCount = 0;
+		private long joinedCount = 0;
+
+		Stats(String name, MetricsRegistry metrics) {
+			this.name = name;
+			waitTime = metrics.histogram("tasks." + name + ".wait_us");
+			runTime = metrics.histogram("tasks." + name + ".run_us");
+		}
+
+		void add(long waitNanos, long runNanos) {
+			waitTime.record(waitNanos / 1000);
+			runTime.record(runNanos / 1000);
+		}
+
+		synchronized void addCancelled() {
+			cancelledCount++;
+		}
+
+		synchronized void addSuperseded() {
+			supersededCount++;
+		}
+
+		synchronized void addJoined() {
+			joinedCount++;
+		}
+
+		public long getCount() {
+			return runTime.getCount();
+		}
+
+		public synchronized long getCancelledCount() {
+			return cancelledCount;
+		}
+
+		/**
+		 * @return Count of keyed tasks cancelled by a newer task of the same key.
+		 */
+		public synchronized long getSupersededCount() {
+			return supersededCount;
+		}
+
+		/**
+		 * @return Count of keyed posts which joined a waiting or running task of the same key.
+		 */
+		public synchronized long getJoinedCount() {
+			return joinedCount;
+		}
+
+		public long getAverageWaitMillis() {
+			return waitTime.getMean() / 1000;
+		}
+
+		public long getMaxWaitMillis() {
+			return waitTime.getMax() / 1000;
+		}
+
+		public long getAverageRunMillis() {
+			return runTime.getMean() / 1000;
+		}
+
+		public long getMaxRunMillis() {
+			return runTime.getMax() / 1000;
+		}
+
+		@Override
+		public synchronized String toString() {
+			return String.format(Locale.US, "%s: count=%d cancelled=%d superseded=%d joined=%d wait avg=%dms max=%dms run avg=%dms max=%dms",
+					name, getCount(), cancelledCount, supersededCount, joinedCount, getAverageWaitMillis(), getMaxWaitMillis(),
+					getAverageRunMillis(), getMaxRunMillis());
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Task posted into {@link TaskExecutor}. Cancelled task which is not started yet is never run.
+ * Running task is not interrupted, it may check {@link TaskExecutor#isCurrentTaskCancelled()}.
+ * Queue wait is counted from the time the task became due, after its delay.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class TaskHandle {
+
+	final int priority;
+	final Runnable runnable;
+	/** Key of coalesced task or null. */
+	final String key;
+	final TaskExecutor.Stats stats;
+	/** Order of posting into executor, guarded by executor lock. */
+	long sequence;
+
+	private final BackgroundQueue queue;
+	private final long dueNanos;
+	private ScheduledFuture<?> timerFuture;
+	private boolean isCancelled = false;
+	private long startNanos = -1;
+	private long endNanos = -1;
+
+	TaskHandle(TaskExecutor.Stats stats, int priority, Runnable runnable, String key, long delayMillis, BackgroundQueue queue) {
+		this.stats = stats;
+		this.priority = priority;
+		this.runnable = runnable;
+		this.key = key;
+		this.queue = queue;
+		this.dueNanos = System.nanoTime() + Math.max(0, delayMillis) * 1_000_000;
+	}
+
+	/**
+	 * Cancel the task.
+	 * @return True if the task will not be run, false if it is already started or finished.
+	 */
+	public boolean cancel() {
+		ScheduledFuture<?> future;
+		synchronized (this) {
+			if (isCancelled) {
+				return startNanos < 0;
+			}
+			isCancelled = true;
+			if (startNanos >= 0) {
+				return false;
+			}
+			future = timerFuture;
+		}
+		stats.addCancelled();
+		if (future != null) {
+			future.cancel(false);
+		}
+		if (queue != null) {
+			queue.onCancelled(this);
+		}
+		return true;
+	}
+
+	public synchronized boolean isCancelled() {
+		return isCancelled;
+	}
+
+	/**
+	 * @return True if the task is started and not finished.
+	 */
+	public synchronized boolean isRunning() {
+		return startNanos >= 0 && endNanos < 0;
+	}
+
+	public synchronized boolean isDone() {
+		return endNanos >= 0 || (isCancelled && startNanos < 0);
+	}
+
+	/**
+	 * @return Time the task waited for a worker or -1 if it is not started.
+	 */
+	public synchronized long getQueueWaitMillis() {
+		return startNanos >= 0 ? getQueueWaitNanos() / 1_000_000 : -1;
+	}
+
+	/**
+	 * @return Run time of the task or -1 if it is not finished.
+	 */
+	public synchronized long getRunMillis() {
+		return endNanos >= 0 ? (endNanos - startNanos) / 1_000_000 : -1;
+	}
+
+	synchronized void setTimerFuture(ScheduledFuture<?> future) {
+		timerFuture = future;
+	}
+
+	synchronized long getQueueWaitNanos() {
+		return Math.max(0, startNanos - dueNanos);
+	}
+
+	/**
+	 * @return False if the task is cancelled and must not run.
+	 */
+	synchronized boolean start() {
+		if (isCancelled) {
+			return false;
+		}
+		startNanos = System.nanoTime();
+		return true;
+	}
+
+	void finish() {
+		long waitNanos;
+		long runNanos;
+		synchronized (this) {
+			endNanos = System.nanoTime();
+			waitNanos = getQueueWaitNanos();
+			runNanos = endNanos - startNanos;
+		}
+		stats.add(waitNanos, runNanos);
+	}
+
+	/**
+	 * Called by worker after the task is run or skipped.
+	 */
+	void onFinished() {
+		if (queue != null) {
+			queue.onFinished(this);
+		}
+	}
+}
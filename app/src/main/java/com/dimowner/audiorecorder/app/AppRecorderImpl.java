@@ -22,6 +22,7 @@ import com.dimowner.audiorecorder.BackgroundQueue;
 import com.dimowner.audiorecorder.IntArrayList;
 import com.dimowner.audiorecorder.app.info.RecordInfo;
 import com.dimowner.audiorecorder.audio.AudioDecoder;
+import com.dimowner.audiorecorder.audio.RecordingWaveform;
 import com.dimowner.audiorecorder.audio.recorder.RecorderContract;
 import com.dimowner.audiorecorder.data.RecordDataSource;
 import com.dimowner.audiorecorder.data.database.LocalRepository;
@@ -173,41 +174,9 @@ public class AppRecorderImpl implements AppRecorder {
 	}
 
 	private int[] convertRecordingData(IntArrayList list, int durationSec) {
-		if (durationSec > AppConstants.LONG_RECORD_THRESHOLD_SECONDS) {
-			int sampleCount = ARApplication.getLongWaveformSampleCount();
-			int[] waveForm = new int[sampleCount];
-			if (list.size() < sampleCount*2) {
-				float scale = (float) list.size() / (float) sampleCount;
-				for (int i = 0; i < sampleCount; i++) {
-					waveForm[i] = convertAmp(list.get((int) Math.floor(i*scale)));
-				}
-			} else {
-				float scale = (float) list.size() / (float) sampleCount;
-				for (int i = 0; i < sampleCount; i++) {
-					int val = 0;
-					int step = (int) Math.ceil(scale);
-					for (int j = 0; j < step; j++) {
-						val += list.get((int)(i * scale + j));
-					}
-					val = (int) ((float) val / scale);
-					waveForm[i] = convertAmp(val);
-				}
-			}
-			return waveForm;
-		} else {
-			int[] waveForm = new int[list.size()];
-			for (int i = 0; i < list.size(); i++) {
-				waveForm[i] = convertAmp(list.get(i));
-			}
-			return waveForm;
-		}
-	}
-
-	/**
-	 * Convert dB amp value to view amp.
-	 */
-	private int convertAmp(double amp) {
-		return (int)(255*(amp/32767f));
+		int sampleCount = durationSec > AppConstants.LONG_RECORD_THRESHOLD_SECONDS
+				? ARApplication.getLongWaveformSampleCount() : 0;
+		return RecordingWaveform.convert(list, sampleCount);
 	}
 
 	@Override
@@ -45,7 +45,7 @@ import com.dimowner.audiorecorder.ColorMap
 import com.dimowner.audiorecorder.R
 import com.dimowner.audiorecorder.app.main.MainActivity
 import com.dimowner.audiorecorder.audio.AudioDecodingListener
-import com.dimowner.audiorecorder.audio.AudioWaveformVisualization
+import com.dimowner.audiorecorder.audio.DecodeScheduler
 import com.dimowner.audiorecorder.data.database.LocalRepository
 import com.dimowner.audiorecorder.data.database.Record
 import com.dimowner.audiorecorder.util.isUsingNightModeResources
@@ -64,12 +64,15 @@ class DecodeService : Service() {
 		const val ACTION_STOP_DECODING_SERVICE = "ACTION_STOP_DECODING_SERVICE"
 		const val ACTION_CANCEL_DECODE = "ACTION_CANCEL_DECODE"
 		const val EXTRAS_KEY_DECODE_INFO = "key_decode_info"
+		const val EXTRAS_KEY_DECODE_PRIORITY = "key_decode_priority"
 		private const val NOTIF_ID = 104
 
-		fun startNotification(context: Context, recId: Int) {
+		@JvmOverloads
+		fun startNotification(context: Context, recId: Int, priority: Int = DecodeScheduler.PRIORITY_ACTIVE) {
 			val intent = Intent(context, DecodeService::class.java)
 			intent.action = ACTION_START_DECODING_SERVICE
 			intent.putExtra(EXTRAS_KEY_DECODE_INFO, recId)
+			intent.putExtra(EXTRAS_KEY_DECODE_PRIORITY, priority)
 			context.startService(intent)
 		}
 	}
@@ -84,9 +87,14 @@ class DecodeService : Service() {
 	lateinit var processingTasks: BackgroundQueue
 	lateinit var recordingsTasks: BackgroundQueue
 	lateinit var localRepository: LocalRepository
-	lateinit var waveformVisualization: AudioWaveformVisualization
+	lateinit var decodeScheduler: DecodeScheduler
 	lateinit var colorMap: ColorMap
-	private var isCancel = false
+	private var isNotificationStarted = false
+
+	/** Progress in percents of every record decoded by the service, kept until all of them are done. */
+	private val decodeProgress = HashMap<Int, Int>()
+	private val pendingIds = HashSet<Int>()
+	private val priorities = HashMap<Int, Int>()
 
 	override fun onBind(intent: Intent): IBinder? {
 		return binder
@@ -98,7 +106,7 @@ class DecodeService : Service() {
 		processingTasks = ARApplication.injector.provideProcessingTasksQueue()
 		recordingsTasks = ARApplication.injector.provideRecordingTasksQueue()
 		localRepository = ARApplication.injector.provideLocalRepository(applicationContext)
-		waveformVisualization = ARApplication.injector.provideAudioWaveformVisualization()
+		decodeScheduler = ARApplication.injector.provideDecodeScheduler(applicationContext)
 	}
 
 	override fun onStartCommand(intent: Intent?, flags: Int, startId: Int): Int {
@@ -108,13 +116,18 @@ class DecodeService : Service() {
 				when (action) {
 					ACTION_START_DECODING_SERVICE -> if (intent.hasExtra(EXTRAS_KEY_DECODE_INFO)) {
 						val id = intent.getIntExtra(EXTRAS_KEY_DECODE_INFO, -1)
+						val priority = intent.getIntExtra(EXTRAS_KEY_DECODE_PRIORITY, DecodeScheduler.PRIORITY_ACTIVE)
 						if (id >= 0) {
-							startDecode(id)
+							startDecode(id, priority)
 						}
 					}
 					ACTION_STOP_DECODING_SERVICE -> stopService()
 					ACTION_CANCEL_DECODE -> {
-						isCancel = true
+						val ids = synchronized(pendingIds) { ArrayList(pendingIds) }
+						for (id in ids) {
+							decodeScheduler.cancel(id)
+						}
+						Toast.makeText(applicationContext, R.string.processing_canceled, Toast.LENGTH_LONG).show()
 						stopService()
 					}
 				}
@@ -123,16 +136,32 @@ class DecodeService : Service() {
 		return super.onStartCommand(intent, flags, startId)
 	}
 
-	private fun startDecode(id: Int) {
-		isCancel = false
-		startNotification()
+	private fun startDecode(id: Int, priority: Int) {
+		if (!isNotificationStarted) {
+			startNotification()
+			isNotificationStarted = true
+		}
+		synchronized(pendingIds) {
+			if (pendingIds.contains(id)) {
+				//Already queued, only raise its priority if needed.
+				if (priority < (priorities[id] ?: priority)) {
+					priorities[id] = priority
+					decodeScheduler.reprioritize(id, priority)
+				}
+				return
+			}
+			pendingIds.add(id)
+			priorities[id] = priority
+			decodeProgress[id] = 0
+		}
 		processingTasks.postRunnable {
-			var prevTime: Long = 0
 			val rec = localRepository.getRecord(id)
 			if (rec != null && rec.duration / 1000 < DECODE_DURATION) {
-				waveformVisualization.decodeRecordWaveform(rec.path, object : AudioDecodingListener {
+				val jobPriority = synchronized(pendingIds) { priorities[id] ?: priority }
+				decodeScheduler.submit(id, rec.path, jobPriority, object : AudioDecodingListener {
 					override fun isCanceled(): Boolean {
-						return isCancel
+						//Cancellation is handled by the scheduler.
+						return false
 					}
 
 					override fun onStartProcessing(duration: Long, channelsCount: Int, sampleRate: Int) {
@@ -140,17 +169,12 @@ class DecodeService : Service() {
 					}
 
 					override fun onProcessingProgress(percent: Int) {
-						val curTime = System.currentTimeMillis()
-						if (percent == 100 || curTime > prevTime + 200) {
-							updateNotification(percent)
-							prevTime = curTime
-						}
+						updateProgress(id, percent)
 					}
 
 					override fun onProcessingCancel() {
-						Toast.makeText(applicationContext, R.string.processing_canceled, Toast.LENGTH_LONG).show()
 						decodeListener?.onFinishProcessing()
-						stopService()
+						onDecodeFinished(id)
 					}
 
 					override fun onFinishProcessing(data: IntArray, duration: Long) {
@@ -176,22 +200,56 @@ class DecodeService : Service() {
 								localRepository.updateRecord(decodedRecord)
 							}
 							decodeListener?.onFinishProcessing()
-							stopService()
+							onDecodeFinished(id)
 						}
 					}
 
 					override fun onError(exception: Exception) {
 						Timber.e(exception)
 						decodeListener?.onFinishProcessing()
-						stopService()
+						onDecodeFinished(id)
 					}
 				})
 			} else {
-				stopService()
+				onDecodeFinished(id)
 			}
 		}
 	}
 
+	private var prevProgressTime: Long = 0
+
+	/**
+	 * Notification shows overall progress of all records queued since the service started.
+	 */
+	private fun updateProgress(id: Int, percent: Int) {
+		val total: Int
+		synchronized(pendingIds) {
+			decodeProgress[id] = percent
+			total = decodeProgress.values.sum() / decodeProgress.size
+		}
+		val curTime = System.currentTimeMillis()
+		if (total == 100 || curTime > prevProgressTime + 200) {
+			updateNotification(total)
+			prevProgressTime = curTime
+		}
+	}
+
+	private fun onDecodeFinished(id: Int) {
+		val isAllFinished: Boolean
+		synchronized(pendingIds) {
+			pendingIds.remove(id)
+			priorities.remove(id)
+			decodeProgress[id] = 100
+			isAllFinished = pendingIds.isEmpty()
+			if (isAllFinished) {
+				decodeProgress.clear()
+			}
+		}
+		if (isAllFinished) {
+			stopService()
+		}
+	}
+
 	@SuppressLint("WrongConstant")
 	private fun startNotification() {
 		notificationManager = NotificationManagerCompat.from(this)
@@ -290,6 +348,7 @@ class DecodeService : Service() {
 	}
 
 	fun stopService() {
+		isNotificationStarted = false
 		if (Build.VERSION.SDK_INT>Build.VERSION_CODES.S_V2) {
 			stopForeground(STOP_FOREGROUND_REMOVE)
 		}else {
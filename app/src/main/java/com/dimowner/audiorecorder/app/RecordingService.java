@@ -116,6 +116,7 @@ public class RecordingService extends Service {
 	@Override
 	public void onCreate() {
 		super.onCreate();
+		ARApplication.ensureStartup(ARApplication.STARTUP_RECORDING);
 		appRecorder = ARApplication.getInjector().provideAppRecorder(getApplicationContext());
 		audioPlayer = ARApplication.getInjector().provideAudioPlayer();
 		recordingsTasks = ARApplication.getInjector().provideRecordingTasksQueue();
@@ -41,6 +41,7 @@ class TransparentRecordingActivity : Activity() {
 
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
+        ARApplication.ensureStartup(ARApplication.STARTUP_RECORDING)
         prefs = ARApplication.injector.providePrefs(applicationContext)
         fileRepository = ARApplication.injector.provideFileRepository(applicationContext)
 
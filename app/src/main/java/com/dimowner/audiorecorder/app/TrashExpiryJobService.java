@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.app;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+
+import com.dimowner.audiorecorder.ARApplication;
+import com.dimowner.audiorecorder.data.database.RepositoryFuture;
+
+import timber.log.Timber;
+
+/**
+ * Deletes records which are in trash too long. Runs about once a day when the device is idle
+ * and charging, so neither app start nor the user waits for it.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class TrashExpiryJobService extends JobService {
+
+	private static final int JOB_ID = 1001;
+	private static final long PERIOD_MILLS = 24 * 60 * 60 * 1000L;
+
+	private RepositoryFuture<Integer> task;
+
+	/**
+	 * Schedule the job unless it is already scheduled.
+	 */
+	public static void schedule(Context context) {
+		JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+		if (scheduler == null) {
+			return;
+		}
+		for (JobInfo job : scheduler.getAllPendingJobs()) {
+			if (job.getId() == JOB_ID) {
+				return;
+			}
+		}
+		JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, TrashExpiryJobService.class))
+				.setRequiresDeviceIdle(true)
+				.setRequiresCharging(true)
+				.setPeriodic(PERIOD_MILLS)
+				.build();
+		if (scheduler.schedule(job) != JobScheduler.RESULT_SUCCESS) {
+			Timber.e("Failed to schedule trash expiry");
+		}
+	}
+
+	@Override
+	public boolean onStartJob(final JobParameters params) {
+		task = ARApplication.getInjector().provideAsyncLocalRepository(getApplicationContext())
+				.removeOutdatedTrashRecords();
+		task.onResult(count -> jobFinished(params, false), e -> jobFinished(params, true));
+		return true;
+	}
+
+	@Override
+	public boolean onStopJob(JobParameters params) {
+		//Constraints are not met anymore. The call is cancelled if it still waits in the queue
+		//and the job runs again later.
+		if (task != null && !task.isDone()) {
+			task.cancel(false);
+			return true;
+		}
+		return false;
+	}
+}
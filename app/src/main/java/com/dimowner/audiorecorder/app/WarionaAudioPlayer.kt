@@ -10,6 +10,8 @@ import android.content.Context
 import android.media.AudioManager
 import android.media.MediaPlayer
 import android.util.Log
+import com.dimowner.audiorecorder.ARApplication
+import com.dimowner.audiorecorder.metrics.MetricsRegistry
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.SupervisorJob
@@ -61,6 +63,20 @@ object WarionaAudioPlayer {
     private var currentTempFile: File? = null
     private var playbackCallback: WarionaPlaybackCallback? = null
     private var shouldContinueConversation: Boolean = false
+
+    private val metrics = MetricsRegistry.getInstance()
+    /** Time from sending the request until response headers are received. */
+    private val requestTime = metrics.histogram("network.request_ms")
+    private val downloadTime = metrics.histogram("network.download_ms")
+    private val bytesSent = metrics.counter("network.bytes_sent")
+    private val bytesReceived = metrics.counter("network.bytes_received")
+    private val networkErrors = metrics.counter("network.errors")
+    private val httpErrors = metrics.counter("network.http_errors")
+    private val prepareTime = metrics.histogram("playback.prepare_ms")
+    /** Time from sending recorded audio until the reply starts playing. */
+    private val replyLatency = metrics.histogram("playback.reply_latency_ms")
+    @Volatile
+    private var replyStart = 0L
     
     /**
      * Set callback for playback completion events.
@@ -96,9 +112,14 @@ object WarionaAudioPlayer {
                 .build()
             
             // Execute request
+            val start = requestTime.start()
+            replyStart = start
             val response = httpClient.newCall(request).execute()
+            requestTime.recordMillisSince(start)
+            bytesSent.add(audioFile.length())
             
             if (!response.isSuccessful) {
+                httpErrors.inc()
                 val errorBody = response.body?.string() ?: ""
                 Log.e(TAG, "Request failed with status ${response.code}: $errorBody")
                 return@withContext
@@ -119,6 +140,11 @@ object WarionaAudioPlayer {
             if (!responseText.isNullOrEmpty()) {
                 Log.d(TAG, "X-Response-Text: $responseText")
             }
+            if (!transcription.isNullOrEmpty() || !responseText.isNullOrEmpty()) {
+                // Keep texts with the record, so the record can be found by what was said
+                ARApplication.injector.provideLocalRepository(context)
+                    .saveTranscript(audioFile.absolutePath, transcription, responseText)
+            }
             if (shouldContinueConversation) {
                 Log.d(TAG, "X-Continue-Conversation: true - Conversation will continue after playback")
             } else {
@@ -135,6 +161,7 @@ object WarionaAudioPlayer {
             saveAndPlayAudio(context, responseBody)
             
         } catch (e: IOException) {
+            networkErrors.inc()
             Log.e(TAG, "Network error sending audio", e)
         } catch (e: Exception) {
             Log.e(TAG, "Unexpected error", e)
@@ -155,6 +182,7 @@ object WarionaAudioPlayer {
             Log.d(TAG, "Saving audio response to: ${tempFile.absolutePath}")
             
             // Write audio data to file - ensure complete write
+            val downloadStart = downloadTime.start()
             responseBody.byteStream().use { input ->
                 tempFile.outputStream().use { output ->
                     input.copyTo(output)
@@ -175,6 +203,8 @@ object WarionaAudioPlayer {
                 throw IOException("File was not written correctly")
             }
             
+            downloadTime.recordMillisSince(downloadStart)
+            bytesReceived.add(tempFile.length())
             Log.d(TAG, "Audio saved successfully: ${tempFile.length()} bytes")
             
             // Play audio on main thread only after file is fully written
@@ -252,11 +282,14 @@ object WarionaAudioPlayer {
                 }
                 
                 // Prepare asynchronously - playback starts only after preparation is complete
+                val prepareStart = prepareTime.start()
                 prepareAsync()
                 setOnPreparedListener { mp ->
                     Log.d(TAG, "MediaPlayer prepared, starting playback")
+                    prepareTime.recordMillisSince(prepareStart)
                     try {
                         mp.start()
+                        replyLatency.recordMillisSince(replyStart)
                     } catch (e: IllegalStateException) {
                         Log.e(TAG, "Error starting MediaPlayer", e)
                         cleanup()
@@ -40,6 +40,7 @@ import android.widget.Toast;
 import com.dimowner.audiorecorder.ARApplication;
 import com.dimowner.audiorecorder.R;
 import com.dimowner.audiorecorder.app.DecodeService;
+import com.dimowner.audiorecorder.audio.DecodeScheduler;
 import com.dimowner.audiorecorder.app.DownloadService;
 import com.dimowner.audiorecorder.app.info.ActivityInformation;
 import com.dimowner.audiorecorder.app.info.RecordInfo;
@@ -209,7 +210,7 @@ public class FileBrowserActivity extends Activity implements FileBrowserContract
 
 	@Override
 	public void decodeRecord(int id) {
-		DecodeService.Companion.startNotification(getApplicationContext(), id);
+		DecodeService.Companion.startNotification(getApplicationContext(), id, DecodeScheduler.PRIORITY_BACKFILL);
 	}
 
 	@Override
@@ -12,6 +12,8 @@ import android.media.MediaPlayer;
 import android.os.Handler;
 import android.os.Looper;
 
+import com.dimowner.audiorecorder.ARApplication;
+
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.MediaType;
@@ -179,6 +181,12 @@ public class GtdAssistantService {
 						String transcription = response.header(HEADER_TRANSCRIPTION, "");
 						String responseText = response.header(HEADER_RESPONSE_TEXT, "");
 						
+						// Keep texts with the record, so the record can be found by what was said
+						if (!transcription.isEmpty() || !responseText.isEmpty()) {
+							ARApplication.getInjector().provideLocalRepository(context)
+									.saveTranscript(audioFile.getAbsolutePath(), transcription, responseText);
+						}
+						
 						// Notify text response
 						if (listener != null) {
 							mainHandler.post(() -> {
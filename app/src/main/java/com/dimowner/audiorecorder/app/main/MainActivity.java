@@ -57,6 +57,7 @@ import com.dimowner.audiorecorder.app.records.RecordsActivity;
 import com.dimowner.audiorecorder.app.settings.SettingsActivity;
 import com.dimowner.audiorecorder.app.welcome.WelcomeActivity;
 import com.dimowner.audiorecorder.app.widget.RecordingWaveformView;
+import com.dimowner.audiorecorder.app.widget.SpectrogramView;
 import com.dimowner.audiorecorder.app.widget.WaveformViewNew;
 import com.dimowner.audiorecorder.audio.AudioDecoder;
 import com.dimowner.audiorecorder.data.FileRepository;
@@ -72,6 +73,7 @@ import java.io.File;
 import java.util.List;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import timber.log.Timber;
 
 public class MainActivity extends Activity implements MainContract.View, View.OnClickListener {
@@ -93,6 +95,7 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 
 	private WaveformViewNew waveformView;
 	private RecordingWaveformView recordingWaveformView;
+	private SpectrogramView spectrogramView;
 	private TextView txtProgress;
 	private TextView txtDuration;
 	private TextView txtZeroTime;
@@ -129,10 +132,8 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 
 				@Override
 				public void onFinishProcessing() {
-					runOnUiThread(() -> {
-						hideRecordProcessing();
-						presenter.loadActiveRecord();
-					});
+					//Decoded waveform is shown by presenter when the record is updated.
+					runOnUiThread(MainActivity.this::hideRecordProcessing);
 				}
 			});
 		}
@@ -156,6 +157,7 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 
 	@Override
 	protected void onCreate(Bundle savedInstanceState) {
+		ARApplication.ensureStartup(ARApplication.STARTUP_LIBRARY);
 		colorMap = ARApplication.getInjector().provideColorMap(getApplicationContext());
 		setTheme(colorMap.getAppThemeResource());
 		super.onCreate(savedInstanceState);
@@ -163,6 +165,7 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 
 		waveformView = findViewById(R.id.record);
 		recordingWaveformView = findViewById(R.id.recording_view);
+		spectrogramView = findViewById(R.id.spectrogram);
 		txtProgress = findViewById(R.id.txt_progress);
 		txtDuration = findViewById(R.id.txt_duration);
 		txtZeroTime = findViewById(R.id.txt_zero_time);
@@ -220,6 +223,8 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 		});
 
 		presenter = ARApplication.getInjector().provideMainPresenter(getApplicationContext());
+		spectrogramView.setSpectrogramEngine(ARApplication.getInjector().provideSpectrogramEngine(getApplicationContext()));
+		waveformView.setOnViewportChangeListener(spectrogramView::setViewport);
 		fileRepository = ARApplication.getInjector().provideFileRepository(getApplicationContext());
 
 		waveformView.setOnSeekListener(new WaveformViewNew.OnSeekListener() {
@@ -242,6 +247,7 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 			}
 			@Override
 			public void onSeeking(int px, long mills) {
+				presenter.scrubPlayback(mills);
 				int length = waveformView.getWaveformLength();
 				if (length > 0) {
 					playProgress.setProgress(1000 * (int) AndroidUtils.pxToDp(px) / length);
@@ -298,6 +304,7 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 	protected void onDestroy() {
 		super.onDestroy();
 		colorMap.removeOnThemeColorChangeListener(onThemeColorChangeListener);
+		spectrogramView.setRecord(null, 0);
 	}
 
 	@Override
@@ -413,6 +420,7 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 		txtDuration.setText(R.string.zero_time);
 		waveformView.setVisibility(View.GONE);
 		recordingWaveformView.setVisibility(View.VISIBLE);
+		spectrogramView.setVisibility(View.GONE);
 		ivPlaceholder.setVisibility(View.GONE);
 	}
 
@@ -437,6 +445,7 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 		waveformView.setVisibility(View.VISIBLE);
 		recordingWaveformView.setVisibility(View.GONE);
 		recordingWaveformView.reset();
+		spectrogramView.setVisibility(spectrogramView.hasRecord() ? View.VISIBLE : View.GONE);
 		txtProgress.setText(TimeUtils.formatTimeIntervalHourMinSec2(0));
 	}
 
@@ -584,6 +593,12 @@ public class MainActivity extends Activity implements MainContract.View, View.On
 		waveformView.setWaveform(waveForm, duration/1000, playbackMills);
 	}
 
+	@Override
+	public void showSpectrogram(@Nullable String path, long durationMills) {
+		spectrogramView.setRecord(path, durationMills);
+		spectrogramView.setVisibility(path != null && recordingWaveformView.getVisibility() != View.VISIBLE ? View.VISIBLE : View.GONE);
+	}
+
 	@Override
 	public void waveFormToStart() {
 		waveformView.seekPx(0);
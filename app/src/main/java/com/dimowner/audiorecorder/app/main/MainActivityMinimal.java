@@ -71,6 +71,7 @@ public class MainActivityMinimal extends Activity implements MainContract.View {
 
 	@Override
 	protected void onCreate(Bundle savedInstanceState) {
+		ARApplication.ensureStartup(ARApplication.STARTUP_LIBRARY);
 		colorMap = ARApplication.getInjector().provideColorMap(getApplicationContext());
 		// Use white theme for minimalist design
 		setTheme(R.style.AppTheme);
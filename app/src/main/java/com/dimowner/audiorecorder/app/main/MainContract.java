@@ -27,6 +27,8 @@ import com.dimowner.audiorecorder.data.database.Record;
 import java.io.File;
 import java.util.List;
 
+import androidx.annotation.Nullable;
+
 public interface MainContract {
 
 	interface View extends Contract.View {
@@ -61,6 +63,7 @@ public interface MainContract {
 
 		void showWaveForm(int[] waveForm, long duration, long playbackMills);
 		void waveFormToStart();
+		void showSpectrogram(@Nullable String path, long durationMills);
 		void showDuration(String duration);
 		void showRecordingProgress(String progress);
 		void showName(String name);
@@ -100,6 +103,7 @@ public interface MainContract {
 		void startPlayback();
 		void onPlaybackClick(Context context, boolean isStorageAvailable);
 		void seekPlayback(long mills);
+		void scrubPlayback(long mills);
 		void stopPlayback();
 
 		void renameRecord(long id, String name, String extension);
@@ -28,18 +28,24 @@ import com.dimowner.audiorecorder.AppConstants;
 import com.dimowner.audiorecorder.BackgroundQueue;
 import com.dimowner.audiorecorder.Mapper;
 import com.dimowner.audiorecorder.R;
+import com.dimowner.audiorecorder.TaskExecutor;
 import com.dimowner.audiorecorder.app.AppRecorder;
 import com.dimowner.audiorecorder.app.AppRecorderCallback;
 import com.dimowner.audiorecorder.app.info.RecordInfo;
 import com.dimowner.audiorecorder.app.settings.SettingsMapper;
 import com.dimowner.audiorecorder.audio.AudioDecoder;
+import com.dimowner.audiorecorder.audio.SeekIndex;
 import com.dimowner.audiorecorder.audio.player.PlayerContractNew;
 import com.dimowner.audiorecorder.audio.recorder.RecorderContract;
 import com.dimowner.audiorecorder.data.RecordDataSource;
 import com.dimowner.audiorecorder.data.FileRepository;
 import com.dimowner.audiorecorder.data.Prefs;
 import com.dimowner.audiorecorder.data.database.LocalRepository;
+import com.dimowner.audiorecorder.data.database.OnRecordsChangedListener;
 import com.dimowner.audiorecorder.data.database.Record;
+import com.dimowner.audiorecorder.data.database.RecordChange;
+import com.dimowner.audiorecorder.data.database.SeekIndexDataSource;
+import com.dimowner.audiorecorder.data.database.StatisticsDataSource;
 import com.dimowner.audiorecorder.exception.AppException;
 import com.dimowner.audiorecorder.exception.CantCreateFileException;
 import com.dimowner.audiorecorder.exception.ErrorParser;
@@ -50,6 +56,7 @@ import com.dimowner.audiorecorder.util.TimeUtils;
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -58,17 +65,27 @@ import timber.log.Timber;
 
 public class MainPresenter implements MainContract.UserActionsListener {
 
+	/** Key of tasks which load the active record, a newer load supersedes an older one. */
+	private static final String KEY_LOAD_ACTIVE_RECORD = "loadActiveRecord";
+	/** Key of tasks which check that the active record needs decoding. */
+	private static final String KEY_DECODE_RECORD = "decodeRecord";
+	/** Prefix of keys of seek index builds, repeated playback of a record joins one build. */
+	private static final String KEY_BUILD_SEEK_INDEX = "seekIndex:";
+
 	private MainContract.View view;
 	private final AppRecorder appRecorder;
 	private final PlayerContractNew.Player audioPlayer;
 	private PlayerContractNew.PlayerCallback playerCallback;
 	private AppRecorderCallback appRecorderCallback;
+	private final OnRecordsChangedListener onRecordsChangedListener = this::onRecordsChanged;
 	private final BackgroundQueue loadingTasks;
 	private final BackgroundQueue recordingsTasks;
 	private final BackgroundQueue importTasks;
 	private final BackgroundQueue processingTasks;
 	private final FileRepository fileRepository;
 	private final LocalRepository localRepository;
+	private final SeekIndexDataSource seekIndexDataSource;
+	private final StatisticsDataSource statisticsDataSource;
 	private final Prefs prefs;
 	private final SettingsMapper settingsMapper;
 	private long songDuration = 0;
@@ -88,7 +105,9 @@ public class MainPresenter implements MainContract.UserActionsListener {
 						 final BackgroundQueue processingTasks,
 						 final BackgroundQueue importTasks,
 						 SettingsMapper settingsMapper,
-						 RecordDataSource recordDataSource
+						 RecordDataSource recordDataSource,
+						 SeekIndexDataSource seekIndexDataSource,
+						 StatisticsDataSource statisticsDataSource
 						 ) {
 		this.prefs = prefs;
 		this.fileRepository = fileRepository;
@@ -101,6 +120,8 @@ public class MainPresenter implements MainContract.UserActionsListener {
 		this.appRecorder = appRecorder;
 		this.settingsMapper = settingsMapper;
 		this.recordDataSource = recordDataSource;
+		this.seekIndexDataSource = seekIndexDataSource;
+		this.statisticsDataSource = statisticsDataSource;
 	}
 
 	@Override
@@ -115,6 +136,9 @@ public class MainPresenter implements MainContract.UserActionsListener {
 		if (!prefs.isMigratedDb3()) {
 			migrateDb3();
 		}
+		if (System.currentTimeMillis() - prefs.getLastStatisticsRepair() > AppConstants.STATISTICS_REPAIR_INTERVAL_MILLS) {
+			repairStatistics();
+		}
 		if (!prefs.hasAskToRenameAfterStopRecordingSetting()) {
 			prefs.setAskToRenameAfterStopRecording(true);
 		}
@@ -163,6 +187,7 @@ public class MainPresenter implements MainContract.UserActionsListener {
 					songDuration = rec.getDuration();
 					if (view != null) {
 						view.showWaveForm(rec.getAmps(), songDuration, 0);
+						view.showSpectrogram(rec.getPath(), songDuration / 1000);
 						view.showName(rec.getName());
 						view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(songDuration / 1000));
 						view.showOptionsMenu();
@@ -293,6 +318,7 @@ public class MainPresenter implements MainContract.UserActionsListener {
 		);
 
 		this.localRepository.setOnRecordsLostListener(list -> view.showRecordsLostMessage(list));
+		this.localRepository.addOnRecordsChangedListener(onRecordsChangedListener);
 	}
 
 	@Override
@@ -301,10 +327,42 @@ public class MainPresenter implements MainContract.UserActionsListener {
 			audioPlayer.removePlayerCallback(playerCallback);
 			appRecorder.removeRecordingCallback(appRecorderCallback);
 			this.localRepository.setOnRecordsLostListener(null);
+			this.localRepository.removeOnRecordsChangedListener(onRecordsChangedListener);
 			this.view = null;
 		}
 	}
 
+	/**
+	 * Show changed columns of the active record, for example the name after rename
+	 * or the waveform after decoding.
+	 */
+	private void onRecordsChanged(List<RecordChange> changes) {
+		final int activeId = (int) prefs.getActiveRecord();
+		for (int i = 0; i < changes.size(); i++) {
+			final RecordChange change = changes.get(i);
+			final Record rec = change.getRecord();
+			if (change.getId() == activeId && change.getType() == RecordChange.TYPE_UPDATED && !appRecorder.isRecording()) {
+				AndroidUtils.runOnUIThread(() -> {
+					if (view != null) {
+						if (change.isChanged(RecordChange.CHANGED_NAME)) {
+							view.showName(rec.getName());
+						}
+						if (change.isChanged(RecordChange.CHANGED_INFO)) {
+							songDuration = rec.getDuration();
+							view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(songDuration / 1000));
+							updateInformation(rec.getFormat(), rec.getSampleRate(), rec.getSize());
+						}
+						if (change.isChanged(RecordChange.CHANGED_WAVEFORM)) {
+							songDuration = rec.getDuration();
+							long playProgressMills = audioPlayer.isPaused() ? audioPlayer.getPauseTime() : 0;
+							view.showWaveForm(rec.getAmps(), songDuration, playProgressMills);
+						}
+					}
+				});
+			}
+		}
+	}
+
 	@Override
 	public void clear() {
 		if (view != null) {
@@ -386,11 +444,32 @@ public class MainPresenter implements MainContract.UserActionsListener {
 					AndroidUtils.runOnUIThread(() -> {
 						audioPlayer.play(record.getPath());
 					});
+					loadSeekIndex(record);
 				}
 			});
 		}
 	}
 
+	/**
+	 * Player seeks in default mode until the index is loaded. Missing index is built on
+	 * processing queue, it reads the whole file of MP3 and AMR records.
+	 */
+	private void loadSeekIndex(Record record) {
+		loadingTasks.postRunnable(() -> {
+			SeekIndex index = seekIndexDataSource.getSeekIndex(record.getId(), record.getPath());
+			if (index != null) {
+				AndroidUtils.runOnUIThread(() -> audioPlayer.setSeekIndex(record.getPath(), index));
+			} else {
+				processingTasks.postOnce(KEY_BUILD_SEEK_INDEX + record.getId(), () -> {
+					SeekIndex built = seekIndexDataSource.buildSeekIndex(record.getId(), record.getPath());
+					if (built != null) {
+						AndroidUtils.runOnUIThread(() -> audioPlayer.setSeekIndex(record.getPath(), built));
+					}
+				});
+			}
+		});
+	}
+
 	@Override
 	public void onPlaybackClick(Context context, boolean isStorageAvailable) {
 		loadingTasks.postRunnable(() -> {
@@ -420,6 +499,14 @@ public class MainPresenter implements MainContract.UserActionsListener {
 //				AndroidUtils.convertPxToMills(px, AndroidUtils.dpToPx(dpPerSecond)));
 	}
 
+	@Override
+	public void scrubPlayback(long mills) {
+		//Progress listener is disabled while user drags the waveform or the seek bar.
+		if (!listenPlaybackProgress) {
+			audioPlayer.scrub(mills);
+		}
+	}
+
 	@Override
 	public void stopPlayback() {
 		audioPlayer.stop();
@@ -470,15 +557,8 @@ public class MainPresenter implements MainContract.UserActionsListener {
 								record.isBookmarked(),
 								record.isWaveformProcessed(),
 								record.getAmps());
-						if (localRepository.updateRecord(recordUpdated)) {
-							recordDataSource.clearActiveRecord();
-							AndroidUtils.runOnUIThread(() -> {
-								if (view != null) {
-									view.hideProgress();
-									view.showName(name);
-								}
-							});
-						} else {
+						//New name is shown by records change listener.
+						if (!localRepository.updateRecord(recordUpdated)) {
 							AndroidUtils.runOnUIThread(() -> {
 								if (view != null) {
 									view.showError(R.string.error_failed_to_rename);
@@ -520,7 +600,7 @@ public class MainPresenter implements MainContract.UserActionsListener {
 
 	@Override
 	public void decodeRecord(long id) {
-		loadingTasks.postRunnable(() -> {
+		loadingTasks.postOnce(KEY_DECODE_RECORD, () -> {
 			final Record rec = localRepository.getRecord((int) prefs.getActiveRecord());
 			if (view != null && rec != null && rec.getDuration()/1000 < AppConstants.DECODE_DURATION && !rec.isWaveformProcessed()) {
 				view.decodeRecord(rec.getId());
@@ -534,8 +614,11 @@ public class MainPresenter implements MainContract.UserActionsListener {
 			if (view != null) {
 				view.showProgress();
 			}
-			loadingTasks.postRunnable(() -> {
+			loadingTasks.postLatest(KEY_LOAD_ACTIVE_RECORD, () -> {
 				final Record rec = recordDataSource.getActiveRecord();
+				if (TaskExecutor.isCurrentTaskCancelled()) {
+					return;
+				}
 				if (rec != null) {
 					songDuration = rec.getDuration();
 					AndroidUtils.runOnUIThread(() -> {
@@ -546,9 +629,11 @@ public class MainPresenter implements MainContract.UserActionsListener {
 									long playProgressMills = audioPlayer.getPauseTime();
 									view.onPlayProgress(playProgressMills, (int) (1000 * playProgressMills / duration));
 									view.showWaveForm(rec.getAmps(), songDuration, playProgressMills);
+									view.showSpectrogram(rec.getPath(), songDuration / 1000);
 								}
 							} else {
 								view.showWaveForm(rec.getAmps(), songDuration, 0);
+								view.showSpectrogram(rec.getPath(), songDuration / 1000);
 							}
 
 							view.showName(rec.getName());
@@ -563,6 +648,7 @@ public class MainPresenter implements MainContract.UserActionsListener {
 						if (view != null) {
 							view.hideProgress();
 							view.showWaveForm(new int[]{}, 0, 0);
+							view.showSpectrogram(null, 0);
 							view.showName("");
 							view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(0));
 							view.hideOptionsMenu();
@@ -722,6 +808,7 @@ public class MainPresenter implements MainContract.UserActionsListener {
 				AndroidUtils.runOnUIThread(() -> {
 					if (view != null) {
 						view.showWaveForm(new int[]{}, 0, 0);
+						view.showSpectrogram(null, 0);
 						view.showName("");
 						view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(0));
 						view.showMessage(R.string.record_moved_into_trash);
@@ -811,6 +898,7 @@ public class MainPresenter implements MainContract.UserActionsListener {
 								if (view != null) {
 									audioPlayer.stop();
 									view.showWaveForm(rec.getAmps(), songDuration, 0);
+									view.showSpectrogram(rec.getPath(), songDuration / 1000);
 									view.showName(rec.getName());
 									view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(songDuration / 1000));
 									view.hideProgress();
@@ -847,64 +935,55 @@ public class MainPresenter implements MainContract.UserActionsListener {
 
 	private void migrateDb3() {
 		processingTasks.postRunnable(() -> {
-			//Update records table.
-			List<Integer> ids = localRepository.getAllItemsIds();
-			Record rec;
-			for (int i = 0; i < ids.size(); i++) {
-				if (ids.get(i) != null) {
-					rec = localRepository.getRecord(ids.get(i));
-					if (rec != null) {
-						RecordInfo info = AudioDecoder.readRecordInfo(new File(rec.getPath()));
-						localRepository.updateRecord(new Record(
-								rec.getId(),
-								FileUtil.removeFileExtension(rec.getName()),
-								rec.getDuration(),
-								rec.getCreated(),
-								rec.getAdded(),
-								rec.getRemoved(),
-								rec.getPath(),
-								info.getFormat(),
-								info.getSize(),
-								info.getSampleRate(),
-								info.getChannelCount(),
-								info.getBitrate(),
-								rec.isBookmarked(),
-								rec.isWaveformProcessed(),
-								rec.getAmps()));
-					}
-				}
+			//Update records table. Records are loaded without waveforms, so waveforms stay unchanged.
+			List<Record> records = localRepository.getAllRecords();
+			List<Record> updated = new ArrayList<>(records.size());
+			for (int i = 0; i < records.size(); i++) {
+				updated.add(migrateRecord(records.get(i)));
 			}
+			localRepository.updateRecords(updated);
 			//Update trash records table.
-			List<Integer> trashIds = localRepository.getTrashRecordsIds();
-			Record trashRecord;
-			for (int i = 0; i < trashIds.size(); i++) {
-				if (trashIds.get(i) != null) {
-					trashRecord = localRepository.getTrashRecord(trashIds.get(i));
-					if (trashRecord != null) {
-						RecordInfo info = AudioDecoder.readRecordInfo(new File(trashRecord.getPath()));
-						localRepository.updateTrashRecord(new Record(
-								trashRecord.getId(),
-								FileUtil.removeFileExtension(trashRecord.getName()),
-								trashRecord.getDuration(),
-								trashRecord.getCreated(),
-								trashRecord.getAdded(),
-								trashRecord.getRemoved(),
-								trashRecord.getPath(),
-								info.getFormat(),
-								info.getSize(),
-								info.getSampleRate(),
-								info.getChannelCount(),
-								info.getBitrate(),
-								trashRecord.isBookmarked(),
-								trashRecord.isWaveformProcessed(),
-								trashRecord.getAmps()));
-					}
-				}
+			List<Record> trashRecords = localRepository.getTrashRecords();
+			List<Record> updatedTrash = new ArrayList<>(trashRecords.size());
+			for (int i = 0; i < trashRecords.size(); i++) {
+				updatedTrash.add(migrateRecord(trashRecords.get(i)));
 			}
+			localRepository.updateTrashRecords(updatedTrash);
 			prefs.migrateDb3Finished();
 		});
 	}
 
+	/**
+	 * Statistics are maintained by database triggers, recount them from time to time in case
+	 * they diverged from records.
+	 */
+	private void repairStatistics() {
+		processingTasks.postRunnable(() -> {
+			statisticsDataSource.recompute();
+			prefs.setLastStatisticsRepair(System.currentTimeMillis());
+		});
+	}
+
+	private Record migrateRecord(Record rec) {
+		RecordInfo info = AudioDecoder.readRecordInfo(new File(rec.getPath()));
+		return new Record(
+				rec.getId(),
+				FileUtil.removeFileExtension(rec.getName()),
+				rec.getDuration(),
+				rec.getCreated(),
+				rec.getAdded(),
+				rec.getRemoved(),
+				rec.getPath(),
+				info.getFormat(),
+				info.getSize(),
+				info.getSampleRate(),
+				info.getChannelCount(),
+				info.getBitrate(),
+				rec.isBookmarked(),
+				rec.isWaveformProcessed(),
+				rec.getAmps());
+	}
+
 	private String extractFileName(Context context, Uri uri) {
 		Cursor cursor = context.getContentResolver().query(uri, null, null, null, null, null);
 		try {
@@ -65,9 +65,8 @@ class MoveRecordsActivity : Activity() {
 			val decodeService = binder.getService()
 			decodeService.setMoveRecordsListener(object : MoveRecordsServiceListener {
 
-				override fun onRecordMoved() {
-					viewModel.loadRecords()
-				}
+				//Moved record is removed from the list by records change listener.
+				override fun onRecordMoved() {}
 
 				override fun onFinishMove() {
 					viewModel.loadRecords()
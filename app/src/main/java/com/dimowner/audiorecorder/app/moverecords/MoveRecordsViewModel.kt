@@ -9,7 +9,9 @@ import com.dimowner.audiorecorder.audio.player.PlayerContractNew
 import com.dimowner.audiorecorder.data.FileRepository
 import com.dimowner.audiorecorder.data.Prefs
 import com.dimowner.audiorecorder.data.database.LocalRepository
+import com.dimowner.audiorecorder.data.database.OnRecordsChangedListener
 import com.dimowner.audiorecorder.data.database.Record
+import com.dimowner.audiorecorder.data.database.RecordChange
 import com.dimowner.audiorecorder.exception.AppException
 import com.dimowner.audiorecorder.exception.ErrorParser
 import kotlinx.coroutines.*
@@ -48,6 +50,39 @@ class MoveRecordsViewModel(
 
 	private var listenPlaybackProgress: Boolean = true
 
+	/** Moved records get a path outside of the public dir, they are removed from the list. */
+	private val onRecordsChangedListener = OnRecordsChangedListener { changes ->
+		loadingTasks.postRunnable {
+			val publicDir = fileRepository.publicDir.absolutePath + File.separator
+			var list = uiState.value.list
+			for (change in changes) {
+				val record = change.record
+				list = when {
+					change.type == RecordChange.TYPE_DELETED
+							|| record != null && !record.path.startsWith(publicDir) -> {
+						list.filter { it.id != change.id }
+					}
+					change.type == RecordChange.TYPE_UPDATED && record != null -> {
+						list.map { if (it.id == change.id) recordToMoveRecordsItem(settingsMapper, record) else it }
+					}
+					else -> list
+				}
+			}
+			if (list != uiState.value.list) {
+				setState(uiState.value.copy(
+					list = list,
+					recordsCount = list.size,
+					isMoveAllVisible = list.isNotEmpty(),
+					isEmptyVisible = list.isEmpty()
+				))
+			}
+		}
+	}
+
+	init {
+		localRepository.addOnRecordsChangedListener(onRecordsChangedListener)
+	}
+
 	fun loadRecords() {
 		showProgress(true)
 		loadingTasks.postRunnable {
@@ -287,6 +322,7 @@ class MoveRecordsViewModel(
 	}
 
 	fun clear() {
+		localRepository.removeOnRecordsChangedListener(onRecordsChangedListener)
 		scope.cancel()
 	}
 
@@ -172,6 +172,10 @@ public class ListItem implements Parcelable {
 		return amps;
 	}
 
+	public void setAmps(int[] amps) {
+		this.amps = amps;
+	}
+
 	private String convertTimeToStr(long time) {
 		return TimeUtils.formatDateTimeLocale(time);
 //		return TimeUtils.formatTime(time);
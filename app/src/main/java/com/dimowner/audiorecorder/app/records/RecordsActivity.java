@@ -45,6 +45,7 @@ import com.dimowner.audiorecorder.ColorMap;
 import com.dimowner.audiorecorder.Mapper;
 import com.dimowner.audiorecorder.R;
 import com.dimowner.audiorecorder.app.DecodeService;
+import com.dimowner.audiorecorder.audio.DecodeScheduler;
 import com.dimowner.audiorecorder.app.DownloadService;
 import com.dimowner.audiorecorder.app.PlaybackService;
 import com.dimowner.audiorecorder.app.info.ActivityInformation;
@@ -249,6 +250,7 @@ public class RecordsActivity extends Activity implements RecordsContract.View, V
 				Timber.e(e);
 			}
 		}));
+		adapter.setWaveformLoader((id, callback) -> presenter.loadWaveform(id, callback));
 		adapter.setOnAddToBookmarkListener(new RecordsAdapter.OnAddToBookmarkListener() {
 			@Override public void onAddToBookmarks(int id) {
 				presenter.addToBookmark(id);
@@ -335,6 +337,7 @@ public class RecordsActivity extends Activity implements RecordsContract.View, V
 			}
 			@Override
 			public void onSeeking(int px, long mills) {
+				presenter.scrubPlayback(mills);
 				int length = waveformView.getWaveformLength();
 				if (length > 0) {
 					playProgress.setProgress(1000 * (int) AndroidUtils.pxToDp(px) / length);
@@ -767,6 +770,13 @@ public class RecordsActivity extends Activity implements RecordsContract.View, V
 		DecodeService.Companion.startNotification(getApplicationContext(), id);
 	}
 
+	@Override
+	public void decodeRecords(List<Integer> ids) {
+		for (int i = 0; i < ids.size(); i++) {
+			DecodeService.Companion.startNotification(getApplicationContext(), ids.get(i), DecodeScheduler.PRIORITY_VISIBLE);
+		}
+	}
+
 	@Override
 	public void showRecordName(String name) {
 		txtName.setText(name);
@@ -788,6 +798,11 @@ public class RecordsActivity extends Activity implements RecordsContract.View, V
 		}
 	}
 
+	@Override
+	public void updateRecord(ListItem item) {
+		adapter.updateItem(item);
+	}
+
 	@Override
 	public void hidePlayPanel() {
 		hidePanel();
@@ -958,7 +973,7 @@ public class RecordsActivity extends Activity implements RecordsContract.View, V
 		@Override
 		public void onLoadMore(int page, int totalItemsCount) {
 //			Timber.v("onLoadMore page = " + page + " count = " + totalItemsCount);
-			presenter.loadRecordsPage(page);
+			presenter.loadNextRecordsPage();
 		}
 	}
 }
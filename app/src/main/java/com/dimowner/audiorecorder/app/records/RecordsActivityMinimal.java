@@ -210,6 +210,11 @@ public class RecordsActivityMinimal extends Activity implements RecordsContract.
 		// Not used
 	}
 
+	@Override
+	public void decodeRecords(List<Integer> ids) {
+		// Not used
+	}
+
 	@Override
 	public void showRecordName(String name) {
 		// Not used
@@ -220,6 +225,11 @@ public class RecordsActivityMinimal extends Activity implements RecordsContract.
 		// Not used
 	}
 
+	@Override
+	public void updateRecord(ListItem item) {
+		adapter.updateRecord(item);
+	}
+
 	@Override
 	public void onDeleteRecord(long id) {
 		adapter.removeRecord(id);
@@ -43,7 +43,9 @@ import com.dimowner.audiorecorder.util.TimeUtils;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class RecordsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
@@ -62,6 +64,11 @@ public class RecordsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 	private OnAddToBookmarkListener onAddToBookmarkListener = null;
 	private OnItemOptionListener onItemOptionListener = null;
 	private OnMultiSelectModeListener onMultiSelectModeListener = null;
+	private WaveformLoader waveformLoader = null;
+	/** Ids of records which waveforms are being loaded. */
+	private final Set<Long> loadingWaveforms = new HashSet<>();
+	/** Ids of records which have no stored waveform, they are not queried again on every bind. */
+	private final Set<Long> missingWaveforms = new HashSet<>();
 
 	RecordsAdapter(SettingsMapper mapper) {
 		this.data = new ArrayList<>();
@@ -186,6 +193,9 @@ public class RecordsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 			});
 			holder.btnMore.setOnClickListener(v -> showMenu(v, p));
 			holder.waveformView.setWaveform(item.getAmps());
+			if (item.getAmps().length == 0 && item.getDuration() > 0) {
+				loadWaveform(item.getId());
+			}
 			if (isMultiSelectMode || item.getDuration() == 0) {
 				holder.btnMore.setVisibility(View.GONE);
 			} else {
@@ -290,6 +300,7 @@ public class RecordsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 	}
 
 	void setData(List<ListItem> d, int order) {
+		missingWaveforms.clear();
 		updateShowHeader(order);
 		if (showDateHeaders) {
 			data = addDateHeaders(d);
@@ -374,6 +385,23 @@ public class RecordsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 		}
 	}
 
+	/**
+	 * Replace item with the same id, waveform loaded for the item is kept when the new item has none.
+	 */
+	void updateItem(ListItem item) {
+		//Waveform might be stored since the last try.
+		missingWaveforms.remove(item.getId());
+		int pos = findPositionById(item.getId());
+		if (pos >= 0) {
+			ListItem old = data.get(pos);
+			if ((item.getAmps() == null || item.getAmps().length == 0) && old.getAmps() != null) {
+				item.setAmps(old.getAmps());
+			}
+			data.set(pos, item);
+			notifyItemChanged(pos);
+		}
+	}
+
 	int getAudioRecordsCount() {
 		int count = 0;
 		for (int i = 0; i < data.size(); i++) {
@@ -558,6 +586,25 @@ public class RecordsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 		return container;
 	}
 
+	private void loadWaveform(long id) {
+		if (waveformLoader != null && !missingWaveforms.contains(id) && loadingWaveforms.add(id)) {
+			waveformLoader.loadWaveform(id, (recordId, amps) -> {
+				loadingWaveforms.remove(recordId);
+				if (amps == null || amps.length == 0) {
+					missingWaveforms.add(recordId);
+					return;
+				}
+				for (int i = 0; i < data.size(); i++) {
+					if (data.get(i).getType() == ListItem.ITEM_TYPE_NORMAL && data.get(i).getId() == recordId) {
+						data.get(i).setAmps(amps);
+						notifyItemChanged(i);
+						break;
+					}
+				}
+			});
+		}
+	}
+
 	public List<Integer> getSelected() {
 		return new ArrayList<>(selected);
 	}
@@ -599,6 +646,17 @@ public class RecordsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 		this.onMultiSelectModeListener = listener;
 	}
 
+	void setWaveformLoader(WaveformLoader waveformLoader) {
+		this.waveformLoader = waveformLoader;
+	}
+
+	/**
+	 * Records list is loaded without waveforms, waveform of every item is loaded when the item is shown.
+	 */
+	interface WaveformLoader {
+		void loadWaveform(long id, RecordsContract.WaveformCallback callback);
+	}
+
 	interface OnAddToBookmarkListener {
 		void onAddToBookmarks(int id);
 		void onRemoveFromBookmarks(int id);
@@ -87,6 +87,14 @@ public class RecordsAdapterMinimal extends RecyclerView.Adapter<RecordsAdapterMi
 		}
 	}
 
+	public void updateRecord(ListItem item) {
+		int pos = findPositionById((int) item.getId());
+		if (pos >= 0) {
+			records.set(pos, item);
+			notifyItemChanged(pos);
+		}
+	}
+
 	public void setActiveRecord(int id) {
 		int oldActive = activeRecordId;
 		activeRecordId = id;
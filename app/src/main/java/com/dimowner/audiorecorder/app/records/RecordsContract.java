@@ -54,6 +54,7 @@ public interface RecordsContract {
 		void hidePanelProgress();
 
 		void decodeRecord(int id);
+		void decodeRecords(List<Integer> ids);
 
 		void showRecordName(String name);
 
@@ -61,6 +62,8 @@ public interface RecordsContract {
 
 		void onDeleteRecord(long id);
 
+		void updateRecord(ListItem item);
+
 		void hidePlayPanel();
 
 		void addedToBookmarks(int id, boolean isActive);
@@ -90,6 +93,8 @@ public interface RecordsContract {
 
 		void seekPlayback(long mills);
 
+		void scrubPlayback(long mills);
+
 		void stopPlayback();
 
 		void playNext();
@@ -108,7 +113,7 @@ public interface RecordsContract {
 
 		void updateRecordsOrder(int order);
 
-		void loadRecordsPage(int page);
+		void loadNextRecordsPage();
 
 		void decodeActiveRecord();
 
@@ -120,6 +125,8 @@ public interface RecordsContract {
 
 		void setActiveRecord(long id, Callback callback);
 
+		void loadWaveform(long id, WaveformCallback callback);
+
 		void onRenameClick();
 
 		long getActiveRecordId();
@@ -139,4 +146,8 @@ public interface RecordsContract {
 		void onSuccess();
 		void onError(Exception e);
 	}
+
+	interface WaveformCallback {
+		void onWaveformLoaded(long id, int[] amps);
+	}
 }
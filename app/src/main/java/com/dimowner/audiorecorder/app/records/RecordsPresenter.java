@@ -23,11 +23,17 @@ import com.dimowner.audiorecorder.R;
 import com.dimowner.audiorecorder.app.AppRecorder;
 import com.dimowner.audiorecorder.app.AppRecorderCallback;
 import com.dimowner.audiorecorder.app.info.RecordInfo;
+import com.dimowner.audiorecorder.audio.SeekIndex;
 import com.dimowner.audiorecorder.audio.player.PlayerContractNew;
 import com.dimowner.audiorecorder.data.FileRepository;
 import com.dimowner.audiorecorder.data.Prefs;
+import com.dimowner.audiorecorder.data.database.AsyncLocalRepository;
 import com.dimowner.audiorecorder.data.database.LocalRepository;
+import com.dimowner.audiorecorder.data.database.OnRecordsChangedListener;
 import com.dimowner.audiorecorder.data.database.Record;
+import com.dimowner.audiorecorder.data.database.RecordChange;
+import com.dimowner.audiorecorder.data.database.RepositoryFuture;
+import com.dimowner.audiorecorder.data.database.SeekIndexDataSource;
 import com.dimowner.audiorecorder.exception.AppException;
 import com.dimowner.audiorecorder.exception.ErrorParser;
 import com.dimowner.audiorecorder.util.AndroidUtils;
@@ -35,6 +41,7 @@ import com.dimowner.audiorecorder.util.FileUtil;
 import com.dimowner.audiorecorder.util.TimeUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 import androidx.annotation.NonNull;
@@ -42,32 +49,50 @@ import timber.log.Timber;
 
 public class RecordsPresenter implements RecordsContract.UserActionsListener {
 
+	/** Prefix of keys of waveform loads, requests for a record which is already loading are dropped. */
+	private static final String KEY_LOAD_WAVEFORM = "waveform:";
+	/** Prefix of keys of seek index builds, repeated playback of a record joins one build. */
+	private static final String KEY_BUILD_SEEK_INDEX = "seekIndex:";
+
 	private RecordsContract.View view;
 	private final PlayerContractNew.Player audioPlayer;
 	private final AppRecorder appRecorder;
 	private PlayerContractNew.PlayerCallback playerCallback;
 	private AppRecorderCallback appRecorderCallback;
+	private final OnRecordsChangedListener onRecordsChangedListener = this::onRecordsChanged;
 	private final BackgroundQueue loadingTasks;
-	private final BackgroundQueue recordingsTasks;
+	private final BackgroundQueue processingTasks;
 	private final FileRepository fileRepository;
 	private final LocalRepository localRepository;
+	private final AsyncLocalRepository asyncRepository;
+	private final SeekIndexDataSource seekIndexDataSource;
 	private final Prefs prefs;
 
 	private Record activeRecord;
+	/** The last record of loaded pages, next page starts after it. Accessed only on main thread. */
+	private Record lastLoadedRecord = null;
+	/** Load of the whole list, a newer load cancels an older one. */
+	private RepositoryFuture<?> recordsLoad = null;
+	/** Load of the next page, repeated scroll events join one load. Cleared when its result is delivered. */
+	private RepositoryFuture<List<Record>> nextPageLoad = null;
 	private boolean showBookmarks = false;
 	private boolean listenPlaybackProgress = true;
 
-	public RecordsPresenter(final LocalRepository localRepository, FileRepository fileRepository,
-									BackgroundQueue loadingTasks, BackgroundQueue recordingsTasks,
-									PlayerContractNew.Player player, AppRecorder appRecorder, Prefs prefs) {
+	public RecordsPresenter(final LocalRepository localRepository, AsyncLocalRepository asyncRepository,
+									FileRepository fileRepository,
+									BackgroundQueue loadingTasks,
+									BackgroundQueue processingTasks, PlayerContractNew.Player player, AppRecorder appRecorder, Prefs prefs,
+									SeekIndexDataSource seekIndexDataSource) {
 		this.localRepository = localRepository;
+		this.asyncRepository = asyncRepository;
 		this.fileRepository = fileRepository;
 		this.loadingTasks = loadingTasks;
-		this.recordingsTasks = recordingsTasks;
+		this.processingTasks = processingTasks;
 		this.audioPlayer = player;
 		this.appRecorder = appRecorder;
 		this.playerCallback = null;
 		this.prefs = prefs;
+		this.seekIndexDataSource = seekIndexDataSource;
 	}
 
 	@Override
@@ -163,6 +188,7 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 		}
 
 		this.localRepository.setOnRecordsLostListener(list -> view.showRecordsLostMessage(list));
+		this.localRepository.addOnRecordsChangedListener(onRecordsChangedListener);
 	}
 
 	@Override
@@ -171,10 +197,55 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 			audioPlayer.removePlayerCallback(playerCallback);
 			appRecorder.removeRecordingCallback(appRecorderCallback);
 			this.localRepository.setOnRecordsLostListener(null);
+			this.localRepository.removeOnRecordsChangedListener(onRecordsChangedListener);
 			this.view = null;
 		}
 	}
 
+	/**
+	 * Patch loaded items by changes of records. Inserted records are not added, their position
+	 * depends on the order and loaded pages, so they are shown when the list is loaded.
+	 */
+	private void onRecordsChanged(List<RecordChange> changes) {
+		AndroidUtils.runOnUIThread(() -> {
+			if (view != null) {
+				for (int i = 0; i < changes.size(); i++) {
+					RecordChange change = changes.get(i);
+					if (change.getType() == RecordChange.TYPE_DELETED) {
+						view.onDeleteRecord(change.getId());
+					} else if (change.getType() == RecordChange.TYPE_UPDATED) {
+						showChangedRecord(change);
+					}
+				}
+			}
+		});
+	}
+
+	private void showChangedRecord(RecordChange change) {
+		Record record = change.getRecord();
+		Record active = activeRecord;
+		if (active != null && active.getId() == change.getId()) {
+			if (change.isChanged(RecordChange.CHANGED_WAVEFORM)) {
+				activeRecord = record;
+				view.showWaveForm(record.getAmps(), record.getDuration(), 0);
+			} else {
+				//Update without waveform keeps the waveform loaded for active record.
+				activeRecord = new Record(record.getId(), record.getName(), record.getDuration(),
+						record.getCreated(), record.getAdded(), record.getRemoved(), record.getPath(),
+						record.getFormat(), record.getSize(), record.getSampleRate(),
+						record.getChannelCount(), record.getBitrate(), record.isBookmarked(),
+						record.isWaveformProcessed(), active.getAmps());
+			}
+			if (change.isChanged(RecordChange.CHANGED_NAME)) {
+				view.showRecordName(record.getName());
+			}
+			if (change.isChanged(RecordChange.CHANGED_INFO)) {
+				view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(record.getDuration() / 1000));
+			}
+		}
+		view.updateRecord(Mapper.recordToListItem(record));
+	}
+
 	@Override
 	public void clear() {
 		if (view != null) {
@@ -184,17 +255,14 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 
 	@Override
 	public void onResumeView() {
-		loadingTasks.postRunnable(() -> {
-			final int count = localRepository.getTrashRecordsCount();
-			AndroidUtils.runOnUIThread(() -> {
-				if (view != null) {
-					if (count > 0) {
-						view.showTrashBtn();
-					} else {
-						view.hideTrashBtn();
-					}
+		asyncRepository.getTrashRecordsCount().onResult(count -> {
+			if (view != null) {
+				if (count > 0) {
+					view.showTrashBtn();
+				} else {
+					view.hideTrashBtn();
 				}
-			});
+			}
 		});
 	}
 
@@ -208,11 +276,32 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 					audioPlayer.unpause();
 				} else {
 					audioPlayer.play(activeRecord.getPath());
+					loadSeekIndex(activeRecord);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Player seeks in default mode until the index is loaded. Missing index is built on
+	 * processing queue, it reads the whole file of MP3 and AMR records.
+	 */
+	private void loadSeekIndex(Record record) {
+		loadingTasks.postRunnable(() -> {
+			SeekIndex index = seekIndexDataSource.getSeekIndex(record.getId(), record.getPath());
+			if (index != null) {
+				AndroidUtils.runOnUIThread(() -> audioPlayer.setSeekIndex(record.getPath(), index));
+			} else {
+				processingTasks.postOnce(KEY_BUILD_SEEK_INDEX + record.getId(), () -> {
+					SeekIndex built = seekIndexDataSource.buildSeekIndex(record.getId(), record.getPath());
+					if (built != null) {
+						AndroidUtils.runOnUIThread(() -> audioPlayer.setSeekIndex(record.getPath(), built));
+					}
+				});
+			}
+		});
+	}
+
 	@Override
 	public void pausePlayback() {
 		audioPlayer.pause();
@@ -223,6 +312,14 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 		audioPlayer.seek(mills);
 	}
 
+	@Override
+	public void scrubPlayback(long mills) {
+		//Progress listener is disabled while user drags the waveform or the seek bar.
+		if (!listenPlaybackProgress) {
+			audioPlayer.scrub(mills);
+		}
+	}
+
 	@Override
 	public void stopPlayback() {
 		if (audioPlayer.isPlaying() || audioPlayer.isPaused()) {
@@ -251,46 +348,38 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 		if (rec != null && rec.getId() == id) {
 			audioPlayer.stop();
 		}
-		recordingsTasks.postRunnable(() -> {
-			if (localRepository.deleteRecord((int) id)) {
+		asyncRepository.deleteRecord((int) id).onResult(deleted -> {
+			if (deleted) {
 //				fileRepository.deleteRecordFile(path);
 				if (rec != null && rec.getId() == id) {
 					prefs.setActiveRecord(-1);
 				}
-				AndroidUtils.runOnUIThread(() -> {
-					if (view != null) {
-						view.showTrashBtn();
-						view.onDeleteRecord(id);
-						view.showMessage(R.string.record_moved_into_trash);
-						if (rec != null && rec.getId() == id) {
-							view.hidePlayPanel();
-							activeRecord = null;
-						}
+				if (view != null) {
+					view.showTrashBtn();
+					view.showMessage(R.string.record_moved_into_trash);
+					if (rec != null && rec.getId() == id) {
+						view.hidePlayPanel();
+						activeRecord = null;
 					}
-				});
+				}
 			}
 		});
 	}
 
 	@Override
 	public void deleteRecords(List<Long> ids) {
-		recordingsTasks.postRunnable(() -> {
-			for(Long id: ids) {
-				if (localRepository.deleteRecord(id.intValue())) {
-					AndroidUtils.runOnUIThread(() -> {
-						if (view != null) {
-							view.showTrashBtn();
-							view.onDeleteRecord(id);
-						}
-					});
+		List<Integer> recordIds = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			recordIds.add(id.intValue());
+		}
+		asyncRepository.moveToTrash(recordIds).onResult(moved -> {
+			if (view != null) {
+				if (!moved.isEmpty()) {
+					view.showTrashBtn();
 				}
+				view.cancelMultiSelect();
+				view.showMessage(R.string.selected_records_moved_into_trash);
 			}
-			AndroidUtils.runOnUIThread(() -> {
-				if (view != null) {
-					view.cancelMultiSelect();
-					view.showMessage(R.string.selected_records_moved_into_trash);
-				}
-			});
 		});
 	}
 
@@ -306,8 +395,8 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 		}
 		view.showProgress();
 		final String name = FileUtil.removeUnallowedSignsFromName(n);
-		recordingsTasks.postRunnable(() -> {
-			Record rec2 = localRepository.getRecord((int)id);
+		asyncRepository.write("renameRecord", repository -> {
+			Record rec2 = repository.getRecord((int)id);
 			if (rec2 != null) {
 				String nameWithExt = name + AppConstants.EXTENSION_SEPARATOR + extension;
 				File file = new File(rec2.getPath());
@@ -337,14 +426,8 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 								rec2.isBookmarked(),
 								rec2.isWaveformProcessed(),
 								rec2.getAmps());
-						if (localRepository.updateRecord(renamedRecord)) {
-							AndroidUtils.runOnUIThread(() -> {
-								if (view != null) {
-									view.hideProgress();
-									loadRecords();
-								}
-							});
-						} else {
+						//Renamed item is updated by records change listener.
+						if (!repository.updateRecord(renamedRecord)) {
 							AndroidUtils.runOnUIThread(() -> {
 								if (view != null) {
 									view.showError(R.string.error_failed_to_rename);
@@ -381,6 +464,7 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 					view.hideProgress();
 				}
 			});
+			return null;
 		});
 	}
 
@@ -389,47 +473,51 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 		if (view != null) {
 			view.showProgress();
 			view.showPanelProgress();
-			loadingTasks.postRunnable(() -> {
-				final int order = prefs.getRecordsOrder();
-				final List<Record> recordList = localRepository.getRecords(0, order);
-				final Record rec = localRepository.getRecord((int) prefs.getActiveRecord());
+			final int order = prefs.getRecordsOrder();
+			final int activeId = (int) prefs.getActiveRecord();
+			RepositoryFuture<LoadedRecords> load = asyncRepository.read("loadRecords",
+					repository -> new LoadedRecords(repository.getRecords(null, order), repository.getRecord(activeId)));
+			startRecordsLoad(load);
+			load.onResult(loaded -> {
+				final List<Record> recordList = loaded.records;
+				final Record rec = loaded.activeRecord;
+				lastLoadedRecord = recordList.isEmpty() ? null : recordList.get(recordList.size() - 1);
 				activeRecord = rec;
-				AndroidUtils.runOnUIThread(() -> {
-					if (view != null) {
-						view.showRecords(Mapper.recordsToListItems(recordList), order);
-						if (audioPlayer.isPaused() || audioPlayer.isPlaying()) {
-							if (rec != null) {
-								if (audioPlayer.isPaused()) {
-									long duration = rec.getDuration() / 1000;
-									if (duration > 0) {
-										long playProgressMills = audioPlayer.getPauseTime();
-										view.onPlayProgress(playProgressMills, (int) (1000 * playProgressMills / duration));
-										view.showWaveForm(rec.getAmps(), rec.getDuration(), playProgressMills);
-									}
-								} else {
-									view.showWaveForm(rec.getAmps(), rec.getDuration(), 0);
-								}
-								view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(rec.getDuration() / 1000));
-								view.showRecordName(rec.getName());
-								if (rec.isBookmarked()) {
-									view.bookmarksSelected();
-								} else {
-									view.bookmarksUnselected();
-								}
-								if (audioPlayer.isPlaying() || audioPlayer.isPaused()) {
-									view.showActiveRecord(rec.getId());
+				if (view != null) {
+					view.showRecords(Mapper.recordsToListItems(recordList), order);
+					decodeUnprocessedRecords(recordList);
+					if (audioPlayer.isPaused() || audioPlayer.isPlaying()) {
+						if (rec != null) {
+							if (audioPlayer.isPaused()) {
+								long duration = rec.getDuration() / 1000;
+								if (duration > 0) {
+									long playProgressMills = audioPlayer.getPauseTime();
+									view.onPlayProgress(playProgressMills, (int) (1000 * playProgressMills / duration));
+									view.showWaveForm(rec.getAmps(), rec.getDuration(), playProgressMills);
 								}
+							} else {
+								view.showWaveForm(rec.getAmps(), rec.getDuration(), 0);
+							}
+							view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(rec.getDuration() / 1000));
+							view.showRecordName(rec.getName());
+							if (rec.isBookmarked()) {
+								view.bookmarksSelected();
+							} else {
+								view.bookmarksUnselected();
+							}
+							if (audioPlayer.isPlaying() || audioPlayer.isPaused()) {
+								view.showActiveRecord(rec.getId());
 							}
 						}
+					}
 
-						view.hideProgress();
-						view.hidePanelProgress();
-						view.bookmarksUnselected();
-						if (recordList.size() == 0) {
-							view.showEmptyList();
-						}
+					view.hideProgress();
+					view.hidePanelProgress();
+					view.bookmarksUnselected();
+					if (recordList.size() == 0) {
+						view.showEmptyList();
 					}
-				});
+				}
 			});
 		}
 	}
@@ -444,22 +532,61 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 	}
 
 	@Override
-	public void loadRecordsPage(final int page) {
+	public void loadNextRecordsPage() {
 		if (view != null && !showBookmarks) {
 			view.showProgress();
 			view.showPanelProgress();
-			loadingTasks.postRunnable(() -> {
-				final int order = prefs.getRecordsOrder();
-				final List<Record> recordList = localRepository.getRecords(page, order);
-				AndroidUtils.runOnUIThread(() -> {
-					if (view != null) {
-						view.addRecords(Mapper.recordsToListItems(recordList), order);
-						view.hideProgress();
-						view.hidePanelProgress();
-						view.bookmarksUnselected();
-					}
-				});
-			});
+			if (nextPageLoad != null) {
+				return;
+			}
+			final int order = prefs.getRecordsOrder();
+			final Record after = lastLoadedRecord;
+			nextPageLoad = asyncRepository.read("loadNextRecordsPage",
+					repository -> after != null ? repository.getRecords(after, order) : new ArrayList<>());
+			nextPageLoad.onResult(recordList -> {
+				nextPageLoad = null;
+				if (!recordList.isEmpty()) {
+					lastLoadedRecord = recordList.get(recordList.size() - 1);
+				}
+				if (view != null) {
+					view.addRecords(Mapper.recordsToListItems(recordList), order);
+					decodeUnprocessedRecords(recordList);
+					view.hideProgress();
+					view.hidePanelProgress();
+					view.bookmarksUnselected();
+				}
+			}, e -> nextPageLoad = null);
+		}
+	}
+
+	/**
+	 * Cancel loads of the list and of the next page which are in progress, their results are
+	 * not shown anymore.
+	 */
+	private void startRecordsLoad(RepositoryFuture<?> load) {
+		if (recordsLoad != null) {
+			recordsLoad.cancel(false);
+		}
+		if (nextPageLoad != null) {
+			nextPageLoad.cancel(false);
+			nextPageLoad = null;
+		}
+		recordsLoad = load;
+	}
+
+	/**
+	 * Queue waveform decoding of shown records which were not decoded yet, e.g. after import.
+	 */
+	private void decodeUnprocessedRecords(List<Record> records) {
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < records.size(); i++) {
+			Record rec = records.get(i);
+			if (!rec.isWaveformProcessed() && rec.getDuration() / 1000 < AppConstants.DECODE_DURATION) {
+				ids.add(rec.getId());
+			}
+		}
+		if (view != null && !ids.isEmpty()) {
+			view.decodeRecords(ids);
 		}
 	}
 
@@ -477,19 +604,18 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 			if (view != null) {
 				view.showProgress();
 				view.showPanelProgress();
-				loadingTasks.postRunnable(() -> {
-					final List<Record> recordList = localRepository.getBookmarks();
-					AndroidUtils.runOnUIThread(() -> {
-						if (view != null) {
-							view.showRecords(Mapper.recordsToListItems(recordList), AppConstants.SORT_DATE);
-							view.hideProgress();
-							view.hidePanelProgress();
-							view.bookmarksSelected();
-							if (recordList.size() == 0) {
-								view.showEmptyBookmarksList();
-							}
+				RepositoryFuture<List<Record>> load = asyncRepository.getBookmarks();
+				startRecordsLoad(load);
+				load.onResult(recordList -> {
+					if (view != null) {
+						view.showRecords(Mapper.recordsToListItems(recordList), AppConstants.SORT_DATE);
+						view.hideProgress();
+						view.hidePanelProgress();
+						view.bookmarksSelected();
+						if (recordList.size() == 0) {
+							view.showEmptyBookmarksList();
 						}
-					});
+					}
 				});
 			}
 		}
@@ -503,59 +629,40 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 
 	@Override
 	public void checkBookmarkActiveRecord() {
-		recordingsTasks.postRunnable(() -> {
-			final Record rec = activeRecord;
-			if (rec != null) {
-				boolean success;
-				if (rec.isBookmarked()) {
-					success = localRepository.removeFromBookmarks(rec.getId());
-				} else {
-					success = localRepository.addToBookmarks(rec.getId());
-				}
+		final Record rec = activeRecord;
+		if (rec != null) {
+			RepositoryFuture<Boolean> change = rec.isBookmarked()
+					? asyncRepository.removeFromBookmarks(rec.getId())
+					: asyncRepository.addToBookmarks(rec.getId());
+			change.onResult(success -> {
 				if (success) {
 					rec.setBookmark(!rec.isBookmarked());
-
-					AndroidUtils.runOnUIThread(() -> {
-						if (view != null) {
-							if (rec.isBookmarked()) {
-								view.addedToBookmarks(rec.getId(), true);
-							} else {
-								view.removedFromBookmarks(rec.getId(), true);
-							}
+					if (view != null) {
+						if (rec.isBookmarked()) {
+							view.addedToBookmarks(rec.getId(), true);
+						} else {
+							view.removedFromBookmarks(rec.getId(), true);
 						}
-					});
+					}
 				}
-			}
-		});
+			});
+		}
 	}
 
 	@Override
 	public void addToBookmark(final int id) {
-		recordingsTasks.postRunnable(() -> {
-			final Record r = localRepository.getRecord(id);
-			if (r != null) {
-				if (localRepository.addToBookmarks(r.getId())) {
-					AndroidUtils.runOnUIThread(() -> {
-						if (view != null) {
-							view.addedToBookmarks(r.getId(), activeRecord != null && r.getId() == activeRecord.getId());
-						}
-					});
-				}
+		asyncRepository.addToBookmarks(id).onResult(success -> {
+			if (success && view != null) {
+				view.addedToBookmarks(id, activeRecord != null && id == activeRecord.getId());
 			}
 		});
 	}
 
 	@Override
 	public void removeFromBookmarks(final int id) {
-		recordingsTasks.postRunnable(() -> {
-			final Record r = localRepository.getRecord(id);
-			if (r != null) {
-				localRepository.removeFromBookmarks(r.getId());
-				AndroidUtils.runOnUIThread(() -> {
-					if (view != null) {
-						view.removedFromBookmarks(r.getId(), activeRecord != null && r.getId() == activeRecord.getId());
-					}
-				});
+		asyncRepository.removeFromBookmarks(id).onResult(success -> {
+			if (success && view != null) {
+				view.removedFromBookmarks(id, activeRecord != null && id == activeRecord.getId());
 			}
 		});
 	}
@@ -567,37 +674,40 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 			if (view != null) {
 				view.showPanelProgress();
 			}
-			loadingTasks.postRunnable(() -> {
-				final Record rec = localRepository.getRecord((int) id);
+			asyncRepository.getRecord((int) id).onResult(rec -> {
 				activeRecord = rec;
 				if (rec != null) {
-					AndroidUtils.runOnUIThread(() -> {
-						if (view != null) {
-							view.showWaveForm(rec.getAmps(), rec.getDuration(), 0);
-							view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(rec.getDuration() / 1000));
-							view.showRecordName(rec.getName());
-							callback.onSuccess();
-							if (rec.isBookmarked()) {
-								view.addedToBookmarks(rec.getId(), true);
-							} else {
-								view.removedFromBookmarks(rec.getId(), true);
-							}
-							view.hidePanelProgress();
-							view.showPlayerPanel();
+					if (view != null) {
+						view.showWaveForm(rec.getAmps(), rec.getDuration(), 0);
+						view.showDuration(TimeUtils.formatTimeIntervalHourMinSec2(rec.getDuration() / 1000));
+						view.showRecordName(rec.getName());
+						callback.onSuccess();
+						if (rec.isBookmarked()) {
+							view.addedToBookmarks(rec.getId(), true);
+						} else {
+							view.removedFromBookmarks(rec.getId(), true);
 						}
-					});
+						view.hidePanelProgress();
+						view.showPlayerPanel();
+					}
 				} else {
-					AndroidUtils.runOnUIThread(() -> {
-						callback.onError(new Exception("Record is NULL!"));
-						if (view != null) {
-							view.hidePanelProgress();
-						}
-					});
+					callback.onError(new Exception("Record is NULL!"));
+					if (view != null) {
+						view.hidePanelProgress();
+					}
 				}
 			});
 		}
 	}
 
+	@Override
+	public void loadWaveform(final long id, final RecordsContract.WaveformCallback callback) {
+		loadingTasks.postOnce(KEY_LOAD_WAVEFORM + id, () -> {
+			final int[] amps = localRepository.getWaveform((int) id);
+			AndroidUtils.runOnUIThread(() -> callback.onWaveformLoaded(id, amps));
+		});
+	}
+
 	@Override
 	public void onRenameClick() {
 		view.showRename(activeRecord);
@@ -642,4 +752,15 @@ public class RecordsPresenter implements RecordsContract.UserActionsListener {
 	public void enablePlaybackProgressListener() {
 		listenPlaybackProgress = true;
 	}
+
+	/** Records of the first page together with the active record, loaded in one task. */
+	private static class LoadedRecords {
+		final List<Record> records;
+		final Record activeRecord;
+
+		LoadedRecords(List<Record> records, Record activeRecord) {
+			this.records = records;
+			this.activeRecord = activeRecord;
+		}
+	}
 }
@@ -24,8 +24,10 @@ import com.dimowner.audiorecorder.app.AppRecorder;
 import com.dimowner.audiorecorder.app.AppRecorderCallback;
 import com.dimowner.audiorecorder.data.FileRepository;
 import com.dimowner.audiorecorder.data.Prefs;
+import com.dimowner.audiorecorder.data.database.LibraryStatistics;
 import com.dimowner.audiorecorder.data.database.LocalRepository;
 import com.dimowner.audiorecorder.data.database.Record;
+import com.dimowner.audiorecorder.data.database.StatisticsDataSource;
 import com.dimowner.audiorecorder.exception.AppException;
 import com.dimowner.audiorecorder.util.AndroidUtils;
 import com.dimowner.audiorecorder.util.FileUtil;
@@ -34,7 +36,6 @@ import com.dimowner.audiorecorder.util.TimeUtils;
 import java.io.File;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import java.util.List;
 import java.util.Locale;
 
 public class SettingsPresenter implements SettingsContract.UserActionsListener {
@@ -50,11 +51,13 @@ public class SettingsPresenter implements SettingsContract.UserActionsListener {
 	private final Prefs prefs;
 	private final SettingsMapper settingsMapper;
 	private final AppRecorder appRecorder;
+	private final StatisticsDataSource statisticsDataSource;
 	private AppRecorderCallback appRecorderCallback;
 
 	public SettingsPresenter(final LocalRepository localRepository, final FileRepository fileRepository,
 									 final BackgroundQueue recordingsTasks, final BackgroundQueue loadingTasks,
-									 final Prefs prefs,  final SettingsMapper settingsMapper,  final AppRecorder appRecorder) {
+									 final Prefs prefs,  final SettingsMapper settingsMapper,  final AppRecorder appRecorder,
+									 final StatisticsDataSource statisticsDataSource) {
 		this.localRepository = localRepository;
 		this.fileRepository = fileRepository;
 		this.recordingsTasks = recordingsTasks;
@@ -62,6 +65,7 @@ public class SettingsPresenter implements SettingsContract.UserActionsListener {
 		this.prefs = prefs;
 		this.settingsMapper = settingsMapper;
 		this.appRecorder = appRecorder;
+		this.statisticsDataSource = statisticsDataSource;
 
 		DecimalFormatSymbols formatSymbols = new DecimalFormatSymbols(Locale.getDefault());
 		formatSymbols.setDecimalSeparator('.');
@@ -74,16 +78,11 @@ public class SettingsPresenter implements SettingsContract.UserActionsListener {
 			view.showProgress();
 		}
 		loadingTasks.postRunnable(() -> {
-			final List<Long> durations = localRepository.getRecordsDurations();
-			long totalDuration = 0;
-			for (int i = 0; i < durations.size(); i++) {
-				totalDuration += durations.get(i);
-			}
-			final long finalTotalDuration = totalDuration;
+			final LibraryStatistics.Totals totals = statisticsDataSource.getStatistics().getRecords();
 			AndroidUtils.runOnUIThread(() -> {
 				if (view != null) {
-					view.showTotalRecordsDuration(TimeUtils.formatTimeIntervalHourMinSec(finalTotalDuration / 1000));
-					view.showRecordsCount(durations.size());
+					view.showTotalRecordsDuration(TimeUtils.formatTimeIntervalHourMinSec(totals.getDuration() / 1000));
+					view.showRecordsCount(totals.getCount());
 					updateAvailableSpace();
 					view.hideProgress();
 				}
@@ -16,17 +16,15 @@
 
 package com.dimowner.audiorecorder.app.trash;
 
-import com.dimowner.audiorecorder.BackgroundQueue;
 import com.dimowner.audiorecorder.Mapper;
 import com.dimowner.audiorecorder.R;
 import com.dimowner.audiorecorder.app.info.RecordInfo;
-import com.dimowner.audiorecorder.app.lostrecords.RecordItem;
 import com.dimowner.audiorecorder.data.FileRepository;
-import com.dimowner.audiorecorder.data.database.LocalRepository;
+import com.dimowner.audiorecorder.data.database.AsyncLocalRepository;
 import com.dimowner.audiorecorder.data.database.Record;
+import com.dimowner.audiorecorder.exception.AppException;
 import com.dimowner.audiorecorder.exception.ErrorParser;
 import com.dimowner.audiorecorder.exception.FailedToRestoreRecord;
-import com.dimowner.audiorecorder.util.AndroidUtils;
 
 import java.util.List;
 
@@ -37,15 +35,10 @@ import java.util.List;
 public class TrashPresenter implements TrashContract.UserActionsListener {
 
 	private TrashContract.View view;
-	private final BackgroundQueue loadingTasks;
-	private final BackgroundQueue recordingsTasks;
 	private final FileRepository fileRepository;
-	private final LocalRepository localRepository;
+	private final AsyncLocalRepository localRepository;
 
-	public TrashPresenter(BackgroundQueue loadingTasks, BackgroundQueue recordingsTasks,
-								 FileRepository fileRepository, LocalRepository localRepository) {
-		this.loadingTasks = loadingTasks;
-		this.recordingsTasks = recordingsTasks;
+	public TrashPresenter(FileRepository fileRepository, AsyncLocalRepository localRepository) {
 		this.fileRepository = fileRepository;
 		this.localRepository = localRepository;
 	}
@@ -54,18 +47,15 @@ public class TrashPresenter implements TrashContract.UserActionsListener {
 	public void bindView(final TrashContract.View v) {
 		this.view = v;
 
-		loadingTasks.postRunnable(() -> {
-			final List<RecordItem> list = Mapper.toRecordItemList(localRepository.getTrashRecords());
-			AndroidUtils.runOnUIThread(() -> {
-				if (view != null) {
-					if (list.isEmpty()) {
-						view.showEmpty();
-					} else {
-						view.showRecords(list);
-						view.hideEmpty();
-					}
+		localRepository.getTrashRecords().onResult(records -> {
+			if (view != null) {
+				if (records.isEmpty()) {
+					view.showEmpty();
+				} else {
+					view.showRecords(Mapper.toRecordItemList(records));
+					view.hideEmpty();
 				}
-			});
+			}
 		});
 	}
 
@@ -88,66 +78,55 @@ public class TrashPresenter implements TrashContract.UserActionsListener {
 
 	@Override
 	public void deleteRecordFromTrash(final int id, final String path) {
-		recordingsTasks.postRunnable(() -> {
-			if (fileRepository.deleteRecordFile(path)) {
-				removeFromTrash(id);
-			} else if (fileRepository.deleteRecordFile(path)) { //Try to delete again.
-				removeFromTrash(id);
-			} else {
-				AndroidUtils.runOnUIThread(() -> {
-					if (view != null) {
-						view.showMessage(R.string.error_failed_to_delete);
-					}
-				});
+		localRepository.write("deleteRecordFromTrash", repository -> {
+			//Try to delete file 2 times.
+			if (fileRepository.deleteRecordFile(path) || fileRepository.deleteRecordFile(path)) {
+				repository.removeFromTrash(id);
+				return true;
 			}
-		});
-	}
-
-	private void removeFromTrash(final int id) {
-		localRepository.removeFromTrash(id);
-		AndroidUtils.runOnUIThread(() -> {
+			return false;
+		}).onResult(deleted -> {
 			if (view != null) {
-				view.showMessage(R.string.record_deleted_successfully);
-				view.recordDeleted(id);
+				if (deleted) {
+					view.showMessage(R.string.record_deleted_successfully);
+					view.recordDeleted(id);
+				} else {
+					view.showMessage(R.string.error_failed_to_delete);
+				}
 			}
 		});
 	}
 
 	@Override
 	public void deleteAllRecordsFromTrash() {
-		recordingsTasks.postRunnable(() -> {
-			List<Record> records  = localRepository.getTrashRecords();
+		localRepository.write("emptyTrash", repository -> {
+			List<Record> records = repository.getTrashRecords();
 			for (int i = 0; i < records.size(); i++) {
 				fileRepository.deleteRecordFile(records.get(i).getPath());
 			}
-			localRepository.emptyTrash();
-			AndroidUtils.runOnUIThread(() -> {
-				if (view != null) {
-					view.showMessage(R.string.all_records_deleted_successfully);
-					view.allRecordsRemoved();
-				}
-			});
+			return repository.emptyTrash();
+		}).onResult(removed -> {
+			if (view != null) {
+				view.showMessage(R.string.all_records_deleted_successfully);
+				view.allRecordsRemoved();
+			}
 		});
 	}
 
 	@Override
 	public void restoreRecordFromTrash(final int id) {
-		recordingsTasks.postRunnable(() -> {
-			try {
-				localRepository.restoreFromTrash(id);
-				AndroidUtils.runOnUIThread(() -> {
+		localRepository.restoreFromTrash(id).onResult(
+				restoredId -> {
 					if (view != null) {
 						view.showMessage(R.string.record_restored_successfully);
 						view.recordRestored(id);
 					}
-				});
-			} catch (final FailedToRestoreRecord e) {
-				AndroidUtils.runOnUIThread(() -> {
+				},
+				e -> {
 					if (view != null) {
-						view.showMessage(ErrorParser.parseException(e));
+						view.showMessage(ErrorParser.parseException(e instanceof AppException
+								? (AppException) e : new FailedToRestoreRecord()));
 					}
 				});
-			}
-		});
 	}
 }
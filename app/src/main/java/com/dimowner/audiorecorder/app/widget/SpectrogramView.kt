@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dimowner.audiorecorder.app.widget
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.Color
+import android.graphics.Paint
+import android.graphics.Rect
+import android.graphics.RectF
+import android.util.AttributeSet
+import android.util.LruCache
+import android.view.View
+import androidx.core.content.ContextCompat
+import com.dimowner.audiorecorder.R
+import com.dimowner.audiorecorder.audio.spectrogram.SpectrogramEngine
+import com.dimowner.audiorecorder.audio.spectrogram.SpectrogramTile
+import com.dimowner.audiorecorder.util.AndroidUtils
+import java.io.File
+
+private const val MAX_CACHED_TILES = 24
+/** Colors of levels from silence to full scale. */
+private val PALETTE_STOPS = intArrayOf(0x000004, 0x3B0F70, 0xB63679, 0xFB8861, 0xFCFDBF)
+
+/**
+ * Shows spectrogram of a record. Visible time range is set by [setViewport], so the view
+ * scrolls together with the waveform. Tiles are requested from [SpectrogramEngine] and
+ * turned into bitmaps which are kept in memory while they are close to the visible range.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+class SpectrogramView @JvmOverloads constructor(
+		context: Context,
+		attrs: AttributeSet? = null,
+		defStyleAttr: Int = 0
+) : View(context, attrs, defStyleAttr) {
+
+	private val bitmapPaint = Paint(Paint.FILTER_BITMAP_FLAG)
+	private val scrubberPaint = Paint()
+	private val palette = createPalette()
+	private val pixels = IntArray(SpectrogramTile.COLUMNS * SpectrogramTile.BINS)
+	private val srcRect = Rect()
+	private val dstRect = RectF()
+
+	private val tileBitmaps = LruCache<Int, Bitmap>(MAX_CACHED_TILES)
+	private val requestedTiles = HashSet<Int>()
+
+	private var engine: SpectrogramEngine? = null
+	private var file: File? = null
+	private var durationMills = 0L
+	private var startMills = 0L
+	private var millsPerPx = 0F
+
+	private val onTileReadyListener = SpectrogramEngine.OnTileReadyListener { tileFile, tile ->
+		if (tileFile == file) {
+			tileBitmaps.put(tile.index, createBitmap(tile))
+			invalidate()
+		}
+	}
+
+	init {
+		isFocusable = false
+		scrubberPaint.isAntiAlias = false
+		scrubberPaint.style = Paint.Style.STROKE
+		scrubberPaint.strokeWidth = AndroidUtils.dpToPx(2)
+		scrubberPaint.color = ContextCompat.getColor(context, R.color.md_yellow_A700)
+	}
+
+	fun setSpectrogramEngine(engine: SpectrogramEngine?) {
+		this.engine = engine
+		requestVisibleTiles()
+	}
+
+	/**
+	 * Set record to show or null to clear the view.
+	 */
+	fun setRecord(path: String?, durationMills: Long) {
+		val newFile = path?.let { File(it) }
+		if (newFile == file && durationMills == this.durationMills) {
+			return
+		}
+		engine?.cancelAll()
+		tileBitmaps.evictAll()
+		requestedTiles.clear()
+		file = newFile
+		this.durationMills = durationMills
+		requestVisibleTiles()
+		invalidate()
+	}
+
+	fun hasRecord(): Boolean = file != null
+
+	/**
+	 * Set visible range of the record.
+	 * @param startMills Time at the left edge of the view, negative when record starts inside the view.
+	 * @param millsPerPx Scale of the view.
+	 */
+	fun setViewport(startMills: Long, millsPerPx: Float) {
+		if (startMills == this.startMills && millsPerPx == this.millsPerPx) {
+			return
+		}
+		this.startMills = startMills
+		this.millsPerPx = millsPerPx
+		requestVisibleTiles()
+		invalidate()
+	}
+
+	override fun onSizeChanged(w: Int, h: Int, oldw: Int, oldh: Int) {
+		super.onSizeChanged(w, h, oldw, oldh)
+		requestVisibleTiles()
+	}
+
+	private fun firstVisibleTile(): Int = SpectrogramTile.tileAtMills(startMills)
+
+	private fun lastVisibleTile(): Int {
+		val endMills = startMills + (width * millsPerPx).toLong()
+		return minOf(SpectrogramTile.tileAtMills(endMills), SpectrogramTile.tileCount(durationMills) - 1)
+	}
+
+	private fun requestVisibleTiles() {
+		val engine = engine ?: return
+		val file = file ?: return
+		if (millsPerPx <= 0 || width == 0 || durationMills <= 0) {
+			return
+		}
+		val first = firstVisibleTile()
+		val last = lastVisibleTile()
+		//Jobs of tiles far from the visible range are cancelled by the engine.
+		requestedTiles.retainAll { it >= first - 1 && it <= last + 1 }
+		var hasMissing = false
+		for (i in first..last) {
+			if (tileBitmaps.get(i) == null && !requestedTiles.contains(i)) {
+				hasMissing = true
+				requestedTiles.add(i)
+			}
+		}
+		if (hasMissing) {
+			engine.requestTiles(file, first, last, onTileReadyListener)
+		}
+	}
+
+	override fun onDraw(canvas: Canvas) {
+		super.onDraw(canvas)
+		if (file != null && millsPerPx > 0) {
+			for (i in firstVisibleTile()..lastVisibleTile()) {
+				val bitmap = tileBitmaps.get(i) ?: continue
+				val left = (SpectrogramTile.tileStartMills(i) - startMills) / millsPerPx
+				val tileMills = bitmap.width * 1000F / SpectrogramTile.COLUMNS_PER_SECOND
+				srcRect.set(0, 0, bitmap.width, bitmap.height)
+				dstRect.set(left, 0f, left + tileMills / millsPerPx, height.toFloat())
+				canvas.drawBitmap(bitmap, srcRect, dstRect, bitmapPaint)
+			}
+		}
+		canvas.drawLine(width / 2f, 0f, width / 2f, height.toFloat(), scrubberPaint)
+	}
+
+	private fun createBitmap(tile: SpectrogramTile): Bitmap {
+		val columns = maxOf(1, tile.columnCount)
+		val bins = SpectrogramTile.BINS
+		for (col in 0 until tile.columnCount) {
+			for (bin in 0 until bins) {
+				pixels[(bins - 1 - bin) * columns + col] = palette[tile.getLevel(col, bin)]
+			}
+		}
+		return Bitmap.createBitmap(pixels, 0, columns, columns, bins, Bitmap.Config.ARGB_8888)
+	}
+
+	private fun createPalette(): IntArray {
+		val result = IntArray(256)
+		val segments = PALETTE_STOPS.size - 1
+		for (level in 0 until 256) {
+			val pos = level * segments / 256f
+			val index = minOf(pos.toInt(), segments - 1)
+			val fraction = pos - index
+			val from = PALETTE_STOPS[index]
+			val to = PALETTE_STOPS[index + 1]
+			val red = Color.red(from) + ((Color.red(to) - Color.red(from)) * fraction).toInt()
+			val green = Color.green(from) + ((Color.green(to) - Color.green(from)) * fraction).toInt()
+			val blue = Color.blue(from) + ((Color.blue(to) - Color.blue(from)) * fraction).toInt()
+			//Quiet levels are transparent to keep the screen background.
+			result[level] = Color.argb(minOf(255, level * 3), red, green, blue)
+		}
+		return result
+	}
+}
@@ -83,6 +83,7 @@ class WaveformViewNew @JvmOverloads constructor(
 	private var gridStepMills: Long = 4000
 
 	private var onSeekListener: OnSeekListener? = null
+	private var onViewportChangeListener: OnViewportChangeListener? = null
 
 	init {
 		isFocusable = false
@@ -229,6 +230,7 @@ class WaveformViewNew @JvmOverloads constructor(
 		this.durationPx = millsToPx(durationMills)
 
 		this.gridStepMills = calculateGridStep(durationMills)
+		notifyViewportChanged()
 	}
 
 	private fun calculateScale(mills: Long): Double {
@@ -294,6 +296,13 @@ class WaveformViewNew @JvmOverloads constructor(
 	private fun updateShifts(px: Int) {
 		screenShiftPx = px
 		waveformShiftPx = screenShiftPx + viewWidthPx / 2
+		notifyViewportChanged()
+	}
+
+	private fun notifyViewportChanged() {
+		if (millsPerPx > 0) {
+			onViewportChangeListener?.onViewportChanged(pxToMill(-waveformShiftPx), millsPerPx)
+		}
 	}
 
 	private fun calculateGridStep(durationMills: Long): Long {
@@ -462,9 +471,19 @@ class WaveformViewNew @JvmOverloads constructor(
 		this.onSeekListener = onSeekListener
 	}
 
+	fun setOnViewportChangeListener(onViewportChangeListener: OnViewportChangeListener?) {
+		this.onViewportChangeListener = onViewportChangeListener
+		notifyViewportChanged()
+	}
+
 	interface OnSeekListener {
 		fun onStartSeek()
 		fun onSeek(px: Int, mills: Long)
 		fun onSeeking(px: Int, mills: Long)
 	}
+
+	/** Notifies about visible range of the waveform to keep other views in sync. */
+	fun interface OnViewportChangeListener {
+		fun onViewportChanged(startMills: Long, millsPerPx: Float)
+	}
 }
@@ -22,8 +22,10 @@ import android.media.MediaFormat;
 
 import com.dimowner.audiorecorder.ARApplication;
 import com.dimowner.audiorecorder.AppConstants;
-import com.dimowner.audiorecorder.IntArrayList;
 import com.dimowner.audiorecorder.app.info.RecordInfo;
+import com.dimowner.audiorecorder.metrics.Counter;
+import com.dimowner.audiorecorder.metrics.Histogram;
+import com.dimowner.audiorecorder.metrics.MetricsRegistry;
 import com.dimowner.audiorecorder.util.FileUtil;
 
 import java.io.File;
@@ -33,6 +35,7 @@ import java.nio.ByteOrder;
 import java.util.Arrays;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import timber.log.Timber;
 
 import static com.dimowner.audiorecorder.AppConstants.SUPPORTED_EXT;
@@ -45,22 +48,43 @@ public class AudioDecoder {
 	private static final int QUEUE_INPUT_BUFFER_EFFECTIVE = 1; // Most effective and fastest
 	private static final int QUEUE_INPUT_BUFFER_SIMPLE = 2;	// Less effective and slower
 
+	/** How often decoding progress is saved into checkpoint. */
+	private static final long CHECKPOINT_INTERVAL_MILLIS = 2000;
+	/** Decoding after seek starts a bit earlier than checkpoint so that decoder has time to settle. */
+	private static final long RESUME_PREROLL_US = 100000;
+
+	private static final Histogram decodeTime = MetricsRegistry.getInstance().histogram("decoder.decode_ms");
+	/** Decoded audio time per wall time, how many times faster than real time decoding is. */
+	private static final Histogram decodeSpeed = MetricsRegistry.getInstance().histogram("decoder.realtime_factor");
+	/** Time to compute gains of one decoded buffer. */
+	private static final Histogram bufferTime = MetricsRegistry.getInstance().histogram("decoder.buffer_us");
+	private static final Counter decodeErrors = MetricsRegistry.getInstance().counter("decoder.errors");
+	private static final Counter codecFallbacks = MetricsRegistry.getInstance().counter("decoder.codec_fallbacks");
+
 	private float dpPerSec = AppConstants.SHORT_RECORD_DP_PER_SECOND;
 
 	private int sampleRate;
 	private int channelCount;
-	private int[] oneFrameAmps;
-	private int frameIndex = 0;
 
 	private long duration;
 	private static final String TRASH_EXT = "del";
 
-	private IntArrayList gains;
+	private GainAccumulator accumulator;
 
 	private AudioDecoder() {
 	}
 
 	public static void decode(@NonNull String fileName, @NonNull AudioDecodingListener decodeListener) {
+		decode(fileName, decodeListener, null);
+	}
+
+	/**
+	 * Decode audio file into waveform gains.
+	 * When checkpoint store is provided decoding progress is saved periodically and
+	 * decoding continues from the last saved checkpoint if there is one.
+	 */
+	public static void decode(@NonNull String fileName, @NonNull AudioDecodingListener decodeListener,
+									  @Nullable DecodeCheckpointStore checkpointStore) {
 		try {
 			File file = new File(fileName);
 			if (!file.exists()) {
@@ -74,9 +98,16 @@ public class AudioDecoder {
 			if (!Arrays.asList(SUPPORTED_EXT).contains(components[components.length - 1])) {
 				throw new IOException();
 			}
+			DecodeCheckpoint checkpoint = checkpointStore != null ? checkpointStore.load(file) : null;
 			AudioDecoder decoder = new AudioDecoder();
-			decoder.decodeFile(file, decodeListener, QUEUE_INPUT_BUFFER_EFFECTIVE);
+			if (checkpoint != null) {
+				//Resumed decoding needs precise presentation time of every decoded buffer.
+				decoder.decodeFile(file, decodeListener, QUEUE_INPUT_BUFFER_SIMPLE, checkpoint, checkpointStore);
+			} else {
+				decoder.decodeFile(file, decodeListener, QUEUE_INPUT_BUFFER_EFFECTIVE, null, checkpointStore);
+			}
 		} catch (Exception e) {
+			decodeErrors.inc();
 			decodeListener.onError(e);
 		}
 	}
@@ -85,9 +116,11 @@ public class AudioDecoder {
 		return (int)(sampleRate / dpPerSec);
 	}
 
-	private void decodeFile(@NonNull final File mInputFile, @NonNull final AudioDecodingListener decodeListener, final int queueType)
+	private void decodeFile(@NonNull final File mInputFile, @NonNull final AudioDecodingListener decodeListener,
+									final int queueType, @Nullable final DecodeCheckpoint checkpoint,
+									@Nullable final DecodeCheckpointStore checkpointStore)
 			throws IOException, OutOfMemoryError, IllegalStateException {
-		gains = new IntArrayList();
+		final long decodeStart = decodeTime.start();
 		final MediaExtractor extractor = new MediaExtractor();
 		MediaFormat format = null;
 		int i;
@@ -104,6 +137,7 @@ public class AudioDecoder {
 		}
 
 		if (i == numTracks || format == null) {
+			extractor.release();
 			throw new IOException("No audio track found in " + mInputFile.toString());
 		}
 		channelCount = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
@@ -113,7 +147,18 @@ public class AudioDecoder {
 
 		//TODO: Make waveform independent from dpPerSec!!!
 		dpPerSec = ARApplication.getDpPerSecond((float) duration/1000000f);
-		oneFrameAmps = new int[calculateSamplesPerFrame() * channelCount];
+		int samplesPerFrame = calculateSamplesPerFrame();
+
+		long resumeTimeUs = 0;
+		if (checkpoint != null && checkpoint.isCompatible(sampleRate, channelCount, samplesPerFrame * channelCount)) {
+			accumulator = GainAccumulator.fromCheckpoint(checkpoint);
+			resumeTimeUs = checkpoint.getResumeTimeUs();
+			extractor.seekTo(Math.max(0, resumeTimeUs - RESUME_PREROLL_US), MediaExtractor.SEEK_TO_PREVIOUS_SYNC);
+			Timber.v("Resume decoding %s from %d us", mInputFile.getName(), resumeTimeUs);
+		} else {
+			accumulator = new GainAccumulator(sampleRate, channelCount, samplesPerFrame);
+		}
+		final long startTimeUs = resumeTimeUs;
 
 		String mimeType = format.getString(MediaFormat.KEY_MIME);
 		//Start decoding
@@ -124,21 +169,37 @@ public class AudioDecoder {
 
 			private boolean mOutputEOS = false;
 			private boolean mInputEOS = false;
-			private long decoded = 0;
 			private long totalSize = mInputFile.length();
+			private long decoded = duration > 0 ? totalSize * startTimeUs / duration : 0;
 			private int percent = 0;
+			private long lastCheckpointTime = System.currentTimeMillis();
+			/** Listener already got its final callback, codec and extractor are released. */
+			private boolean isFinished = false;
 
 			@Override
 			public void onError(@NonNull MediaCodec codec, @NonNull MediaCodec.CodecException exception) {
 				Timber.e(exception);
+				if (isFinished) return;
+				isFinished = true;
 				if (queueType == QUEUE_INPUT_BUFFER_EFFECTIVE) {
+					codecFallbacks.inc();
+					//Continue from where effective decoding stopped instead of starting from scratch.
+					DecodeCheckpoint fallbackCheckpoint = makeCheckpoint();
+					releaseQuietly(codec, extractor);
 					try {
 						AudioDecoder decoder = new AudioDecoder();
-						decoder.decodeFile(mInputFile, decodeListener, QUEUE_INPUT_BUFFER_SIMPLE);
+						decoder.decodeFile(mInputFile, decodeListener, QUEUE_INPUT_BUFFER_SIMPLE,
+								fallbackCheckpoint, checkpointStore);
 					} catch (IllegalStateException | IOException | OutOfMemoryError e) {
+						decodeErrors.inc();
 						decodeListener.onError(exception);
 					}
 				} else {
+					releaseQuietly(codec, extractor);
+					if (checkpointStore != null) {
+						checkpointStore.delete(mInputFile.getAbsolutePath());
+					}
+					decodeErrors.inc();
 					decodeListener.onError(exception);
 				}
 			}
@@ -149,13 +210,13 @@ public class AudioDecoder {
 
 			@Override
 			public void onInputBufferAvailable(@NonNull MediaCodec codec, int index) {
-				if (mOutputEOS | mInputEOS) return;
-				if (decodeListener.isCanceled()) {
-					codec.queueInputBuffer(index, 0, 0, -1, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
-					mInputEOS = true;
-					return;
-				}
+				if (mOutputEOS | mInputEOS | isFinished) return;
 				try {
+					if (decodeListener.isCanceled()) {
+						codec.queueInputBuffer(index, 0, 0, -1, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+						mInputEOS = true;
+						return;
+					}
 					ByteBuffer inputBuffer = codec.getInputBuffer(index);
 					if (inputBuffer == null) return;
 					long sampleTime = 0;
@@ -194,7 +255,8 @@ public class AudioDecoder {
 						}
 					}
 				} catch (IllegalStateException | IllegalArgumentException e) {
-					Timber.e(e);
+					fail(codec, e);
+					return;
 				}
 				int curProgress = (int)(100*decoded/(float)totalSize);
 				if (curProgress != percent) {
@@ -205,57 +267,96 @@ public class AudioDecoder {
 
 			@Override
 			public void onOutputBufferAvailable(@NonNull MediaCodec codec, int index, @NonNull MediaCodec.BufferInfo info) {
+				if (isFinished) return;
 				try {
 					ByteBuffer outputBuffer = codec.getOutputBuffer(index);
 					if (outputBuffer != null) {
+						long bufferStart = bufferTime.start();
 						outputBuffer.rewind();
 						outputBuffer.order(ByteOrder.LITTLE_ENDIAN);
-						while (outputBuffer.remaining() > 0) {
-							oneFrameAmps[frameIndex] = outputBuffer.getShort();
-							frameIndex++;
-							if (frameIndex >= oneFrameAmps.length - 1) {
-								int j;
-								int gain, value;
-								gain = -1;
-								for (j = 0; j < oneFrameAmps.length; j += channelCount) {
-									value = 0;
-									for (int k = 0; k < channelCount; k++) {
-										value += oneFrameAmps[j + k];
-									}
-									value /= channelCount;
-									if (gain < value) {
-										gain = value;
-									}
-								}
-								gains.add((int) Math.sqrt(gain));
-								frameIndex = 0;
-							}
+						if (accumulator.isResuming()) {
+							accumulator.addSamples(outputBuffer.asShortBuffer(), info.presentationTimeUs);
+						} else {
+							accumulator.addSamples(outputBuffer.asShortBuffer());
 						}
+						bufferTime.recordMicrosSince(bufferStart);
 					}
 
 					mOutputEOS |= ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0);
 					codec.releaseOutputBuffer(index, false);
 
 					if (mOutputEOS) {
+						isFinished = true;
+						releaseQuietly(codec, extractor);
 						if (decodeListener.isCanceled()) {
+							if (checkpointStore != null) {
+								checkpointStore.save(makeCheckpoint());
+							}
 							decodeListener.onProcessingCancel();
 						} else {
+							if (checkpointStore != null) {
+								checkpointStore.delete(mInputFile.getAbsolutePath());
+							}
+							recordDecodeTime();
 							decodeListener.onProcessingProgress(100);
-							decodeListener.onFinishProcessing(gains.getData(), duration);
+							decodeListener.onFinishProcessing(accumulator.getGains(), duration);
+						}
+					} else if (checkpointStore != null) {
+						long now = System.currentTimeMillis();
+						if (now - lastCheckpointTime > CHECKPOINT_INTERVAL_MILLIS) {
+							lastCheckpointTime = now;
+							checkpointStore.save(makeCheckpoint());
 						}
-						codec.stop();
-						codec.release();
-						extractor.release();
 					}
-				} catch (IllegalStateException e) {
-					Timber.e(e);
+				} catch (IllegalStateException | IllegalArgumentException e) {
+					fail(codec, e);
+				}
+			}
+
+			/**
+			 * Failure inside of a callback is not seen by MediaCodec, so decoding is stopped here and
+			 * reported to the listener. Otherwise the listener would wait for a result forever.
+			 */
+			private void fail(@NonNull MediaCodec codec, @NonNull Exception e) {
+				Timber.e(e);
+				if (isFinished) return;
+				isFinished = true;
+				releaseQuietly(codec, extractor);
+				if (checkpointStore != null) {
+					checkpointStore.delete(mInputFile.getAbsolutePath());
+				}
+				decodeErrors.inc();
+				decodeListener.onError(e);
+			}
+
+			private void recordDecodeTime() {
+				if (decodeStart != 0) {
+					long wallUs = (System.nanoTime() - decodeStart) / 1000;
+					decodeTime.record(wallUs / 1000);
+					if (wallUs > 0) {
+						decodeSpeed.record((duration - startTimeUs) / wallUs);
+					}
 				}
 			}
+
+			private DecodeCheckpoint makeCheckpoint() {
+				return accumulator.toCheckpoint(mInputFile.getAbsolutePath(), totalSize, mInputFile.lastModified());
+			}
 		});
 		decoder.configure(format, null, null, 0);
 		decoder.start();
 	}
 
+	private static void releaseQuietly(MediaCodec codec, MediaExtractor extractor) {
+		try {
+			codec.stop();
+			codec.release();
+		} catch (IllegalStateException e) {
+			Timber.e(e);
+		}
+		extractor.release();
+	}
+
 	public static RecordInfo readRecordInfo(@NonNull final File inputFile)
 			throws OutOfMemoryError, IllegalStateException {
 
@@ -274,7 +375,57 @@ public class AudioDecoder {
 				throw new IOException();
 			}
 
-			final MediaExtractor extractor = new MediaExtractor();
+			AudioHeaderInfo headerInfo = AudioHeaderProber.probe(inputFile);
+			if (headerInfo == null) {
+				//Unknown container, let platform extractor read it.
+				headerInfo = readHeaderInfoWithExtractor(inputFile);
+			}
+			return new RecordInfo(
+					FileUtil.removeFileExtension(inputFile.getName()),
+					readFileFormat(inputFile, headerInfo.getMime()),
+					headerInfo.getDurationUs(),
+					inputFile.length(),
+					inputFile.getAbsolutePath(),
+					inputFile.lastModified(),
+					headerInfo.getSampleRate(),
+					headerInfo.getChannelCount(),
+					headerInfo.getBitrate(),
+					isInTrash
+			);
+		} catch (Exception e) {
+			Timber.e(e);
+			return new RecordInfo(
+					FileUtil.removeFileExtension(inputFile.getName()), "", 0, inputFile.length(),
+					inputFile.getAbsolutePath(), inputFile.lastModified(), 0, 0, 0, isInTrash
+			);
+		}
+	}
+
+	public static String readRecordMime(@NonNull final File inputFile) {
+		try {
+			if (!inputFile.exists()) {
+				throw new java.io.FileNotFoundException(inputFile.getAbsolutePath());
+			}
+			String name = inputFile.getName().toLowerCase();
+			String[] components = name.split("\\.");
+			if (components.length < 2) {
+				throw new IOException();
+			}
+
+			AudioHeaderInfo headerInfo = AudioHeaderProber.probe(inputFile);
+			if (headerInfo == null) {
+				headerInfo = readHeaderInfoWithExtractor(inputFile);
+			}
+			return headerInfo.getMime();
+		} catch (Exception e) {
+			Timber.e(e);
+		}
+		return "audio/*";
+	}
+
+	private static AudioHeaderInfo readHeaderInfoWithExtractor(@NonNull final File inputFile) throws IOException {
+		final MediaExtractor extractor = new MediaExtractor();
+		try {
 			MediaFormat format = null;
 			int i;
 
@@ -333,76 +484,12 @@ public class AudioDecoder {
 				Timber.e(e);
 				mimeType = "";
 			}
-
-			return new RecordInfo(
-					FileUtil.removeFileExtension(inputFile.getName()),
-					readFileFormat(inputFile, mimeType),
-					duration,
-					inputFile.length(),
-					inputFile.getAbsolutePath(),
-					inputFile.lastModified(),
-					sampleRate,
-					channelCount,
-					bitrate,
-					isInTrash
-			);
-		} catch (Exception e) {
-			Timber.e(e);
-			return new RecordInfo(
-					FileUtil.removeFileExtension(inputFile.getName()), "", 0, inputFile.length(),
-					inputFile.getAbsolutePath(), inputFile.lastModified(), 0, 0, 0, isInTrash
-			);
+			return new AudioHeaderInfo(mimeType, duration, sampleRate, channelCount, bitrate);
+		} finally {
+			extractor.release();
 		}
 	}
 
-	public static String readRecordMime(@NonNull final File inputFile) {
-		try {
-			if (!inputFile.exists()) {
-				throw new java.io.FileNotFoundException(inputFile.getAbsolutePath());
-			}
-			String name = inputFile.getName().toLowerCase();
-			String[] components = name.split("\\.");
-			if (components.length < 2) {
-				throw new IOException();
-			}
-
-			final MediaExtractor extractor = new MediaExtractor();
-			MediaFormat format = null;
-			int i;
-
-			extractor.setDataSource(inputFile.getPath());
-			int numTracks = extractor.getTrackCount();
-			// find and select the first audio track present in the file.
-			for (i = 0; i < numTracks; i++) {
-				format = extractor.getTrackFormat(i);
-				try {
-					if (format.getString(MediaFormat.KEY_MIME).startsWith("audio/")) {
-						extractor.selectTrack(i);
-						break;
-					}
-				} catch (Exception e) {
-					Timber.e(e);
-				}
-			}
-
-			if (i == numTracks || format == null) {
-				throw new IOException("No audio track found in " + inputFile.toString());
-			}
-
-			String mimeType;
-			try {
-				mimeType= format.getString(MediaFormat.KEY_MIME);
-			} catch (Exception e) {
-				Timber.e(e);
-				mimeType = "";
-			}
-			return mimeType;
-		} catch (Exception e) {
-			Timber.e(e);
-		}
-		return "audio/*";
-	}
-
 	private static String readFileFormat(File file, String mime) {
 		String name = file.getName().toLowerCase();
 		if (name.contains(AppConstants.FORMAT_M4A) || (mime != null && mime.contains("audio") && mime.contains("mp4a"))) {
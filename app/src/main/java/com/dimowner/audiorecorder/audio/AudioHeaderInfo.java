@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+/**
+ * Audio track parameters read from container headers by {@link AudioHeaderProber}.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class AudioHeaderInfo {
+
+	private final String mime;
+	private final long durationUs;
+	private final int sampleRate;
+	private final int channelCount;
+	private final int bitrate;
+
+	public AudioHeaderInfo(String mime, long durationUs, int sampleRate, int channelCount, int bitrate) {
+		this.mime = mime;
+		this.durationUs = durationUs;
+		this.sampleRate = sampleRate;
+		this.channelCount = channelCount;
+		this.bitrate = bitrate;
+	}
+
+	/** Mime type in the same form as MediaExtractor reports it. */
+	public String getMime() {
+		return mime;
+	}
+
+	public long getDurationUs() {
+		return durationUs;
+	}
+
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	public int getChannelCount() {
+		return channelCount;
+	}
+
+	public int getBitrate() {
+		return bitrate;
+	}
+
+	@Override
+	public String toString() {
+		return "AudioHeaderInfo{" +
+				"mime='" + mime + '\'' +
+				", durationUs=" + durationUs +
+				", sampleRate=" + sampleRate +
+				", channelCount=" + channelCount +
+				", bitrate=" + bitrate +
+				'}';
+	}
+}
@@ -0,0 +1,650 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads audio track parameters from container headers without decoding or demuxing the file.
+ * Supported containers: WAV/RF64, MP4/M4A/3GP, raw AMR-NB/WB, MP3, FLAC and Ogg (Vorbis, Opus).
+ * Format is detected by file content, not by extension, so records in trash are probed as well.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public final class AudioHeaderProber {
+
+	public static final String MIME_RAW = "audio/raw";
+	public static final String MIME_AAC = "audio/mp4a-latm";
+	public static final String MIME_AMR_NB = "audio/3gpp";
+	public static final String MIME_AMR_WB = "audio/amr-wb";
+	public static final String MIME_MPEG = "audio/mpeg";
+	public static final String MIME_FLAC = "audio/flac";
+	public static final String MIME_VORBIS = "audio/vorbis";
+	public static final String MIME_OPUS = "audio/opus";
+
+	private static final int HEADER_SIZE = 64;
+	private static final int MP3_SYNC_SEARCH_SIZE = 64 * 1024;
+	private static final int MP3_CBR_CHECK_FRAMES = 8;
+	private static final int OGG_LAST_PAGE_SEARCH_SIZE = 64 * 1024;
+	static final int ID3V1_SIZE = 128;
+
+	private static final int[] AMR_NB_FRAME_SIZES = {12, 13, 15, 17, 19, 20, 26, 31};
+	private static final int[] AMR_NB_BITRATES = {4750, 5150, 5900, 6700, 7400, 7950, 10200, 12200};
+	private static final int[] AMR_WB_FRAME_SIZES = {17, 23, 32, 36, 40, 46, 50, 58, 60};
+	private static final int[] AMR_WB_BITRATES = {6600, 8850, 12650, 14250, 15850, 18250, 19850, 23050, 23850};
+	private static final long AMR_FRAME_DURATION_US = 20000;
+
+	private static final int[][] MP3_BITRATES_KBPS = {
+			{0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448}, //MPEG1 Layer I
+			{0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},    //MPEG1 Layer II
+			{0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},     //MPEG1 Layer III
+			{0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},    //MPEG2/2.5 Layer I
+			{0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}          //MPEG2/2.5 Layer II, III
+	};
+	private static final int[] MP3_SAMPLE_RATES = {44100, 48000, 32000};
+
+	private AudioHeaderProber() {
+	}
+
+	/**
+	 * Read audio parameters of the file.
+	 * @return Audio parameters or null when format is not recognized or headers are broken.
+	 */
+	public static AudioHeaderInfo probe(File file) {
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			return probe(in);
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static AudioHeaderInfo probe(RandomAccessFile in) throws IOException {
+		long length = in.length();
+		if (length < 12) {
+			return null;
+		}
+		byte[] head = read(in, 0, (int) Math.min(HEADER_SIZE, length));
+		if ((startsWith(head, 0, "RIFF") || startsWith(head, 0, "RF64")) && startsWith(head, 8, "WAVE")) {
+			return probeWav(in, length);
+		} else if (startsWith(head, 4, "ftyp")) {
+			return probeMp4(in, length);
+		} else if (startsWith(head, 0, "#!AMR")) {
+			return probeAmr(in, length, head);
+		} else if (startsWith(head, 0, "fLaC")) {
+			return probeFlac(in, length, 0);
+		} else if (startsWith(head, 0, "OggS")) {
+			return probeOgg(in, length, head);
+		}
+		long offset = 0;
+		if (startsWith(head, 0, "ID3")) {
+			offset = id3v2Size(head);
+			if (offset + 4 <= length && startsWith(read(in, offset, 4), 0, "fLaC")) {
+				return probeFlac(in, length, offset);
+			}
+		}
+		return probeMp3(in, length, offset);
+	}
+
+	// ---------------- WAV / RF64 ----------------
+
+	private static AudioHeaderInfo probeWav(RandomAccessFile in, long length) throws IOException {
+		int channels = 0;
+		int sampleRate = 0;
+		long byteRate = 0;
+		long ds64DataSize = -1;
+		long dataSize = -1;
+		long pos = 12;
+		while (pos + 8 <= length) {
+			byte[] header = read(in, pos, 8);
+			long size = u32le(header, 4);
+			if (startsWith(header, 0, "fmt ")) {
+				byte[] fmt = read(in, pos + 8, 16);
+				channels = u16le(fmt, 2);
+				sampleRate = (int) u32le(fmt, 4);
+				byteRate = u32le(fmt, 8);
+			} else if (startsWith(header, 0, "ds64")) {
+				byte[] ds64 = read(in, pos + 8, 24);
+				ds64DataSize = u64le(ds64, 8);
+			} else if (startsWith(header, 0, "data")) {
+				long dataOffset = pos + 8;
+				dataSize = size == 0xFFFFFFFFL && ds64DataSize >= 0 ? ds64DataSize : size;
+				if (dataSize == 0 || dataSize > length - dataOffset) {
+					//Header was not finalized, for example recording was interrupted.
+					dataSize = length - dataOffset;
+				}
+				break;
+			}
+			pos += 8 + size + (size & 1);
+		}
+		if (dataSize < 0 || byteRate <= 0) {
+			return null;
+		}
+		return new AudioHeaderInfo(MIME_RAW, dataSize * 1000000L / byteRate, sampleRate, channels, (int) (byteRate * 8));
+	}
+
+	// ---------------- MP4 / M4A / 3GP ----------------
+
+	private static AudioHeaderInfo probeMp4(RandomAccessFile in, long length) throws IOException {
+		long[] moov = findBox(in, 0, length, "moov");
+		if (moov == null) {
+			return null;
+		}
+		long movieDurationUs = -1;
+		long[] mvhd = findBox(in, moov[0], moov[1], "mvhd");
+		if (mvhd != null) {
+			byte[] b = read(in, mvhd[0], 32);
+			movieDurationUs = mp4DurationUs(b);
+		}
+		long pos = moov[0];
+		while (pos + 8 <= moov[1]) {
+			long[] box = readBox(in, pos, moov[1]);
+			if (box == null) {
+				break;
+			}
+			if (box[2] == fourcc("trak")) {
+				AudioHeaderInfo info = probeMp4Track(in, length, box[0], box[1], movieDurationUs);
+				if (info != null) {
+					return info;
+				}
+			}
+			pos = box[1];
+		}
+		return null;
+	}
+
+	private static AudioHeaderInfo probeMp4Track(RandomAccessFile in, long length, long start, long end,
+																long movieDurationUs) throws IOException {
+		long[] mdia = findBox(in, start, end, "mdia");
+		if (mdia == null) {
+			return null;
+		}
+		long[] hdlr = findBox(in, mdia[0], mdia[1], "hdlr");
+		if (hdlr == null || !startsWith(read(in, hdlr[0], 12), 8, "soun")) {
+			return null;
+		}
+		long[] mdhd = findBox(in, mdia[0], mdia[1], "mdhd");
+		long[] minf = findBox(in, mdia[0], mdia[1], "minf");
+		long[] stbl = minf != null ? findBox(in, minf[0], minf[1], "stbl") : null;
+		long[] stsd = stbl != null ? findBox(in, stbl[0], stbl[1], "stsd") : null;
+		if (mdhd == null || stsd == null) {
+			return null;
+		}
+		byte[] mdhdData = read(in, mdhd[0], 32);
+		long durationUs = mp4DurationUs(mdhdData);
+		long timescale = mdhdData[0] == 1 ? u32be(mdhdData, 20) : u32be(mdhdData, 12);
+		if (durationUs < 0) {
+			durationUs = Math.max(movieDurationUs, 0);
+		}
+
+		//Sample description: version/flags, entry count and then the first audio sample entry.
+		long entryStart = stsd[0] + 8;
+		byte[] entry = read(in, entryStart, 36);
+		long entryEnd = Math.min(entryStart + u32be(entry, 0), stsd[1]);
+		String type = new String(entry, 4, 4, StandardCharsets.US_ASCII);
+		String mime;
+		switch (type) {
+			case "mp4a":
+				mime = MIME_AAC;
+				break;
+			case "samr":
+				mime = MIME_AMR_NB;
+				break;
+			case "sawb":
+				mime = MIME_AMR_WB;
+				break;
+			default:
+				return null;
+		}
+		int entryVersion = u16be(entry, 16);
+		int channels = u16be(entry, 24);
+		int sampleRate = (int) (u32be(entry, 32) >>> 16);
+		if (sampleRate == 0) {
+			sampleRate = (int) timescale;
+		}
+		int bitrate = 0;
+		if (MIME_AAC.equals(mime)) {
+			//QuickTime sound descriptions version 1 and 2 have additional fields before child boxes.
+			long childrenStart = entryStart + 36 + (entryVersion == 1 ? 16 : entryVersion == 2 ? 36 : 0);
+			long[] esds = findBox(in, childrenStart, entryEnd, "esds");
+			if (esds != null) {
+				bitrate = esdsAvgBitrate(read(in, esds[0], (int) Math.min(64, esds[1] - esds[0])));
+			}
+		}
+		if (bitrate <= 0) {
+			bitrate = averageBitrate(length, durationUs);
+		}
+		return new AudioHeaderInfo(mime, durationUs, sampleRate, channels, bitrate);
+	}
+
+	/**
+	 * Duration from 'mvhd' or 'mdhd' box content.
+	 * @return Duration in microseconds or -1 when duration is unknown.
+	 */
+	private static long mp4DurationUs(byte[] b) {
+		long timescale;
+		long duration;
+		if (b[0] == 1) {
+			timescale = u32be(b, 20);
+			duration = u64be(b, 24);
+			if (duration == -1L) {
+				return -1;
+			}
+		} else {
+			timescale = u32be(b, 12);
+			duration = u32be(b, 16);
+			if (duration == 0xFFFFFFFFL) {
+				return -1;
+			}
+		}
+		if (timescale <= 0) {
+			return -1;
+		}
+		return duration * 1000000L / timescale;
+	}
+
+	/**
+	 * Average bitrate from DecoderConfigDescriptor of ES descriptor.
+	 */
+	private static int esdsAvgBitrate(byte[] b) {
+		int p = 4; //version and flags
+		if ((b[p] & 0xFF) == 0x03) {
+			p = skipDescriptorLength(b, p + 1);
+			p += 2; //ES_ID
+			int flags = b[p++] & 0xFF;
+			if ((flags & 0x80) != 0) {
+				p += 2; //dependsOn_ES_ID
+			}
+			if ((flags & 0x40) != 0) {
+				p += 1 + (b[p] & 0xFF); //URL
+			}
+			if ((flags & 0x20) != 0) {
+				p += 2; //OCR_ES_Id
+			}
+		}
+		if ((b[p] & 0xFF) != 0x04) {
+			return 0;
+		}
+		p = skipDescriptorLength(b, p + 1);
+		//objectTypeIndication, streamType, bufferSizeDB, maxBitrate
+		p += 1 + 1 + 3 + 4;
+		return (int) u32be(b, p);
+	}
+
+	private static int skipDescriptorLength(byte[] b, int p) {
+		for (int i = 0; i < 4; i++) {
+			if ((b[p++] & 0x80) == 0) {
+				break;
+			}
+		}
+		return p;
+	}
+
+	static long[] findBox(RandomAccessFile in, long start, long end, String type) throws IOException {
+		int code = fourcc(type);
+		long pos = start;
+		while (pos + 8 <= end) {
+			long[] box = readBox(in, pos, end);
+			if (box == null) {
+				return null;
+			}
+			if (box[2] == code) {
+				return box;
+			}
+			pos = box[1];
+		}
+		return null;
+	}
+
+	/**
+	 * @return Array of box content start, box end and box type or null if box header is broken.
+	 */
+	static long[] readBox(RandomAccessFile in, long pos, long end) throws IOException {
+		byte[] header = read(in, pos, 8);
+		long size = u32be(header, 0);
+		long type = u32be(header, 4);
+		long contentStart = pos + 8;
+		if (size == 1) {
+			if (pos + 16 > end) {
+				return null;
+			}
+			size = u64be(read(in, pos + 8, 8), 0);
+			contentStart = pos + 16;
+		} else if (size == 0) {
+			size = end - pos;
+		}
+		if (size < contentStart - pos || pos + size > end) {
+			return null;
+		}
+		return new long[] {contentStart, pos + size, type};
+	}
+
+	// ---------------- AMR ----------------
+
+	private static AudioHeaderInfo probeAmr(RandomAccessFile in, long length, byte[] head) throws IOException {
+		boolean isWideband = startsWith(head, 0, "#!AMR-WB\n");
+		if (!isWideband && !startsWith(head, 0, "#!AMR\n")) {
+			return null;
+		}
+		int headerSize = isWideband ? 9 : 6;
+		int[] frameSizes = isWideband ? AMR_WB_FRAME_SIZES : AMR_NB_FRAME_SIZES;
+		int[] bitrates = isWideband ? AMR_WB_BITRATES : AMR_NB_BITRATES;
+		int sampleRate = isWideband ? 16000 : 8000;
+		String mime = isWideband ? MIME_AMR_WB : MIME_AMR_NB;
+		if (length <= headerSize) {
+			return new AudioHeaderInfo(mime, 0, sampleRate, 1, 0);
+		}
+		int frameType = ((read(in, headerSize, 1)[0] & 0xFF) >> 3) & 0x0F;
+		if (frameType >= frameSizes.length) {
+			return null;
+		}
+		//Recorders write all frames in the same mode so frame count is calculated from the first one.
+		long frames = (length - headerSize) / (frameSizes[frameType] + 1);
+		return new AudioHeaderInfo(mime, frames * AMR_FRAME_DURATION_US, sampleRate, 1, bitrates[frameType]);
+	}
+
+	// ---------------- MP3 ----------------
+
+	private static AudioHeaderInfo probeMp3(RandomAccessFile in, long length, long start) throws IOException {
+		long framePos = findMp3Frame(in, length, start);
+		if (framePos < 0) {
+			return null;
+		}
+		return probeMp3Stream(in, length, framePos, Mp3Frame.parse(u32be(read(in, framePos, 4), 0)));
+	}
+
+	/**
+	 * Find position of the first MPEG audio frame at or after the start.
+	 * @return Frame position or -1 when there is no valid frame.
+	 */
+	static long findMp3Frame(RandomAccessFile in, long length, long start) throws IOException {
+		int window = (int) Math.min(MP3_SYNC_SEARCH_SIZE, length - start);
+		if (window < 4) {
+			return -1;
+		}
+		byte[] buf = read(in, start, window);
+		for (int i = 0; i + 4 <= buf.length; i++) {
+			Mp3Frame frame = Mp3Frame.parse(u32be(buf, i));
+			if (frame == null) {
+				continue;
+			}
+			//Require the next frame to be valid as well to avoid false sync.
+			long nextPos = start + i + frame.length;
+			if (nextPos + 4 <= length) {
+				Mp3Frame next = Mp3Frame.parse(u32be(read(in, nextPos, 4), 0));
+				if (next == null || next.sampleRate != frame.sampleRate || next.layer != frame.layer) {
+					continue;
+				}
+			}
+			return start + i;
+		}
+		return -1;
+	}
+
+	private static AudioHeaderInfo probeMp3Stream(RandomAccessFile in, long length, long framePos, Mp3Frame frame) throws IOException {
+		long audioEnd = length;
+		if (length - ID3V1_SIZE > framePos && startsWith(read(in, length - ID3V1_SIZE, 3), 0, "TAG")) {
+			audioEnd -= ID3V1_SIZE;
+		}
+
+		//Xing or Info header is placed right after side information of the first frame.
+		byte[] first = read(in, framePos, (int) Math.min(Math.max(frame.length, 64), audioEnd - framePos));
+		int xingOffset = 4 + frame.sideInfoSize;
+		if (xingOffset + 16 <= first.length && (startsWith(first, xingOffset, "Xing") || startsWith(first, xingOffset, "Info"))) {
+			long flags = u32be(first, xingOffset + 4);
+			if ((flags & 0x01) != 0) {
+				long frames = u32be(first, xingOffset + 8);
+				long bytes = (flags & 0x02) != 0 ? u32be(first, xingOffset + 12) : audioEnd - framePos;
+				return mp3Info(frame, frames, bytes);
+			}
+		}
+		//VBRI header is always 32 bytes after the frame header.
+		int vbriOffset = 4 + 32;
+		if (vbriOffset + 18 <= first.length && startsWith(first, vbriOffset, "VBRI")) {
+			long bytes = u32be(first, vbriOffset + 10);
+			long frames = u32be(first, vbriOffset + 14);
+			return mp3Info(frame, frames, bytes);
+		}
+
+		//No VBR header: check whether the stream has constant bitrate.
+		long pos = framePos;
+		boolean isConstant = true;
+		for (int i = 0; i < MP3_CBR_CHECK_FRAMES && pos + 4 <= audioEnd; i++) {
+			Mp3Frame f = Mp3Frame.parse(u32be(read(in, pos, 4), 0));
+			if (f == null) {
+				break;
+			}
+			if (f.bitrate != frame.bitrate) {
+				isConstant = false;
+				break;
+			}
+			pos += f.length;
+		}
+		if (isConstant) {
+			long bytes = audioEnd - framePos;
+			long durationUs = bytes * 8 * 1000000L / frame.bitrate;
+			return new AudioHeaderInfo(MIME_MPEG, durationUs, frame.sampleRate, frame.channels, frame.bitrate);
+		}
+
+		//Variable bitrate without header: walk through all frame headers.
+		long frames = 0;
+		pos = framePos;
+		byte[] header = new byte[4];
+		while (pos + 4 <= audioEnd) {
+			in.seek(pos);
+			in.readFully(header);
+			Mp3Frame f = Mp3Frame.parse(u32be(header, 0));
+			if (f == null) {
+				break;
+			}
+			frames++;
+			pos += f.length;
+		}
+		return mp3Info(frame, frames, pos - framePos);
+	}
+
+	private static AudioHeaderInfo mp3Info(Mp3Frame frame, long frames, long bytes) {
+		long durationUs = frames * frame.samplesPerFrame * 1000000L / frame.sampleRate;
+		int bitrate = durationUs > 0 ? (int) (bytes * 8 * 1000000L / durationUs) : frame.bitrate;
+		return new AudioHeaderInfo(MIME_MPEG, durationUs, frame.sampleRate, frame.channels, bitrate);
+	}
+
+	static long id3v2Size(byte[] head) {
+		if (head.length < 10) {
+			return 0;
+		}
+		long size = ((head[6] & 0x7F) << 21) | ((head[7] & 0x7F) << 14) | ((head[8] & 0x7F) << 7) | (head[9] & 0x7F);
+		boolean hasFooter = (head[5] & 0x10) != 0;
+		return 10 + size + (hasFooter ? 10 : 0);
+	}
+
+	static class Mp3Frame {
+		int layer;
+		int bitrate;
+		int sampleRate;
+		int channels;
+		int length;
+		int samplesPerFrame;
+		int sideInfoSize;
+
+		static Mp3Frame parse(long header) {
+			if ((header & 0xFFE00000L) != 0xFFE00000L) {
+				return null;
+			}
+			int versionBits = (int) (header >> 19) & 3;
+			int layerBits = (int) (header >> 17) & 3;
+			int bitrateIndex = (int) (header >> 12) & 0x0F;
+			int sampleRateIndex = (int) (header >> 10) & 3;
+			int padding = (int) (header >> 9) & 1;
+			int channelMode = (int) (header >> 6) & 3;
+			if (versionBits == 1 || layerBits == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+				return null;
+			}
+			boolean isMpeg1 = versionBits == 3;
+			Mp3Frame frame = new Mp3Frame();
+			frame.layer = 4 - layerBits;
+			int table = isMpeg1 ? frame.layer - 1 : (frame.layer == 1 ? 3 : 4);
+			frame.bitrate = MP3_BITRATES_KBPS[table][bitrateIndex] * 1000;
+			frame.sampleRate = MP3_SAMPLE_RATES[sampleRateIndex] / (isMpeg1 ? 1 : versionBits == 2 ? 2 : 4);
+			frame.channels = channelMode == 3 ? 1 : 2;
+			if (frame.layer == 1) {
+				frame.samplesPerFrame = 384;
+				frame.length = (12 * frame.bitrate / frame.sampleRate + padding) * 4;
+			} else if (frame.layer == 2 || isMpeg1) {
+				frame.samplesPerFrame = 1152;
+				frame.length = 144 * frame.bitrate / frame.sampleRate + padding;
+			} else {
+				frame.samplesPerFrame = 576;
+				frame.length = 72 * frame.bitrate / frame.sampleRate + padding;
+			}
+			if (isMpeg1) {
+				frame.sideInfoSize = frame.channels == 1 ? 17 : 32;
+			} else {
+				frame.sideInfoSize = frame.channels == 1 ? 9 : 17;
+			}
+			return frame;
+		}
+	}
+
+	// ---------------- FLAC ----------------
+
+	private static AudioHeaderInfo probeFlac(RandomAccessFile in, long length, long offset) throws IOException {
+		byte[] b = read(in, offset + 4, 4 + 34);
+		if ((b[0] & 0x7F) != 0) {
+			//The first metadata block must be STREAMINFO.
+			return null;
+		}
+		int p = 4 + 10; //min/max block size, min/max frame size
+		int sampleRate = ((b[p] & 0xFF) << 12) | ((b[p + 1] & 0xFF) << 4) | ((b[p + 2] & 0xF0) >> 4);
+		int channels = ((b[p + 2] & 0x0E) >> 1) + 1;
+		long totalSamples = ((long) (b[p + 3] & 0x0F) << 32) | u32be(b, p + 4);
+		if (sampleRate == 0) {
+			return null;
+		}
+		long durationUs = totalSamples * 1000000L / sampleRate;
+		return new AudioHeaderInfo(MIME_FLAC, durationUs, sampleRate, channels, averageBitrate(length - offset, durationUs));
+	}
+
+	// ---------------- Ogg ----------------
+
+	private static AudioHeaderInfo probeOgg(RandomAccessFile in, long length, byte[] head) throws IOException {
+		int segments = head[26] & 0xFF;
+		int dataStart = 27 + segments;
+		byte[] page = read(in, 0, (int) Math.min(length, dataStart + 32));
+		long serial = u32le(page, 14);
+		String mime;
+		int channels;
+		int sampleRate;
+		int granuleRate;
+		long preSkip = 0;
+		int bitrate = 0;
+		if ((page[dataStart] & 0xFF) == 0x01 && startsWith(page, dataStart + 1, "vorbis")) {
+			mime = MIME_VORBIS;
+			channels = page[dataStart + 11] & 0xFF;
+			sampleRate = (int) u32le(page, dataStart + 12);
+			granuleRate = sampleRate;
+			bitrate = (int) u32le(page, dataStart + 20);
+		} else if (startsWith(page, dataStart, "OpusHead")) {
+			mime = MIME_OPUS;
+			channels = page[dataStart + 9] & 0xFF;
+			preSkip = u16le(page, dataStart + 10);
+			//Opus is always decoded at 48 kHz.
+			sampleRate = 48000;
+			granuleRate = 48000;
+		} else {
+			return null;
+		}
+		long granule = oggLastGranule(in, length, serial);
+		long durationUs = granule > preSkip ? (granule - preSkip) * 1000000L / granuleRate : 0;
+		if (bitrate <= 0) {
+			bitrate = averageBitrate(length, durationUs);
+		}
+		return new AudioHeaderInfo(mime, durationUs, sampleRate, channels, bitrate);
+	}
+
+	/**
+	 * Granule position of the last page of the logical stream: number of samples in the stream.
+	 */
+	private static long oggLastGranule(RandomAccessFile in, long length, long serial) throws IOException {
+		int size = (int) Math.min(OGG_LAST_PAGE_SEARCH_SIZE, length);
+		byte[] tail = read(in, length - size, size);
+		for (int i = size - 27; i >= 0; i--) {
+			if (startsWith(tail, i, "OggS") && tail[i + 4] == 0 && u32le(tail, i + 14) == serial) {
+				long granule = u64le(tail, i + 6);
+				if (granule != -1L) {
+					return granule;
+				}
+			}
+		}
+		return 0;
+	}
+
+	// ---------------- Utils ----------------
+
+	private static int averageBitrate(long bytes, long durationUs) {
+		return durationUs > 0 ? (int) (bytes * 8 * 1000000L / durationUs) : 0;
+	}
+
+	static byte[] read(RandomAccessFile in, long pos, int size) throws IOException {
+		byte[] b = new byte[size];
+		in.seek(pos);
+		in.readFully(b);
+		return b;
+	}
+
+	static boolean startsWith(byte[] b, int offset, String prefix) {
+		if (offset < 0 || offset + prefix.length() > b.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (b[offset + i] != (byte) prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static int fourcc(String type) {
+		return (type.charAt(0) << 24) | (type.charAt(1) << 16) | (type.charAt(2) << 8) | type.charAt(3);
+	}
+
+	static int u16be(byte[] b, int p) {
+		return ((b[p] & 0xFF) << 8) | (b[p + 1] & 0xFF);
+	}
+
+	static long u32be(byte[] b, int p) {
+		return ((long) (b[p] & 0xFF) << 24) | ((b[p + 1] & 0xFF) << 16) | ((b[p + 2] & 0xFF) << 8) | (b[p + 3] & 0xFF);
+	}
+
+	static long u64be(byte[] b, int p) {
+		return (u32be(b, p) << 32) | u32be(b, p + 4);
+	}
+
+	private static int u16le(byte[] b, int p) {
+		return (b[p] & 0xFF) | ((b[p + 1] & 0xFF) << 8);
+	}
+
+	private static long u32le(byte[] b, int p) {
+		return (b[p] & 0xFF) | ((b[p + 1] & 0xFF) << 8) | ((b[p + 2] & 0xFF) << 16) | ((long) (b[p + 3] & 0xFF) << 24);
+	}
+
+	private static long u64le(byte[] b, int p) {
+		return u32le(b, p) | (u32le(b, p + 4) << 32);
+	}
+}
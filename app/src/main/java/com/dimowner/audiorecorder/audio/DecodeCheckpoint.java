@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Snapshot of a partially decoded waveform: gains calculated so far, the not yet completed frame
+ * and the position in the decoded PCM stream where decoding stopped.
+ * Source file length and modification time are kept to detect that the file has changed since.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class DecodeCheckpoint {
+
+	private static final int MAGIC = 0x57464350; //WFCP
+	private static final int VERSION = 1;
+
+	private final String path;
+	private final long fileLength;
+	private final long fileLastModified;
+	private final int sampleRate;
+	private final int channelCount;
+	private final int[] frameAmps;
+	private final int frameIndex;
+	private final long consumedSamples;
+	private final int[] gains;
+
+	public DecodeCheckpoint(String path, long fileLength, long fileLastModified, int sampleRate,
+									int channelCount, int[] frameAmps, int frameIndex, long consumedSamples, int[] gains) {
+		this.path = path;
+		this.fileLength = fileLength;
+		this.fileLastModified = fileLastModified;
+		this.sampleRate = sampleRate;
+		this.channelCount = channelCount;
+		this.frameAmps = frameAmps;
+		this.frameIndex = frameIndex;
+		this.consumedSamples = consumedSamples;
+		this.gains = gains;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public long getFileLength() {
+		return fileLength;
+	}
+
+	public long getFileLastModified() {
+		return fileLastModified;
+	}
+
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	public int getChannelCount() {
+		return channelCount;
+	}
+
+	public int[] getFrameAmps() {
+		return frameAmps;
+	}
+
+	public int getFrameIndex() {
+		return frameIndex;
+	}
+
+	/**
+	 * Count of interleaved PCM samples (all channels) already accumulated into gains.
+	 */
+	public long getConsumedSamples() {
+		return consumedSamples;
+	}
+
+	public int[] getGains() {
+		return gains;
+	}
+
+	/**
+	 * Presentation time of the first sample which is not yet accumulated.
+	 */
+	public long getResumeTimeUs() {
+		if (sampleRate <= 0 || channelCount <= 0) {
+			return 0;
+		}
+		return consumedSamples / channelCount * 1000000L / sampleRate;
+	}
+
+	/**
+	 * Checks that checkpoint was made for the same decoding parameters.
+	 */
+	public boolean isCompatible(int sampleRate, int channelCount, int frameLength) {
+		return this.sampleRate == sampleRate && this.channelCount == channelCount
+				&& frameAmps.length == frameLength;
+	}
+
+	public void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeUTF(path);
+		out.writeLong(fileLength);
+		out.writeLong(fileLastModified);
+		out.writeInt(sampleRate);
+		out.writeInt(channelCount);
+		out.writeInt(frameIndex);
+		out.writeLong(consumedSamples);
+		writeIntArray(out, frameAmps);
+		writeIntArray(out, gains);
+	}
+
+	public static DecodeCheckpoint readFrom(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a decode checkpoint");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported decode checkpoint version: " + version);
+		}
+		String path = in.readUTF();
+		long fileLength = in.readLong();
+		long fileLastModified = in.readLong();
+		int sampleRate = in.readInt();
+		int channelCount = in.readInt();
+		int frameIndex = in.readInt();
+		long consumedSamples = in.readLong();
+		int[] frameAmps = readIntArray(in);
+		int[] gains = readIntArray(in);
+		if (frameIndex < 0 || frameIndex > frameAmps.length || consumedSamples < 0) {
+			throw new IOException("Corrupted decode checkpoint");
+		}
+		return new DecodeCheckpoint(path, fileLength, fileLastModified, sampleRate, channelCount,
+				frameAmps, frameIndex, consumedSamples, gains);
+	}
+
+	private static void writeIntArray(DataOutputStream out, int[] array) throws IOException {
+		out.writeInt(array.length);
+		for (int i = 0; i < array.length; i++) {
+			out.writeInt(array[i]);
+		}
+	}
+
+	private static int[] readIntArray(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Corrupted decode checkpoint");
+		}
+		int[] array = new int[length];
+		for (int i = 0; i < length; i++) {
+			array[i] = in.readInt();
+		}
+		return array;
+	}
+}
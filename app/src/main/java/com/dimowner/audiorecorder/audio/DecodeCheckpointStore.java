@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import timber.log.Timber;
+
+/**
+ * Keeps decode checkpoints on disk, one file per decoded audio file.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class DecodeCheckpointStore {
+
+	private static final String EXTENSION = ".chk";
+	private static final String TMP_EXTENSION = ".tmp";
+
+	private final File dir;
+
+	public DecodeCheckpointStore(@NonNull File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * Load checkpoint for the audio file.
+	 * @return Saved checkpoint or null when there is no checkpoint or audio file has changed after it was saved.
+	 */
+	@Nullable
+	public synchronized DecodeCheckpoint load(@NonNull File audioFile) {
+		File file = checkpointFile(audioFile.getAbsolutePath());
+		if (!file.exists()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			DecodeCheckpoint checkpoint = DecodeCheckpoint.readFrom(in);
+			if (checkpoint.getPath().equals(audioFile.getAbsolutePath())
+					&& checkpoint.getFileLength() == audioFile.length()
+					&& checkpoint.getFileLastModified() == audioFile.lastModified()) {
+				return checkpoint;
+			}
+		} catch (IOException e) {
+			Timber.e(e);
+		}
+		//Checkpoint is outdated or broken.
+		file.delete();
+		return null;
+	}
+
+	public synchronized void save(@NonNull DecodeCheckpoint checkpoint) {
+		if (!dir.exists() && !dir.mkdirs()) {
+			Timber.e("Failed to create checkpoints dir: %s", dir.getAbsolutePath());
+			return;
+		}
+		File file = checkpointFile(checkpoint.getPath());
+		File tmp = new File(dir, file.getName() + TMP_EXTENSION);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			checkpoint.writeTo(out);
+		} catch (IOException e) {
+			Timber.e(e);
+			tmp.delete();
+			return;
+		}
+		if (!tmp.renameTo(file)) {
+			Timber.e("Failed to save checkpoint: %s", file.getAbsolutePath());
+			tmp.delete();
+		}
+	}
+
+	public synchronized void delete(@NonNull String path) {
+		File file = checkpointFile(new File(path).getAbsolutePath());
+		if (file.exists()) {
+			file.delete();
+		}
+	}
+
+	private File checkpointFile(String path) {
+		return new File(dir, Integer.toHexString(path.hashCode()) + "_" + path.length() + EXTENSION);
+	}
+}
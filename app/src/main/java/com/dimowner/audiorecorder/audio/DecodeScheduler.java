@@ -0,0 +1,448 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.media.MediaFormat;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import timber.log.Timber;
+
+/**
+ * Runs waveform decoding of records on a bounded pool of workers.
+ * Queued jobs are ordered by priority: active record first, then records visible in the list,
+ * then background backfill. Jobs with equal priority are processed in submission order.
+ * Every worker owns a looper thread which receives MediaCodec callbacks of the current job.
+ * Workers are not tasks of {@link com.dimowner.audiorecorder.TaskExecutor}: a worker blocks
+ * for the whole decoding, up to the job timeout, and their count is limited by codec instances
+ * the device can create, so on the background lane they would hold every background worker and
+ * starve short tasks like spectrogram tiles and seek indexes.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class DecodeScheduler {
+
+	public static final int PRIORITY_ACTIVE = 0;
+	public static final int PRIORITY_VISIBLE = 1;
+	public static final int PRIORITY_BACKFILL = 2;
+
+	private static final int MAX_WORKERS = 4;
+	/** Time given to any decoding job: to open the file, start codec and decode short records. */
+	private static final long MIN_JOB_TIMEOUT_MILLS = 30000;
+
+	private final DecodeCheckpointStore checkpointStore;
+	private final PriorityBlockingQueue<DecodeJob> queue;
+	private final Map<Integer, DecodeJob> jobs = new HashMap<>();
+	private final List<Worker> workers = new ArrayList<>();
+	private final Object lock = new Object();
+
+	private long sequence = 0;
+	private volatile boolean isReleased = false;
+
+	private final long startTime = SystemClock.elapsedRealtime();
+	private long completedCount = 0;
+	private long failedCount = 0;
+	private long canceledCount = 0;
+	private long decodedAudioUs = 0;
+	private long busyTimeMills = 0;
+
+	public DecodeScheduler(@Nullable DecodeCheckpointStore checkpointStore) {
+		this(checkpointStore, calculateWorkersCount());
+	}
+
+	public DecodeScheduler(@Nullable DecodeCheckpointStore checkpointStore, int workersCount) {
+		this.checkpointStore = checkpointStore;
+		this.queue = new PriorityBlockingQueue<>(16, (o1, o2) -> {
+			if (o1.priority != o2.priority) {
+				return Integer.compare(o1.priority, o2.priority);
+			}
+			return Long.compare(o1.sequence, o2.sequence);
+		});
+		for (int i = 0; i < workersCount; i++) {
+			Worker worker = new Worker(i);
+			workers.add(worker);
+			worker.start();
+		}
+		Timber.v("DecodeScheduler started with %d workers", workersCount);
+	}
+
+	/**
+	 * Enqueue decoding of the record. If the record is already queued, the job is only moved to
+	 * higher priority when requested priority is higher than current one.
+	 */
+	public void submit(int recordId, @NonNull String path, int priority, @NonNull AudioDecodingListener listener) {
+		synchronized (lock) {
+			if (isReleased) {
+				return;
+			}
+			DecodeJob job = jobs.get(recordId);
+			if (job != null && !job.isCanceled) {
+				if (!job.isRunning && priority < job.priority) {
+					reprioritizeLocked(job, priority);
+				}
+				return;
+			}
+			job = new DecodeJob(recordId, path, priority, sequence++, listener);
+			jobs.put(recordId, job);
+			queue.add(job);
+		}
+	}
+
+	/**
+	 * Change priority of the queued record. Does nothing when record is not queued or already decoding.
+	 */
+	public void reprioritize(int recordId, int priority) {
+		synchronized (lock) {
+			DecodeJob job = jobs.get(recordId);
+			if (job != null && !job.isRunning && !job.isCanceled && job.priority != priority) {
+				reprioritizeLocked(job, priority);
+			}
+		}
+	}
+
+	private void reprioritizeLocked(DecodeJob job, int priority) {
+		if (queue.remove(job)) {
+			job.priority = priority;
+			//Raised job goes after jobs which already have the same priority.
+			job.sequence = sequence++;
+			queue.add(job);
+		}
+	}
+
+	public boolean isQueued(int recordId) {
+		synchronized (lock) {
+			return jobs.containsKey(recordId);
+		}
+	}
+
+	public void cancel(int recordId) {
+		DecodeJob removed = null;
+		synchronized (lock) {
+			DecodeJob job = jobs.get(recordId);
+			if (job != null) {
+				job.isCanceled = true;
+				if (queue.remove(job)) {
+					jobs.remove(recordId);
+					canceledCount++;
+					removed = job;
+				}
+			}
+		}
+		if (removed != null) {
+			removed.listener.onProcessingCancel();
+		}
+	}
+
+	public void cancelAll() {
+		List<Integer> ids;
+		synchronized (lock) {
+			ids = new ArrayList<>(jobs.keySet());
+		}
+		for (Integer id : ids) {
+			cancel(id);
+		}
+	}
+
+	public void release() {
+		cancelAll();
+		synchronized (lock) {
+			isReleased = true;
+		}
+		for (Worker worker : workers) {
+			worker.interrupt();
+		}
+	}
+
+	public Metrics getMetrics() {
+		synchronized (lock) {
+			int running = 0;
+			for (DecodeJob job : jobs.values()) {
+				if (job.isRunning) {
+					running++;
+				}
+			}
+			return new Metrics(queue.size(), running, workers.size(), completedCount, failedCount,
+					canceledCount, decodedAudioUs, busyTimeMills, SystemClock.elapsedRealtime() - startTime);
+		}
+	}
+
+	private void runJob(final DecodeJob job, Handler handler) {
+		boolean isCanceled;
+		synchronized (lock) {
+			isCanceled = job.isCanceled;
+			if (isCanceled) {
+				removeJobLocked(job);
+				canceledCount++;
+			} else {
+				job.isRunning = true;
+			}
+		}
+		if (isCanceled) {
+			job.listener.onProcessingCancel();
+			return;
+		}
+		final CountDownLatch latch = new CountDownLatch(1);
+		final long start = SystemClock.elapsedRealtime();
+		final int[] result = new int[1];
+		final long[] duration = new long[1];
+		final AtomicLong audioDuration = new AtomicLong(0);
+		//Only the first of final callbacks or timeout is delivered to the job listener.
+		final AtomicBoolean isFinished = new AtomicBoolean(false);
+		handler.post(() -> AudioDecoder.decode(job.path, new AudioDecodingListener() {
+			@Override
+			public boolean isCanceled() {
+				return job.isCanceled || job.listener.isCanceled();
+			}
+
+			@Override
+			public void onStartProcessing(long d, int channelsCount, int sampleRate) {
+				audioDuration.set(d);
+				job.listener.onStartProcessing(d, channelsCount, sampleRate);
+			}
+
+			@Override
+			public void onProcessingProgress(int percent) {
+				job.listener.onProcessingProgress(percent);
+			}
+
+			@Override
+			public void onProcessingCancel() {
+				if (isFinished.compareAndSet(false, true)) {
+					result[0] = RESULT_CANCELED;
+					job.listener.onProcessingCancel();
+					latch.countDown();
+				}
+			}
+
+			@Override
+			public void onFinishProcessing(@NonNull int[] data, long d) {
+				if (isFinished.compareAndSet(false, true)) {
+					result[0] = RESULT_COMPLETED;
+					duration[0] = d;
+					job.listener.onFinishProcessing(data, d);
+					latch.countDown();
+				}
+			}
+
+			@Override
+			public void onError(@NonNull Exception exception) {
+				if (isFinished.compareAndSet(false, true)) {
+					result[0] = RESULT_FAILED;
+					job.listener.onError(exception);
+					latch.countDown();
+				}
+			}
+		}, checkpointStore));
+		try {
+			if (!awaitJob(latch, audioDuration)) {
+				//Codec stops on the next buffer if it is still alive, its late callbacks are dropped.
+				job.isCanceled = true;
+				if (isFinished.compareAndSet(false, true)) {
+					result[0] = RESULT_FAILED;
+					job.listener.onError(new TimeoutException("Decoding of " + job.path + " timed out"));
+				} else if (!latch.await(MIN_JOB_TIMEOUT_MILLS, TimeUnit.MILLISECONDS)) {
+					//Final callback is already delivering, the job listener is slow to return.
+					Timber.w("Decode job %d listener didn't return in time", job.recordId);
+				}
+			}
+		} catch (InterruptedException e) {
+			Timber.e(e);
+			job.isCanceled = true;
+			Thread.currentThread().interrupt();
+		}
+		synchronized (lock) {
+			removeJobLocked(job);
+			busyTimeMills += SystemClock.elapsedRealtime() - start;
+			switch (result[0]) {
+				case RESULT_COMPLETED:
+					completedCount++;
+					decodedAudioUs += duration[0];
+					break;
+				case RESULT_FAILED:
+					failedCount++;
+					break;
+				case RESULT_CANCELED:
+				default:
+					canceledCount++;
+			}
+		}
+		Timber.v("Decode job %d finished in %d ms, %s", job.recordId, SystemClock.elapsedRealtime() - start, getMetrics());
+	}
+
+	/**
+	 * Wait for result of the job. Decoding is much faster than playback, so a job which runs
+	 * longer than duration of its audio on top of minimal timeout is considered stuck.
+	 * @return true if the job is finished, false on timeout.
+	 */
+	private static boolean awaitJob(CountDownLatch latch, AtomicLong audioDurationUs) throws InterruptedException {
+		if (latch.await(MIN_JOB_TIMEOUT_MILLS, TimeUnit.MILLISECONDS)) {
+			return true;
+		}
+		long durationMills = audioDurationUs.get() / 1000;
+		return durationMills > 0 && latch.await(durationMills, TimeUnit.MILLISECONDS);
+	}
+
+	private void removeJobLocked(DecodeJob job) {
+		//Record might be submitted again while its canceled job is still finishing.
+		if (jobs.get(job.recordId) == job) {
+			jobs.remove(job.recordId);
+		}
+	}
+
+	private static final int RESULT_CANCELED = 0;
+	private static final int RESULT_COMPLETED = 1;
+	private static final int RESULT_FAILED = 2;
+
+	/**
+	 * Worker count is limited by CPU cores (one core is left for UI and recording)
+	 * and by how many instances of audio decoder codec the device can create.
+	 */
+	private static int calculateWorkersCount() {
+		int cores = Runtime.getRuntime().availableProcessors() - 1;
+		int codecs = maxDecoderInstances(MediaFormat.MIMETYPE_AUDIO_AAC);
+		return Math.max(1, Math.min(MAX_WORKERS, Math.min(cores, codecs)));
+	}
+
+	private static int maxDecoderInstances(String mime) {
+		try {
+			MediaCodecInfo[] infos = new MediaCodecList(MediaCodecList.REGULAR_CODECS).getCodecInfos();
+			for (MediaCodecInfo info : infos) {
+				if (info.isEncoder()) {
+					continue;
+				}
+				for (String type : info.getSupportedTypes()) {
+					if (type.equalsIgnoreCase(mime)) {
+						return info.getCapabilitiesForType(type).getMaxSupportedInstances();
+					}
+				}
+			}
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			Timber.e(e);
+		}
+		return 1;
+	}
+
+	private class Worker extends Thread {
+
+		private final HandlerThread codecThread;
+
+		Worker(int index) {
+			super("DecodeWorker-" + index);
+			codecThread = new HandlerThread("DecodeCodec-" + index);
+		}
+
+		@Override
+		public void run() {
+			codecThread.start();
+			Handler handler = new Handler(codecThread.getLooper());
+			while (!isReleased) {
+				DecodeJob job;
+				try {
+					job = queue.take();
+				} catch (InterruptedException e) {
+					break;
+				}
+				runJob(job, handler);
+			}
+			codecThread.quit();
+		}
+	}
+
+	private static class DecodeJob {
+		final int recordId;
+		final String path;
+		final AudioDecodingListener listener;
+		int priority;
+		long sequence;
+		volatile boolean isRunning = false;
+		volatile boolean isCanceled = false;
+
+		DecodeJob(int recordId, String path, int priority, long sequence, AudioDecodingListener listener) {
+			this.recordId = recordId;
+			this.path = path;
+			this.priority = priority;
+			this.sequence = sequence;
+			this.listener = listener;
+		}
+	}
+
+	public static class Metrics {
+		public final int queueDepth;
+		public final int running;
+		public final int workers;
+		public final long completed;
+		public final long failed;
+		public final long canceled;
+		public final long decodedAudioUs;
+		public final long busyTimeMills;
+		public final long uptimeMills;
+
+		Metrics(int queueDepth, int running, int workers, long completed, long failed, long canceled,
+				  long decodedAudioUs, long busyTimeMills, long uptimeMills) {
+			this.queueDepth = queueDepth;
+			this.running = running;
+			this.workers = workers;
+			this.completed = completed;
+			this.failed = failed;
+			this.canceled = canceled;
+			this.decodedAudioUs = decodedAudioUs;
+			this.busyTimeMills = busyTimeMills;
+			this.uptimeMills = uptimeMills;
+		}
+
+		/** Decoded records per minute since scheduler start. */
+		public float getJobsPerMinute() {
+			return uptimeMills > 0 ? completed * 60000f / uptimeMills : 0;
+		}
+
+		/** Seconds of audio decoded per second of worker time. */
+		public float getRealtimeFactor() {
+			return busyTimeMills > 0 ? decodedAudioUs / 1000f / busyTimeMills : 0;
+		}
+
+		@NonNull
+		@Override
+		public String toString() {
+			return "Metrics{" +
+					"queueDepth=" + queueDepth +
+					", running=" + running +
+					", workers=" + workers +
+					", completed=" + completed +
+					", failed=" + failed +
+					", canceled=" + canceled +
+					", jobsPerMinute=" + getJobsPerMinute() +
+					", realtimeFactor=" + getRealtimeFactor() +
+					'}';
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+import com.dimowner.audiorecorder.IntArrayList;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Converts decoded PCM samples into waveform gains. One gain is calculated per frame of
+ * samplesPerFrame samples. State of the accumulator can be saved into {@link DecodeCheckpoint}
+ * and restored later to continue decoding from the saved position.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class GainAccumulator {
+
+	private final int sampleRate;
+	private final int channelCount;
+	private final int[] oneFrameAmps;
+	private int frameIndex;
+	private long consumedSamples;
+	private final IntArrayList gains;
+
+	/** Accumulator was restored from checkpoint and is waiting for decoded samples at the saved position. */
+	private boolean isResuming;
+
+	public GainAccumulator(int sampleRate, int channelCount, int samplesPerFrame) {
+		this.sampleRate = sampleRate;
+		this.channelCount = channelCount;
+		this.oneFrameAmps = new int[samplesPerFrame * channelCount];
+		this.frameIndex = 0;
+		this.consumedSamples = 0;
+		this.gains = new IntArrayList();
+		this.isResuming = false;
+	}
+
+	public static GainAccumulator fromCheckpoint(DecodeCheckpoint checkpoint) {
+		int[] frameAmps = checkpoint.getFrameAmps();
+		GainAccumulator accumulator = new GainAccumulator(checkpoint.getSampleRate(),
+				checkpoint.getChannelCount(), frameAmps.length / checkpoint.getChannelCount());
+		System.arraycopy(frameAmps, 0, accumulator.oneFrameAmps, 0, frameAmps.length);
+		accumulator.frameIndex = checkpoint.getFrameIndex();
+		accumulator.consumedSamples = checkpoint.getConsumedSamples();
+		accumulator.gains.addAll(checkpoint.getGains());
+		accumulator.isResuming = true;
+		return accumulator;
+	}
+
+	public DecodeCheckpoint toCheckpoint(String path, long fileLength, long fileLastModified) {
+		return new DecodeCheckpoint(path, fileLength, fileLastModified, sampleRate, channelCount,
+				oneFrameAmps.clone(), frameIndex, consumedSamples, gains.getData());
+	}
+
+	/**
+	 * Accumulate decoded samples which follow right after previously accumulated samples.
+	 */
+	public void addSamples(ShortBuffer samples) {
+		while (samples.hasRemaining()) {
+			addSample(samples.get());
+		}
+	}
+
+	/**
+	 * Accumulate decoded samples of the buffer which starts at presentationTimeUs.
+	 * While accumulator is resuming after restore from checkpoint, samples which were already
+	 * accumulated before the checkpoint are skipped.
+	 * Presentation time must point to the first sample of the buffer.
+	 */
+	public void addSamples(ShortBuffer samples, long presentationTimeUs) {
+		if (isResuming) {
+			long bufferStart = Math.round(presentationTimeUs * (double) sampleRate / 1000000) * channelCount;
+			long skip = consumedSamples - bufferStart;
+			if (skip >= samples.remaining()) {
+				//Whole buffer is before the checkpoint.
+				return;
+			}
+			if (skip > 0) {
+				samples.position(samples.position() + (int) skip);
+			}
+			isResuming = false;
+		}
+		addSamples(samples);
+	}
+
+	private void addSample(int sample) {
+		oneFrameAmps[frameIndex] = sample;
+		frameIndex++;
+		consumedSamples++;
+		if (frameIndex >= oneFrameAmps.length - 1) {
+			int gain = -1;
+			int value;
+			for (int j = 0; j < oneFrameAmps.length; j += channelCount) {
+				value = 0;
+				for (int k = 0; k < channelCount; k++) {
+					value += oneFrameAmps[j + k];
+				}
+				value /= channelCount;
+				if (gain < value) {
+					gain = value;
+				}
+			}
+			gains.add((int) Math.sqrt(gain));
+			frameIndex = 0;
+		}
+	}
+
+	public boolean isResuming() {
+		return isResuming;
+	}
+
+	public long getConsumedSamples() {
+		return consumedSamples;
+	}
+
+	/**
+	 * Presentation time of the first sample which is not yet accumulated.
+	 */
+	public long getPositionUs() {
+		return consumedSamples / channelCount * 1000000L / sampleRate;
+	}
+
+	public int[] getGains() {
+		return gains.getData();
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+import com.dimowner.audiorecorder.IntArrayList;
+
+/**
+ * Converts amplitudes collected while recording into waveform of the record, kept free of
+ * Android classes so that it can be benchmarked on desktop.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class RecordingWaveform {
+
+	private RecordingWaveform() {
+	}
+
+	/**
+	 * @param amplitudes Recorded amplitudes from 0 to 32767.
+	 * @param sampleCount Count of waveform samples for long records or 0 to keep one sample per
+	 * amplitude.
+	 * @return Waveform samples from 0 to 255.
+	 */
+	public static int[] convert(IntArrayList amplitudes, int sampleCount) {
+		if (sampleCount > 0) {
+			int[] waveForm = new int[sampleCount];
+			float scale = (float) amplitudes.size() / (float) sampleCount;
+			if (amplitudes.size() < sampleCount*2) {
+				for (int i = 0; i < sampleCount; i++) {
+					waveForm[i] = convertAmp(amplitudes.get((int) Math.floor(i*scale)));
+				}
+			} else {
+				int step = (int) Math.ceil(scale);
+				for (int i = 0; i < sampleCount; i++) {
+					int val = 0;
+					for (int j = 0; j < step; j++) {
+						val += amplitudes.get((int)(i * scale + j));
+					}
+					val = (int) ((float) val / scale);
+					waveForm[i] = convertAmp(val);
+				}
+			}
+			return waveForm;
+		} else {
+			int[] waveForm = new int[amplitudes.size()];
+			for (int i = 0; i < amplitudes.size(); i++) {
+				waveForm[i] = convertAmp(amplitudes.get(i));
+			}
+			return waveForm;
+		}
+	}
+
+	/**
+	 * Convert dB amp value to view amp.
+	 */
+	private static int convertAmp(double amp) {
+		return (int)(255*(amp/32767f));
+	}
+}
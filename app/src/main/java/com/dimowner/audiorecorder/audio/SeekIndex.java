@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Table of sync points of a compressed record: presentation time of a sync sample and byte
+ * offset of that sample in the file. Points are sorted by time and placed about
+ * {@link SeekIndexBuilder#INTERVAL_US} apart, so an hour long record takes a few kilobytes.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class SeekIndex {
+
+	private static final int MAGIC = 0x534B4958; //SKIX
+	private static final int VERSION = 1;
+
+	private final long[] timesUs;
+	private final long[] offsets;
+	private final long durationUs;
+
+	public SeekIndex(long[] timesUs, long[] offsets, long durationUs) {
+		if (timesUs.length != offsets.length) {
+			throw new IllegalArgumentException("Times and offsets have different length");
+		}
+		this.timesUs = timesUs;
+		this.offsets = offsets;
+		this.durationUs = durationUs;
+	}
+
+	public int size() {
+		return timesUs.length;
+	}
+
+	public long getDurationUs() {
+		return durationUs;
+	}
+
+	public long getTimeUs(int index) {
+		return timesUs[index];
+	}
+
+	public long getOffset(int index) {
+		return offsets[index];
+	}
+
+	/**
+	 * Find the last sync point at or before the time.
+	 * @return Index of the sync point or -1 when the table is empty.
+	 */
+	public int findSyncPoint(long timeUs) {
+		int low = 0;
+		int high = timesUs.length - 1;
+		int result = timesUs.length > 0 ? 0 : -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (timesUs[mid] <= timeUs) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Time of the sync point from which the player starts decoding to reach the time.
+	 */
+	public long getSyncTimeUs(long timeUs) {
+		int index = findSyncPoint(timeUs);
+		return index >= 0 ? timesUs[index] : 0;
+	}
+
+	/**
+	 * Byte offset of the sync point from which the player starts decoding to reach the time.
+	 */
+	public long getSyncOffset(long timeUs) {
+		int index = findSyncPoint(timeUs);
+		return index >= 0 ? offsets[index] : 0;
+	}
+
+	/**
+	 * Serialize into a compact form: times and offsets are stored as variable length deltas.
+	 */
+	public byte[] toBytes() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16 + timesUs.length * 5);
+		writeVarLong(out, MAGIC);
+		writeVarLong(out, VERSION);
+		writeVarLong(out, durationUs);
+		writeVarLong(out, timesUs.length);
+		long prevTime = 0;
+		long prevOffset = 0;
+		for (int i = 0; i < timesUs.length; i++) {
+			writeVarLong(out, timesUs[i] - prevTime);
+			writeVarLong(out, offsets[i] - prevOffset);
+			prevTime = timesUs[i];
+			prevOffset = offsets[i];
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Restore the table written by {@link #toBytes()}.
+	 * @return Restored table or null when data is broken or written by other version.
+	 */
+	public static SeekIndex fromBytes(byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		int[] pos = new int[1];
+		try {
+			if (readVarLong(data, pos) != MAGIC || readVarLong(data, pos) != VERSION) {
+				return null;
+			}
+			long durationUs = readVarLong(data, pos);
+			long count = readVarLong(data, pos);
+			if (count < 0 || count > data.length) {
+				return null;
+			}
+			long[] times = new long[(int) count];
+			long[] offsets = new long[(int) count];
+			long time = 0;
+			long offset = 0;
+			for (int i = 0; i < count; i++) {
+				time += readVarLong(data, pos);
+				offset += readVarLong(data, pos);
+				times[i] = time;
+				offsets[i] = offset;
+			}
+			return new SeekIndex(times, offsets, durationUs);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			return null;
+		}
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static long readVarLong(byte[] data, int[] pos) {
+		long value = 0;
+		int shift = 0;
+		while (true) {
+			byte b = data[pos[0]++];
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+			shift += 7;
+			if (shift > 63) {
+				throw new ArrayIndexOutOfBoundsException("Malformed varint");
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SeekIndex{" +
+				"size=" + timesUs.length +
+				", durationUs=" + durationUs +
+				'}';
+	}
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static com.dimowner.audiorecorder.audio.AudioHeaderProber.findBox;
+import static com.dimowner.audiorecorder.audio.AudioHeaderProber.readBox;
+import static com.dimowner.audiorecorder.audio.AudioHeaderProber.read;
+import static com.dimowner.audiorecorder.audio.AudioHeaderProber.startsWith;
+import static com.dimowner.audiorecorder.audio.AudioHeaderProber.fourcc;
+import static com.dimowner.audiorecorder.audio.AudioHeaderProber.u32be;
+import static com.dimowner.audiorecorder.audio.AudioHeaderProber.u64be;
+
+/**
+ * Builds {@link SeekIndex} of a record with a single pass over container structures:
+ * sample tables of MP4/M4A/3GP, frame headers of MP3 and AMR. Audio data is not decoded.
+ * Uncompressed and other formats return null, the player seeks in them precisely without an index.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public final class SeekIndexBuilder {
+
+	/** Minimal distance between neighbour sync points in the index. */
+	public static final long INTERVAL_US = 500000;
+
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+	private static final long AMR_FRAME_DURATION_US = 20000;
+	/** Frame sizes including table of contents byte by frame type. Types 9-15 carry no speech. */
+	private static final int[] AMR_NB_FRAME_SIZES = {13, 14, 16, 18, 20, 21, 27, 32, 6, 1, 1, 1, 1, 1, 1, 1};
+	private static final int[] AMR_WB_FRAME_SIZES = {18, 24, 33, 37, 41, 47, 51, 59, 61, 6, 1, 1, 1, 1, 1, 1};
+
+	private SeekIndexBuilder() {
+	}
+
+	/**
+	 * Build seek index of the file.
+	 * @return Index or null when the format does not need an index or the file can't be parsed.
+	 */
+	public static SeekIndex build(File file) {
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			long length = in.length();
+			if (length < 12) {
+				return null;
+			}
+			byte[] head = read(in, 0, (int) Math.min(16, length));
+			if (startsWith(head, 4, "ftyp")) {
+				return buildMp4(in, length);
+			} else if (startsWith(head, 0, "#!AMR")) {
+				return buildAmr(file, length, startsWith(head, 0, "#!AMR-WB\n"));
+			} else if (startsWith(head, 0, "RIFF") || startsWith(head, 0, "RF64")
+					|| startsWith(head, 0, "fLaC") || startsWith(head, 0, "OggS")) {
+				return null;
+			}
+			long start = 0;
+			if (startsWith(head, 0, "ID3")) {
+				start = AudioHeaderProber.id3v2Size(read(in, 0, 10));
+			}
+			return buildMp3(in, file, length, start);
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	// ---------------- MP4 / M4A / 3GP ----------------
+
+	private static SeekIndex buildMp4(RandomAccessFile in, long length) throws IOException {
+		long[] moov = findBox(in, 0, length, "moov");
+		if (moov == null) {
+			return null;
+		}
+		long pos = moov[0];
+		while (pos + 8 <= moov[1]) {
+			long[] box = readBox(in, pos, moov[1]);
+			if (box == null) {
+				return null;
+			}
+			if (box[2] == fourcc("trak")) {
+				SeekIndex index = buildMp4Track(in, box[0], box[1]);
+				if (index != null) {
+					return index;
+				}
+			}
+			pos = box[1];
+		}
+		return null;
+	}
+
+	private static SeekIndex buildMp4Track(RandomAccessFile in, long start, long end) throws IOException {
+		long[] mdia = findBox(in, start, end, "mdia");
+		if (mdia == null) {
+			return null;
+		}
+		long[] hdlr = findBox(in, mdia[0], mdia[1], "hdlr");
+		if (hdlr == null || !startsWith(read(in, hdlr[0], 12), 8, "soun")) {
+			return null;
+		}
+		long[] mdhd = findBox(in, mdia[0], mdia[1], "mdhd");
+		long[] minf = findBox(in, mdia[0], mdia[1], "minf");
+		long[] stbl = minf != null ? findBox(in, minf[0], minf[1], "stbl") : null;
+		if (mdhd == null || stbl == null) {
+			return null;
+		}
+		byte[] mdhdData = read(in, mdhd[0], 32);
+		long timescale = mdhdData[0] == 1 ? u32be(mdhdData, 20) : u32be(mdhdData, 12);
+		byte[] stts = readFullBox(in, stbl, "stts");
+		byte[] stsc = readFullBox(in, stbl, "stsc");
+		byte[] stsz = readFullBox(in, stbl, "stsz");
+		byte[] stco = readFullBox(in, stbl, "stco");
+		boolean isCo64 = false;
+		if (stco == null) {
+			stco = readFullBox(in, stbl, "co64");
+			isCo64 = true;
+		}
+		//Without sync sample table every sample is a sync sample.
+		byte[] stss = readFullBox(in, stbl, "stss");
+		if (timescale <= 0 || stts == null || stsc == null || stsz == null || stco == null) {
+			return null;
+		}
+
+		int sttsCount = (int) u32be(stts, 4);
+		int stscCount = (int) u32be(stsc, 4);
+		int chunkCount = (int) u32be(stco, 4);
+		long constantSize = u32be(stsz, 4);
+		int sampleCount = (int) u32be(stsz, 8);
+		int stssCount = stss != null ? (int) u32be(stss, 4) : 0;
+
+		IndexWriter writer = new IndexWriter();
+		int sttsEntry = 0;
+		long sttsRemaining = sttsCount > 0 ? u32be(stts, 8) : 0;
+		long sampleDelta = sttsCount > 0 ? u32be(stts, 12) : 0;
+		int stscEntry = 0;
+		int stssEntry = 0;
+		long time = 0;
+		int sample = 0;
+		for (int chunk = 1; chunk <= chunkCount && sample < sampleCount; chunk++) {
+			while (stscEntry + 1 < stscCount && u32be(stsc, 8 + (stscEntry + 1) * 12) <= chunk) {
+				stscEntry++;
+			}
+			long samplesInChunk = u32be(stsc, 8 + stscEntry * 12 + 4);
+			long offset = isCo64 ? u64be(stco, 8 + (chunk - 1) * 8) : u32be(stco, 8 + (chunk - 1) * 4);
+			for (long i = 0; i < samplesInChunk && sample < sampleCount; i++) {
+				boolean isSync = true;
+				if (stss != null) {
+					//Sync sample numbers are sorted and 1-based.
+					while (stssEntry < stssCount && u32be(stss, 8 + stssEntry * 4) < sample + 1) {
+						stssEntry++;
+					}
+					isSync = stssEntry < stssCount && u32be(stss, 8 + stssEntry * 4) == sample + 1;
+				}
+				if (isSync) {
+					writer.add(time * 1000000L / timescale, offset);
+				}
+				offset += constantSize != 0 ? constantSize : u32be(stsz, 12 + sample * 4);
+				while (sttsRemaining == 0 && sttsEntry + 1 < sttsCount) {
+					sttsEntry++;
+					sttsRemaining = u32be(stts, 8 + sttsEntry * 8);
+					sampleDelta = u32be(stts, 8 + sttsEntry * 8 + 4);
+				}
+				time += sampleDelta;
+				sttsRemaining--;
+				sample++;
+			}
+		}
+		return writer.build(time * 1000000L / timescale);
+	}
+
+	/**
+	 * Read content of a full box from sample table.
+	 */
+	private static byte[] readFullBox(RandomAccessFile in, long[] stbl, String type) throws IOException {
+		long[] box = findBox(in, stbl[0], stbl[1], type);
+		if (box == null || box[1] - box[0] < 8 || box[1] - box[0] > Integer.MAX_VALUE) {
+			return null;
+		}
+		return read(in, box[0], (int) (box[1] - box[0]));
+	}
+
+	// ---------------- MP3 ----------------
+
+	private static SeekIndex buildMp3(RandomAccessFile in, File file, long length, long start) throws IOException {
+		long framePos = AudioHeaderProber.findMp3Frame(in, length, start);
+		if (framePos < 0) {
+			return null;
+		}
+		long audioEnd = length;
+		if (length - AudioHeaderProber.ID3V1_SIZE > framePos
+				&& startsWith(read(in, length - AudioHeaderProber.ID3V1_SIZE, 3), 0, "TAG")) {
+			audioEnd -= AudioHeaderProber.ID3V1_SIZE;
+		}
+		AudioHeaderProber.Mp3Frame first = AudioHeaderProber.Mp3Frame.parse(u32be(read(in, framePos, 4), 0));
+		int headerSize = (int) Math.min(64, audioEnd - framePos);
+		byte[] firstData = read(in, framePos, headerSize);
+		int xingOffset = 4 + first.sideInfoSize;
+		if (startsWith(firstData, xingOffset, "Xing") || startsWith(firstData, xingOffset, "Info")
+				|| startsWith(firstData, 4 + 32, "VBRI")) {
+			//Frame with VBR header contains no audio and is not a part of the timeline.
+			framePos += first.length;
+		}
+
+		IndexWriter writer = new IndexWriter();
+		long samples = 0;
+		long pos = framePos;
+		byte[] header = new byte[4];
+		try (InputStream stream = openAt(file, framePos)) {
+			while (pos + 4 <= audioEnd) {
+				readFully(stream, header);
+				AudioHeaderProber.Mp3Frame frame = AudioHeaderProber.Mp3Frame.parse(u32be(header, 0));
+				if (frame == null) {
+					break;
+				}
+				writer.add(samples * 1000000L / first.sampleRate, pos);
+				samples += frame.samplesPerFrame;
+				pos += frame.length;
+				skipFully(stream, frame.length - 4);
+			}
+		} catch (EOFException e) {
+			//Last frame is truncated.
+		}
+		return writer.build(samples * 1000000L / first.sampleRate);
+	}
+
+	// ---------------- AMR ----------------
+
+	private static SeekIndex buildAmr(File file, long length, boolean isWideband) throws IOException {
+		int headerSize = isWideband ? 9 : 6;
+		int[] frameSizes = isWideband ? AMR_WB_FRAME_SIZES : AMR_NB_FRAME_SIZES;
+		IndexWriter writer = new IndexWriter();
+		long frames = 0;
+		long pos = headerSize;
+		try (InputStream stream = openAt(file, headerSize)) {
+			int toc;
+			while (pos < length && (toc = stream.read()) >= 0) {
+				int size = frameSizes[(toc >> 3) & 0x0F];
+				writer.add(frames * AMR_FRAME_DURATION_US, pos);
+				frames++;
+				pos += size;
+				skipFully(stream, size - 1);
+			}
+		} catch (EOFException e) {
+			//Last frame is truncated.
+		}
+		return writer.build(frames * AMR_FRAME_DURATION_US);
+	}
+
+	// ---------------- Utils ----------------
+
+	private static InputStream openAt(File file, long pos) throws IOException {
+		FileInputStream stream = new FileInputStream(file);
+		try {
+			stream.getChannel().position(pos);
+		} catch (IOException e) {
+			stream.close();
+			throw e;
+		}
+		return new BufferedInputStream(stream, READ_BUFFER_SIZE);
+	}
+
+	private static void readFully(InputStream stream, byte[] b) throws IOException {
+		int read = 0;
+		while (read < b.length) {
+			int n = stream.read(b, read, b.length - read);
+			if (n < 0) {
+				throw new EOFException();
+			}
+			read += n;
+		}
+	}
+
+	private static void skipFully(InputStream stream, long count) throws IOException {
+		while (count > 0) {
+			long skipped = stream.skip(count);
+			if (skipped <= 0) {
+				if (stream.read() < 0) {
+					throw new EOFException();
+				}
+				skipped = 1;
+			}
+			count -= skipped;
+		}
+	}
+
+	/**
+	 * Collects sync points keeping them at least {@link #INTERVAL_US} apart.
+	 */
+	private static class IndexWriter {
+		private long[] times = new long[256];
+		private long[] offsets = new long[256];
+		private int size = 0;
+
+		void add(long timeUs, long offset) {
+			if (size > 0 && timeUs - times[size - 1] < INTERVAL_US) {
+				return;
+			}
+			if (size == times.length) {
+				times = Arrays.copyOf(times, size * 2);
+				offsets = Arrays.copyOf(offsets, size * 2);
+			}
+			times[size] = timeUs;
+			offsets[size] = offset;
+			size++;
+		}
+
+		SeekIndex build(long durationUs) {
+			if (size == 0) {
+				return null;
+			}
+			return new SeekIndex(Arrays.copyOf(times, size), Arrays.copyOf(offsets, size), durationUs);
+		}
+	}
+}
@@ -18,11 +18,14 @@ package com.dimowner.audiorecorder.audio.player
 import android.media.AudioManager
 import android.media.MediaPlayer
 import android.media.MediaPlayer.OnPreparedListener
+import android.os.Build
 import android.os.Handler
 import com.dimowner.audiorecorder.AppConstants
+import com.dimowner.audiorecorder.audio.SeekIndex
 import com.dimowner.audiorecorder.exception.AppException
 import com.dimowner.audiorecorder.exception.PlayerDataSourceException
 import com.dimowner.audiorecorder.exception.PlayerInitException
+import com.dimowner.audiorecorder.metrics.MetricsRegistry
 import timber.log.Timber
 import java.util.*
 
@@ -35,6 +38,27 @@ class AudioPlayerNew: PlayerContractNew.Player, OnPreparedListener {
 	private var pauseTimeMills: Long = 0
 	private var prevPosMills: Long = 0
 	private val handler = Handler()
+	private var dataSource: String? = null
+	private var seekIndex: SeekIndex? = null
+	private var isSeekInProgress = false
+	private var pendingScrubMills: Long = -1
+
+	private val prepareTime = MetricsRegistry.getInstance().histogram("playback.prepare_ms")
+	private val seekTime = MetricsRegistry.getInstance().histogram("playback.seek_ms")
+	private var prepareStart = 0L
+	private var seekStart = 0L
+
+	init {
+		mediaPlayer.setOnSeekCompleteListener {
+			isSeekInProgress = false
+			seekTime.recordMillisSince(seekStart)
+			if (pendingScrubMills >= 0 && playerState == PlayerState.PLAYING) {
+				val mills = pendingScrubMills
+				pendingScrubMills = -1
+				scrubTo(mills)
+			}
+		}
+	}
 
 	override fun addPlayerCallback(callback: PlayerContractNew.PlayerCallback) {
 		actionsListeners.add(callback)
@@ -48,6 +72,10 @@ class AudioPlayerNew: PlayerContractNew.Player, OnPreparedListener {
 		try {
 			playerState = PlayerState.STOPPED
 			mediaPlayer.reset()
+			if (this.dataSource != dataSource) {
+				seekIndex = null
+			}
+			this.dataSource = dataSource
 			mediaPlayer.setDataSource(dataSource)
 			mediaPlayer.setAudioStreamType(AudioManager.STREAM_MUSIC)
 		} catch (e: Exception) {
@@ -59,6 +87,7 @@ class AudioPlayerNew: PlayerContractNew.Player, OnPreparedListener {
 	override fun play(filePath: String) {
 		try {
 			if (playerState != PlayerState.PLAYING) {
+				prepareStart = prepareTime.start()
 				restartPlayer(filePath)
 				try {
 					mediaPlayer.setOnPreparedListener(this)
@@ -81,7 +110,9 @@ class AudioPlayerNew: PlayerContractNew.Player, OnPreparedListener {
 	}
 
 	override fun onPrepared(mp: MediaPlayer) {
+		prepareTime.recordMillisSince(prepareStart)
 		mediaPlayer.start()
+		seekStart = seekTime.start()
 		mediaPlayer.seekTo(pauseTimeMills.toInt())
 		pauseTimeMills = 0
 		playerState = PlayerState.PLAYING
@@ -95,9 +126,17 @@ class AudioPlayerNew: PlayerContractNew.Player, OnPreparedListener {
 	override fun seek(mills: Long) {
 		pauseTimeMills = mills
 		prevPosMills = 0
+		pendingScrubMills = -1
 		try {
 			if (playerState == PlayerState.PLAYING) {
-				mediaPlayer.seekTo(mills.toInt())
+				seekStart = seekTime.start()
+				if (seekIndex != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+					//Sync points are known to be dense, decoding from the previous one to exact position is cheap.
+					mediaPlayer.seekTo(mills, MediaPlayer.SEEK_CLOSEST)
+				} else {
+					mediaPlayer.seekTo(mills.toInt())
+				}
+				isSeekInProgress = true
 				onSeek(mills)
 			}
 		} catch (e: IllegalStateException) {
@@ -105,6 +144,44 @@ class AudioPlayerNew: PlayerContractNew.Player, OnPreparedListener {
 		}
 	}
 
+	override fun scrub(mills: Long) {
+		if (playerState == PlayerState.PLAYING) {
+			if (isSeekInProgress) {
+				//Keep only the latest position, previous seek requests are outdated already.
+				pendingScrubMills = mills
+			} else {
+				scrubTo(mills)
+			}
+		}
+	}
+
+	private fun scrubTo(mills: Long) {
+		try {
+			val index = seekIndex
+			prevPosMills = 0
+			seekStart = seekTime.start()
+			if (index != null) {
+				val syncMills = index.getSyncTimeUs(mills * 1000) / 1000
+				if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+					mediaPlayer.seekTo(syncMills, MediaPlayer.SEEK_CLOSEST_SYNC)
+				} else {
+					mediaPlayer.seekTo(syncMills.toInt())
+				}
+			} else {
+				mediaPlayer.seekTo(mills.toInt())
+			}
+			isSeekInProgress = true
+		} catch (e: IllegalStateException) {
+			Timber.e(e, "Player is not initialized!")
+		}
+	}
+
+	override fun setSeekIndex(filePath: String, seekIndex: SeekIndex?) {
+		if (filePath == dataSource) {
+			this.seekIndex = seekIndex
+		}
+	}
+
 	override fun pause() {
 		stopPlaybackTimeUpdate()
 		if (playerState == PlayerState.PLAYING) {
@@ -119,6 +196,7 @@ class AudioPlayerNew: PlayerContractNew.Player, OnPreparedListener {
 	override fun unpause() {
 		if (playerState == PlayerState.PAUSED) {
 			mediaPlayer.start()
+			seekStart = seekTime.start()
 			mediaPlayer.seekTo(pauseTimeMills.toInt())
 			pauseTimeMills = 0
 			playerState = PlayerState.PLAYING
@@ -139,6 +217,8 @@ class AudioPlayerNew: PlayerContractNew.Player, OnPreparedListener {
 		playerState = PlayerState.STOPPED
 		pauseTimeMills = 0
 		prevPosMills = 0
+		isSeekInProgress = false
+		pendingScrubMills = -1
 	}
 
 	override fun release() {
@@ -16,6 +16,7 @@
 
 package com.dimowner.audiorecorder.audio.player
 
+import com.dimowner.audiorecorder.audio.SeekIndex
 import com.dimowner.audiorecorder.exception.AppException
 
 interface PlayerContractNew {
@@ -35,6 +36,10 @@ interface PlayerContractNew {
 		fun pause()
 		fun unpause()
 		fun seek(mills: Long)
+		/** Fast seek while user drags the waveform. Position snaps to sync points of the seek index. */
+		fun scrub(mills: Long)
+		/** Seek index of the file, ignored when another file is played. */
+		fun setSeekIndex(filePath: String, seekIndex: SeekIndex?)
 		fun stop()
 		fun release()
 		fun getPauseTime(): Long
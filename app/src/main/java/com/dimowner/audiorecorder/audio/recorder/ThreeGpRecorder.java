@@ -22,6 +22,9 @@ import android.os.Handler;
 
 import com.dimowner.audiorecorder.exception.InvalidOutputFile;
 import com.dimowner.audiorecorder.exception.RecorderInitException;
+import com.dimowner.audiorecorder.metrics.Counter;
+import com.dimowner.audiorecorder.metrics.Histogram;
+import com.dimowner.audiorecorder.metrics.MetricsRegistry;
 
 import java.io.File;
 import java.io.IOException;
@@ -44,6 +47,9 @@ public class ThreeGpRecorder implements RecorderContract.Recorder {
 
 	private RecorderContract.RecorderCallback recorderCallback;
 
+	private final Histogram startTime = MetricsRegistry.getInstance().histogram("recorder.start_ms");
+	private final Counter startErrors = MetricsRegistry.getInstance().counter("recorder.start_errors");
+
 	private static class RecorderSingletonHolder {
 		private static final ThreeGpRecorder singleton = new ThreeGpRecorder();
 
@@ -65,6 +71,7 @@ public class ThreeGpRecorder implements RecorderContract.Recorder {
 
 	@Override
 	public void startRecording(String outputFile, int channelCount, int sampleRate, int bitrate) {
+		long start = startTime.start();
 		recordFile = new File(outputFile);
 		if (recordFile.exists() && recordFile.isFile()) {
 			recorder = new MediaRecorder();
@@ -80,6 +87,7 @@ public class ThreeGpRecorder implements RecorderContract.Recorder {
 			try {
 				recorder.prepare();
 				recorder.start();
+				startTime.recordMillisSince(start);
 				updateTime = System.currentTimeMillis();
 				isRecording.set(true);
 				scheduleRecordingTimeUpdate();
@@ -89,6 +97,7 @@ public class ThreeGpRecorder implements RecorderContract.Recorder {
 				isPaused.set(false);
 			} catch (IOException | IllegalStateException e) {
 				Timber.e(e, "prepare() failed");
+				startErrors.inc();
 				if (recorderCallback != null) {
 					recorderCallback.onError(new RecorderInitException());
 				}
@@ -24,14 +24,15 @@ import com.dimowner.audiorecorder.AppConstants;
 import com.dimowner.audiorecorder.exception.InvalidOutputFile;
 import com.dimowner.audiorecorder.exception.RecorderInitException;
 import com.dimowner.audiorecorder.exception.RecordingException;
+import com.dimowner.audiorecorder.metrics.Counter;
+import com.dimowner.audiorecorder.metrics.Histogram;
+import com.dimowner.audiorecorder.metrics.MetricsRegistry;
 import com.dimowner.audiorecorder.util.AndroidUtils;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.concurrent.atomic.AtomicBoolean;
 import timber.log.Timber;
 import static com.dimowner.audiorecorder.AppConstants.RECORDING_VISUALIZATION_INTERVAL;
@@ -41,8 +42,6 @@ public class WavRecorder implements RecorderContract.Recorder {
 
 	private AudioRecord recorder = null;
 
-	private static final int RECORDER_BPP = 16; //bits per sample
-
 	private File recordFile = null;
 	private int bufferSize = 0;
 	private long updateTime = 0;
@@ -63,6 +62,15 @@ public class WavRecorder implements RecorderContract.Recorder {
 
 	private RecorderContract.RecorderCallback recorderCallback;
 
+	private final Histogram startTime = MetricsRegistry.getInstance().histogram("recorder.start_ms");
+	private final Counter startErrors = MetricsRegistry.getInstance().counter("recorder.start_errors");
+	/** Time of blocking reads, reads much shorter than a buffer mean the loop falls behind. */
+	private final Histogram readTime = MetricsRegistry.getInstance().histogram("recorder.read_us");
+	private final Counter readErrors = MetricsRegistry.getInstance().counter("recorder.read_errors");
+	private final Histogram writeTime = MetricsRegistry.getInstance().histogram("recorder.write_us");
+	private final Counter writeErrors = MetricsRegistry.getInstance().counter("recorder.write_errors");
+	private final Counter recordedBytes = MetricsRegistry.getInstance().counter("recorder.bytes");
+
 	private static class WavRecorderSingletonHolder {
 		private static final WavRecorder singleton = new WavRecorder();
 
@@ -88,6 +96,7 @@ public class WavRecorder implements RecorderContract.Recorder {
 		this.sampleRate = sampleRate;
 //		this.framesPerVisInterval = (int)((VISUALIZATION_INTERVAL/1000f)/(1f/sampleRate));
 		this.channelCount = channelCount;
+		long start = startTime.start();
 		recordFile = new File(outputFile);
 		if (recordFile.exists() && recordFile.isFile()) {
 			int channel = channelCount == 1 ? AudioFormat.CHANNEL_IN_MONO : AudioFormat.CHANNEL_IN_STEREO;
@@ -120,6 +129,7 @@ public class WavRecorder implements RecorderContract.Recorder {
 				recordingThread = new Thread(this::writeAudioDataToFile, "AudioRecorder Thread");
 
 				recordingThread.start();
+				startTime.recordMillisSince(start);
 				scheduleRecordingTimeUpdate();
 				if (recorderCallback != null) {
 					recorderCallback.onStartRecord(recordFile);
@@ -127,6 +137,7 @@ public class WavRecorder implements RecorderContract.Recorder {
 				isPaused.set(false);
 			} else {
 				Timber.e("prepare() failed");
+				startErrors.inc();
 				if (recorderCallback != null) {
 					recorderCallback.onError(new RecorderInitException());
 				}
@@ -211,26 +222,27 @@ public class WavRecorder implements RecorderContract.Recorder {
 		if (null != fos) {
 			writeEmptyHeader(fos);
 			int chunksCount = 0;
-			ByteBuffer shortBuffer = ByteBuffer.allocate(2);
-			shortBuffer.order(ByteOrder.LITTLE_ENDIAN);
 			//TODO: Disable loop while pause.
 			while (isRecording.get()) {
 				if (!isPaused.get()) {
-					chunksCount += recorder.read(data, 0, bufferSize);
+					long readStart = readTime.start();
+					int read = recorder.read(data, 0, bufferSize);
+					readTime.recordMicrosSince(readStart);
+					if (read < 0) {
+						readErrors.inc();
+					} else {
+						recordedBytes.add(read);
+					}
+					chunksCount += read;
 					if (AudioRecord.ERROR_INVALID_OPERATION != chunksCount) {
-						long sum = 0;
-						for (int i = 0; i < bufferSize; i+=2) {
-							//TODO: find a better way to covert bytes into shorts.
-							shortBuffer.put(data[i]);
-							shortBuffer.put(data[i+1]);
-							sum += Math.abs(shortBuffer.getShort(0));
-							shortBuffer.clear();
-						}
-						lastVal = (int)(sum/(bufferSize/16));
+						lastVal = WavUtils.computeLevel(data, bufferSize);
 						try {
+							long writeStart = writeTime.start();
 							fos.write(data);
+							writeTime.recordMicrosSince(writeStart);
 						} catch (IOException e) {
 							Timber.e(e);
+							writeErrors.inc();
 							AndroidUtils.runOnUIThread(() -> {
 								recorderCallback.onError(new RecordingException());
 								stopRecording();
@@ -251,14 +263,14 @@ public class WavRecorder implements RecorderContract.Recorder {
 	}
 
 	private void setWaveFileHeader(File file, int channels) {
-		long fileSize = file.length() - 44;
+		long fileSize = file.length() - WavUtils.HEADER_SIZE;
 		long totalSize = fileSize + 36;
-		long byteRate = sampleRate * channels * (RECORDER_BPP/8); //2 byte per 1 sample for 1 channel.
+		long byteRate = sampleRate * channels * (WavUtils.BITS_PER_SAMPLE/8); //2 byte per 1 sample for 1 channel.
 
 		try {
 			final RandomAccessFile wavFile = randomAccessFile(file);
 			wavFile.seek(0); // to the beginning
-			wavFile.write(generateHeader(fileSize, totalSize, sampleRate, channels, byteRate));
+			wavFile.write(WavUtils.generateHeader(fileSize, totalSize, sampleRate, channels, byteRate));
 			wavFile.close();
 		} catch (FileNotFoundException e) {
 			Timber.e(e);
@@ -269,7 +281,7 @@ public class WavRecorder implements RecorderContract.Recorder {
 
 	private void writeEmptyHeader(FileOutputStream fos) {
 		try {
-			byte[] header = new byte[44];
+			byte[] header = new byte[WavUtils.HEADER_SIZE];
 			fos.write(header);
 			fos.flush();
 		} catch (IOException e) {
@@ -287,59 +299,6 @@ public class WavRecorder implements RecorderContract.Recorder {
 		return randomAccessFile;
 	}
 
-	private byte[] generateHeader(
-			long totalAudioLen, long totalDataLen, long longSampleRate, int channels,
-			long byteRate) {
-
-		byte[] header = new byte[44];
-
-		header[0] = 'R'; // RIFF/WAVE header
-		header[1] = 'I';
-		header[2] = 'F';
-		header[3] = 'F';
-		header[4] = (byte) (totalDataLen & 0xff);
-		header[5] = (byte) ((totalDataLen >> 8) & 0xff);
-		header[6] = (byte) ((totalDataLen >> 16) & 0xff);
-		header[7] = (byte) ((totalDataLen >> 24) & 0xff);
-		header[8] = 'W';
-		header[9] = 'A';
-		header[10] = 'V';
-		header[11] = 'E';
-		header[12] = 'f'; // 'fmt ' chunk
-		header[13] = 'm';
-		header[14] = 't';
-		header[15] = ' ';
-		header[16] = 16; //16 for PCM. 4 bytes: size of 'fmt ' chunk
-		header[17] = 0;
-		header[18] = 0;
-		header[19] = 0;
-		header[20] = 1; // format = 1
-		header[21] = 0;
-		header[22] = (byte) channels;
-		header[23] = 0;
-		header[24] = (byte) (longSampleRate & 0xff);
-		header[25] = (byte) ((longSampleRate >> 8) & 0xff);
-		header[26] = (byte) ((longSampleRate >> 16) & 0xff);
-		header[27] = (byte) ((longSampleRate >> 24) & 0xff);
-		header[28] = (byte) (byteRate & 0xff);
-		header[29] = (byte) ((byteRate >> 8) & 0xff);
-		header[30] = (byte) ((byteRate >> 16) & 0xff);
-		header[31] = (byte) ((byteRate >> 24) & 0xff);
-		header[32] = (byte) (channels * (RECORDER_BPP/8)); // block align
-		header[33] = 0;
-		header[34] = RECORDER_BPP; // bits per sample
-		header[35] = 0;
-		header[36] = 'd';
-		header[37] = 'a';
-		header[38] = 't';
-		header[39] = 'a';
-		header[40] = (byte) (totalAudioLen & 0xff);
-		header[41] = (byte) ((totalAudioLen >> 8) & 0xff);
-		header[42] = (byte) ((totalAudioLen >> 16) & 0xff);
-		header[43] = (byte) ((totalAudioLen >> 24) & 0xff);
-		return header;
-	}
-
 	private void scheduleRecordingTimeUpdate() {
 		handler.postDelayed(() -> {
 			if (recorderCallback != null && recorder != null) {
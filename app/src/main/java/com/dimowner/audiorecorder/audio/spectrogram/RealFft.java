@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio.spectrogram;
+
+/**
+ * Power spectrum of real valued signal. Signal of size N is packed into complex signal of size N/2,
+ * transformed with iterative radix-2 FFT and then split into spectrum of the real signal.
+ * Hann window, bit reversal permutation and all twiddle factors are calculated once in constructor,
+ * so an instance is reused for every column of a spectrogram. Instance is not thread safe.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class RealFft {
+
+	private final int size;
+	private final int half;
+	private final float[] window;
+	private final int[] bitReverse;
+	/** Twiddles of complex FFT of size N/2. */
+	private final float[] cos;
+	private final float[] sin;
+	/** Twiddles used to split complex spectrum into spectrum of real signal. */
+	private final float[] splitCos;
+	private final float[] splitSin;
+	private final float[] re;
+	private final float[] im;
+
+	/**
+	 * @param size Transform size, power of two not less than 4.
+	 */
+	public RealFft(int size) {
+		if (size < 4 || Integer.bitCount(size) != 1) {
+			throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+		}
+		this.size = size;
+		this.half = size / 2;
+		window = new float[size];
+		for (int i = 0; i < size; i++) {
+			window[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / size));
+		}
+		int bits = Integer.numberOfTrailingZeros(half);
+		bitReverse = new int[half];
+		for (int i = 0; i < half; i++) {
+			bitReverse[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+		}
+		cos = new float[half / 2];
+		sin = new float[half / 2];
+		for (int i = 0; i < half / 2; i++) {
+			cos[i] = (float) Math.cos(2 * Math.PI * i / half);
+			sin[i] = (float) Math.sin(2 * Math.PI * i / half);
+		}
+		splitCos = new float[half];
+		splitSin = new float[half];
+		for (int i = 0; i < half; i++) {
+			splitCos[i] = (float) Math.cos(2 * Math.PI * i / size);
+			splitSin[i] = (float) Math.sin(2 * Math.PI * i / size);
+		}
+		re = new float[half];
+		im = new float[half];
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Power of a full scale sine wave in its bin after Hann window.
+	 */
+	public float getFullScalePower() {
+		float amplitude = 32768f * size / 4;
+		return amplitude * amplitude;
+	}
+
+	/**
+	 * Apply window and calculate power spectrum.
+	 * @param input Signal, {@link #getSize()} values starting from offset are used.
+	 * @param power Output array with at least N/2 values: power of bins from 0 to Nyquist exclusive.
+	 */
+	public void powerSpectrum(float[] input, int offset, float[] power) {
+		for (int i = 0; i < half; i++) {
+			int j = bitReverse[i];
+			re[j] = input[offset + 2 * i] * window[2 * i];
+			im[j] = input[offset + 2 * i + 1] * window[2 * i + 1];
+		}
+		transform();
+		for (int k = 0; k < half; k++) {
+			int mk = k == 0 ? 0 : half - k;
+			float er = (re[k] + re[mk]) * 0.5f;
+			float ei = (im[k] - im[mk]) * 0.5f;
+			float or = (im[k] + im[mk]) * 0.5f;
+			float oi = (re[mk] - re[k]) * 0.5f;
+			float c = splitCos[k];
+			float s = splitSin[k];
+			float xr = er + c * or + s * oi;
+			float xi = ei + c * oi - s * or;
+			power[k] = xr * xr + xi * xi;
+		}
+	}
+
+	/**
+	 * In place complex FFT of bit reversed data.
+	 */
+	private void transform() {
+		for (int len = 2; len <= half; len <<= 1) {
+			int halfLen = len >> 1;
+			int step = half / len;
+			for (int start = 0; start < half; start += len) {
+				for (int k = 0, t = 0; k < halfLen; k++, t += step) {
+					int a = start + k;
+					int b = a + halfLen;
+					float c = cos[t];
+					float s = sin[t];
+					float br = re[b] * c + im[b] * s;
+					float bi = im[b] * c - re[b] * s;
+					re[b] = re[a] - br;
+					im[b] = im[a] - bi;
+					re[a] += br;
+					im[a] += bi;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio.spectrogram;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Turns decoded PCM stream into spectrogram tiles. Channels are mixed down to mono, column N
+ * is calculated from FFT window that starts at sample N * hop, where hop is sample rate divided by
+ * {@link SpectrogramTile#COLUMNS_PER_SECOND}. Analysis may start from any tile, so a decoder seeks
+ * close to the tile start and passes presentation time of buffers, samples before the tile are skipped.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class SpectrogramAnalyzer {
+
+	public interface TileListener {
+		void onTile(SpectrogramTile tile);
+	}
+
+	private final int sampleRate;
+	private final int channelCount;
+	private final int hop;
+	private final RealFft fft;
+	private final int binsPerLevel;
+	private final float fullScalePower;
+	private final float minPower;
+	private final TileListener listener;
+
+	private final float[] buffer;
+	private final float[] power;
+	/** Absolute mono sample index of buffer[0]. */
+	private long bufferStart;
+	private int filled = 0;
+	/** Absolute index of the next incoming mono sample, -1 until the first buffer arrives. */
+	private long nextSample = -1;
+	private long column;
+	private byte[] tileData;
+
+	public SpectrogramAnalyzer(int sampleRate, int channelCount, int firstTile, TileListener listener) {
+		this.sampleRate = sampleRate;
+		this.channelCount = Math.max(1, channelCount);
+		this.listener = listener;
+		this.hop = Math.max(1, sampleRate / SpectrogramTile.COLUMNS_PER_SECOND);
+		this.fft = new RealFft(fftSize(hop));
+		this.binsPerLevel = fft.getSize() / 2 / SpectrogramTile.BINS;
+		this.fullScalePower = fft.getFullScalePower();
+		this.minPower = fullScalePower * (float) Math.pow(10, -SpectrogramTile.DYNAMIC_RANGE_DB / 10);
+		this.buffer = new float[fft.getSize()];
+		this.power = new float[fft.getSize() / 2];
+		this.column = (long) firstTile * SpectrogramTile.COLUMNS;
+		this.bufferStart = column * hop;
+		this.tileData = new byte[SpectrogramTile.COLUMNS * SpectrogramTile.BINS];
+	}
+
+	/**
+	 * FFT window covers at least one hop so no audio is skipped, and gives at least
+	 * {@link SpectrogramTile#BINS} bins.
+	 */
+	static int fftSize(int hop) {
+		int size = 2 * SpectrogramTile.BINS;
+		while (size < hop) {
+			size <<= 1;
+		}
+		return size;
+	}
+
+	public int getHop() {
+		return hop;
+	}
+
+	public int getFftSize() {
+		return fft.getSize();
+	}
+
+	/** Time of the first sample needed for the tile, decoder seeks to this time. */
+	public long getTileStartUs(int tile) {
+		return (long) tile * SpectrogramTile.COLUMNS * hop * 1000000L / sampleRate;
+	}
+
+	/** Index of the tile which is being calculated now. */
+	public int getCurrentTile() {
+		return (int) (column / SpectrogramTile.COLUMNS);
+	}
+
+	/**
+	 * Add samples which follow previous ones without a gap.
+	 */
+	public void addSamples(ShortBuffer samples) {
+		if (nextSample < 0) {
+			nextSample = 0;
+		}
+		consume(samples);
+	}
+
+	/**
+	 * Add decoded buffer with its presentation time. Time of the first buffer positions the stream,
+	 * samples of following buffers are expected to be continuous.
+	 */
+	public void addSamples(ShortBuffer samples, long ptsUs) {
+		if (nextSample < 0) {
+			nextSample = Math.max(0, Math.round(ptsUs * (double) sampleRate / 1000000));
+		}
+		consume(samples);
+	}
+
+	private void consume(ShortBuffer samples) {
+		int frames = samples.remaining() / channelCount;
+		int pos = samples.position();
+		float scale = 1f / channelCount;
+		for (int i = 0; i < frames; i++) {
+			long sampleIndex = nextSample++;
+			if (sampleIndex < bufferStart + filled) {
+				//Sample before the column window, for example preroll after seek.
+				pos += channelCount;
+				continue;
+			}
+			float sum = 0;
+			for (int c = 0; c < channelCount; c++) {
+				sum += samples.get(pos++);
+			}
+			//Fill gap in the stream with silence.
+			while (bufferStart + filled < sampleIndex && filled < buffer.length) {
+				buffer[filled++] = 0;
+				if (filled == buffer.length) {
+					calculateColumn();
+				}
+			}
+			if (sampleIndex == bufferStart + filled) {
+				buffer[filled++] = sum * scale;
+				if (filled == buffer.length) {
+					calculateColumn();
+				}
+			}
+		}
+		samples.position(pos);
+	}
+
+	/**
+	 * Complete the last column and the last tile at the end of the stream.
+	 */
+	public void finish() {
+		if (filled > 0) {
+			while (filled < buffer.length) {
+				buffer[filled++] = 0;
+			}
+			calculateColumn();
+		}
+		int columnsInTile = (int) (column % SpectrogramTile.COLUMNS);
+		if (columnsInTile > 0) {
+			listener.onTile(new SpectrogramTile(getCurrentTile(), columnsInTile, tileData));
+			tileData = new byte[SpectrogramTile.COLUMNS * SpectrogramTile.BINS];
+			column += SpectrogramTile.COLUMNS - columnsInTile;
+		}
+		filled = 0;
+		bufferStart = column * hop;
+	}
+
+	private void calculateColumn() {
+		fft.powerSpectrum(buffer, 0, power);
+		int offset = (int) (column % SpectrogramTile.COLUMNS) * SpectrogramTile.BINS;
+		for (int bin = 0, k = 0; bin < SpectrogramTile.BINS; bin++) {
+			float max = 0;
+			for (int i = 0; i < binsPerLevel; i++, k++) {
+				if (power[k] > max) {
+					max = power[k];
+				}
+			}
+			tileData[offset + bin] = (byte) toLevel(max);
+		}
+		column++;
+		long nextStart = column * hop;
+		long shift = nextStart - bufferStart;
+		if (shift < filled) {
+			System.arraycopy(buffer, (int) shift, buffer, 0, filled - (int) shift);
+			filled -= (int) shift;
+		} else {
+			filled = 0;
+		}
+		bufferStart = nextStart;
+		if (column % SpectrogramTile.COLUMNS == 0) {
+			listener.onTile(new SpectrogramTile(getCurrentTile() - 1, SpectrogramTile.COLUMNS, tileData));
+			tileData = new byte[SpectrogramTile.COLUMNS * SpectrogramTile.BINS];
+		}
+	}
+
+	private int toLevel(float power) {
+		if (power <= minPower) {
+			return 0;
+		}
+		float db = 10 * (float) Math.log10(power / fullScalePower);
+		int level = (int) ((db + SpectrogramTile.DYNAMIC_RANGE_DB) * 255 / SpectrogramTile.DYNAMIC_RANGE_DB);
+		return Math.min(255, Math.max(0, level));
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio.spectrogram;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.dimowner.audiorecorder.TaskExecutor;
+import com.dimowner.audiorecorder.TaskHandle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import androidx.annotation.NonNull;
+import timber.log.Timber;
+
+/**
+ * Provides spectrogram tiles of visible part of a record. Tiles are read from disk cache,
+ * missing tiles are calculated in short runs on the background lane of {@link TaskExecutor},
+ * so the first tiles are shown quickly and scrolling away cancels work which is not needed anymore.
+ * All public methods and listener callbacks are on the main thread.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class SpectrogramEngine {
+
+	/** Max count of tiles calculated by one job. */
+	private static final int MAX_TILES_PER_JOB = 8;
+	/** Tiles outside of requested range which are still worth calculating. */
+	private static final int KEEP_MARGIN_TILES = 1;
+	private static final String TASK_TILES = "SpectrogramTiles";
+	private static final String TASK_CLEAR_CACHE = "SpectrogramClearCache";
+
+	public interface OnTileReadyListener {
+		void onTileReady(@NonNull File file, @NonNull SpectrogramTile tile);
+	}
+
+	private final SpectrogramTileCache cache;
+	private final TaskExecutor executor;
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+	private final List<TileJob> jobs = new ArrayList<>();
+
+	public SpectrogramEngine(@NonNull SpectrogramTileCache cache, @NonNull TaskExecutor executor) {
+		this.cache = cache;
+		this.executor = executor;
+	}
+
+	/**
+	 * Request tiles from first to last inclusive. Every tile is delivered to the listener once
+	 * it is loaded from cache or calculated. Jobs for other files or far away tiles are cancelled.
+	 */
+	public void requestTiles(@NonNull File file, int firstTile, int lastTile, @NonNull OnTileReadyListener listener) {
+		Iterator<TileJob> it = jobs.iterator();
+		while (it.hasNext()) {
+			TileJob job = it.next();
+			if (!job.file.equals(file) || job.lastTile < firstTile - KEEP_MARGIN_TILES
+					|| job.firstTile > lastTile + KEEP_MARGIN_TILES) {
+				job.cancel();
+				it.remove();
+			}
+		}
+		int start = firstTile;
+		while (start <= lastTile) {
+			if (isPending(file, start)) {
+				start++;
+				continue;
+			}
+			int end = start;
+			while (end < lastTile && end - start + 1 < MAX_TILES_PER_JOB && !isPending(file, end + 1)) {
+				end++;
+			}
+			TileJob job = new TileJob(file, start, end, listener);
+			jobs.add(job);
+			job.task = executor.execute(TASK_TILES, TaskExecutor.PRIORITY_BACKGROUND, job);
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * Cancel all jobs, for example when a record is closed.
+	 */
+	public void cancelAll() {
+		for (TileJob job : jobs) {
+			job.cancel();
+		}
+		jobs.clear();
+	}
+
+	public void clearCache() {
+		cancelAll();
+		executor.execute(TASK_CLEAR_CACHE, TaskExecutor.PRIORITY_BACKGROUND, cache::clear);
+	}
+
+	public void release() {
+		cancelAll();
+	}
+
+	private boolean isPending(File file, int tile) {
+		for (TileJob job : jobs) {
+			if (job.file.equals(file) && tile >= job.firstTile && tile <= job.lastTile) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void deliver(TileJob job, SpectrogramTile tile) {
+		mainHandler.post(() -> {
+			if (!job.cancelled.get()) {
+				job.listener.onTileReady(job.file, tile);
+			}
+		});
+	}
+
+	private class TileJob implements Runnable {
+
+		final File file;
+		final int firstTile;
+		final int lastTile;
+		final OnTileReadyListener listener;
+		final AtomicBoolean cancelled = new AtomicBoolean(false);
+		/** Task of the job, set on the main thread right after the job is posted. */
+		TaskHandle task;
+
+		TileJob(File file, int firstTile, int lastTile, OnTileReadyListener listener) {
+			this.file = file;
+			this.firstTile = firstTile;
+			this.lastTile = lastTile;
+			this.listener = listener;
+		}
+
+		/**
+		 * Job which is not started yet is dropped, running job stops between tiles.
+		 */
+		void cancel() {
+			cancelled.set(true);
+			if (task != null) {
+				task.cancel();
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				int firstMissing = -1;
+				int lastMissing = -1;
+				for (int i = firstTile; i <= lastTile && !cancelled.get(); i++) {
+					SpectrogramTile tile = cache.load(file, i);
+					if (tile != null) {
+						deliver(this, tile);
+					} else {
+						if (firstMissing < 0) {
+							firstMissing = i;
+						}
+						lastMissing = i;
+					}
+				}
+				if (firstMissing >= 0 && !cancelled.get()) {
+					long start = SystemClock.elapsedRealtime();
+					boolean completed = SpectrogramGenerator.generate(file, firstMissing, lastMissing, cancelled, tile -> {
+						try {
+							cache.save(file, tile);
+						} catch (IOException e) {
+							Timber.e(e);
+						}
+						if (tile.getIndex() >= firstTile && tile.getIndex() <= lastTile) {
+							deliver(this, tile);
+						}
+					});
+					Timber.v("Spectrogram tiles %d-%d of %s %s in %d ms", firstMissing, lastMissing,
+							file.getName(), completed ? "calculated" : "cancelled", SystemClock.elapsedRealtime() - start);
+				}
+			} catch (IOException | IllegalStateException | IllegalArgumentException e) {
+				Timber.e(e, "Failed to calculate spectrogram of %s", file.getName());
+			} finally {
+				mainHandler.post(() -> jobs.remove(this));
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio.spectrogram;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import androidx.annotation.NonNull;
+import timber.log.Timber;
+
+/**
+ * Decodes a range of an audio file and calculates spectrogram tiles of the range.
+ * Decoding starts from the sync frame before the first tile, so tiles in the middle of
+ * a long record are ready without decoding the whole file. Every finished tile is passed
+ * to the listener immediately, generation stops as soon as cancel flag is set.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class SpectrogramGenerator {
+
+	private static final long TIMEOUT_US = 10000;
+
+	private SpectrogramGenerator() {}
+
+	/**
+	 * Calculate tiles from firstTile to lastTile inclusive on the calling thread.
+	 * @return true when the range is complete, false if cancelled.
+	 */
+	public static boolean generate(@NonNull File file, int firstTile, int lastTile,
+											 @NonNull AtomicBoolean cancelled,
+											 @NonNull SpectrogramAnalyzer.TileListener listener) throws IOException {
+		MediaExtractor extractor = new MediaExtractor();
+		MediaCodec decoder = null;
+		try {
+			extractor.setDataSource(file.getPath());
+			MediaFormat format = null;
+			for (int i = 0; i < extractor.getTrackCount(); i++) {
+				MediaFormat f = extractor.getTrackFormat(i);
+				if (f.getString(MediaFormat.KEY_MIME).startsWith("audio/")) {
+					extractor.selectTrack(i);
+					format = f;
+					break;
+				}
+			}
+			if (format == null) {
+				throw new IOException("No audio track found in " + file);
+			}
+			SpectrogramAnalyzer analyzer = new SpectrogramAnalyzer(
+					format.getInteger(MediaFormat.KEY_SAMPLE_RATE),
+					format.getInteger(MediaFormat.KEY_CHANNEL_COUNT),
+					firstTile, listener);
+			if (firstTile > 0) {
+				extractor.seekTo(analyzer.getTileStartUs(firstTile), MediaExtractor.SEEK_TO_PREVIOUS_SYNC);
+			}
+			decoder = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+			decoder.configure(format, null, null, 0);
+			decoder.start();
+
+			MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+			boolean inputDone = false;
+			boolean outputDone = false;
+			while (!outputDone && analyzer.getCurrentTile() <= lastTile) {
+				if (cancelled.get()) {
+					return false;
+				}
+				if (!inputDone) {
+					int inIndex = decoder.dequeueInputBuffer(TIMEOUT_US);
+					if (inIndex >= 0) {
+						ByteBuffer inBuffer = decoder.getInputBuffer(inIndex);
+						int size = inBuffer != null ? extractor.readSampleData(inBuffer, 0) : -1;
+						if (size < 0) {
+							decoder.queueInputBuffer(inIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+							inputDone = true;
+						} else {
+							decoder.queueInputBuffer(inIndex, 0, size, extractor.getSampleTime(), 0);
+							extractor.advance();
+						}
+					}
+				}
+				int outIndex = decoder.dequeueOutputBuffer(info, TIMEOUT_US);
+				if (outIndex >= 0) {
+					ByteBuffer outBuffer = decoder.getOutputBuffer(outIndex);
+					if (outBuffer != null && info.size > 0) {
+						outBuffer.position(info.offset);
+						outBuffer.limit(info.offset + info.size);
+						analyzer.addSamples(outBuffer.order(ByteOrder.nativeOrder()).asShortBuffer(), info.presentationTimeUs);
+					}
+					decoder.releaseOutputBuffer(outIndex, false);
+					outputDone = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+				}
+			}
+			if (outputDone) {
+				analyzer.finish();
+			}
+			return true;
+		} finally {
+			if (decoder != null) {
+				try {
+					decoder.stop();
+					decoder.release();
+				} catch (IllegalStateException e) {
+					Timber.e(e);
+				}
+			}
+			extractor.release();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio.spectrogram;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Fixed length piece of a spectrogram: {@link #COLUMNS} columns of {@link #BINS} frequency bins.
+ * Every value is a level from 0 (silence) to 255 (full scale) in logarithmic scale.
+ * Data is stored column by column, the lowest frequency first.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class SpectrogramTile {
+
+	/** Spectrogram time resolution. */
+	public static final int COLUMNS_PER_SECOND = 25;
+	/** Columns in one tile, about 10 seconds of audio. */
+	public static final int COLUMNS = 256;
+	/** Frequency bins in a column, from zero to Nyquist frequency. */
+	public static final int BINS = 128;
+	/** Dynamic range mapped to levels from 0 to 255. */
+	public static final float DYNAMIC_RANGE_DB = 96f;
+
+	private static final int MAGIC = 0x53504354; //SPCT
+	private static final int VERSION = 1;
+
+	private final int index;
+	private final int columnCount;
+	private final byte[] data;
+
+	public SpectrogramTile(int index, int columnCount, byte[] data) {
+		this.index = index;
+		this.columnCount = columnCount;
+		this.data = data;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	/** Count of columns that contain audio, less than {@link #COLUMNS} for the last tile. */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+	public int getLevel(int column, int bin) {
+		return data[column * BINS + bin] & 0xFF;
+	}
+
+	public static long tileStartMills(int index) {
+		return (long) index * COLUMNS * 1000 / COLUMNS_PER_SECOND;
+	}
+
+	public static int tileAtMills(long mills) {
+		return (int) (Math.max(mills, 0) * COLUMNS_PER_SECOND / 1000 / COLUMNS);
+	}
+
+	public static int tileCount(long durationMills) {
+		long columns = (durationMills * COLUMNS_PER_SECOND + 999) / 1000;
+		return (int) ((columns + COLUMNS - 1) / COLUMNS);
+	}
+
+	public void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(index);
+		out.writeInt(columnCount);
+		out.writeInt(BINS);
+		out.write(data, 0, columnCount * BINS);
+	}
+
+	public static SpectrogramTile readFrom(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("Unknown spectrogram tile format");
+		}
+		int index = in.readInt();
+		int columnCount = in.readInt();
+		if (in.readInt() != BINS || columnCount < 0 || columnCount > COLUMNS) {
+			throw new IOException("Spectrogram tile has wrong size");
+		}
+		byte[] data = new byte[COLUMNS * BINS];
+		in.readFully(data, 0, columnCount * BINS);
+		return new SpectrogramTile(index, columnCount, data);
+	}
+}
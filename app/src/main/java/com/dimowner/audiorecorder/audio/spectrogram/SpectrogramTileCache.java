@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.audio.spectrogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Disk cache of spectrogram tiles. Tiles of every audio file are kept in a separate directory
+ * named after file path, length and modification time, so tiles of a changed file are never used.
+ * Every tile is a small file written into temp file and renamed, a tile is never read half written.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class SpectrogramTileCache {
+
+	private static final String TILE_EXTENSION = ".tile";
+	private static final String TMP_EXTENSION = ".tmp";
+
+	private final File rootDir;
+
+	public SpectrogramTileCache(File rootDir) {
+		this.rootDir = rootDir;
+	}
+
+	File getDirectory(File audioFile) {
+		String key = Integer.toHexString(audioFile.getAbsolutePath().hashCode())
+				+ "_" + Long.toHexString(audioFile.length())
+				+ "_" + Long.toHexString(audioFile.lastModified());
+		return new File(rootDir, key);
+	}
+
+	/**
+	 * @return Cached tile or null when the tile is not calculated yet or cache file is broken.
+	 */
+	public SpectrogramTile load(File audioFile, int index) {
+		File tileFile = new File(getDirectory(audioFile), index + TILE_EXTENSION);
+		if (!tileFile.exists()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(tileFile)))) {
+			SpectrogramTile tile = SpectrogramTile.readFrom(in);
+			if (tile.getIndex() == index) {
+				return tile;
+			}
+		} catch (IOException e) {
+			//Broken tile is deleted and calculated again.
+		}
+		tileFile.delete();
+		return null;
+	}
+
+	public boolean contains(File audioFile, int index) {
+		return new File(getDirectory(audioFile), index + TILE_EXTENSION).exists();
+	}
+
+	public void save(File audioFile, SpectrogramTile tile) throws IOException {
+		File dir = getDirectory(audioFile);
+		if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+			throw new IOException("Failed to create spectrogram cache dir: " + dir);
+		}
+		File tmp = new File(dir, tile.getIndex() + TMP_EXTENSION);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			tile.writeTo(out);
+		}
+		if (!tmp.renameTo(new File(dir, tile.getIndex() + TILE_EXTENSION))) {
+			tmp.delete();
+			throw new IOException("Failed to save spectrogram tile " + tile.getIndex());
+		}
+	}
+
+	/**
+	 * Delete all cached tiles.
+	 */
+	public void clear() {
+		File[] dirs = rootDir.listFiles();
+		if (dirs != null) {
+			for (File dir : dirs) {
+				deleteDir(dir);
+			}
+		}
+	}
+
+	private static void deleteDir(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+}
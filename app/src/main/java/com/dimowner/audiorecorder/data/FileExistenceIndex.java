@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data;
+
+import android.os.FileObserver;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.dimowner.audiorecorder.BackgroundQueue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import timber.log.Timber;
+
+/**
+ * In-memory index of files in record directories. Every directory is listed once on the first
+ * lookup, after that the index is kept up to date by {@link FileObserver} events and by
+ * {@link #onFileChanged(String)} calls after own writes. So checking that a record file exists
+ * does not touch the file system. Indexed directories are listed again from time to time in
+ * case some events were lost. Directories which are missing or can't be listed are remembered
+ * and not watched until the next reconciliation, an event of an indexed parent directory or
+ * an own write into them.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class FileExistenceIndex {
+
+	private static final long RECONCILE_INTERVAL_MILLS = 10 * 60 * 1000;
+
+	private static final int EVENTS = FileObserver.CREATE | FileObserver.DELETE
+			| FileObserver.MOVED_FROM | FileObserver.MOVED_TO
+			| FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+
+	private final Map<String, DirIndex> dirs = new HashMap<>();
+	/** Directories which failed to be listed, guarded by dirs lock. */
+	private final Set<String> unavailableDirs = new HashSet<>();
+	private BackgroundQueue reconcileTasks;
+
+	private final Runnable reconcileRunnable = new Runnable() {
+		@Override
+		public void run() {
+			reconcile();
+			reconcileTasks.postRunnable(this, RECONCILE_INTERVAL_MILLS);
+		}
+	};
+
+	/**
+	 * Check that file exists.
+	 * @param path Absolute path to the file.
+	 */
+	public boolean exists(@Nullable String path) {
+		if (path == null) {
+			return false;
+		}
+		File file = new File(path);
+		DirIndex index = getDirIndex(file.getParent());
+		if (index == null) {
+			//Directory is not available, nothing to index.
+			return file.exists();
+		}
+		return index.contains(file.getName());
+	}
+
+	/**
+	 * Update the index after a file was created, deleted or renamed by the app.
+	 * Renamed file is updated by two calls with the old and the new path.
+	 * @param path Absolute path to the changed file.
+	 */
+	public void onFileChanged(@Nullable String path) {
+		if (path == null) {
+			return;
+		}
+		File file = new File(path);
+		DirIndex index;
+		synchronized (dirs) {
+			//The app might have created the directory or the changed file is a directory.
+			unavailableDirs.remove(file.getParent());
+			unavailableDirs.remove(path);
+			index = dirs.get(file.getParent());
+		}
+		if (index != null) {
+			index.update(file.getName(), file.exists());
+		}
+	}
+
+	/**
+	 * List all indexed directories again.
+	 */
+	public void reconcile() {
+		List<DirIndex> indexes;
+		synchronized (dirs) {
+			unavailableDirs.clear();
+			indexes = new ArrayList<>(dirs.values());
+		}
+		for (DirIndex index : indexes) {
+			if (!index.reload()) {
+				removeDirIndex(index);
+			}
+		}
+	}
+
+	/**
+	 * Start periodic reconciliation in a queue of background priority.
+	 */
+	public void startReconciliation() {
+		synchronized (dirs) {
+			if (reconcileTasks == null) {
+				reconcileTasks = new BackgroundQueue("FileIndexTasks");
+				reconcileTasks.postRunnable(reconcileRunnable, RECONCILE_INTERVAL_MILLS);
+			}
+		}
+	}
+
+	/**
+	 * Stop watching all directories and forget their content.
+	 */
+	public void clear() {
+		synchronized (dirs) {
+			for (DirIndex index : dirs.values()) {
+				index.stopWatching();
+			}
+			dirs.clear();
+			unavailableDirs.clear();
+			if (reconcileTasks != null) {
+				reconcileTasks.cleanupQueue();
+				reconcileTasks.close();
+				reconcileTasks = null;
+			}
+		}
+	}
+
+	@Nullable
+	private DirIndex getDirIndex(@Nullable String dir) {
+		if (dir == null) {
+			return null;
+		}
+		DirIndex index;
+		synchronized (dirs) {
+			if (unavailableDirs.contains(dir)) {
+				return null;
+			}
+			index = dirs.get(dir);
+			if (index == null) {
+				index = new DirIndex(dir);
+				dirs.put(dir, index);
+			}
+		}
+		if (!index.ensureLoaded()) {
+			removeDirIndex(index);
+			synchronized (dirs) {
+				unavailableDirs.add(dir);
+			}
+			return null;
+		}
+		return index;
+	}
+
+	@VisibleForTesting
+	boolean isIndexed(String dir) {
+		synchronized (dirs) {
+			return dirs.containsKey(dir);
+		}
+	}
+
+	@VisibleForTesting
+	boolean isUnavailable(String dir) {
+		synchronized (dirs) {
+			return unavailableDirs.contains(dir);
+		}
+	}
+
+	private void onDirAppeared(String dir) {
+		synchronized (dirs) {
+			unavailableDirs.remove(dir);
+		}
+	}
+
+	private void removeDirIndex(DirIndex index) {
+		index.stopWatching();
+		synchronized (dirs) {
+			if (dirs.get(index.dir) == index) {
+				dirs.remove(index.dir);
+			}
+		}
+	}
+
+	private class DirIndex extends FileObserver {
+
+		private final String dir;
+		private final Set<String> names = new HashSet<>();
+		private boolean loaded = false;
+
+		@SuppressWarnings("deprecation")
+		DirIndex(String dir) {
+			//File based constructor is available only since API 29.
+			super(dir, EVENTS);
+			this.dir = dir;
+		}
+
+		synchronized boolean ensureLoaded() {
+			return loaded || reload();
+		}
+
+		/**
+		 * Read directory content into the index.
+		 * @return false if directory is not available.
+		 */
+		synchronized boolean reload() {
+			//Watch before listing, so no file is missed between them.
+			startWatching();
+			String[] list = new File(dir).list();
+			if (list == null) {
+				loaded = false;
+				return false;
+			}
+			names.clear();
+			for (String name : list) {
+				names.add(name);
+			}
+			loaded = true;
+			return true;
+		}
+
+		synchronized boolean contains(String name) {
+			return names.contains(name);
+		}
+
+		synchronized void update(String name, boolean exists) {
+			if (exists) {
+				names.add(name);
+			} else {
+				names.remove(name);
+			}
+		}
+
+		@Override
+		public void onEvent(int event, @Nullable String path) {
+			switch (event & FileObserver.ALL_EVENTS) {
+				case FileObserver.CREATE:
+				case FileObserver.MOVED_TO:
+					if (path != null) {
+						update(path, true);
+						onDirAppeared(new File(dir, path).getPath());
+					}
+					break;
+				case FileObserver.DELETE:
+				case FileObserver.MOVED_FROM:
+					if (path != null) {
+						update(path, false);
+					}
+					break;
+				case FileObserver.DELETE_SELF:
+				case FileObserver.MOVE_SELF:
+					Timber.v("Indexed dir %s is gone", dir);
+					removeDirIndex(this);
+					break;
+			}
+		}
+	}
+}
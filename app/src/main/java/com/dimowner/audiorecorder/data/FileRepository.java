@@ -42,6 +42,11 @@ public interface FileRepository {
 
 	boolean deleteRecordFile(String path);
 
+	/**
+	 * Check that record file exists using in-memory index of record directories.
+	 */
+	boolean isFileExists(String path);
+
 	String markAsTrashRecord(String path);
 
 	String unmarkTrashRecord(String path);
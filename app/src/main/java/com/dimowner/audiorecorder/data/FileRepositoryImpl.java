@@ -32,12 +32,15 @@ public class FileRepositoryImpl implements FileRepository {
 
 	private File recordDirectory;
 	private final Prefs prefs;
+	private final FileExistenceIndex fileIndex;
 
 	private volatile static FileRepositoryImpl instance;
 
 	private FileRepositoryImpl(Context context, Prefs prefs) {
 		updateRecordingDir(context, prefs);
 		this.prefs = prefs;
+		this.fileIndex = new FileExistenceIndex();
+		this.fileIndex.startReconciliation();
 	}
 
 	public static FileRepositoryImpl getInstance(Context context, Prefs prefs) {
@@ -88,6 +91,7 @@ public class FileRepositoryImpl implements FileRepository {
 		}
 
 		if (recordFile != null) {
+			fileIndex.onFileChanged(recordFile.getAbsolutePath());
 			return recordFile;
 		}
 		throw new CantCreateFileException();
@@ -97,6 +101,7 @@ public class FileRepositoryImpl implements FileRepository {
 	public File provideRecordFile(String name) throws CantCreateFileException {
 		File recordFile = FileUtil.createFile(recordDirectory, name);
 		if (recordFile != null) {
+			fileIndex.onFileChanged(recordFile.getAbsolutePath());
 			return recordFile;
 		}
 		throw new CantCreateFileException();
@@ -155,15 +160,24 @@ public class FileRepositoryImpl implements FileRepository {
 	@Override
 	public boolean deleteRecordFile(String path) {
 		if (path != null) {
-			return FileUtil.deleteFile(new File(path));
+			boolean deleted = FileUtil.deleteFile(new File(path));
+			fileIndex.onFileChanged(path);
+			return deleted;
 		}
 		return false;
 	}
 
+	@Override
+	public boolean isFileExists(String path) {
+		return fileIndex.exists(path);
+	}
+
 	@Override
 	public String markAsTrashRecord(String path) {
 		String trashLocation = FileUtil.addExtension(path, AppConstants.TRASH_MARK_EXTENSION);
 		if (FileUtil.renameFile(new File(path), new File(trashLocation))) {
+			fileIndex.onFileChanged(path);
+			fileIndex.onFileChanged(trashLocation);
 			return trashLocation;
 		}
 		return null;
@@ -173,6 +187,8 @@ public class FileRepositoryImpl implements FileRepository {
 	public String unmarkTrashRecord(String path) {
 		String restoredFile = FileUtil.removeFileExtension(path);
 		if (FileUtil.renameFile(new File(path), new File(restoredFile))) {
+			fileIndex.onFileChanged(path);
+			fileIndex.onFileChanged(restoredFile);
 			return restoredFile;
 		}
 		return null;
@@ -186,7 +202,13 @@ public class FileRepositoryImpl implements FileRepository {
 
 	@Override
 	public boolean renameFile(String path, String newName, String extension) {
-		return FileUtil.renameFile(new File(path), newName, extension);
+		File file = new File(path);
+		if (FileUtil.renameFile(file, newName, extension)) {
+			fileIndex.onFileChanged(path);
+			fileIndex.onFileChanged(file.getParent() + File.separator + newName + AppConstants.EXTENSION_SEPARATOR + extension);
+			return true;
+		}
+		return false;
 	}
 
 	public void updateRecordingDir(Context context, Prefs prefs) {
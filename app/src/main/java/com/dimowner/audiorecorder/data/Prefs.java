@@ -54,6 +54,9 @@ public interface Prefs {
 	boolean isMigratedDb3();
 	void migrateDb3Finished();
 
+	long getLastStatisticsRepair();
+	void setLastStatisticsRepair(long time);
+
 	void setSettingThemeColor(String colorKey);
 	String getSettingThemeColor();
 
@@ -32,6 +32,7 @@ public class PrefsImpl implements Prefs {
 	private static final String PREF_KEY_IS_FIRST_RUN = "is_first_run";
 	private static final String PREF_KEY_IS_MIGRATED = "is_migrated";
 	private static final String PREF_KEY_IS_MIGRATED_DB3 = "is_migrated_db3";
+	private static final String PREF_KEY_LAST_STATISTICS_REPAIR = "pref_last_statistics_repair";
 	private static final String PREF_KEY_IS_STORE_DIR_PUBLIC = "is_store_dir_public";
 	private static final String PREF_KEY_IS_SHOW_DIRECTORY_SETTING = "is_show_directory_setting";
 	private static final String PREF_KEY_IS_ASK_TO_RENAME_AFTER_STOP_RECORDING = "is_ask_rename_after_stop_recording";
@@ -323,6 +324,18 @@ public class PrefsImpl implements Prefs {
 		editor.apply();
 	}
 
+	@Override
+	public long getLastStatisticsRepair() {
+		return sharedPreferences.getLong(PREF_KEY_LAST_STATISTICS_REPAIR, 0);
+	}
+
+	@Override
+	public void setLastStatisticsRepair(long time) {
+		SharedPreferences.Editor editor = sharedPreferences.edit();
+		editor.putLong(PREF_KEY_LAST_STATISTICS_REPAIR, time);
+		editor.apply();
+	}
+
 	@Override
 	public void setSettingThemeColor(String colorKey) {
 		SharedPreferences.Editor editor = sharedPreferences.edit();
@@ -11,6 +11,16 @@ class RecordDataSource(
     private var activeRecord: Record? = null
     var recordingRecord: Record? = null
 
+    init {
+        localRepository.addOnRecordsChangedListener { changes ->
+            synchronized(this) {
+                if (changes.any { it.id == activeRecord?.id }) {
+                    activeRecord = null
+                }
+            }
+        }
+    }
+
     fun getActiveRecord(): Record? {
         synchronized(this) {
             val id = prefs.activeRecord.toInt()
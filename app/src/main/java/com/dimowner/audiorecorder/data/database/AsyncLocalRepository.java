@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import com.dimowner.audiorecorder.BackgroundQueue;
+import com.dimowner.audiorecorder.TaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Asynchronous facade of {@link LocalRepository} on the shared {@link TaskExecutor}.
+ * Changes of records run one by one on a serial writer queue, so they take at most one worker.
+ * Queries run as independent interactive tasks on other workers. Database works in write-ahead
+ * logging mode, so a long write, like emptying the trash, never delays loading of lists.
+ * Used by the records list, the trash screen and the trash expiry job.
+ * Queue wait and run time of every call are counted by {@link TaskExecutor.Stats} under the
+ * call name, statements executed by a call are recorded with its queue wait in {@link QueryStats}.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class AsyncLocalRepository {
+
+	public interface Call<T> {
+		T call(@NonNull LocalRepository repository) throws Exception;
+	}
+
+	/** Prefix of call names in task statistics. */
+	private static final String STATS_PREFIX = "repository.";
+
+	private final LocalRepository repository;
+	private final TaskExecutor executor;
+	private final BackgroundQueue writer;
+	private final Executor callbackExecutor;
+
+	/**
+	 * @param callbackExecutor Executor of result listeners, the main thread in the app.
+	 */
+	public AsyncLocalRepository(@NonNull LocalRepository repository, @NonNull TaskExecutor executor,
+										 @NonNull Executor callbackExecutor) {
+		this.repository = repository;
+		this.executor = executor;
+		this.callbackExecutor = callbackExecutor;
+		this.writer = new BackgroundQueue("RepositoryWriter", TaskExecutor.PRIORITY_INTERACTIVE, executor);
+		//Open the database once, so calls don't pay for it.
+		writer.postRunnable(repository::open);
+	}
+
+	public RepositoryFuture<Record> getRecord(int id) {
+		return read("getRecord", repo -> repo.getRecord(id));
+	}
+
+	public RepositoryFuture<List<Record>> getRecords(Record after, int order) {
+		return read("getRecords", repo -> repo.getRecords(after, order));
+	}
+
+	public RepositoryFuture<List<Record>> getBookmarks() {
+		return read("getBookmarks", LocalRepository::getBookmarks);
+	}
+
+	public RepositoryFuture<List<Record>> searchRecords(String query, int limit) {
+		return read("searchRecords", repo -> repo.searchRecords(query, limit));
+	}
+
+	public RepositoryFuture<int[]> getWaveform(int id) {
+		return read("getWaveform", repo -> repo.getWaveform(id));
+	}
+
+	public RepositoryFuture<List<Record>> getTrashRecords() {
+		return read("getTrashRecords", LocalRepository::getTrashRecords);
+	}
+
+	public RepositoryFuture<Integer> getTrashRecordsCount() {
+		return read("getTrashRecordsCount", LocalRepository::getTrashRecordsCount);
+	}
+
+	public RepositoryFuture<Boolean> updateRecord(Record record) {
+		return write("updateRecord", repo -> repo.updateRecord(record));
+	}
+
+	public RepositoryFuture<Boolean> addToBookmarks(int id) {
+		return write("addToBookmarks", repo -> repo.addToBookmarks(id));
+	}
+
+	public RepositoryFuture<Boolean> removeFromBookmarks(int id) {
+		return write("removeFromBookmarks", repo -> repo.removeFromBookmarks(id));
+	}
+
+	public RepositoryFuture<Boolean> deleteRecord(int id) {
+		return write("deleteRecord", repo -> repo.deleteRecord(id));
+	}
+
+	public RepositoryFuture<List<Integer>> moveToTrash(List<Integer> ids) {
+		return write("moveToTrash", repo -> repo.moveToTrash(ids));
+	}
+
+	/**
+	 * Fails with {@link com.dimowner.audiorecorder.exception.FailedToRestoreRecord} when the record
+	 * is not restored.
+	 */
+	public RepositoryFuture<Integer> restoreFromTrash(int id) {
+		return write("restoreFromTrash", repo -> {
+			repo.restoreFromTrash(id);
+			return id;
+		});
+	}
+
+	public RepositoryFuture<List<Integer>> restoreFromTrash(List<Integer> ids) {
+		return write("restoreFromTrash", repo -> repo.restoreFromTrash(ids));
+	}
+
+	public RepositoryFuture<Boolean> removeFromTrash(int id) {
+		return write("removeFromTrash", repo -> repo.removeFromTrash(id));
+	}
+
+	public RepositoryFuture<List<Integer>> removeFromTrash(List<Integer> ids) {
+		return write("removeFromTrash", repo -> repo.removeFromTrash(ids));
+	}
+
+	public RepositoryFuture<Integer> removeOutdatedTrashRecords() {
+		return write("removeOutdatedTrashRecords", LocalRepository::removeOutdatedTrashRecords);
+	}
+
+	/**
+	 * Run a query as an interactive task. The query must not change records.
+	 * @param name Name of the call in task statistics.
+	 */
+	public <T> RepositoryFuture<T> read(@NonNull String name, @NonNull Call<T> query) {
+		RepositoryFuture<T> future = new RepositoryFuture<>(name, () -> query.call(repository), callbackExecutor);
+		future.setTask(executor.execute(STATS_PREFIX + name, TaskExecutor.PRIORITY_INTERACTIVE, future));
+		return future;
+	}
+
+	/**
+	 * Run a change of records on the writer queue after all previous changes.
+	 * @param name Name of the call in task statistics.
+	 */
+	public <T> RepositoryFuture<T> write(@NonNull String name, @NonNull Call<T> change) {
+		RepositoryFuture<T> future = new RepositoryFuture<>(name, () -> change.call(repository), callbackExecutor);
+		future.setTask(writer.postRunnable(STATS_PREFIX + name, future));
+		return future;
+	}
+
+	/**
+	 * Drop changes which are not started, the running change is finished.
+	 */
+	public void release() {
+		writer.close();
+	}
+}
@@ -24,10 +24,10 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
 import com.dimowner.audiorecorder.AppConstants;
-import com.dimowner.audiorecorder.BuildConfig;
 
 /**
  * Base class to communicate with some table T in database.
@@ -35,7 +35,7 @@ import com.dimowner.audiorecorder.BuildConfig;
  */
 public abstract class DataSource<T> {
 
-	/** SQLite database manager. */
+	/** SQLite database manager shared by all data sources. */
 	protected SQLiteHelper dbHelper;
 
 	/** Class provides access to database. */
@@ -44,18 +44,29 @@ public abstract class DataSource<T> {
 	/** Source table name. */
 	protected String tableName;
 
+	/** Columns selected for list of items, large columns are excluded. */
+	protected String columns;
+
+	/** Max count of arguments bound to one query, SQLite allows 999. */
+	private static final int MAX_BOUND_ARGS = 500;
+
 	/** Tag for logging messages. */
 	private final String LOG_TAG = getClass().getSimpleName();
 
+	/** Latency statistics of executed statements. */
+	private final QueryStats queryStats = QueryStats.getInstance();
+
 
 	/**
 	 * Constructor.
 	 * @param context Application context.
 	 * @param tableName Table name.
+	 * @param columns Columns selected for list of items.
 	 */
-	public DataSource (Context context, String tableName) {
-		dbHelper = new SQLiteHelper(context);
+	public DataSource (Context context, String tableName, String columns) {
+		dbHelper = SQLiteHelper.getInstance(context);
 		this.tableName = tableName;
+		this.columns = columns;
 	}
 
 	/**
@@ -66,27 +77,51 @@ public abstract class DataSource<T> {
 	}
 
 	/**
-	 * Close connection to SQLite database.
+	 * Connection to SQLite database is shared with other data sources and background tasks,
+	 * so it stays open. Statements are closed right after execution, nothing else is held.
 	 */
 	public void close() {
-		db.close();
-		dbHelper.close();
 	}
 
 	public boolean isOpen() {
 		return db != null && db.isOpen();
 	}
 
+	/**
+	 * Begin transaction on the calling thread. Connection is shared by all data sources,
+	 * so the transaction includes changes made by other data sources on this thread.
+	 */
+	public void beginTransaction() {
+		db.beginTransaction();
+	}
+
+	public void setTransactionSuccessful() {
+		db.setTransactionSuccessful();
+	}
+
+	public void endTransaction() {
+		db.endTransaction();
+	}
+
 	/**
 	 * Insert new item into database for table T.
 	 * @param item Item that will be inserted ind database.
+	 * @return Inserted item made of inserted values, so the item is not read back from database.
 	 */
 	public T insertItem(T item) {
 		ContentValues values = itemToContentValues(item);
 		if (values != null) {
+			long start = queryStats.start();
 			int insertId = (int) db.insert(tableName, null, values);
+			trace("INSERT INTO " + tableName, start, insertId < 0 ? 0 : 1);
 			Log.d(LOG_TAG, "Insert into " + tableName + " id = " + insertId);
-			return getItem(insertId);
+			if (insertId < 0) {
+				return null;
+			}
+			byte[] waveform = itemToWaveform(item);
+			saveWaveform(insertId, waveform);
+			values.put(SQLiteHelper.COLUMN_ID, insertId);
+			return valuesToItem(values, waveform);
 		} else {
 			Log.e(LOG_TAG, "Unable to write empty item!");
 			return null;
@@ -100,13 +135,65 @@ public abstract class DataSource<T> {
 	 */
 	public abstract ContentValues itemToContentValues(T item);
 
+	/**
+	 * Get waveform of the item to store in table {@link SQLiteHelper#TABLE_WAVEFORMS}.
+	 * @return Waveform data or null when the stored waveform should not be changed.
+	 */
+	public abstract byte[] itemToWaveform(T item);
+
+	/**
+	 * Convert values written into table T back into item.
+	 * @param values Values of all columns of the item.
+	 * @param waveform Waveform of the item or null.
+	 */
+	public abstract T valuesToItem(ContentValues values, byte[] waveform);
+
 	/**
 	 * Delete item from database for table T.
 	 * @param id Item id of element that will be deleted from table T.
 	 */
 	public int deleteItem(int id) {
 		Log.d(LOG_TAG, tableName + " deleted ID = " + id);
-		return db.delete(tableName, SQLiteHelper.COLUMN_ID + " = " + id, null);
+		String sql = "DELETE FROM " + tableName + " WHERE " + SQLiteHelper.COLUMN_ID + " = ?";
+		SQLiteStatement statement = db.compileStatement(sql);
+		long start = queryStats.start();
+		int count;
+		try {
+			statement.bindLong(1, id);
+			count = statement.executeUpdateDelete();
+		} finally {
+			statement.close();
+		}
+		trace(sql, start, count);
+		return count;
+	}
+
+	/**
+	 * Delete items from table T in one transaction.
+	 * @return Count of deleted items.
+	 */
+	public int deleteItems(List<Integer> ids) {
+		String sql = "DELETE FROM " + tableName + " WHERE " + SQLiteHelper.COLUMN_ID + " = ?";
+		int count = 0;
+		db.beginTransaction();
+		try {
+			SQLiteStatement statement = db.compileStatement(sql);
+			try {
+				for (int i = 0; i < ids.size(); i++) {
+					long start = queryStats.start();
+					statement.bindLong(1, ids.get(i));
+					int n = statement.executeUpdateDelete();
+					trace(sql, start, n);
+					count += n;
+				}
+			} finally {
+				statement.close();
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+		return count;
 	}
 
 	/**
@@ -114,12 +201,26 @@ public abstract class DataSource<T> {
 	 * @param item Item that will be updated.
 	 */
 	public int updateItem(T item) {
+		return updateItem(item, true);
+	}
+
+	/**
+	 * Update item in database for table T.
+	 * @param item Item that will be updated.
+	 * @param updateWaveform False when waveform of the item is known to be stored already,
+	 *                       then only the row of table T is written.
+	 */
+	public int updateItem(T item, boolean updateWaveform) {
 		ContentValues values = itemToContentValues(item);
 		if (values != null && values.containsKey(SQLiteHelper.COLUMN_ID)) {
-			String where = SQLiteHelper.COLUMN_ID + " = "
-					+ values.get(SQLiteHelper.COLUMN_ID);
-			int n = db.update(tableName, values, where, null);
+			long start = queryStats.start();
+			int n = db.update(tableName, values, SQLiteHelper.COLUMN_ID + " = ?",
+					new String[] {values.getAsString(SQLiteHelper.COLUMN_ID)});
+			trace("UPDATE " + tableName, start, n);
 			Log.d(LOG_TAG, "Updated records count = " + n);
+			if (n > 0 && updateWaveform) {
+				saveWaveform(values.getAsInteger(SQLiteHelper.COLUMN_ID), itemToWaveform(item));
+			}
 			return n;
 		} else {
 			Log.e(LOG_TAG, "Unable to update empty item!");
@@ -127,12 +228,30 @@ public abstract class DataSource<T> {
 		}
 	}
 
+	/**
+	 * Update items in table T in one transaction.
+	 * @return Count of updated items.
+	 */
+	public int updateItems(List<T> items) {
+		int count = 0;
+		db.beginTransaction();
+		try {
+			for (int i = 0; i < items.size(); i++) {
+				count += updateItem(items.get(i));
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+		return count;
+	}
+
 	/**
 	 * Get all records from database for table T.
 	 * @return List that contains all records of table T.
 	 */
 	public ArrayList<T> getAll() {
-		Cursor cursor = queryLocal("SELECT * FROM " + tableName + " ORDER BY " + SQLiteHelper.COLUMN_DATE_ADDED + " DESC");
+		Cursor cursor = queryLocal("SELECT " + columns + " FROM " + tableName + " ORDER BY " + SQLiteHelper.COLUMN_DATE_ADDED + " DESC");
 		return convertCursor(cursor);
 	}
 
@@ -145,41 +264,49 @@ public abstract class DataSource<T> {
 		return convertCursorIds(cursor);
 	}
 
-	/**
-	 * Get records from database for table T.
-	 * @return List that contains all records of table T.
-	 */
-	public ArrayList<T> getRecords(int page) {
-		Cursor cursor = queryLocal("SELECT * FROM " + tableName
-				+ " ORDER BY " + SQLiteHelper.COLUMN_DATE_ADDED + " DESC"
-				+ " LIMIT " + AppConstants.DEFAULT_PER_PAGE
-				+ " OFFSET " + (page-1) * AppConstants.DEFAULT_PER_PAGE);
-		return convertCursor(cursor);
-	}
-
 	/**
 	 * Get total records count database for table T.
 	 * @return Existing records count of table T.
 	 */
 	public int getCount() {
-		Cursor cursor = queryLocal("SELECT COUNT(*) FROM " + tableName);
-		if (cursor != null) {
-			cursor.moveToFirst();
-			return cursor.getInt(0);
-		} else {
-			return -1;
+		String sql = "SELECT COUNT(*) FROM " + tableName;
+		SQLiteStatement statement = db.compileStatement(sql);
+		long start = queryStats.start();
+		int count;
+		try {
+			count = (int) statement.simpleQueryForLong();
+		} finally {
+			statement.close();
 		}
+		trace(sql, start, 1);
+		return count;
 	}
 
 	/**
-	 * Get records from database for table T.
-	 * @return List that contains all records of table T.
+	 * Get page of records sorted by the column, ties are sorted by id in the same direction.
+	 * Page starts right after the given position in the order (keyset pagination), so rows are
+	 * found by index of the column and cost of a page doesn't depend on how deep the page is.
+	 * @param orderColumn Column to sort records by.
+	 * @param desc Sort in descending order.
+	 * @param afterKey Value of the order column of the last loaded record or null to load the first page.
+	 * @param afterId Id of the last loaded record.
+	 * @return List that contains one page of records of table T.
 	 */
-	public ArrayList<T> getRecords(int page, String order) {
-		Cursor cursor = queryLocal("SELECT * FROM " + tableName
-				+ " ORDER BY " + order
-				+ " LIMIT " + AppConstants.DEFAULT_PER_PAGE
-				+ " OFFSET " + (page-1) * AppConstants.DEFAULT_PER_PAGE);
+	public ArrayList<T> getRecords(String orderColumn, boolean desc, String afterKey, int afterId) {
+		String direction = desc ? " DESC" : " ASC";
+		String order = " ORDER BY " + orderColumn + direction + ", " + SQLiteHelper.COLUMN_ID + direction
+				+ " LIMIT " + AppConstants.DEFAULT_PER_PAGE;
+		Cursor cursor;
+		if (afterKey == null) {
+			cursor = queryLocal("SELECT " + columns + " FROM " + tableName + order);
+		} else {
+			String op = desc ? " < " : " > ";
+			//Range on the column alone lets SQLite seek the index, the rest skips ties already loaded.
+			cursor = queryLocal("SELECT " + columns + " FROM " + tableName
+					+ " WHERE " + orderColumn + (desc ? " <= ?" : " >= ?")
+					+ " AND (" + orderColumn + op + "? OR " + SQLiteHelper.COLUMN_ID + op + "?)" + order,
+					new String[] {afterKey, afterKey, String.valueOf(afterId)});
+		}
 		return convertCursor(cursor);
 	}
 
@@ -188,28 +315,56 @@ public abstract class DataSource<T> {
 	 * @throws SQLException on error
 	 */
 	public void deleteAll() throws SQLException {
-		db.execSQL("DELETE FROM " + tableName);
+		String sql = "DELETE FROM " + tableName;
+		long start = queryStats.start();
+		db.execSQL(sql);
+		trace(sql, start, 0);
 	}
 
 	/**
 	 * Get items that match the conditions from table T.
-	 * @param where Conditions to select some items.
+	 * @param where Conditions to select some items with '?' in place of arguments.
+	 * @param whereArgs Arguments bound to the conditions.
 	 * @return List of some records from table T.
 	 */
-	public ArrayList<T> getItems(String where) {
-		Cursor cursor = queryLocal("SELECT * FROM "
-				+ tableName + " WHERE " + where);
+	public ArrayList<T> getItems(String where, String[] whereArgs) {
+		Cursor cursor = queryLocal("SELECT " + columns + " FROM "
+				+ tableName + " WHERE " + where, whereArgs);
 		return convertCursor(cursor);
 	}
 
 	/**
-	 * Get item from table T.
+	 * Get items by ids from table T, waveforms are not included.
+	 * @param ids Ids of items to select.
+	 * @return Found items, order of the items is not defined.
+	 */
+	public ArrayList<T> getItems(List<Integer> ids) {
+		ArrayList<T> items = new ArrayList<>(ids.size());
+		//Stay below SQLite limit of bound arguments count.
+		for (int start = 0; start < ids.size(); start += MAX_BOUND_ARGS) {
+			int end = Math.min(ids.size(), start + MAX_BOUND_ARGS);
+			StringBuilder where = new StringBuilder(SQLiteHelper.COLUMN_ID + " IN (");
+			String[] args = new String[end - start];
+			for (int i = start; i < end; i++) {
+				where.append(i > start ? ", ?" : "?");
+				args[i - start] = String.valueOf(ids.get(i));
+			}
+			where.append(")");
+			items.addAll(getItems(where.toString(), args));
+		}
+		return items;
+	}
+
+	/**
+	 * Get item from table T together with its waveform.
 	 * @param id Item id to select.
 	 * @return Selected item from table.
 	 */
 	public T getItem(int id) {
-		Cursor cursor = queryLocal("SELECT * FROM " + tableName
-				+ " WHERE " + SQLiteHelper.COLUMN_ID + " = " + id);
+		Cursor cursor = queryLocal("SELECT " + columns + ", " + SQLiteHelper.COLUMN_DATA + " FROM " + tableName
+				+ " LEFT JOIN " + SQLiteHelper.TABLE_WAVEFORMS
+				+ " ON " + SQLiteHelper.COLUMN_RECORD_ID + " = " + SQLiteHelper.COLUMN_ID
+				+ " WHERE " + SQLiteHelper.COLUMN_ID + " = ?", new String[] {String.valueOf(id)});
 		List<T> list = convertCursor(cursor);
 		if (list.size() > 0) {
 			return list.get(0);
@@ -217,6 +372,90 @@ public abstract class DataSource<T> {
 		return null;
 	}
 
+	/**
+	 * Get waveform of the item.
+	 * @param id Item id.
+	 * @return Waveform data or null if the item has no waveform.
+	 */
+	public byte[] getWaveform(int id) {
+		String sql = "SELECT " + SQLiteHelper.COLUMN_DATA + " FROM " + SQLiteHelper.TABLE_WAVEFORMS
+				+ " WHERE " + SQLiteHelper.COLUMN_RECORD_ID + " = ?";
+		long start = queryStats.start();
+		try (Cursor cursor = db.rawQuery(sql, new String[] {String.valueOf(id)})) {
+			boolean found = cursor.moveToFirst();
+			trace(sql, start, found ? 1 : 0);
+			if (found) {
+				return cursor.getBlob(0);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Insert or replace waveform of the item. Waveform is shared by tables Records and Trash
+	 * because a record keeps its id when moved into trash and back.
+	 */
+	private void saveWaveform(int id, byte[] waveform) {
+		if (waveform != null) {
+			String sql = "INSERT OR REPLACE INTO " + SQLiteHelper.TABLE_WAVEFORMS
+					+ " (" + SQLiteHelper.COLUMN_RECORD_ID + ", " + SQLiteHelper.COLUMN_DATA + ") VALUES (?, ?)";
+			SQLiteStatement statement = db.compileStatement(sql);
+			long start = queryStats.start();
+			try {
+				statement.bindLong(1, id);
+				statement.bindBlob(2, waveform);
+				statement.executeInsert();
+			} finally {
+				statement.close();
+			}
+			trace(sql, start, 1);
+		}
+	}
+
+	/**
+	 * Insert or replace texts received from backend for the item. Like waveform, transcript is
+	 * shared by tables Records and Trash.
+	 * @param id Item id.
+	 * @param transcript Speech recognized in the record or null.
+	 * @param responseText Text of backend reply or null.
+	 */
+	public void saveTranscript(int id, String transcript, String responseText) {
+		String sql = "INSERT OR REPLACE INTO " + SQLiteHelper.TABLE_TRANSCRIPTS
+				+ " (" + SQLiteHelper.COLUMN_RECORD_ID + ", " + SQLiteHelper.COLUMN_TRANSCRIPT + ", "
+				+ SQLiteHelper.COLUMN_RESPONSE_TEXT + ") VALUES (?, ?, ?)";
+		SQLiteStatement statement = db.compileStatement(sql);
+		long start = queryStats.start();
+		try {
+			statement.bindLong(1, id);
+			bindStringOrNull(statement, 2, transcript);
+			bindStringOrNull(statement, 3, responseText);
+			statement.executeInsert();
+		} finally {
+			statement.close();
+		}
+		trace(sql, start, 1);
+	}
+
+	private static void bindStringOrNull(SQLiteStatement statement, int index, String value) {
+		if (value != null) {
+			statement.bindString(index, value);
+		} else {
+			statement.bindNull(index);
+		}
+	}
+
+	/**
+	 * Read waveform from cursor row.
+	 * @return Waveform data or null if waveform is not selected by the query or missing.
+	 */
+	protected static byte[] readWaveform(Cursor cursor) {
+		int index = cursor.getColumnIndex(SQLiteHelper.COLUMN_DATA);
+		if (index >= 0 && !cursor.isNull(index)) {
+			return cursor.getBlob(index);
+		}
+		return null;
+	}
+
 	/**
 	 * Convert {@link android.database.Cursor Cursor} into item T
 	 * @param cursor Cursor.
@@ -263,65 +502,27 @@ public abstract class DataSource<T> {
 	public abstract T recordToItem(Cursor cursor);
 
 	/**
-	 * Query to local SQLite database with write to log query text and query result.
+	 * Query to local SQLite database, execution time and count of rows are recorded
+	 * in {@link QueryStats}.
 	 * @param query Query string.
 	 * @return Cursor that contains query result.
 	 */
 	protected Cursor queryLocal(String query) {
-		Log.d(LOG_TAG, "queryLocal: " + query);
-		Cursor c = db.rawQuery(query, null);
-		if (BuildConfig.DEBUG) {
-			StringBuilder data = new StringBuilder("Cursor[");
-			if (c.moveToFirst()) {
-				do {
-					int columnCount = c.getColumnCount();
-					data.append("row[");
-					for (int i = 0; i < columnCount; ++i) {
-						data.append(c.getColumnName(i)).append(" = ");
-
-						switch (c.getType(i)) {
-							case Cursor.FIELD_TYPE_BLOB:
-								data.append("byte array");
-								break;
-							case Cursor.FIELD_TYPE_FLOAT:
-								data.append(c.getFloat(i));
-								break;
-							case Cursor.FIELD_TYPE_INTEGER:
-								data.append(c.getInt(i));
-								break;
-							case Cursor.FIELD_TYPE_NULL:
-								data.append("null");
-								break;
-							case Cursor.FIELD_TYPE_STRING:
-								data.append(c.getString(i));
-								break;
-						}
-						if (i != columnCount - 1) {
-							data.append(", ");
-						}
-					}
-					data.append("]\n");
-				} while (c.moveToNext());
-			}
-			data.append("]");
-			Log.d(LOG_TAG, data.toString());
-		}
+		return queryLocal(query, null);
+	}
+
+	protected Cursor queryLocal(String query, String[] selectionArgs) {
+		long start = queryStats.start();
+		Cursor c = db.rawQuery(query, selectionArgs);
+		//Query is executed when the cursor window is filled first time, count fills it.
+		int rows = c.getCount();
+		trace(query, start, rows);
 		return c;
 	}
 
-	//TODO: move this method
-	public List<Long> getRecordsDurations() {
-		Cursor cursor = queryLocal("SELECT " + SQLiteHelper.COLUMN_DURATION + " FROM " + tableName);
-		ArrayList<Long> items = new ArrayList<>();
-		cursor.moveToFirst();
-		while (!cursor.isAfterLast()) {
-			items.add(cursor.getLong(cursor.getColumnIndex(SQLiteHelper.COLUMN_DURATION)));
-			cursor.moveToNext();
+	private void trace(String sql, long startNanos, int rows) {
+		if (startNanos != 0) {
+			queryStats.record(sql, System.nanoTime() - startNanos, rows);
 		}
-		cursor.close();
-		if (items.size() > 0) {
-			return items;
-		}
-		return items;
 	}
 }
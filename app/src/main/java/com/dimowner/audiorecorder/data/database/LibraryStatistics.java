@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Totals of records library and of trash.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class LibraryStatistics {
+
+	private final Totals records;
+	private final Totals trash;
+	private final Map<String, Totals> formats;
+
+	public LibraryStatistics(Totals records, Totals trash, Map<String, Totals> formats) {
+		this.records = records;
+		this.trash = trash;
+		this.formats = Collections.unmodifiableMap(formats);
+	}
+
+	/** Totals of records which are not in trash. */
+	public Totals getRecords() {
+		return records;
+	}
+
+	public Totals getTrash() {
+		return trash;
+	}
+
+	/** Totals of records which are not in trash by record format. */
+	public Map<String, Totals> getFormats() {
+		return formats;
+	}
+
+	@NonNull
+	@Override
+	public String toString() {
+		return "LibraryStatistics{" +
+				"records=" + records +
+				", trash=" + trash +
+				", formats=" + formats +
+				'}';
+	}
+
+	public static class Totals {
+
+		public static final Totals EMPTY = new Totals(0, 0, 0);
+
+		private final int count;
+		/** Total duration in milliseconds. */
+		private final long duration;
+		/** Total size in bytes. */
+		private final long size;
+
+		public Totals(int count, long duration, long size) {
+			this.count = count;
+			this.duration = duration;
+			this.size = size;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public long getDuration() {
+			return duration;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		@NonNull
+		@Override
+		public String toString() {
+			return "Totals{" +
+					"count=" + count +
+					", duration=" + duration +
+					", size=" + size +
+					'}';
+		}
+	}
+}
@@ -35,15 +35,34 @@ public interface LocalRepository {
 
 	boolean hasRecordsWithPath(String path);
 
+	int[] getWaveform(int id);
+
+	/**
+	 * Save transcript and reply text received from backend for the record with the path.
+	 * @return false if there is no record with the path.
+	 */
+	boolean saveTranscript(String path, String transcript, String responseText);
+
+	/**
+	 * Find records which name or transcript has words starting with every word of the query.
+	 * @param query Words or beginnings of words to find.
+	 * @param limit Max count of found records.
+	 * @return Found records from newest to oldest.
+	 */
+	List<Record> searchRecords(String query, int limit);
+
 	Record getTrashRecord(int id);
 
 	List<Record> getAllRecords();
 
 	List<Integer> getAllItemsIds();
 
-	List<Record> getRecords(int page);
-
-	List<Record> getRecords(int page, int order);
+	/**
+	 * Get page of records in the order.
+	 * @param after The last record of the previous page or null to get the first page.
+	 * @param order One of AppConstants.SORT_* values.
+	 */
+	List<Record> getRecords(Record after, int order);
 
 	boolean deleteAllRecords();
 
@@ -55,13 +74,30 @@ public interface LocalRepository {
 
 	boolean updateTrashRecord(Record record);
 
+	/**
+	 * Update records in one transaction.
+	 * @return Count of updated records.
+	 */
+	int updateRecords(List<Record> records);
+
+	/**
+	 * Update trash records in one transaction.
+	 * @return Count of updated records.
+	 */
+	int updateTrashRecords(List<Record> records);
+
 	Record insertEmptyFile(String filePath) throws IOException;
 
 	boolean deleteRecord(int id);
 
-	void deleteRecordForever(int id);
+	/**
+	 * Move records into trash in one transaction. If the transaction fails, renamed record files
+	 * get their names back and no record is moved.
+	 * @return Ids of moved records.
+	 */
+	List<Integer> moveToTrash(List<Integer> ids);
 
-	List<Long> getRecordsDurations();
+	void deleteRecordForever(int id);
 
 	boolean addToBookmarks(int id);
 
@@ -77,11 +113,43 @@ public interface LocalRepository {
 
 	void restoreFromTrash(int id) throws FailedToRestoreRecord;
 
+	/**
+	 * Restore records from trash in one transaction. If the transaction fails, renamed record files
+	 * are marked as trash again and no record is restored.
+	 * @return Ids of restored records.
+	 */
+	List<Integer> restoreFromTrash(List<Integer> ids);
+
 	boolean removeFromTrash(int id);
 
+	/**
+	 * Delete files of trash records and then delete the records in one transaction.
+	 * Records which files failed to delete stay in trash.
+	 * @return Ids of deleted records.
+	 */
+	List<Integer> removeFromTrash(List<Integer> ids);
+
 	boolean emptyTrash();
 
-	void removeOutdatedTrashRecords();
+	/**
+	 * Delete files and records which are in trash longer than
+	 * {@link com.dimowner.audiorecorder.AppConstants#RECORD_IN_TRASH_MAX_DURATION}, in batches.
+	 * @return Count of deleted records.
+	 */
+	int removeOutdatedTrashRecords();
 
 	void setOnRecordsLostListener(OnRecordsLostListener listener);
+
+	/**
+	 * Listen to inserts, updates and deletes of records, including moves into trash and back.
+	 * Changes of trash records are not reported.
+	 */
+	void addOnRecordsChangedListener(OnRecordsChangedListener listener);
+
+	void removeOnRecordsChangedListener(OnRecordsChangedListener listener);
+
+	/**
+	 * Cache of records read by id, gives access to hit and miss counters.
+	 */
+	RecordCache getRecordCache();
 }
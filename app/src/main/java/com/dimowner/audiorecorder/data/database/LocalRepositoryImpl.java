@@ -29,8 +29,11 @@ import com.dimowner.audiorecorder.util.FileUtil;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import timber.log.Timber;
 
@@ -58,6 +61,15 @@ public class LocalRepositoryImpl implements LocalRepository {
 //
 // */
 
+	/** Condition for paths inside a directory, bounds are made by {@link #dirPathRange(String)}. */
+	private static final String PATH_IN_DIR_WHERE = COLUMN_PATH + " >= ? AND " + COLUMN_PATH + " < ?";
+
+	/** Count of outdated trash records deleted in one transaction. */
+	private static final int OUTDATED_TRASH_BATCH_SIZE = 50;
+
+	/** Max count of cached records, waveform of a record takes up to several KB. */
+	private static final int RECORD_CACHE_SIZE = 64;
+
 	private final RecordsDataSource dataSource;
 
 	private final TrashDataSource trashDataSource;
@@ -66,10 +78,15 @@ public class LocalRepositoryImpl implements LocalRepository {
 
 	private final Prefs prefs;
 
+	/** Records read by id. Every change of table Records made by the repository is written through it. */
+	private final RecordCache recordCache = new RecordCache(RECORD_CACHE_SIZE);
+
 	private volatile static LocalRepositoryImpl instance;
 
 	private OnRecordsLostListener onLostRecordsListener;
 
+	private final List<OnRecordsChangedListener> onRecordsChangedListeners = new CopyOnWriteArrayList<>();
+
 	private LocalRepositoryImpl(RecordsDataSource dataSource, TrashDataSource trashDataSource, FileRepository fileRepository, Prefs prefs) {
 		this.dataSource = dataSource;
 		this.trashDataSource = trashDataSource;
@@ -82,7 +99,6 @@ public class LocalRepositoryImpl implements LocalRepository {
 			synchronized (LocalRepositoryImpl.class) {
 				if (instance == null) {
 					instance = new LocalRepositoryImpl(source, trashSource, fileRepository, prefs);
-					instance.removeOutdatedTrashRecords();
 				}
 			}
 		}
@@ -109,10 +125,17 @@ public class LocalRepositoryImpl implements LocalRepository {
 	}
 
 	public Record getRecord(int id) {
-		if (!dataSource.isOpen()) {
-			dataSource.open();
+		Record r = recordCache.get(id);
+		if (r == null) {
+			if (!dataSource.isOpen()) {
+				dataSource.open();
+			}
+			long version = recordCache.getVersion();
+			r = dataSource.getItem(id);
+			if (r != null) {
+				recordCache.putIfUnchanged(r, version);
+			}
 		}
-		Record r = dataSource.getItem(id);
 		if (r != null) {
 			List<Record> l = new ArrayList<>(1);
 			l.add(r);
@@ -127,10 +150,7 @@ public class LocalRepositoryImpl implements LocalRepository {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		if (path.contains("'")) {
-			path = path.replace("'", "''");
-		}
-		List<Record> records = dataSource.getItems(COLUMN_PATH + " = '" + path + "'");
+		List<Record> records = dataSource.getItems(COLUMN_PATH + " = ?", new String[] {path});
 		if (records.isEmpty()) {
 			return null;
 		} else {
@@ -139,14 +159,29 @@ public class LocalRepositoryImpl implements LocalRepository {
 	}
 
 	@Override
-	public List<Record> findRecordsByPath(String path) {
+	public boolean saveTranscript(String path, String transcript, String responseText) {
+		Record record = findRecordByPath(path);
+		if (record == null) {
+			return false;
+		}
+		dataSource.saveTranscript(record.getId(), transcript, responseText);
+		return true;
+	}
+
+	@Override
+	public List<Record> searchRecords(String query, int limit) {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		if (path.contains("'")) {
-			path = path.replace("'", "''");
+		return dataSource.searchRecords(query, limit);
+	}
+
+	@Override
+	public List<Record> findRecordsByPath(String path) {
+		if (!dataSource.isOpen()) {
+			dataSource.open();
 		}
-		return dataSource.getItems(COLUMN_PATH + " LIKE '%" + path + "%'");
+		return dataSource.getItems(PATH_IN_DIR_WHERE, dirPathRange(path));
 	}
 
 	@Override
@@ -154,13 +189,30 @@ public class LocalRepositoryImpl implements LocalRepository {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		if (path.contains("'")) {
-			path = path.replace("'", "''");
-		}
-		List<Record> records = dataSource.getItems(COLUMN_PATH + " LIKE '%" + path + "%' LIMIT 1");
+		List<Record> records = dataSource.getItems(PATH_IN_DIR_WHERE + " LIMIT 1", dirPathRange(path));
 		return records.size() > 0;
 	}
 
+	/**
+	 * Bounds of paths of files inside the directory. Range on path column is served by the path
+	 * index, unlike LIKE '%dir%' which scans the whole table.
+	 */
+	private static String[] dirPathRange(String dirPath) {
+		String prefix = dirPath.endsWith(File.separator) ? dirPath : dirPath + File.separator;
+		//Every path which starts with the prefix is less than the prefix with the last char incremented.
+		String end = prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+		return new String[] {prefix, end};
+	}
+
+	@Override
+	public int[] getWaveform(int id) {
+		if (!dataSource.isOpen()) {
+			dataSource.open();
+		}
+		byte[] data = dataSource.getWaveform(id);
+		return data != null ? WaveformCodec.decode(data) : new int[0];
+	}
+
 	@Override
 	public Record getTrashRecord(int id) {
 		if (!trashDataSource.isOpen()) {
@@ -173,7 +225,12 @@ public class LocalRepositoryImpl implements LocalRepository {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		return dataSource.insertItem(record);
+		Record inserted = dataSource.insertItem(record);
+		if (inserted != null) {
+			recordCache.put(inserted);
+			notifyRecordsChanged(Collections.singletonList(RecordChange.inserted(inserted)));
+		}
+		return inserted;
 	}
 
 	@Override
@@ -181,8 +238,14 @@ public class LocalRepositoryImpl implements LocalRepository {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
+		RecordChange change = RecordChange.updated(recordCache.peek(record.getId()), record);
 		//If updated record count is more than 0, then update is successful.
-		return (dataSource.updateItem(record) > 0);
+		if (dataSource.updateItem(record, change.isChanged(RecordChange.CHANGED_WAVEFORM)) > 0) {
+			recordCache.update(record);
+			notifyRecordsChanged(Collections.singletonList(change));
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -194,6 +257,43 @@ public class LocalRepositoryImpl implements LocalRepository {
 		return (trashDataSource.updateItem(record) > 0);
 	}
 
+	@Override
+	public int updateRecords(List<Record> records) {
+		if (!dataSource.isOpen()) {
+			dataSource.open();
+		}
+		List<RecordChange> changes = new ArrayList<>(records.size());
+		for (int i = 0; i < records.size(); i++) {
+			changes.add(RecordChange.updated(recordCache.peek(records.get(i).getId()), records.get(i)));
+		}
+		int count = 0;
+		dataSource.beginTransaction();
+		try {
+			for (int i = 0; i < records.size(); i++) {
+				//Unchanged waveform is not written again.
+				count += dataSource.updateItem(records.get(i), changes.get(i).isChanged(RecordChange.CHANGED_WAVEFORM));
+			}
+			dataSource.setTransactionSuccessful();
+		} finally {
+			dataSource.endTransaction();
+		}
+		for (int i = 0; i < records.size(); i++) {
+			recordCache.update(records.get(i));
+		}
+		if (count > 0) {
+			notifyRecordsChanged(changes);
+		}
+		return count;
+	}
+
+	@Override
+	public int updateTrashRecords(List<Record> records) {
+		if (!trashDataSource.isOpen()) {
+			trashDataSource.open();
+		}
+		return trashDataSource.updateItems(records);
+	}
+
 	@Override
 	public Record insertEmptyFile(String path) throws IOException {
 		if (path != null && !path.isEmpty()) {
@@ -245,42 +345,40 @@ public class LocalRepositoryImpl implements LocalRepository {
 	}
 
 	@Override
-	public List<Record> getRecords(int page) {
-		if (!dataSource.isOpen()) {
-			dataSource.open();
-		}
-		List<Record> list = dataSource.getRecords(page);
-		checkForLostRecords(list);
-		return list;
-	}
-
-	@Override
-	public List<Record> getRecords(int page, int order) {
+	public List<Record> getRecords(Record after, int order) {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		String orderStr;
+		String column;
+		boolean desc;
+		String afterKey = null;
 		switch (order) {
 			case AppConstants.SORT_NAME:
-				orderStr = SQLiteHelper.COLUMN_NAME + " ASC";
-				break;
 			case AppConstants.SORT_NAME_DESC:
-				orderStr = SQLiteHelper.COLUMN_NAME + " DESC";
+				column = SQLiteHelper.COLUMN_NAME;
+				desc = order == AppConstants.SORT_NAME_DESC;
+				if (after != null) {
+					afterKey = after.getName();
+				}
 				break;
 			case AppConstants.SORT_DURATION:
-				orderStr = SQLiteHelper.COLUMN_DURATION + " DESC";
-				break;
 			case AppConstants.SORT_DURATION_DESC:
-				orderStr = SQLiteHelper.COLUMN_DURATION + " ASC";
+				column = SQLiteHelper.COLUMN_DURATION;
+				desc = order == AppConstants.SORT_DURATION;
+				if (after != null) {
+					afterKey = String.valueOf(after.getDuration());
+				}
 				break;
 			case AppConstants.SORT_DATE_DESC:
-				orderStr = SQLiteHelper.COLUMN_DATE_ADDED + " ASC";
-				break;
 			case AppConstants.SORT_DATE:
 			default:
-				orderStr = SQLiteHelper.COLUMN_DATE_ADDED + " DESC";
+				column = SQLiteHelper.COLUMN_DATE_ADDED;
+				desc = order != AppConstants.SORT_DATE_DESC;
+				if (after != null) {
+					afterKey = String.valueOf(after.getAdded());
+				}
 		}
-		List<Record> list = dataSource.getRecords(page, orderStr);
+		List<Record> list = dataSource.getRecords(column, desc, afterKey, after != null ? after.getId() : 0);
 		checkForLostRecords(list);
 		return list;
 	}
@@ -290,7 +388,7 @@ public class LocalRepositoryImpl implements LocalRepository {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		Cursor c = dataSource.queryLocal("SELECT * FROM " + SQLiteHelper.TABLE_RECORDS +
+		Cursor c = dataSource.queryLocal("SELECT " + SQLiteHelper.RECORD_COLUMNS + " FROM " + SQLiteHelper.TABLE_RECORDS +
 				" ORDER BY " + SQLiteHelper.COLUMN_ID + " DESC LIMIT 1");
 		if (c != null && c.moveToFirst()) {
 			Record r = dataSource.recordToItem(c);
@@ -306,7 +404,7 @@ public class LocalRepositoryImpl implements LocalRepository {
 	}
 
 	private boolean isFileExists(String path) {
-		return new File(path).exists();
+		return fileRepository.isFileExists(path);
 	}
 
 	public boolean deleteRecord(int id) {
@@ -324,7 +422,8 @@ public class LocalRepositoryImpl implements LocalRepository {
 				if (renamed != null) {
 					recordToDelete.setPath(renamed);
 					if (trashDataSource.insertItem(recordToDelete) != null) {
-                        return dataSource.deleteItem(id) > 0;
+						recordCache.remove(id);
+						return deleteItem(id);
 					} else {
 						//Restore file name after fail update record in local database.
 						if (fileRepository.unmarkTrashRecord(renamed) == null) {
@@ -337,7 +436,8 @@ public class LocalRepositoryImpl implements LocalRepository {
 			} else {
 				recordToDelete.setPath(renamed);
 				if (trashDataSource.insertItem(recordToDelete) != null) {
-                    return dataSource.deleteItem(id) > 0;
+					recordCache.remove(id);
+					return deleteItem(id);
 				} else {
 					//Restore file name after fail update record in local database.
 					if (fileRepository.unmarkTrashRecord(renamed) == null) {
@@ -352,19 +452,74 @@ public class LocalRepositoryImpl implements LocalRepository {
 	}
 
 	@Override
-	public void deleteRecordForever(int id) {
+	public List<Integer> moveToTrash(List<Integer> ids) {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		dataSource.deleteItem(id);
+		if (!trashDataSource.isOpen()) {
+			trashDataSource.open();
+		}
+		List<Integer> moved = new ArrayList<>();
+		List<String> renamedPaths = new ArrayList<>();
+		boolean success = false;
+		//Waveforms are shared by records and trash, so they are not read and not copied.
+		List<Record> records = dataSource.getItems(ids);
+		dataSource.beginTransaction();
+		try {
+			for (int i = 0; i < records.size(); i++) {
+				Record record = records.get(i);
+				String renamed = fileRepository.markAsTrashRecord(record.getPath());
+				if (renamed == null) {
+					//Try to rename again.
+					renamed = fileRepository.markAsTrashRecord(record.getPath());
+				}
+				if (renamed != null) {
+					renamedPaths.add(renamed);
+					record.setPath(renamed);
+					if (trashDataSource.insertItem(record) == null || dataSource.deleteItem(record.getId()) <= 0) {
+						throw new SQLException("Failed to move record " + record.getId() + " into trash");
+					}
+					moved.add(record.getId());
+				}
+			}
+			dataSource.setTransactionSuccessful();
+			success = true;
+		} catch (SQLException e) {
+			Timber.e(e);
+		} finally {
+			dataSource.endTransaction();
+		}
+		recordCache.removeAll(moved);
+		if (!success) {
+			//Restore file names after failed update of local database.
+			for (int i = 0; i < renamedPaths.size(); i++) {
+				renameFile(renamedPaths.get(i), false);
+			}
+			moved.clear();
+		}
+		List<RecordChange> changes = new ArrayList<>(moved.size());
+		for (int i = 0; i < moved.size(); i++) {
+			changes.add(RecordChange.deleted(moved.get(i)));
+		}
+		notifyRecordsChanged(changes);
+		return moved;
 	}
 
 	@Override
-	public List<Long> getRecordsDurations() {
+	public void deleteRecordForever(int id) {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		return dataSource.getRecordsDurations();
+		recordCache.remove(id);
+		deleteItem(id);
+	}
+
+	private boolean deleteItem(int id) {
+		if (dataSource.deleteItem(id) > 0) {
+			notifyRecordsChanged(Collections.singletonList(RecordChange.deleted(id)));
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -372,10 +527,10 @@ public class LocalRepositoryImpl implements LocalRepository {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		Record r = dataSource.getItem(id);
+		Record r = getRecord(id);
 		if (r != null) {
 			r.setBookmark(true);
-			return (dataSource.updateItem(r) > 0);
+			return updateRecord(r);
 		} else {
 			return false;
 		}
@@ -386,10 +541,10 @@ public class LocalRepositoryImpl implements LocalRepository {
 		if (!dataSource.isOpen()) {
 			dataSource.open();
 		}
-		Record r = dataSource.getItem(id);
+		Record r = getRecord(id);
 		if (r != null) {
 			r.setBookmark(false);
-			return (dataSource.updateItem(r) > 0);
+			return updateRecord(r);
 		} else {
 			return false;
 		}
@@ -401,7 +556,7 @@ public class LocalRepositoryImpl implements LocalRepository {
 			dataSource.open();
 		}
 		List<Record> list = new ArrayList<>();
-		Cursor c = dataSource.queryLocal("SELECT * FROM " + SQLiteHelper.TABLE_RECORDS +
+		Cursor c = dataSource.queryLocal("SELECT " + SQLiteHelper.RECORD_COLUMNS + " FROM " + SQLiteHelper.TABLE_RECORDS +
 				" WHERE " + SQLiteHelper.COLUMN_BOOKMARK + " = 1" +
 				" ORDER BY " + SQLiteHelper.COLUMN_CREATION_DATE  + " DESC");
 
@@ -469,6 +624,74 @@ public class LocalRepositoryImpl implements LocalRepository {
 		}
 	}
 
+	@Override
+	public List<Integer> restoreFromTrash(List<Integer> ids) {
+		if (!dataSource.isOpen()) {
+			dataSource.open();
+		}
+		if (!trashDataSource.isOpen()) {
+			trashDataSource.open();
+		}
+		List<Integer> restored = new ArrayList<>();
+		List<String> renamedPaths = new ArrayList<>();
+		boolean success = false;
+		List<Record> records = trashDataSource.getItems(ids);
+		trashDataSource.beginTransaction();
+		try {
+			for (int i = 0; i < records.size(); i++) {
+				Record record = records.get(i);
+				String renamed = fileRepository.unmarkTrashRecord(record.getPath());
+				if (renamed == null) {
+					//Try to rename again.
+					renamed = fileRepository.unmarkTrashRecord(record.getPath());
+				}
+				if (renamed != null) {
+					renamedPaths.add(renamed);
+					record.setPath(renamed);
+					if (dataSource.insertItem(record) == null || trashDataSource.deleteItem(record.getId()) <= 0) {
+						throw new SQLException("Failed to restore record " + record.getId() + " from trash");
+					}
+					restored.add(record.getId());
+				}
+			}
+			trashDataSource.setTransactionSuccessful();
+			success = true;
+		} catch (SQLException e) {
+			Timber.e(e);
+		} finally {
+			trashDataSource.endTransaction();
+		}
+		List<RecordChange> changes = new ArrayList<>(restored.size());
+		if (success) {
+			for (int i = 0; i < records.size(); i++) {
+				if (restored.contains(records.get(i).getId())) {
+					changes.add(RecordChange.inserted(records.get(i)));
+				}
+			}
+		} else {
+			//Mark files as trash again after failed update of local database.
+			for (int i = 0; i < renamedPaths.size(); i++) {
+				renameFile(renamedPaths.get(i), true);
+			}
+			restored.clear();
+		}
+		notifyRecordsChanged(changes);
+		return restored;
+	}
+
+	/**
+	 * Rename record file back into or out of trash, try 3 times.
+	 */
+	private void renameFile(String path, boolean toTrash) {
+		for (int i = 0; i < 3; i++) {
+			String renamed = toTrash ? fileRepository.markAsTrashRecord(path) : fileRepository.unmarkTrashRecord(path);
+			if (renamed != null) {
+				return;
+			}
+		}
+		Timber.e("Failed to rename file: %s", path);
+	}
+
 	private Boolean restoreRecord(Record record) {
 		String renamed = fileRepository.unmarkTrashRecord(record.getPath());
 		if (renamed != null) {
@@ -508,6 +731,26 @@ public class LocalRepositoryImpl implements LocalRepository {
 		return trashDataSource.deleteItem(id) > 0;
 	}
 
+	@Override
+	public List<Integer> removeFromTrash(List<Integer> ids) {
+		if (!trashDataSource.isOpen()) {
+			trashDataSource.open();
+		}
+		List<Record> records = trashDataSource.getItems(ids);
+		List<Integer> removed = new ArrayList<>();
+		for (int i = 0; i < records.size(); i++) {
+			String path = records.get(i).getPath();
+			//Try to delete file 2 times.
+			if (fileRepository.deleteRecordFile(path) || fileRepository.deleteRecordFile(path)) {
+				removed.add(records.get(i).getId());
+			}
+		}
+		if (!removed.isEmpty()) {
+			trashDataSource.deleteItems(removed);
+		}
+		return removed;
+	}
+
 	@Override
 	public boolean emptyTrash() {
 		if (!trashDataSource.isOpen()) {
@@ -523,18 +766,24 @@ public class LocalRepositoryImpl implements LocalRepository {
 	}
 
 	@Override
-	public void removeOutdatedTrashRecords() {
+	public int removeOutdatedTrashRecords() {
 		if (!trashDataSource.isOpen()) {
 			trashDataSource.open();
 		}
-		long curTime = new Date().getTime();
-		List<Record> list = trashDataSource.getAll();
-		for (int i = 0; i < list.size(); i++) {
-			if (list.get(i).getRemoved() + AppConstants.RECORD_IN_TRASH_MAX_DURATION < curTime) {
-				fileRepository.deleteRecordFile(list.get(i).getPath());
-				trashDataSource.deleteItem(list.get(i).getId());
+		long removedBefore = new Date().getTime() - AppConstants.RECORD_IN_TRASH_MAX_DURATION;
+		int count = 0;
+		int deleted;
+		Map<Integer, String> outdated;
+		do {
+			outdated = trashDataSource.getRemovedBefore(removedBefore, OUTDATED_TRASH_BATCH_SIZE);
+			for (String path : outdated.values()) {
+				fileRepository.deleteRecordFile(path);
 			}
-		}
+			deleted = outdated.isEmpty() ? 0 : trashDataSource.deleteItems(new ArrayList<>(outdated.keySet()));
+			count += deleted;
+		} while (outdated.size() == OUTDATED_TRASH_BATCH_SIZE && deleted > 0);
+		Timber.d("Removed outdated trash records: %d", count);
+		return count;
 	}
 
 	@Override
@@ -564,8 +813,31 @@ public class LocalRepositoryImpl implements LocalRepository {
 		}
 	}
 
+	@Override
+	public RecordCache getRecordCache() {
+		return recordCache;
+	}
+
 	@Override
 	public void setOnRecordsLostListener(OnRecordsLostListener onLostRecordsListener) {
 		this.onLostRecordsListener = onLostRecordsListener;
 	}
+
+	@Override
+	public void addOnRecordsChangedListener(OnRecordsChangedListener listener) {
+		onRecordsChangedListeners.add(listener);
+	}
+
+	@Override
+	public void removeOnRecordsChangedListener(OnRecordsChangedListener listener) {
+		onRecordsChangedListeners.remove(listener);
+	}
+
+	private void notifyRecordsChanged(List<RecordChange> changes) {
+		if (!changes.isEmpty()) {
+			for (OnRecordsChangedListener listener : onRecordsChangedListeners) {
+				listener.onRecordsChanged(changes);
+			}
+		}
+	}
 }
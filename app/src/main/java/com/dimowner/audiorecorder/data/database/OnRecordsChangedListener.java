@@ -0,0 +1,31 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import java.util.List;
+
+/**
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public interface OnRecordsChangedListener {
+	/**
+	 * Called on the thread which changed records, after the changes are written into database.
+	 * @param changes Changes of one repository call in the order they were made.
+	 */
+	void onRecordsChanged(List<RecordChange> changes);
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import com.dimowner.audiorecorder.metrics.Histogram;
+import com.dimowner.audiorecorder.metrics.MetricsRegistry;
+
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import androidx.annotation.VisibleForTesting;
+import timber.log.Timber;
+
+/**
+ * Latency statistics of statements executed by {@link DataSource}.
+ * Statements are grouped by shape: SQL with numeric literals replaced by '?' and lists of
+ * arguments collapsed, so queries which differ only by values are counted together.
+ * Latency of every shape is kept by a histogram of {@link MetricsRegistry} named
+ * "db.statement_us:" followed by the shape, the shape also counts rows and time the calling queue
+ * waited before the statement was executed. Statements slower than the threshold are kept in a
+ * ring buffer. Nothing is recorded while the registry is disabled.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class QueryStats {
+
+	public static final long DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS = 50;
+	private static final int SLOW_QUERY_LOG_SIZE = 32;
+	/** Raw SQL strings remembered to skip normalization, statements with inlined values may be unbounded. */
+	private static final int MAX_RAW_SQL_COUNT = 256;
+
+	private static final QueryStats instance = new QueryStats();
+
+	public static QueryStats getInstance() {
+		return instance;
+	}
+
+	/** Queue wait of the statement executed on the current thread in nanoseconds or -1. */
+	private final ThreadLocal<long[]> queueWait = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[] {-1};
+		}
+	};
+
+	private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+	private final ConcurrentHashMap<String, Shape> shapesBySql = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Shape> shapes = new ConcurrentHashMap<>();
+	private final SlowQuery[] slowQueries = new SlowQuery[SLOW_QUERY_LOG_SIZE];
+	private int slowQueriesCount = 0;
+	private volatile long slowQueryThresholdNanos = DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS * 1_000_000;
+
+	@VisibleForTesting
+	QueryStats() {
+	}
+
+	public void setSlowQueryThresholdMillis(long millis) {
+		slowQueryThresholdNanos = millis * 1_000_000;
+	}
+
+	public long getSlowQueryThresholdMillis() {
+		return slowQueryThresholdNanos / 1_000_000;
+	}
+
+	/**
+	 * Set time the task running on the current thread waited in its queue, statements executed
+	 * by the task are recorded with this time until {@link #clearQueueWait()}.
+	 */
+	public void setQueueWait(long nanos) {
+		queueWait.get()[0] = nanos;
+	}
+
+	public void clearQueueWait() {
+		queueWait.get()[0] = -1;
+	}
+
+	/**
+	 * Start timing of a statement.
+	 * @return Start time to pass into {@link #record(String, long, int)} as elapsed time base or 0
+	 * when the registry is disabled and there is nothing to time.
+	 */
+	public long start() {
+		return metrics.isEnabled() ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Record executed statement.
+	 * @param sql Statement SQL.
+	 * @param nanos Execution time.
+	 * @param rows Count of returned or changed rows.
+	 */
+	public void record(String sql, long nanos, int rows) {
+		if (!metrics.isEnabled()) {
+			return;
+		}
+		Shape shape = shapesBySql.get(sql);
+		if (shape == null) {
+			shape = getShape(sql);
+		}
+		long wait = queueWait.get()[0];
+		shape.add(nanos, rows, wait);
+		if (nanos >= slowQueryThresholdNanos) {
+			addSlowQuery(new SlowQuery(System.currentTimeMillis(), shape.sql, nanos / 1000, rows,
+					wait >= 0 ? wait / 1000 : -1, Thread.currentThread().getName()));
+		}
+	}
+
+	/**
+	 * @return Statistics of all statement shapes, slowest by total time first.
+	 */
+	public List<Statement> getStatements() {
+		List<Statement> list = new ArrayList<>(shapes.size());
+		for (Shape shape : shapes.values()) {
+			list.add(shape.snapshot());
+		}
+		Collections.sort(list, (o1, o2) -> Long.compare(o2.totalMicros, o1.totalMicros));
+		return list;
+	}
+
+	/**
+	 * @return Slow statements, the newest first.
+	 */
+	public synchronized List<SlowQuery> getSlowQueries() {
+		int size = Math.min(slowQueriesCount, SLOW_QUERY_LOG_SIZE);
+		List<SlowQuery> list = new ArrayList<>(size);
+		for (int i = 1; i <= size; i++) {
+			list.add(slowQueries[(slowQueriesCount - i) % SLOW_QUERY_LOG_SIZE]);
+		}
+		return list;
+	}
+
+	public void dump(PrintWriter writer) {
+		SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+		writer.println("Database statements:");
+		for (Statement s : getStatements()) {
+			writer.println("  " + s.sql);
+			writer.println(String.format(Locale.US,
+					"    count=%d total=%dus avg=%dus p50<=%dus p95<=%dus p99<=%dus max=%dus rows=%d max rows=%d avg queue wait=%dus",
+					s.count, s.totalMicros, s.getAverageMicros(), s.getPercentileMicros(0.5), s.getPercentileMicros(0.95),
+					s.getPercentileMicros(0.99), s.maxMicros, s.rows, s.maxRows, s.getAverageQueueWaitMicros()));
+		}
+		writer.println("Slow statements (threshold " + getSlowQueryThresholdMillis() + "ms):");
+		for (SlowQuery q : getSlowQueries()) {
+			writer.println(String.format(Locale.US, "  %s %s %dus rows=%d queue wait=%dus thread=%s",
+					format.format(new Date(q.time)), q.sql, q.durationMicros, q.rows, q.queueWaitMicros, q.threadName));
+		}
+		writer.flush();
+	}
+
+	public synchronized void reset() {
+		for (Shape shape : shapes.values()) {
+			shape.time.reset();
+		}
+		shapesBySql.clear();
+		shapes.clear();
+		slowQueriesCount = 0;
+		for (int i = 0; i < slowQueries.length; i++) {
+			slowQueries[i] = null;
+		}
+	}
+
+	private Shape getShape(String sql) {
+		String key = normalize(sql);
+		Shape shape = shapes.get(key);
+		if (shape == null) {
+			Shape created = new Shape(key, metrics.histogram("db.statement_us:" + key));
+			shape = shapes.putIfAbsent(key, created);
+			if (shape == null) {
+				shape = created;
+			}
+		}
+		if (shapesBySql.size() < MAX_RAW_SQL_COUNT) {
+			shapesBySql.put(sql, shape);
+		}
+		return shape;
+	}
+
+	private synchronized void addSlowQuery(SlowQuery query) {
+		slowQueries[slowQueriesCount % SLOW_QUERY_LOG_SIZE] = query;
+		slowQueriesCount++;
+		Timber.w("Slow statement %dus rows=%d: %s", query.durationMicros, query.rows, query.sql);
+	}
+
+	/**
+	 * Replace numeric literals with '?' and collapse lists of arguments like "(?, ?, ?)" into "(?...)".
+	 */
+	static String normalize(String sql) {
+		StringBuilder out = new StringBuilder(sql.length());
+		int i = 0;
+		int n = sql.length();
+		while (i < n) {
+			char c = sql.charAt(i);
+			if (Character.isDigit(c) && (i == 0 || !isIdentifierPart(sql.charAt(i - 1)))) {
+				while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+					i++;
+				}
+				out.append('?');
+			} else if (c == '?' && i + 1 < n && sql.startsWith(", ?", i + 1)) {
+				while (i + 1 < n && sql.startsWith(", ?", i + 1)) {
+					i += 3;
+				}
+				out.append("?...");
+				i++;
+			} else {
+				out.append(c);
+				i++;
+			}
+		}
+		return out.toString();
+	}
+
+	private static boolean isIdentifierPart(char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+
+	private static class Shape {
+		final String sql;
+		/** Latency in microseconds. */
+		final Histogram time;
+		long rows = 0;
+		int maxRows = 0;
+		long waitedCount = 0;
+		long totalWaitNanos = 0;
+
+		Shape(String sql, Histogram time) {
+			this.sql = sql;
+			this.time = time;
+		}
+
+		void add(long nanos, int rows, long waitNanos) {
+			time.record(nanos / 1000);
+			synchronized (this) {
+				this.rows += rows;
+				maxRows = Math.max(maxRows, rows);
+				if (waitNanos >= 0) {
+					waitedCount++;
+					totalWaitNanos += waitNanos;
+				}
+			}
+		}
+
+		synchronized Statement snapshot() {
+			return new Statement(sql, time.getCount(), time.getSum(), time.getMax(), rows, maxRows,
+					waitedCount, totalWaitNanos / 1000, time);
+		}
+	}
+
+	/**
+	 * Statistics of one statement shape.
+	 */
+	public static class Statement {
+		public final String sql;
+		public final long count;
+		public final long totalMicros;
+		public final long maxMicros;
+		public final long rows;
+		public final int maxRows;
+		/** Count of executions made by tasks with known queue wait. */
+		public final long waitedCount;
+		public final long totalQueueWaitMicros;
+		private final Histogram time;
+
+		Statement(String sql, long count, long totalMicros, long maxMicros, long rows, int maxRows,
+					 long waitedCount, long totalQueueWaitMicros, Histogram time) {
+			this.sql = sql;
+			this.count = count;
+			this.totalMicros = totalMicros;
+			this.maxMicros = maxMicros;
+			this.rows = rows;
+			this.maxRows = maxRows;
+			this.waitedCount = waitedCount;
+			this.totalQueueWaitMicros = totalQueueWaitMicros;
+			this.time = time;
+		}
+
+		public long getAverageMicros() {
+			return count > 0 ? totalMicros / count : 0;
+		}
+
+		public long getAverageQueueWaitMicros() {
+			return waitedCount > 0 ? totalQueueWaitMicros / waitedCount : 0;
+		}
+
+		/**
+		 * @return Percentile of latency by {@link Histogram#getPercentile(double)}, it includes
+		 * executions recorded after the snapshot.
+		 */
+		public long getPercentileMicros(double percentile) {
+			return time.getPercentile(percentile);
+		}
+	}
+
+	/**
+	 * Statement slower than the threshold.
+	 */
+	public static class SlowQuery {
+		/** Wall clock time when the statement finished. */
+		public final long time;
+		public final String sql;
+		public final long durationMicros;
+		public final int rows;
+		/** Queue wait of the calling task or -1 when unknown. */
+		public final long queueWaitMicros;
+		public final String threadName;
+
+		SlowQuery(long time, String sql, long durationMicros, int rows, long queueWaitMicros, String threadName) {
+			this.time = time;
+			this.sql = sql;
+			this.durationMicros = durationMicros;
+			this.rows = rows;
+			this.queueWaitMicros = queueWaitMicros;
+			this.threadName = threadName;
+		}
+	}
+}
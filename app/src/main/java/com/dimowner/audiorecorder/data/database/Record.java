@@ -41,9 +41,10 @@ public class Record {
 	private final int bitrate;
 	private boolean bookmark;
 	private final boolean waveformProcessed;
+	/** Waveform, empty when the record is loaded without waveform. */
 	private final int[] amps;
-	private final byte[] data;
-	//TODO: Remove not needed data clusters.
+	/** Waveform encoded for database, made once because waveform is not changed after creation. */
+	private byte[] data;
 
 	public Record(int id, String name, long duration, long created, long added, long removed, String path,
 					  String format, long size, int sampleRate, int channelCount, int bitrate,
@@ -62,9 +63,7 @@ public class Record {
 		this.bitrate = bitrate;
 		this.bookmark = bookmark;
 		this.waveformProcessed = waveformProcessed;
-		this.amps = amps;
-		this.data = int2byte(amps);
-//		this.data = AndroidUtils.int2byte(amps);
+		this.amps = amps != null ? amps : new int[0];
 	}
 
 	public Record(int id, String name, long duration, long created, long added, long removed, String path,
@@ -84,33 +83,11 @@ public class Record {
 		this.bitrate = bitrate;
 		this.bookmark = bookmark;
 		this.waveformProcessed = waveformProcessed;
-		this.amps = byte2int(amps);
-//		this.amps = AndroidUtils.byte2int(amps);
+		this.amps = amps != null ? WaveformCodec.decode(amps) : new int[0];
+		//Stored bytes are written back as they are, when the record is updated.
 		this.data = amps;
 	}
 
-	public byte[] int2byte(int[] amps) {
-		byte[] bytes = new byte[amps.length];
-		for (int i = 0; i < amps.length; i++) {
-			if (amps[i] >= 255) {
-				bytes[i] = 127;
-			} else if (amps[i] < 0) {
-				bytes[i] = 0;
-			} else {
-				bytes[i] = (byte)(amps[i]-128);
-			}
-		}
-		return bytes;
-	}
-
-	public int[] byte2int(byte[] amps) {
-		int[] ints = new int[amps.length];
-		for (int i = 0; i < amps.length; i++) {
-			ints[i] = amps[i]+128;
-		}
-		return ints;
-	}
-
 	public int getId() {
 		return id;
 	}
@@ -175,10 +152,24 @@ public class Record {
 		this.duration = duration;
 	}
 
+	/**
+	 * Waveform packed into bytes to store in database.
+	 */
 	public byte[] getData() {
+		if (data == null) {
+			data = WaveformCodec.encode(amps);
+		}
 		return data;
 	}
 
+	/**
+	 * Records in lists are loaded without waveform, such record has empty waveform.
+	 * Waveform of these records is not changed in database when the record is updated.
+	 */
+	public boolean hasWaveform() {
+		return amps.length > 0;
+	}
+
 	public boolean isBookmarked() {
 		return bookmark;
 	}
@@ -240,7 +231,6 @@ public class Record {
 				", bookmark=" + bookmark +
 				", waveformProcessed=" + waveformProcessed +
 				", amps=" + Arrays.toString(amps) +
-				", data=" + Arrays.toString(data) +
 				'}';
 	}
 }
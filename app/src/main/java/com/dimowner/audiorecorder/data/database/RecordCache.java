@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of records of table Records by id, least recently used records are evicted first.
+ * Record is mutable, so the cache keeps its own copies and returns new copies.
+ * Cache is used from several background queues, all methods are synchronized.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class RecordCache {
+
+	private final int maxSize;
+	private final LinkedHashMap<Integer, Record> records;
+
+	/** Count of changes, used to drop values read from database before a concurrent change. */
+	private long version = 0;
+	private long hitCount = 0;
+	private long missCount = 0;
+
+	public RecordCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.records = new LinkedHashMap<Integer, Record>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Record> eldest) {
+				return size() > RecordCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @return Copy of cached record or null when the record is not cached.
+	 */
+	@Nullable
+	public synchronized Record get(int id) {
+		Record record = records.get(id);
+		if (record != null) {
+			hitCount++;
+			return copy(record, record.getAmps());
+		}
+		missCount++;
+		return null;
+	}
+
+	/**
+	 * Same as {@link #get(int)} but not counted in hits and misses.
+	 */
+	@Nullable
+	public synchronized Record peek(int id) {
+		Record record = records.get(id);
+		return record != null ? copy(record, record.getAmps()) : null;
+	}
+
+	/**
+	 * Version to pass into {@link #putIfUnchanged(Record, long)}, must be taken before
+	 * the record is read from database.
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Cache record read from database if the cache was not changed since the read started,
+	 * otherwise the record may be older than the change.
+	 */
+	public synchronized void putIfUnchanged(Record record, long readVersion) {
+		if (version == readVersion) {
+			records.put(record.getId(), copy(record, record.getAmps()));
+		}
+	}
+
+	/**
+	 * Cache record written into database.
+	 */
+	public synchronized void put(Record record) {
+		version++;
+		records.put(record.getId(), copy(record, record.getAmps()));
+	}
+
+	/**
+	 * Apply update written into database. Record without waveform doesn't change stored waveform,
+	 * so the cached waveform is kept.
+	 */
+	public synchronized void update(Record record) {
+		version++;
+		Record cached = records.get(record.getId());
+		if (record.hasWaveform()) {
+			records.put(record.getId(), copy(record, record.getAmps()));
+		} else if (cached != null) {
+			records.put(record.getId(), copy(record, cached.getAmps()));
+		}
+	}
+
+	public synchronized void remove(int id) {
+		version++;
+		records.remove(id);
+	}
+
+	public synchronized void removeAll(Collection<Integer> ids) {
+		version++;
+		for (Integer id : ids) {
+			records.remove(id);
+		}
+	}
+
+	public synchronized void clear() {
+		version++;
+		records.clear();
+	}
+
+	public synchronized int size() {
+		return records.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	private static Record copy(Record record, int[] amps) {
+		return new Record(
+				record.getId(),
+				record.getName(),
+				record.getDuration(),
+				record.getCreated(),
+				record.getAdded(),
+				record.getRemoved(),
+				record.getPath(),
+				record.getFormat(),
+				record.getSize(),
+				record.getSampleRate(),
+				record.getChannelCount(),
+				record.getBitrate(),
+				record.isBookmarked(),
+				record.isWaveformProcessed(),
+				amps.clone()
+		);
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Change of one row of table Records made through {@link LocalRepository}.
+ * Changed columns are grouped the way UI shows them and stored as bit flags.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class RecordChange {
+
+	public static final int TYPE_INSERTED = 1;
+	public static final int TYPE_UPDATED = 2;
+	public static final int TYPE_DELETED = 3;
+
+	public static final int CHANGED_NAME = 1;
+	public static final int CHANGED_PATH = 1 << 1;
+	public static final int CHANGED_BOOKMARK = 1 << 2;
+	public static final int CHANGED_WAVEFORM = 1 << 3;
+	/** Duration, format, size, sample rate, channel count or bitrate. */
+	public static final int CHANGED_INFO = 1 << 4;
+	/** Creation, adding or removing date. */
+	public static final int CHANGED_DATES = 1 << 5;
+	public static final int CHANGED_ALL = CHANGED_NAME | CHANGED_PATH | CHANGED_BOOKMARK
+			| CHANGED_WAVEFORM | CHANGED_INFO | CHANGED_DATES;
+
+	private final int type;
+	private final int id;
+	private final int changedColumns;
+	private final Record record;
+
+	private RecordChange(int type, int id, int changedColumns, Record record) {
+		this.type = type;
+		this.id = id;
+		this.changedColumns = changedColumns;
+		this.record = record;
+	}
+
+	public static RecordChange inserted(@NonNull Record record) {
+		return new RecordChange(TYPE_INSERTED, record.getId(), CHANGED_ALL, record);
+	}
+
+	/**
+	 * @param old Record before the update or null if it is unknown, then all columns are
+	 *            considered changed.
+	 */
+	public static RecordChange updated(@Nullable Record old, @NonNull Record record) {
+		int changed = old != null ? diff(old, record) : CHANGED_ALL;
+		if (!record.hasWaveform()) {
+			//Update without waveform keeps stored waveform.
+			changed &= ~CHANGED_WAVEFORM;
+		}
+		return new RecordChange(TYPE_UPDATED, record.getId(), changed, record);
+	}
+
+	public static RecordChange deleted(int id) {
+		return new RecordChange(TYPE_DELETED, id, CHANGED_ALL, null);
+	}
+
+	static int diff(Record old, Record record) {
+		int changed = 0;
+		if (!Objects.equals(old.getName(), record.getName())) {
+			changed |= CHANGED_NAME;
+		}
+		if (!Objects.equals(old.getPath(), record.getPath())) {
+			changed |= CHANGED_PATH;
+		}
+		if (old.isBookmarked() != record.isBookmarked()) {
+			changed |= CHANGED_BOOKMARK;
+		}
+		if (old.isWaveformProcessed() != record.isWaveformProcessed() || !Arrays.equals(old.getAmps(), record.getAmps())) {
+			changed |= CHANGED_WAVEFORM;
+		}
+		if (old.getDuration() != record.getDuration()
+				|| !Objects.equals(old.getFormat(), record.getFormat())
+				|| old.getSize() != record.getSize()
+				|| old.getSampleRate() != record.getSampleRate()
+				|| old.getChannelCount() != record.getChannelCount()
+				|| old.getBitrate() != record.getBitrate()) {
+			changed |= CHANGED_INFO;
+		}
+		if (old.getCreated() != record.getCreated() || old.getAdded() != record.getAdded()
+				|| old.getRemoved() != record.getRemoved()) {
+			changed |= CHANGED_DATES;
+		}
+		return changed;
+	}
+
+	public int getType() {
+		return type;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public int getChangedColumns() {
+		return changedColumns;
+	}
+
+	public boolean isChanged(int columns) {
+		return (changedColumns & columns) != 0;
+	}
+
+	/**
+	 * Record after the change, null for deleted records. Record of an update without waveform
+	 * has no amplitudes. The record is shared by all listeners and must not be changed.
+	 */
+	@Nullable
+	public Record getRecord() {
+		return record;
+	}
+
+	@Override
+	public String toString() {
+		return "RecordChange{" +
+				"type=" + type +
+				", id=" + id +
+				", changedColumns=" + changedColumns +
+				'}';
+	}
+}
@@ -22,6 +22,9 @@ import android.database.Cursor;
 
 import com.dimowner.audiorecorder.util.FileUtil;
 
+import java.util.ArrayList;
+
+import androidx.annotation.VisibleForTesting;
 import timber.log.Timber;
 
 /**
@@ -43,8 +46,56 @@ public class RecordsDataSource extends DataSource<Record> {
 		return instance;
 	}
 
+	@VisibleForTesting
+	public static void clearInstance() {
+		if (instance != null) {
+			synchronized (RecordsDataSource.class) {
+				instance = null;
+			}
+		}
+	}
+
 	private RecordsDataSource(Context context) {
-		super(context, SQLiteHelper.TABLE_RECORDS);
+		super(context, SQLiteHelper.TABLE_RECORDS, SQLiteHelper.RECORD_COLUMNS);
+	}
+
+	/**
+	 * Find records which name or transcript contains words starting with every word of the query.
+	 * Search index returns matches in order of record id, so the newest records are found first
+	 * without sorting all matches.
+	 * @param query Words typed by user.
+	 * @param limit Max count of found records.
+	 * @return Found records sorted from newest to oldest.
+	 */
+	public ArrayList<Record> searchRecords(String query, int limit) {
+		String match = toPrefixQuery(query);
+		if (match.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Cursor cursor = queryLocal("SELECT " + columns + " FROM " + tableName + " JOIN (SELECT docid FROM "
+				+ SQLiteHelper.TABLE_SEARCH + " WHERE " + SQLiteHelper.TABLE_SEARCH + " MATCH ?"
+				+ " ORDER BY docid DESC LIMIT ?) AS found ON " + SQLiteHelper.COLUMN_ID + " = found.docid"
+				+ " ORDER BY " + SQLiteHelper.COLUMN_ID + " DESC", new String[] {match, String.valueOf(limit)});
+		return convertCursor(cursor);
+	}
+
+	/**
+	 * Convert user input into full-text query where every word is a quoted prefix term.
+	 * Quotes keep words like OR and NOT from being read as operators.
+	 */
+	static String toPrefixQuery(String query) {
+		StringBuilder match = new StringBuilder();
+		if (query != null) {
+			for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+				if (!word.isEmpty()) {
+					if (match.length() > 0) {
+						match.append(' ');
+					}
+					match.append('"').append(word).append("*\"");
+				}
+			}
+		}
+		return match.toString();
 	}
 
 	@Override
@@ -66,9 +117,6 @@ public class RecordsDataSource extends DataSource<Record> {
 			values.put(SQLiteHelper.COLUMN_BITRATE, item.getBitrate());
 			values.put(SQLiteHelper.COLUMN_BOOKMARK, item.isBookmarked() ? 1 : 0);
 			values.put(SQLiteHelper.COLUMN_WAVEFORM_PROCESSED, item.isWaveformProcessed() ? 1 : 0);
-			values.put(SQLiteHelper.COLUMN_DATA, item.getData());
-			//TODO: Remove this field from database.
-			values.put(SQLiteHelper.COLUMN_DATA_STR, "");
 			return values;
 		} else {
 			Timber.e("Can't convert Record with empty Name!");
@@ -76,6 +124,32 @@ public class RecordsDataSource extends DataSource<Record> {
 		}
 	}
 
+	@Override
+	public byte[] itemToWaveform(Record item) {
+		return item.hasWaveform() ? item.getData() : null;
+	}
+
+	@Override
+	public Record valuesToItem(ContentValues values, byte[] waveform) {
+		return new Record(
+				values.getAsInteger(SQLiteHelper.COLUMN_ID),
+				values.getAsString(SQLiteHelper.COLUMN_NAME),
+				values.getAsLong(SQLiteHelper.COLUMN_DURATION),
+				values.getAsLong(SQLiteHelper.COLUMN_CREATION_DATE),
+				values.getAsLong(SQLiteHelper.COLUMN_DATE_ADDED),
+				Long.MAX_VALUE, //Record removed date not needed here.
+				values.getAsString(SQLiteHelper.COLUMN_PATH),
+				values.getAsString(SQLiteHelper.COLUMN_FORMAT),
+				values.getAsLong(SQLiteHelper.COLUMN_SIZE),
+				values.getAsInteger(SQLiteHelper.COLUMN_SAMPLE_RATE),
+				values.getAsInteger(SQLiteHelper.COLUMN_CHANNEL_COUNT),
+				values.getAsInteger(SQLiteHelper.COLUMN_BITRATE),
+				values.getAsInteger(SQLiteHelper.COLUMN_BOOKMARK) != 0,
+				values.getAsInteger(SQLiteHelper.COLUMN_WAVEFORM_PROCESSED) != 0,
+				waveform
+		);
+	}
+
 	@Override
 	public Record recordToItem(Cursor cursor) {
 		return new Record(
@@ -93,9 +167,7 @@ public class RecordsDataSource extends DataSource<Record> {
 				cursor.getInt(cursor.getColumnIndex(SQLiteHelper.COLUMN_BITRATE)),
 				cursor.getInt(cursor.getColumnIndex(SQLiteHelper.COLUMN_BOOKMARK)) != 0,
 				cursor.getInt(cursor.getColumnIndex(SQLiteHelper.COLUMN_WAVEFORM_PROCESSED)) != 0,
-				cursor.getBlob(cursor.getColumnIndex(SQLiteHelper.COLUMN_DATA))
-//				Record.stringToArray(
-//						cursor.getString(cursor.getColumnIndex(SQLiteHelper.COLUMN_DATA_STR)))
+				readWaveform(cursor)
 		);
 	}
 }
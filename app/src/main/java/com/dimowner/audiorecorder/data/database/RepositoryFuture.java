@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import com.dimowner.audiorecorder.TaskHandle;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import androidx.annotation.NonNull;
+import timber.log.Timber;
+
+/**
+ * Result of a call of {@link AsyncLocalRepository}. Listeners are called on the callback
+ * executor of the repository, which is the main thread in the app. Listeners set after the call
+ * is finished are called right away. Cancelled call is dropped from the executor if it is not
+ * started, and its listeners are not called.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class RepositoryFuture<T> extends FutureTask<T> {
+
+	public interface OnResultListener<T> {
+		void onResult(T result);
+	}
+
+	public interface OnErrorListener {
+		void onError(@NonNull Exception e);
+	}
+
+	private final String name;
+	private final Executor callbackExecutor;
+	private volatile TaskHandle task;
+
+	private OnResultListener<T> onResultListener;
+	private OnErrorListener onErrorListener;
+	private boolean isDelivered = false;
+
+	RepositoryFuture(String name, Callable<T> callable, Executor callbackExecutor) {
+		super(callable);
+		this.name = name;
+		this.callbackExecutor = callbackExecutor;
+	}
+
+	void setTask(TaskHandle task) {
+		this.task = task;
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		TaskHandle t = task;
+		if (t != null) {
+			t.cancel();
+		}
+		return super.cancel(mayInterruptIfRunning);
+	}
+
+	@Override
+	protected void done() {
+		if (!isCancelled()) {
+			try {
+				get();
+			} catch (ExecutionException | InterruptedException e) {
+				Timber.e(e.getCause() != null ? e.getCause() : e, "Repository call %s failed", name);
+			}
+		}
+		deliver();
+	}
+
+	public void onResult(OnResultListener<T> resultListener) {
+		onResult(resultListener, null);
+	}
+
+	/**
+	 * Set listeners of the result, must be called once.
+	 * Failures without error listener are only logged.
+	 */
+	public void onResult(OnResultListener<T> resultListener, OnErrorListener errorListener) {
+		synchronized (this) {
+			onResultListener = resultListener;
+			onErrorListener = errorListener;
+		}
+		if (isDone()) {
+			deliver();
+		}
+	}
+
+	/**
+	 * @return Time the call waited in the queue or -1 if it is not started yet.
+	 */
+	public long getQueueWaitMillis() {
+		TaskHandle t = task;
+		return t != null ? t.getQueueWaitMillis() : -1;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	private void deliver() {
+		final OnResultListener<T> resultListener;
+		final OnErrorListener errorListener;
+		synchronized (this) {
+			if (isDelivered || isCancelled() || (onResultListener == null && onErrorListener == null)) {
+				return;
+			}
+			isDelivered = true;
+			resultListener = onResultListener;
+			errorListener = onErrorListener;
+		}
+		try {
+			final T result = get();
+			if (resultListener != null) {
+				callbackExecutor.execute(() -> resultListener.onResult(result));
+			}
+		} catch (ExecutionException e) {
+			final Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+			if (errorListener != null) {
+				callbackExecutor.execute(() -> errorListener.onError(cause));
+			}
+		} catch (InterruptedException | CancellationException e) {
+			Timber.e(e);
+		}
+	}
+}
@@ -17,24 +17,278 @@
 package com.dimowner.audiorecorder.data.database;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
+
 /**
  * SQLite database manager class.
+ * One instance is shared by all data sources, so they use one connection pool. Database works in
+ * write-ahead logging mode: reads run on their own connections and never wait for a write.
  * @author Dimowner
  */
 public class SQLiteHelper extends SQLiteOpenHelper {
 
-	SQLiteHelper(Context context) {
+	private volatile static SQLiteHelper instance;
+
+	public static SQLiteHelper getInstance(Context context) {
+		if (instance == null) {
+			synchronized (SQLiteHelper.class) {
+				if (instance == null) {
+					instance = new SQLiteHelper(context.getApplicationContext());
+				}
+			}
+		}
+		return instance;
+	}
+
+	@VisibleForTesting
+	public static void clearInstance() {
+		synchronized (SQLiteHelper.class) {
+			if (instance != null) {
+				instance.close();
+				instance = null;
+			}
+		}
+	}
+
+	private SQLiteHelper(Context context) {
 		super(context, DATABASE_NAME, null, DATABASE_VERSION);
+		setWriteAheadLoggingEnabled(true);
+	}
+
+	@Override
+	public void onConfigure(SQLiteDatabase db) {
+		super.onConfigure(db);
+		//In WAL mode NORMAL is safe from corruption, only commits made right before a power loss may be lost.
+		db.execSQL("PRAGMA synchronous = NORMAL");
+		//Negative value is size in KiB.
+		db.execSQL("PRAGMA cache_size = -" + PAGE_CACHE_SIZE_KB);
 	}
 
 	@Override
 	public void onCreate(SQLiteDatabase db) {
 		db.execSQL(CREATE_RECORDS_TABLE_SCRIPT);
 		db.execSQL(CREATE_TRASH_TABLE_SCRIPT);
+		db.execSQL(CREATE_SEEK_INDEX_TABLE_SCRIPT);
+		db.execSQL(CREATE_WAVEFORMS_TABLE_SCRIPT);
+		createTriggers(db);
+		createIndexes(db);
+		createSearchIndex(db);
+		createStatistics(db);
+	}
+
+	/**
+	 * Indexes for sort orders of records list, for search of a record by path and for search of
+	 * outdated trash records.
+	 * Every index implicitly ends with record id, so it also serves order by (column, id).
+	 */
+	private void createIndexes(SQLiteDatabase db) {
+		db.execSQL(createIndex(TABLE_RECORDS, COLUMN_DATE_ADDED));
+		db.execSQL(createIndex(TABLE_RECORDS, COLUMN_NAME));
+		db.execSQL(createIndex(TABLE_RECORDS, COLUMN_DURATION));
+		db.execSQL(createIndex(TABLE_RECORDS, COLUMN_BOOKMARK));
+		db.execSQL(createIndex(TABLE_RECORDS, COLUMN_PATH));
+		db.execSQL(createIndex(TABLE_TRASH, COLUMN_DATE_REMOVED));
+	}
+
+	/**
+	 * Record keeps its id when moved to trash and back, so seek index and waveform of the record
+	 * are removed only when the record is deleted from both tables.
+	 */
+	private void createTriggers(SQLiteDatabase db) {
+		db.execSQL(createDeleteTrigger(TABLE_RECORDS, TABLE_TRASH, TABLE_SEEK_INDEX));
+		db.execSQL(createDeleteTrigger(TABLE_TRASH, TABLE_RECORDS, TABLE_SEEK_INDEX));
+		db.execSQL(createDeleteTrigger(TABLE_RECORDS, TABLE_TRASH, TABLE_WAVEFORMS));
+		db.execSQL(createDeleteTrigger(TABLE_TRASH, TABLE_RECORDS, TABLE_WAVEFORMS));
+	}
+
+	/**
+	 * Create table of transcripts and full-text search index over names and transcripts of
+	 * records, then fill the index with existing records. Records in trash are not indexed.
+	 * The index is kept up to date by triggers, so every insert, rename and move into trash and
+	 * back updates only the rows of the changed record.
+	 */
+	private void createSearchIndex(SQLiteDatabase db) {
+		db.beginTransaction();
+		try {
+			db.execSQL(CREATE_TRANSCRIPTS_TABLE_SCRIPT);
+			db.execSQL(createDeleteTrigger(TABLE_RECORDS, TABLE_TRASH, TABLE_TRANSCRIPTS));
+			db.execSQL(createDeleteTrigger(TABLE_TRASH, TABLE_RECORDS, TABLE_TRANSCRIPTS));
+			try {
+				db.execSQL(createSearchTableScript(SEARCH_TOKENIZER));
+			} catch (SQLiteException e) {
+				//Unicode tokenizer is optional in SQLite builds, the simple one folds only ASCII letters.
+				Log.e(SQLiteHelper.class.getName(), "Tokenizer " + SEARCH_TOKENIZER + " is not available", e);
+				db.execSQL(createSearchTableScript("simple"));
+			}
+			db.execSQL("CREATE TRIGGER " + TABLE_RECORDS + "_insert_" + TABLE_SEARCH + " AFTER INSERT ON " + TABLE_RECORDS
+					+ " BEGIN INSERT INTO " + TABLE_SEARCH + " (docid, " + COLUMN_NAME + ", " + COLUMN_TRANSCRIPT + ")"
+					+ " VALUES (NEW." + COLUMN_ID + ", NEW." + COLUMN_NAME + ", (SELECT " + COLUMN_TRANSCRIPT + " FROM "
+					+ TABLE_TRANSCRIPTS + " WHERE " + COLUMN_RECORD_ID + " = NEW." + COLUMN_ID + ")); END;");
+			db.execSQL("CREATE TRIGGER " + TABLE_RECORDS + "_rename_" + TABLE_SEARCH + " AFTER UPDATE OF " + COLUMN_NAME
+					+ " ON " + TABLE_RECORDS + " WHEN NEW." + COLUMN_NAME + " IS NOT OLD." + COLUMN_NAME
+					+ " BEGIN UPDATE " + TABLE_SEARCH + " SET " + COLUMN_NAME + " = NEW." + COLUMN_NAME
+					+ " WHERE docid = NEW." + COLUMN_ID + "; END;");
+			db.execSQL("CREATE TRIGGER " + TABLE_RECORDS + "_delete_" + TABLE_SEARCH + " AFTER DELETE ON " + TABLE_RECORDS
+					+ " BEGIN DELETE FROM " + TABLE_SEARCH + " WHERE docid = OLD." + COLUMN_ID + "; END;");
+			//Transcripts are written with INSERT OR REPLACE, which runs only insert triggers.
+			db.execSQL("CREATE TRIGGER " + TABLE_TRANSCRIPTS + "_insert_" + TABLE_SEARCH + " AFTER INSERT ON " + TABLE_TRANSCRIPTS
+					+ " BEGIN UPDATE " + TABLE_SEARCH + " SET " + COLUMN_TRANSCRIPT + " = NEW." + COLUMN_TRANSCRIPT
+					+ " WHERE docid = NEW." + COLUMN_RECORD_ID + "; END;");
+			db.execSQL("INSERT INTO " + TABLE_SEARCH + " (docid, " + COLUMN_NAME + ") SELECT "
+					+ COLUMN_ID + ", " + COLUMN_NAME + " FROM " + TABLE_RECORDS);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * Create table of statistics with triggers which keep it up to date, then count existing
+	 * records. Triggers run inside the statement which changes a record, so statistics are
+	 * changed in the same transaction as records.
+	 */
+	private void createStatistics(SQLiteDatabase db) {
+		db.beginTransaction();
+		try {
+			db.execSQL(CREATE_STATISTICS_TABLE_SCRIPT);
+			createStatisticsTriggers(db, TABLE_RECORDS);
+			createStatisticsTriggers(db, TABLE_TRASH);
+			recomputeStatistics(db);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * Every change of a record is added to the row of record format and to the row of all formats.
+	 */
+	private void createStatisticsTriggers(SQLiteDatabase db, String table) {
+		String name = table + "_" + TABLE_STATISTICS;
+		db.execSQL("CREATE TRIGGER " + name + "_insert AFTER INSERT ON " + table
+				+ " BEGIN " + addToStatistics(table, "NEW") + " END;");
+		db.execSQL("CREATE TRIGGER " + name + "_delete AFTER DELETE ON " + table
+				+ " BEGIN " + subtractFromStatistics(table, "OLD") + " END;");
+		db.execSQL("CREATE TRIGGER " + name + "_update AFTER UPDATE OF "
+				+ COLUMN_DURATION + ", " + COLUMN_SIZE + ", " + COLUMN_FORMAT + " ON " + table
+				+ " WHEN OLD." + COLUMN_DURATION + " IS NOT NEW." + COLUMN_DURATION
+				+ " OR OLD." + COLUMN_SIZE + " IS NOT NEW." + COLUMN_SIZE
+				+ " OR OLD." + COLUMN_FORMAT + " IS NOT NEW." + COLUMN_FORMAT
+				+ " BEGIN " + subtractFromStatistics(table, "OLD") + addToStatistics(table, "NEW") + " END;");
+	}
+
+	private static String addToStatistics(String table, String row) {
+		//Upsert is not supported by SQLite of old Android versions.
+		return "INSERT OR IGNORE INTO " + TABLE_STATISTICS + " (" + COLUMN_SOURCE_TABLE + ", " + COLUMN_FORMAT + ")"
+				+ " VALUES ('" + table + "', " + row + "." + COLUMN_FORMAT + ");"
+				+ updateStatistics(table, row, "+");
+	}
+
+	private static String subtractFromStatistics(String table, String row) {
+		return updateStatistics(table, row, "-")
+				+ "DELETE FROM " + TABLE_STATISTICS + " WHERE " + COLUMN_SOURCE_TABLE + " = '" + table + "'"
+				+ " AND " + COLUMN_FORMAT + " = " + row + "." + COLUMN_FORMAT
+				+ " AND " + COLUMN_FORMAT + " <> '" + ALL_FORMATS + "' AND " + COLUMN_COUNT + " = 0;";
+	}
+
+	private static String updateStatistics(String table, String row, String sign) {
+		return "UPDATE " + TABLE_STATISTICS + " SET "
+				+ COLUMN_COUNT + " = " + COLUMN_COUNT + " " + sign + " 1, "
+				+ COLUMN_DURATION + " = " + COLUMN_DURATION + " " + sign + " " + row + "." + COLUMN_DURATION + ", "
+				+ COLUMN_SIZE + " = " + COLUMN_SIZE + " " + sign + " " + row + "." + COLUMN_SIZE
+				+ " WHERE " + COLUMN_SOURCE_TABLE + " = '" + table + "'"
+				+ " AND " + COLUMN_FORMAT + " IN (" + row + "." + COLUMN_FORMAT + ", '" + ALL_FORMATS + "');";
+	}
+
+	/**
+	 * Count statistics again from tables Records and Trash.
+	 * Should be called inside a transaction.
+	 */
+	static void recomputeStatistics(SQLiteDatabase db) {
+		db.execSQL("DELETE FROM " + TABLE_STATISTICS);
+		for (String table : new String[] {TABLE_RECORDS, TABLE_TRASH}) {
+			String columns = "COUNT(*), IFNULL(SUM(" + COLUMN_DURATION + "), 0), IFNULL(SUM(" + COLUMN_SIZE + "), 0)";
+			String insert = "INSERT INTO " + TABLE_STATISTICS + " (" + COLUMN_SOURCE_TABLE + ", " + COLUMN_FORMAT + ", "
+					+ COLUMN_COUNT + ", " + COLUMN_DURATION + ", " + COLUMN_SIZE + ")";
+			//Aggregate without grouping always returns one row, so the row of all formats exists in empty table too.
+			db.execSQL(insert + " SELECT '" + table + "', '" + ALL_FORMATS + "', " + columns + " FROM " + table);
+			db.execSQL(insert + " SELECT '" + table + "', " + COLUMN_FORMAT + ", " + columns
+					+ " FROM " + table + " GROUP BY " + COLUMN_FORMAT);
+		}
+	}
+
+	/**
+	 * Convert waveforms from one byte per amplitude into {@link WaveformCodec} format.
+	 * Waveforms are read in chunks, so the cursor window never holds many long waveforms at once.
+	 */
+	private void encodeWaveforms(SQLiteDatabase db) {
+		db.beginTransaction();
+		try {
+			SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_WAVEFORMS + " SET " + COLUMN_DATA
+					+ " = ? WHERE " + COLUMN_RECORD_ID + " = ?");
+			int lastId = -1;
+			int count;
+			do {
+				count = 0;
+				try (Cursor cursor = db.rawQuery("SELECT " + COLUMN_RECORD_ID + ", " + COLUMN_DATA + " FROM " + TABLE_WAVEFORMS
+						+ " WHERE " + COLUMN_RECORD_ID + " > ? ORDER BY " + COLUMN_RECORD_ID + " LIMIT " + MIGRATION_CHUNK_SIZE,
+						new String[] {String.valueOf(lastId)})) {
+					while (cursor.moveToNext()) {
+						lastId = cursor.getInt(0);
+						update.bindBlob(1, WaveformCodec.encode(WaveformCodec.decodeLegacy(cursor.getBlob(1))));
+						update.bindLong(2, lastId);
+						update.executeUpdateDelete();
+						count++;
+					}
+				}
+			} while (count == MIGRATION_CHUNK_SIZE);
+			update.close();
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	/**
+	 * Move waveforms from tables Records and Trash into the table Waveforms.
+	 * SQLite on old Android versions can't drop a column, so both tables are recreated without
+	 * waveform columns. Autoincrement sequence of records is kept, so ids are never reused.
+	 */
+	private void moveWaveformsToSeparateTable(SQLiteDatabase db) {
+		db.beginTransaction();
+		try {
+			//Triggers refer to both tables, so they are recreated after the tables.
+			db.execSQL("DROP TRIGGER IF EXISTS " + triggerName(TABLE_RECORDS, TABLE_SEEK_INDEX));
+			db.execSQL("DROP TRIGGER IF EXISTS " + triggerName(TABLE_TRASH, TABLE_SEEK_INDEX));
+			db.execSQL(CREATE_WAVEFORMS_TABLE_SCRIPT);
+			db.execSQL("INSERT OR REPLACE INTO " + TABLE_WAVEFORMS + " (" + COLUMN_RECORD_ID + ", " + COLUMN_DATA + ")"
+					+ " SELECT " + COLUMN_ID + ", " + COLUMN_DATA + " FROM " + TABLE_TRASH + " WHERE length(" + COLUMN_DATA + ") > 0");
+			db.execSQL("INSERT OR REPLACE INTO " + TABLE_WAVEFORMS + " (" + COLUMN_RECORD_ID + ", " + COLUMN_DATA + ")"
+					+ " SELECT " + COLUMN_ID + ", " + COLUMN_DATA + " FROM " + TABLE_RECORDS + " WHERE length(" + COLUMN_DATA + ") > 0");
+			recreateTable(db, TABLE_RECORDS, CREATE_RECORDS_TABLE_SCRIPT, RECORD_COLUMNS);
+			recreateTable(db, TABLE_TRASH, CREATE_TRASH_TABLE_SCRIPT, TRASH_COLUMNS);
+			createTriggers(db);
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+		}
+	}
+
+	private void recreateTable(SQLiteDatabase db, String table, String createScript, String columns) {
+		String oldTable = table + "_old";
+		db.execSQL("ALTER TABLE " + table + " RENAME TO " + oldTable);
+		db.execSQL(createScript);
+		db.execSQL("INSERT INTO " + table + " (" + columns + ") SELECT " + columns + " FROM " + oldTable);
+		db.execSQL("DELETE FROM sqlite_sequence WHERE name = '" + table + "'");
+		db.execSQL("INSERT INTO sqlite_sequence (name, seq) SELECT '" + table + "', seq FROM sqlite_sequence WHERE name = '" + oldTable + "'");
+		db.execSQL("DROP TABLE " + oldTable);
 	}
 
 	@Override
@@ -47,11 +301,11 @@ public class SQLiteHelper extends SQLiteOpenHelper {
 			db.execSQL("DROP TABLE IF EXISTS " + TABLE_TRASH);
 			onCreate(db);
 		} else if (newVersion == 2) {
-			db.execSQL(CREATE_TRASH_TABLE_SCRIPT);
-		} else if (oldVersion == 1 && newVersion == 3) {
+			db.execSQL(CREATE_TRASH_TABLE_SCRIPT_V4);
+		} else if (oldVersion == 1 && newVersion >= 3) {
 			db.beginTransaction();
 
-			db.execSQL(CREATE_TRASH_TABLE_SCRIPT);
+			db.execSQL(CREATE_TRASH_TABLE_SCRIPT_V4);
 
 			//Add new fields to the table Records.
 			db.execSQL("ALTER TABLE " + TABLE_RECORDS + " ADD COLUMN " + COLUMN_FORMAT + " TEXT NOT NULL DEFAULT '';");
@@ -62,7 +316,7 @@ public class SQLiteHelper extends SQLiteOpenHelper {
 
 			db.setTransactionSuccessful();
 			db.endTransaction();
-		} else if (oldVersion == 2 && newVersion == 3) {
+		} else if (oldVersion == 2 && newVersion >= 3) {
 			db.beginTransaction();
 
 			//Add new fields to the table Records.
@@ -82,15 +336,51 @@ public class SQLiteHelper extends SQLiteOpenHelper {
 			db.setTransactionSuccessful();
 			db.endTransaction();
 		}
+		if (oldVersion < 4 && newVersion >= 4) {
+			db.execSQL(CREATE_SEEK_INDEX_TABLE_SCRIPT);
+			db.execSQL(createDeleteTrigger(TABLE_RECORDS, TABLE_TRASH, TABLE_SEEK_INDEX));
+			db.execSQL(createDeleteTrigger(TABLE_TRASH, TABLE_RECORDS, TABLE_SEEK_INDEX));
+		}
+		if (oldVersion < 5 && newVersion >= 5) {
+			moveWaveformsToSeparateTable(db);
+		}
+		if (oldVersion < 6 && newVersion >= 6) {
+			createIndexes(db);
+		}
+		if (oldVersion < 7 && newVersion >= 7) {
+			createSearchIndex(db);
+		}
+		if (oldVersion < 8 && newVersion >= 8) {
+			createStatistics(db);
+		}
+		if (oldVersion < 9 && newVersion >= 9) {
+			encodeWaveforms(db);
+		}
+		if (oldVersion < 10 && newVersion >= 10) {
+			db.execSQL(createIndex(TABLE_TRASH, COLUMN_DATE_REMOVED));
+		}
 	}
 
 
 	private static final String DATABASE_NAME = "records.db";
-	private static final int DATABASE_VERSION = 3;
+	private static final int DATABASE_VERSION = 10;
+	private static final int PAGE_CACHE_SIZE_KB = 4096;
+	private static final int MIGRATION_CHUNK_SIZE = 100;
 
 	//Tables names
 	static final String TABLE_RECORDS = "records";
 	static final String TABLE_TRASH = "trash";
+	static final String TABLE_SEEK_INDEX = "seek_index";
+	static final String TABLE_WAVEFORMS = "waveforms";
+	static final String TABLE_TRANSCRIPTS = "transcripts";
+	/** Full-text search index of records, row docid is the record id. */
+	static final String TABLE_SEARCH = "records_search";
+	static final String TABLE_STATISTICS = "statistics";
+
+	/** Tokenizer of search index, folds case and removes diacritics of all letters. */
+	private static final String SEARCH_TOKENIZER = "unicode61";
+	/** Lengths of prefixes indexed separately, so short prefix queries don't scan all terms. */
+	private static final String SEARCH_PREFIXES = "2,3";
 
 	//Fields for table Records
 	static final String COLUMN_ID = "_id";
@@ -100,8 +390,9 @@ public class SQLiteHelper extends SQLiteOpenHelper {
 	static final String COLUMN_DATE_ADDED = "added";
 	static final String COLUMN_DATE_REMOVED = "removed";
 	static final String COLUMN_PATH = "path";
-	/** Simplified array of audio record amplitudes that represents waveform. */
+	/** Simplified array of audio record amplitudes that represents waveform, stored in table Waveforms. */
 	static final String COLUMN_DATA = "data";
+	/** Removed in database version 5. */
 	static final String COLUMN_DATA_STR = "data_str";
 	static final String COLUMN_WAVEFORM_PROCESSED = "waveform_processed";
 	static final String COLUMN_BOOKMARK = "bookmark";
@@ -111,6 +402,35 @@ public class SQLiteHelper extends SQLiteOpenHelper {
 	static final String COLUMN_CHANNEL_COUNT = "channel_count";
 	static final String COLUMN_BITRATE = "bitrate";
 
+	//Fields for table Seek index
+	static final String COLUMN_RECORD_ID = "record_id";
+	static final String COLUMN_FILE_LENGTH = "file_length";
+	static final String COLUMN_FILE_MODIFIED = "file_modified";
+	/** Serialized {@link com.dimowner.audiorecorder.audio.SeekIndex}. */
+	static final String COLUMN_SEEK_DATA = "seek_data";
+
+	//Fields for table Transcripts
+	/** Speech recognized in the record by backend. */
+	static final String COLUMN_TRANSCRIPT = "transcript";
+	/** Text of backend reply to the record. */
+	static final String COLUMN_RESPONSE_TEXT = "response_text";
+
+	//Fields for table Statistics, totals are stored in columns duration and size.
+	/** Table which records are counted: Records or Trash. */
+	static final String COLUMN_SOURCE_TABLE = "source_table";
+	static final String COLUMN_COUNT = "count";
+	/** Value of column format for the row of records of all formats. */
+	static final String ALL_FORMATS = "*";
+
+	/** Columns of table Records, waveform is not included. */
+	static final String RECORD_COLUMNS = COLUMN_ID + ", " + COLUMN_NAME + ", " + COLUMN_DURATION + ", "
+			+ COLUMN_CREATION_DATE + ", " + COLUMN_DATE_ADDED + ", " + COLUMN_PATH + ", " + COLUMN_FORMAT + ", "
+			+ COLUMN_SIZE + ", " + COLUMN_SAMPLE_RATE + ", " + COLUMN_CHANNEL_COUNT + ", " + COLUMN_BITRATE + ", "
+			+ COLUMN_BOOKMARK + ", " + COLUMN_WAVEFORM_PROCESSED;
+
+	/** Columns of table Trash, waveform is not included. */
+	static final String TRASH_COLUMNS = RECORD_COLUMNS + ", " + COLUMN_DATE_REMOVED;
+
 	//Create records table sql statement
 	private static final String CREATE_RECORDS_TABLE_SCRIPT =
 			"CREATE TABLE " + TABLE_RECORDS + " ("
@@ -125,13 +445,29 @@ public class SQLiteHelper extends SQLiteOpenHelper {
 					+ COLUMN_SAMPLE_RATE + " INTEGER NOT NULL DEFAULT 0, "
 					+ COLUMN_CHANNEL_COUNT + " INTEGER NOT NULL DEFAULT 0, "
 					+ COLUMN_BITRATE + " INTEGER NOT NULL DEFAULT 0, "
-					+ COLUMN_DATA + " BLOB NOT NULL, "
 					+ COLUMN_BOOKMARK + " INTEGER NOT NULL DEFAULT 0, "
-					+ COLUMN_WAVEFORM_PROCESSED + " INTEGER NOT NULL DEFAULT 0, "
-					+ COLUMN_DATA_STR + " BLOB NOT NULL);";
+					+ COLUMN_WAVEFORM_PROCESSED + " INTEGER NOT NULL DEFAULT 0);";
 
 	//Create trash table sql statement
 	private static final String CREATE_TRASH_TABLE_SCRIPT =
+			"CREATE TABLE " + TABLE_TRASH + " ("
+					+ COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+					+ COLUMN_NAME + " TEXT NOT NULL, "
+					+ COLUMN_DURATION + " LONG NOT NULL, "
+					+ COLUMN_CREATION_DATE + " LONG NOT NULL, "
+					+ COLUMN_DATE_ADDED + " LONG NOT NULL, "
+					+ COLUMN_DATE_REMOVED + " LONG NOT NULL, "
+					+ COLUMN_PATH + " TEXT NOT NULL, "
+					+ COLUMN_FORMAT + " TEXT NOT NULL DEFAULT '', "
+					+ COLUMN_SIZE + " LONG NOT NULL DEFAULT 0, "
+					+ COLUMN_SAMPLE_RATE + " INTEGER NOT NULL DEFAULT 0, "
+					+ COLUMN_CHANNEL_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+					+ COLUMN_BITRATE + " INTEGER NOT NULL DEFAULT 0, "
+					+ COLUMN_BOOKMARK + " INTEGER NOT NULL DEFAULT 0, "
+					+ COLUMN_WAVEFORM_PROCESSED + " INTEGER NOT NULL DEFAULT 0);";
+
+	//Trash table of database versions 2-4, used for upgrade from version 1
+	private static final String CREATE_TRASH_TABLE_SCRIPT_V4 =
 			"CREATE TABLE " + TABLE_TRASH + " ("
 					+ COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
 					+ COLUMN_NAME + " TEXT NOT NULL, "
@@ -149,4 +485,59 @@ public class SQLiteHelper extends SQLiteOpenHelper {
 					+ COLUMN_BOOKMARK + " INTEGER NOT NULL DEFAULT 0, "
 					+ COLUMN_WAVEFORM_PROCESSED + " INTEGER NOT NULL DEFAULT 0, "
 					+ COLUMN_DATA_STR + " BLOB NOT NULL);";
+
+	//Create seek index table sql statement
+	private static final String CREATE_SEEK_INDEX_TABLE_SCRIPT =
+			"CREATE TABLE " + TABLE_SEEK_INDEX + " ("
+					+ COLUMN_RECORD_ID + " INTEGER PRIMARY KEY, "
+					+ COLUMN_FILE_LENGTH + " LONG NOT NULL, "
+					+ COLUMN_FILE_MODIFIED + " LONG NOT NULL, "
+					+ COLUMN_SEEK_DATA + " BLOB NOT NULL);";
+
+	//Create waveforms table sql statement
+	private static final String CREATE_WAVEFORMS_TABLE_SCRIPT =
+			"CREATE TABLE " + TABLE_WAVEFORMS + " ("
+					+ COLUMN_RECORD_ID + " INTEGER PRIMARY KEY, "
+					+ COLUMN_DATA + " BLOB NOT NULL);";
+
+	//Create transcripts table sql statement
+	private static final String CREATE_TRANSCRIPTS_TABLE_SCRIPT =
+			"CREATE TABLE " + TABLE_TRANSCRIPTS + " ("
+					+ COLUMN_RECORD_ID + " INTEGER PRIMARY KEY, "
+					+ COLUMN_TRANSCRIPT + " TEXT, "
+					+ COLUMN_RESPONSE_TEXT + " TEXT);";
+
+	//Create statistics table sql statement
+	private static final String CREATE_STATISTICS_TABLE_SCRIPT =
+			"CREATE TABLE " + TABLE_STATISTICS + " ("
+					+ COLUMN_SOURCE_TABLE + " TEXT NOT NULL, "
+					+ COLUMN_FORMAT + " TEXT NOT NULL, "
+					+ COLUMN_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+					+ COLUMN_DURATION + " LONG NOT NULL DEFAULT 0, "
+					+ COLUMN_SIZE + " LONG NOT NULL DEFAULT 0, "
+					+ "PRIMARY KEY (" + COLUMN_SOURCE_TABLE + ", " + COLUMN_FORMAT + "));";
+
+	private static String createSearchTableScript(String tokenizer) {
+		return "CREATE VIRTUAL TABLE " + TABLE_SEARCH + " USING fts4("
+				+ COLUMN_NAME + ", " + COLUMN_TRANSCRIPT + ", "
+				+ "tokenize=" + tokenizer + ", prefix=\"" + SEARCH_PREFIXES + "\");";
+	}
+
+	private static String createIndex(String table, String column) {
+		return "CREATE INDEX IF NOT EXISTS " + table + "_" + column + "_index ON " + table + " (" + column + ");";
+	}
+
+	private static String triggerName(String table, String targetTable) {
+		return table + "_delete_" + targetTable;
+	}
+
+	/**
+	 * Trigger which deletes rows of targetTable linked to a record deleted from table,
+	 * when the record is not in otherTable.
+	 */
+	private static String createDeleteTrigger(String table, String otherTable, String targetTable) {
+		return "CREATE TRIGGER " + triggerName(table, targetTable) + " AFTER DELETE ON " + table
+				+ " WHEN NOT EXISTS (SELECT 1 FROM " + otherTable + " WHERE " + COLUMN_ID + " = OLD." + COLUMN_ID + ")"
+				+ " BEGIN DELETE FROM " + targetTable + " WHERE " + COLUMN_RECORD_ID + " = OLD." + COLUMN_ID + "; END;";
+	}
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.dimowner.audiorecorder.audio.SeekIndex;
+import com.dimowner.audiorecorder.audio.SeekIndexBuilder;
+
+import java.io.File;
+
+import androidx.annotation.Nullable;
+import timber.log.Timber;
+
+/**
+ * Class to communicate with table: {@link SQLiteHelper#TABLE_SEEK_INDEX} in database.
+ * Seek index is stored by record id together with length and modification time of the record file,
+ * the index is rebuilt when the file has changed.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class SeekIndexDataSource {
+
+	private volatile static SeekIndexDataSource instance;
+
+	public static SeekIndexDataSource getInstance(Context context) {
+		if (instance == null) {
+			synchronized (SeekIndexDataSource.class) {
+				if (instance == null) {
+					instance = new SeekIndexDataSource(context);
+				}
+			}
+		}
+		return instance;
+	}
+
+	private final SQLiteHelper dbHelper;
+	private SQLiteDatabase db;
+
+	private SeekIndexDataSource(Context context) {
+		dbHelper = SQLiteHelper.getInstance(context);
+	}
+
+	private synchronized SQLiteDatabase getDatabase() {
+		if (db == null || !db.isOpen()) {
+			db = dbHelper.getWritableDatabase();
+		}
+		return db;
+	}
+
+	/**
+	 * Get stored seek index of the record. Doesn't read the record file, so it is cheap enough
+	 * for the loading queue.
+	 * @return Seek index or null when it is missing, outdated or the format doesn't need an index.
+	 */
+	@Nullable
+	public SeekIndex getSeekIndex(int recordId, String path) {
+		File file = new File(path);
+		if (!file.exists()) {
+			return null;
+		}
+		return getSeekIndex(recordId, file);
+	}
+
+	/**
+	 * Build and save seek index of the record. MP3 and AMR files are read frame by frame,
+	 * so it must be called from a background processing queue, not from the loading one.
+	 * @return Seek index or null when the record format doesn't need an index.
+	 */
+	@Nullable
+	public SeekIndex buildSeekIndex(int recordId, String path) {
+		File file = new File(path);
+		if (!file.exists()) {
+			return null;
+		}
+		long start = System.currentTimeMillis();
+		SeekIndex index = SeekIndexBuilder.build(file);
+		Timber.v("Seek index for record %d built in %d ms: %s", recordId, System.currentTimeMillis() - start, index);
+		if (index != null) {
+			saveSeekIndex(recordId, file, index);
+		}
+		return index;
+	}
+
+	@Nullable
+	public SeekIndex getSeekIndex(int recordId, File file) {
+		try (Cursor c = getDatabase().query(SQLiteHelper.TABLE_SEEK_INDEX,
+				new String[] {SQLiteHelper.COLUMN_FILE_LENGTH, SQLiteHelper.COLUMN_FILE_MODIFIED, SQLiteHelper.COLUMN_SEEK_DATA},
+				SQLiteHelper.COLUMN_RECORD_ID + " = ?", new String[] {String.valueOf(recordId)},
+				null, null, null)) {
+			if (c.moveToFirst() && c.getLong(0) == file.length() && c.getLong(1) == file.lastModified()) {
+				return SeekIndex.fromBytes(c.getBlob(2));
+			}
+		}
+		return null;
+	}
+
+	public void saveSeekIndex(int recordId, File file, SeekIndex index) {
+		ContentValues values = new ContentValues();
+		values.put(SQLiteHelper.COLUMN_RECORD_ID, recordId);
+		values.put(SQLiteHelper.COLUMN_FILE_LENGTH, file.length());
+		values.put(SQLiteHelper.COLUMN_FILE_MODIFIED, file.lastModified());
+		values.put(SQLiteHelper.COLUMN_SEEK_DATA, index.toBytes());
+		getDatabase().insertWithOnConflict(SQLiteHelper.TABLE_SEEK_INDEX, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+	}
+}
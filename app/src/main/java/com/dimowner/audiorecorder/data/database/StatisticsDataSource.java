@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.VisibleForTesting;
+import timber.log.Timber;
+
+/**
+ * Class to communicate with table: {@link SQLiteHelper#TABLE_STATISTICS} in database.
+ * Statistics are maintained by triggers on tables Records and Trash, so reading them costs the
+ * same for any count of records.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class StatisticsDataSource {
+
+	private volatile static StatisticsDataSource instance;
+
+	public static StatisticsDataSource getInstance(Context context) {
+		if (instance == null) {
+			synchronized (StatisticsDataSource.class) {
+				if (instance == null) {
+					instance = new StatisticsDataSource(context);
+				}
+			}
+		}
+		return instance;
+	}
+
+	@VisibleForTesting
+	public static void clearInstance() {
+		if (instance != null) {
+			synchronized (StatisticsDataSource.class) {
+				instance = null;
+			}
+		}
+	}
+
+	private final SQLiteHelper dbHelper;
+	private SQLiteDatabase db;
+
+	private StatisticsDataSource(Context context) {
+		dbHelper = SQLiteHelper.getInstance(context);
+	}
+
+	private synchronized SQLiteDatabase getDatabase() {
+		if (db == null || !db.isOpen()) {
+			db = dbHelper.getWritableDatabase();
+		}
+		return db;
+	}
+
+	/**
+	 * Read statistics of records and trash. Table has a row per table and format, so it is read
+	 * whole by one query.
+	 */
+	public LibraryStatistics getStatistics() {
+		LibraryStatistics.Totals records = LibraryStatistics.Totals.EMPTY;
+		LibraryStatistics.Totals trash = LibraryStatistics.Totals.EMPTY;
+		Map<String, LibraryStatistics.Totals> formats = new HashMap<>();
+		try (Cursor c = getDatabase().query(SQLiteHelper.TABLE_STATISTICS,
+				new String[] {SQLiteHelper.COLUMN_SOURCE_TABLE, SQLiteHelper.COLUMN_FORMAT,
+						SQLiteHelper.COLUMN_COUNT, SQLiteHelper.COLUMN_DURATION, SQLiteHelper.COLUMN_SIZE},
+				null, null, null, null, null)) {
+			while (c.moveToNext()) {
+				String table = c.getString(0);
+				String format = c.getString(1);
+				LibraryStatistics.Totals totals = new LibraryStatistics.Totals(c.getInt(2), c.getLong(3), c.getLong(4));
+				if (SQLiteHelper.TABLE_RECORDS.equals(table)) {
+					if (SQLiteHelper.ALL_FORMATS.equals(format)) {
+						records = totals;
+					} else {
+						formats.put(format, totals);
+					}
+				} else if (SQLiteHelper.TABLE_TRASH.equals(table) && SQLiteHelper.ALL_FORMATS.equals(format)) {
+					trash = totals;
+				}
+			}
+		}
+		return new LibraryStatistics(records, trash, formats);
+	}
+
+	/**
+	 * Count statistics again from all records. Repairs statistics if they diverged from records,
+	 * for example after the database file was restored from a backup of another version.
+	 * Must be called from a background thread.
+	 */
+	public void recompute() {
+		long start = System.currentTimeMillis();
+		SQLiteDatabase database = getDatabase();
+		database.beginTransaction();
+		try {
+			SQLiteHelper.recomputeStatistics(database);
+			database.setTransactionSuccessful();
+		} finally {
+			database.endTransaction();
+		}
+		Timber.v("Statistics recomputed in %d ms", System.currentTimeMillis() - start);
+	}
+}
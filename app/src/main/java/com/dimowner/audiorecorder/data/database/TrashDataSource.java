@@ -21,7 +21,10 @@ import android.content.Context;
 import android.database.Cursor;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import androidx.annotation.VisibleForTesting;
 import timber.log.Timber;
 
 /**
@@ -43,8 +46,39 @@ public class TrashDataSource extends DataSource<Record> {
 		return instance;
 	}
 
+	@VisibleForTesting
+	public static void clearInstance() {
+		if (instance != null) {
+			synchronized (TrashDataSource.class) {
+				instance = null;
+			}
+		}
+	}
+
 	private TrashDataSource(Context context) {
-		super(context, SQLiteHelper.TABLE_TRASH);
+		super(context, SQLiteHelper.TABLE_TRASH, SQLiteHelper.TRASH_COLUMNS);
+	}
+
+	/**
+	 * Find records removed before the time, oldest first. Only ids and paths are read and rows
+	 * are found by index of removing date.
+	 * @return Paths of found records by ids.
+	 */
+	public Map<Integer, String> getRemovedBefore(long time, int limit) {
+		Map<Integer, String> paths = new LinkedHashMap<>();
+		Cursor cursor = queryLocal("SELECT " + SQLiteHelper.COLUMN_ID + ", " + SQLiteHelper.COLUMN_PATH
+				+ " FROM " + tableName + " WHERE " + SQLiteHelper.COLUMN_DATE_REMOVED + " < ?"
+				+ " ORDER BY " + SQLiteHelper.COLUMN_DATE_REMOVED + " LIMIT " + limit, new String[] {String.valueOf(time)});
+		if (cursor != null) {
+			try {
+				while (cursor.moveToNext()) {
+					paths.put(cursor.getInt(0), cursor.getString(1));
+				}
+			} finally {
+				cursor.close();
+			}
+		}
+		return paths;
 	}
 
 	@Override
@@ -67,9 +101,6 @@ public class TrashDataSource extends DataSource<Record> {
 			values.put(SQLiteHelper.COLUMN_BITRATE, item.getBitrate());
 			values.put(SQLiteHelper.COLUMN_BOOKMARK, item.isBookmarked() ? 1 : 0);
 			values.put(SQLiteHelper.COLUMN_WAVEFORM_PROCESSED, item.isWaveformProcessed() ? 1 : 0);
-			values.put(SQLiteHelper.COLUMN_DATA, item.getData());
-			//TODO: Remove this field from database.
-			values.put(SQLiteHelper.COLUMN_DATA_STR, "");
 			return values;
 		} else {
 			Timber.e("Can't convert Record with empty Name!");
@@ -77,6 +108,32 @@ public class TrashDataSource extends DataSource<Record> {
 		}
 	}
 
+	@Override
+	public byte[] itemToWaveform(Record item) {
+		return item.hasWaveform() ? item.getData() : null;
+	}
+
+	@Override
+	public Record valuesToItem(ContentValues values, byte[] waveform) {
+		return new Record(
+				values.getAsInteger(SQLiteHelper.COLUMN_ID),
+				values.getAsString(SQLiteHelper.COLUMN_NAME),
+				values.getAsLong(SQLiteHelper.COLUMN_DURATION),
+				values.getAsLong(SQLiteHelper.COLUMN_CREATION_DATE),
+				values.getAsLong(SQLiteHelper.COLUMN_DATE_ADDED),
+				values.getAsLong(SQLiteHelper.COLUMN_DATE_REMOVED),
+				values.getAsString(SQLiteHelper.COLUMN_PATH),
+				values.getAsString(SQLiteHelper.COLUMN_FORMAT),
+				values.getAsLong(SQLiteHelper.COLUMN_SIZE),
+				values.getAsInteger(SQLiteHelper.COLUMN_SAMPLE_RATE),
+				values.getAsInteger(SQLiteHelper.COLUMN_CHANNEL_COUNT),
+				values.getAsInteger(SQLiteHelper.COLUMN_BITRATE),
+				values.getAsInteger(SQLiteHelper.COLUMN_BOOKMARK) != 0,
+				values.getAsInteger(SQLiteHelper.COLUMN_WAVEFORM_PROCESSED) != 0,
+				waveform
+		);
+	}
+
 	@Override
 	public Record recordToItem(Cursor cursor) {
 		return new Record(
@@ -94,9 +151,7 @@ public class TrashDataSource extends DataSource<Record> {
 				cursor.getInt(cursor.getColumnIndex(SQLiteHelper.COLUMN_BITRATE)),
 				cursor.getInt(cursor.getColumnIndex(SQLiteHelper.COLUMN_BOOKMARK)) != 0,
 				cursor.getInt(cursor.getColumnIndex(SQLiteHelper.COLUMN_WAVEFORM_PROCESSED)) != 0,
-				cursor.getBlob(cursor.getColumnIndex(SQLiteHelper.COLUMN_DATA))
-//				Record.stringToArray(
-//						cursor.getString(cursor.getColumnIndex(SQLiteHelper.COLUMN_DATA_STR)))
+				readWaveform(cursor)
 		);
 	}
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.data.database;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Lossless storage format of record waveform.
+ * Neighbour amplitudes are close to each other, so every amplitude is stored as a zig-zag
+ * variable length difference from the previous one, which takes one byte for most of them.
+ * Waveforms of long records are additionally compressed by deflate when it makes them smaller.
+ * <pre>
+ * 'W' | version | flags | varint count | [varint raw length, when deflated] | deltas
+ * </pre>
+ * Waveforms of database versions before 9 were stored as one byte per amplitude clamped
+ * to 0..255, see {@link #decodeLegacy(byte[])}.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class WaveformCodec {
+
+	private static final byte MAGIC = 'W';
+	private static final byte VERSION = 1;
+	private static final int HEADER_SIZE = 3;
+	private static final int FLAG_DEFLATED = 1;
+	/** Shorter waveforms take less space without deflate because of its headers. */
+	private static final int DEFLATE_MIN_COUNT = 512;
+
+	private WaveformCodec() {
+	}
+
+	public static byte[] encode(int[] amps) {
+		ByteArrayOutputStream deltas = new ByteArrayOutputStream(amps.length + 8);
+		int prev = 0;
+		for (int amp : amps) {
+			writeVarInt(deltas, zigZag(amp - prev));
+			prev = amp;
+		}
+		byte[] raw = deltas.toByteArray();
+		byte[] payload = raw;
+		int flags = 0;
+		if (amps.length >= DEFLATE_MIN_COUNT) {
+			byte[] deflated = deflate(raw);
+			if (deflated.length < raw.length) {
+				payload = deflated;
+				flags = FLAG_DEFLATED;
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length + 16);
+		out.write(MAGIC);
+		out.write(VERSION);
+		out.write(flags);
+		writeVarInt(out, amps.length);
+		if (flags == FLAG_DEFLATED) {
+			writeVarInt(out, raw.length);
+		}
+		out.write(payload, 0, payload.length);
+		return out.toByteArray();
+	}
+
+	public static int[] decode(byte[] data) {
+		if (data == null) {
+			return new int[0];
+		}
+		if (!isEncoded(data)) {
+			return decodeLegacy(data);
+		}
+		int[] pos = {HEADER_SIZE};
+		int count = readVarInt(data, pos);
+		int[] amps = new int[count];
+		byte[] deltas = data;
+		if ((data[2] & FLAG_DEFLATED) != 0) {
+			int rawLength = readVarInt(data, pos);
+			deltas = inflate(data, pos[0], rawLength);
+			pos[0] = 0;
+		}
+		int amp = 0;
+		for (int i = 0; i < count; i++) {
+			amp += unZigZag(readVarInt(deltas, pos));
+			amps[i] = amp;
+		}
+		return amps;
+	}
+
+	public static int getSampleCount(byte[] data) {
+		if (!isEncoded(data)) {
+			return data.length;
+		}
+		return readVarInt(data, new int[] {HEADER_SIZE});
+	}
+
+	/**
+	 * Decode waveform stored by database versions before 9.
+	 */
+	public static int[] decodeLegacy(byte[] data) {
+		int[] amps = new int[data.length];
+		for (int i = 0; i < data.length; i++) {
+			amps[i] = data[i] + 128;
+		}
+		return amps;
+	}
+
+	private static boolean isEncoded(byte[] data) {
+		return data.length >= HEADER_SIZE + 1 && data[0] == MAGIC && data[1] == VERSION;
+	}
+
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private static int readVarInt(byte[] data, int[] pos) {
+		int value = 0;
+		int shift = 0;
+		while (true) {
+			byte b = data[pos[0]++];
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+			shift += 7;
+			if (shift > 31) {
+				throw new IllegalArgumentException("Malformed varint");
+			}
+		}
+	}
+
+	private static byte[] deflate(byte[] data) {
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+			byte[] buffer = new byte[1024];
+			while (!deflater.finished()) {
+				int n = deflater.deflate(buffer);
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflate(byte[] data, int offset, int rawLength) {
+		//Raw deflate stream needs one extra byte of input to finish.
+		Inflater inflater = new Inflater(true);
+		try {
+			byte[] input = new byte[data.length - offset + 1];
+			System.arraycopy(data, offset, input, 0, data.length - offset);
+			inflater.setInput(input);
+			byte[] raw = new byte[rawLength];
+			int n = 0;
+			while (n < rawLength && !inflater.finished()) {
+				int read = inflater.inflate(raw, n, rawLength - n);
+				if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				n += read;
+			}
+			if (n != rawLength) {
+				throw new IllegalArgumentException("Broken waveform data");
+			}
+			return raw;
+		} catch (DataFormatException e) {
+			throw new IllegalArgumentException("Broken waveform data", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
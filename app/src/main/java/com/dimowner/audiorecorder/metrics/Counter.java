@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.metrics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count of events, e.g. failed reads of recorder or network errors.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class Counter extends Metric {
+
+	private final AtomicLong value = new AtomicLong();
+
+	Counter(String name, MetricsRegistry registry) {
+		super(name, registry);
+	}
+
+	public void inc() {
+		if (registry.enabled) {
+			value.incrementAndGet();
+		}
+	}
+
+	public void add(long delta) {
+		if (registry.enabled) {
+			value.addAndGet(delta);
+		}
+	}
+
+	public long get() {
+		return value.get();
+	}
+
+	@Override
+	void write(PrintWriter writer) {
+		writer.println(String.format(Locale.US, "%s counter %d", name, value.get()));
+	}
+
+	@Override
+	public void reset() {
+		value.set(0);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.metrics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Current value of something, e.g. count of tasks waiting for a worker. Keeps the highest value
+ * set since the last reset as well.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class Gauge extends Metric {
+
+	private final AtomicLong value = new AtomicLong();
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	Gauge(String name, MetricsRegistry registry) {
+		super(name, registry);
+	}
+
+	public void set(long v) {
+		if (registry.enabled) {
+			value.set(v);
+			Histogram.updateMax(max, v);
+		}
+	}
+
+	public long get() {
+		return value.get();
+	}
+
+	/**
+	 * @return The highest value set or 0 if no value was set.
+	 */
+	public long getMax() {
+		long m = max.get();
+		return m == Long.MIN_VALUE ? 0 : m;
+	}
+
+	@Override
+	void write(PrintWriter writer) {
+		writer.println(String.format(Locale.US, "%s gauge %d max=%d", name, get(), getMax()));
+	}
+
+	@Override
+	public void reset() {
+		value.set(0);
+		max.set(Long.MIN_VALUE);
+	}
+}
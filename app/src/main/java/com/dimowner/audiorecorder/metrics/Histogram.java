@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.metrics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of values, e.g. latencies in microseconds. Buckets are log-linear like in
+ * HdrHistogram: every power of two range is split into {@link #SUB_BUCKET_COUNT} equal buckets,
+ * so a percentile is reported with relative error under 1/16 for any value. Recording takes a
+ * few atomic additions and never allocates.
+ * Values are non-negative and limited by {@link #MAX_VALUE}.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class Histogram extends Metric {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_VALUE_BITS = 40;
+	/** Larger values are counted as this value, it is about 12 days in microseconds. */
+	public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+	static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	Histogram(String name, MetricsRegistry registry) {
+		super(name, registry);
+	}
+
+	public void record(long value) {
+		if (!registry.enabled) {
+			return;
+		}
+		long v = Math.max(0, Math.min(MAX_VALUE, value));
+		counts.incrementAndGet(bucketIndex(v));
+		count.incrementAndGet();
+		sum.addAndGet(v);
+		updateMax(max, v);
+	}
+
+	/**
+	 * Start timing of an operation.
+	 * @return Start time to pass into {@link #recordMicrosSince(long)} or 0 when the registry is
+	 * disabled and there is nothing to time.
+	 */
+	public long start() {
+		return registry.enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Record time passed since {@link #start()} in microseconds.
+	 */
+	public void recordMicrosSince(long startNanos) {
+		if (startNanos != 0) {
+			record((System.nanoTime() - startNanos) / 1000);
+		}
+	}
+
+	/**
+	 * Record time passed since {@link #start()} in milliseconds.
+	 */
+	public void recordMillisSince(long startNanos) {
+		if (startNanos != 0) {
+			record((System.nanoTime() - startNanos) / 1_000_000);
+		}
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getMax() {
+		long m = max.get();
+		return m == Long.MIN_VALUE ? 0 : m;
+	}
+
+	public long getSum() {
+		return sum.get();
+	}
+
+	public long getMean() {
+		long c = count.get();
+		return c > 0 ? sum.get() / c : 0;
+	}
+
+	/**
+	 * @param percentile Percentile from 0 to 1.
+	 * @return Upper bound of the bucket which contains the percentile, not higher than the
+	 * highest recorded value, or 0 if nothing is recorded.
+	 */
+	public long getPercentile(double percentile) {
+		long[] snapshot = new long[BUCKET_COUNT];
+		long total = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(bucketUpperBound(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	@Override
+	void write(PrintWriter writer) {
+		writer.println(String.format(Locale.US, "%s histogram count=%d mean=%d p50=%d p90=%d p99=%d max=%d",
+				name, getCount(), getMean(), getPercentile(0.5), getPercentile(0.9), getPercentile(0.99), getMax()));
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(Long.MIN_VALUE);
+	}
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int highestBit = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_COUNT - 1;
+		long subBucket = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	static void updateMax(AtomicLong max, long value) {
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.metrics;
+
+import java.io.PrintWriter;
+
+/**
+ * Named value of {@link MetricsRegistry}. Updates of a metric are dropped while the registry is
+ * disabled, so an update costs a read of one volatile field.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public abstract class Metric {
+
+	public final String name;
+	final MetricsRegistry registry;
+
+	Metric(String name, MetricsRegistry registry) {
+		this.name = name;
+		this.registry = registry;
+	}
+
+	/**
+	 * Write current value of the metric as one line.
+	 */
+	abstract void write(PrintWriter writer);
+
+	/**
+	 * Reset the value, owners of metrics reset them together with their own statistics.
+	 */
+	public abstract void reset();
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.metrics;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import com.dimowner.audiorecorder.ARApplication;
+import com.dimowner.audiorecorder.Injector;
+import com.dimowner.audiorecorder.data.database.QueryStats;
+import com.dimowner.audiorecorder.data.database.RecordCache;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import timber.log.Timber;
+
+/**
+ * Dumps metrics, database statements, task queues and start-up trace into
+ * {@link Injector#METRICS_DUMP_FILE} in the metrics dir of app files and into log. Sender needs
+ * DUMP permission which adb shell has:
+ * <pre>
+ * adb shell am broadcast -a com.dimowner.audiorecorder.action.DUMP_METRICS \
+ *     -n com.dimowner.audiorecorder/.metrics.MetricsDumpReceiver [--ez enabled true|false] [--ez reset true]
+ * </pre>
+ * Extra {@link #EXTRA_ENABLED} enables or disables metrics after the dump,
+ * {@link #EXTRA_RESET} resets them.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class MetricsDumpReceiver extends BroadcastReceiver {
+
+	public static final String ACTION_DUMP_METRICS = "com.dimowner.audiorecorder.action.DUMP_METRICS";
+	public static final String EXTRA_ENABLED = "enabled";
+	public static final String EXTRA_RESET = "reset";
+
+	@Override
+	public void onReceive(Context context, Intent intent) {
+		Injector injector = ARApplication.getInjector();
+		StringWriter text = new StringWriter();
+		PrintWriter writer = new PrintWriter(text);
+		dump(context, injector, writer);
+		String dump = text.toString();
+		for (String line : dump.split("\n")) {
+			Timber.i(line);
+		}
+		File file = new File(injector.provideMetricsDir(context), Injector.METRICS_DUMP_FILE);
+		try (FileWriter fileWriter = new FileWriter(file)) {
+			fileWriter.write(dump);
+		} catch (IOException e) {
+			Timber.e(e, "Failed to write metrics dump");
+		}
+
+		MetricsRegistry registry = injector.provideMetricsRegistry();
+		if (intent.getBooleanExtra(EXTRA_RESET, false)) {
+			registry.reset();
+			QueryStats.getInstance().reset();
+		}
+		if (intent.hasExtra(EXTRA_ENABLED)) {
+			injector.setMetricsEnabled(context, intent.getBooleanExtra(EXTRA_ENABLED, false));
+		}
+	}
+
+	private static void dump(Context context, Injector injector, PrintWriter writer) {
+		injector.provideMetricsRegistry().dump(writer);
+		QueryStats.getInstance().dump(writer);
+		RecordCache cache = injector.provideLocalRepository(context).getRecordCache();
+		writer.println("Record cache: size=" + cache.size() + " hits=" + cache.getHitCount() + " misses=" + cache.getMissCount());
+		injector.provideTaskExecutor().dump(writer);
+		ARApplication.getStartupGraph().dump(writer);
+		writer.flush();
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.metrics;
+
+import com.dimowner.audiorecorder.BackgroundQueue;
+import com.dimowner.audiorecorder.TaskHandle;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import androidx.annotation.VisibleForTesting;
+import timber.log.Timber;
+
+/**
+ * Counters, gauges and histograms of recorder, decoder, database, network, playback, task queues
+ * and UI. Metrics are created once by name and kept in fields of the instrumented classes.
+ * While the registry is disabled updates of metrics are dropped after a read of one volatile
+ * field, and timers don't even read the clock.
+ * When enabled the registry may append snapshots of all metrics into a local file periodically.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public class MetricsRegistry {
+
+	public static final long DEFAULT_SNAPSHOT_INTERVAL_MILLIS = 60_000;
+	/** Snapshot file is moved aside when it grows larger, so at most two files are kept. */
+	private static final long MAX_SNAPSHOT_FILE_SIZE = 1024 * 1024;
+
+	private static final MetricsRegistry instance = new MetricsRegistry();
+
+	public static MetricsRegistry getInstance() {
+		return instance;
+	}
+
+	volatile boolean enabled = false;
+
+	private final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<>();
+	private TaskHandle snapshotTask = null;
+	private int snapshotGeneration = 0;
+
+	@VisibleForTesting
+	MetricsRegistry() {
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public Counter counter(String name) {
+		return get(name, Counter.class);
+	}
+
+	public Gauge gauge(String name) {
+		return get(name, Gauge.class);
+	}
+
+	public Histogram histogram(String name) {
+		return get(name, Histogram.class);
+	}
+
+	/**
+	 * @return All metrics sorted by name.
+	 */
+	public List<Metric> getMetrics() {
+		List<Metric> list = new ArrayList<>(metrics.values());
+		Collections.sort(list, (o1, o2) -> o1.name.compareTo(o2.name));
+		return list;
+	}
+
+	public void dump(PrintWriter writer) {
+		writer.println("Metrics (" + (enabled ? "enabled" : "disabled") + "):");
+		for (Metric metric : getMetrics()) {
+			writer.print("  ");
+			metric.write(writer);
+		}
+		writer.flush();
+	}
+
+	public void reset() {
+		for (Metric metric : metrics.values()) {
+			metric.reset();
+		}
+	}
+
+	/**
+	 * Append snapshot of all metrics into the file.
+	 */
+	public void writeSnapshot(File file) {
+		if (file.length() > MAX_SNAPSHOT_FILE_SIZE) {
+			File previous = new File(file.getPath() + ".1");
+			if (!previous.delete() && previous.exists() || !file.renameTo(previous)) {
+				Timber.e("Failed to rotate metrics file %s", file.getPath());
+			}
+		}
+		PrintWriter writer = null;
+		try {
+			writer = new PrintWriter(new FileWriter(file, true));
+			SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+			writer.println("# " + format.format(new Date()));
+			for (Metric metric : getMetrics()) {
+				metric.write(writer);
+			}
+		} catch (IOException e) {
+			Timber.e(e, "Failed to write metrics snapshot");
+		} finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Write snapshots into the file every interval while the registry is enabled. Replaces
+	 * snapshots started before.
+	 */
+	public void startSnapshots(final File file, final BackgroundQueue queue, final long intervalMillis) {
+		synchronized (this) {
+			stopSnapshots();
+			final int generation = snapshotGeneration;
+			snapshotTask = queue.postRunnable(new Runnable() {
+				@Override
+				public void run() {
+					if (enabled) {
+						writeSnapshot(file);
+					}
+					synchronized (MetricsRegistry.this) {
+						if (generation == snapshotGeneration) {
+							snapshotTask = queue.postRunnable(this, intervalMillis);
+						}
+					}
+				}
+			}, intervalMillis);
+		}
+	}
+
+	public synchronized void stopSnapshots() {
+		//A running snapshot of the previous generation doesn't post the next one.
+		snapshotGeneration++;
+		if (snapshotTask != null) {
+			snapshotTask.cancel();
+			snapshotTask = null;
+		}
+	}
+
+	private <M extends Metric> M get(String name, Class<M> type) {
+		Metric metric = metrics.get(name);
+		if (metric == null) {
+			Metric created;
+			if (type == Counter.class) {
+				created = new Counter(name, this);
+			} else if (type == Gauge.class) {
+				created = new Gauge(name, this);
+			} else {
+				created = new Histogram(name, this);
+			}
+			metric = metrics.putIfAbsent(name, created);
+			if (metric == null) {
+				metric = created;
+			}
+		}
+		if (!type.isInstance(metric)) {
+			throw new IllegalArgumentException("Metric " + name + " is already registered as " + metric.getClass().getSimpleName());
+		}
+		return type.cast(metric);
+	}
+}
@@ -0,0 +1,11 @@
+package com.dimowner.audiorecorder
+
+/**
+ * Scale and benchmark tests always check results, their latency and memory budgets are checked
+ * only when run with `./gradlew test -PperfTests`, so regular runs don't fail on slow machines.
+ */
+object PerfTests {
+
+    @JvmStatic
+    val isEnabled: Boolean = java.lang.Boolean.getBoolean("perfTests")
+}
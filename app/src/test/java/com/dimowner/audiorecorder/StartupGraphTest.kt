@@ -0,0 +1,76 @@
+package com.dimowner.audiorecorder
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Assert.assertThrows
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class StartupGraphTest {
+
+    private val executor = TaskExecutor(3)
+
+    @After
+    fun tearDown() {
+        executor.release()
+    }
+
+    @Test
+    fun entry_point_runs_only_its_dependencies_once() {
+        val runs = Collections.synchronizedList(ArrayList<String>())
+        val databaseOpened = CountDownLatch(1)
+        val graph = StartupGraph(null, executor)
+            .add("settings", { runs.add("settings") })
+            .add("receiver", { runs.add("receiver") })
+            .add("metrics", { runs.add("metrics") })
+            .addBackground("database", {
+                runs.add("database")
+                databaseOpened.countDown()
+            }, "settings")
+            .add("recording", { runs.add("recording") }, "settings", "receiver")
+            .add("library", { runs.add("library") }, "settings", "metrics", "database")
+
+        graph.ensure("recording")
+        graph.ensure("recording")
+        assertEquals(listOf("settings", "receiver", "recording"), runs)
+        assertFalse(graph.isDone("metrics"))
+
+        graph.ensure("library")
+        assertTrue(databaseOpened.await(2, TimeUnit.SECONDS))
+        assertEquals(6, runs.size)
+        assertEquals(listOf("settings", "receiver", "recording", "metrics"), runs.subList(0, 4))
+        assertTrue(graph.isDone("library"))
+        assertEquals(runs.toSet(), graph.trace.map { it.name }.toSet())
+    }
+
+    @Test
+    fun dependencies_are_declared_first() {
+        val graph = StartupGraph(null, executor).add("settings", {})
+        assertThrows(IllegalArgumentException::class.java) { graph.add("library", {}, "database") }
+        assertThrows(IllegalArgumentException::class.java) { graph.add("settings", {}) }
+        assertThrows(IllegalArgumentException::class.java) { graph.ensure("database") }
+    }
+
+    @Test
+    fun main_thread_component_is_not_run_on_other_threads() {
+        val graph = StartupGraph(null, executor)
+            .add("settings", {})
+            .add("metrics", {})
+        graph.ensure("settings")
+
+        var error: Throwable? = null
+        val thread = Thread {
+            //Component which is already run is fine on any thread.
+            graph.ensure("settings")
+            error = runCatching { graph.ensure("metrics") }.exceptionOrNull()
+        }
+        thread.start()
+        thread.join()
+        assertTrue(error is IllegalStateException)
+        assertFalse(graph.isDone("metrics"))
+    }
+}
@@ -0,0 +1,105 @@
+package com.dimowner.audiorecorder
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class TaskExecutorTest {
+
+    private val executor = TaskExecutor(3)
+
+    @After
+    fun tearDown() {
+        executor.release()
+    }
+
+    @Test
+    fun interactive_task_does_not_wait_behind_background_tasks() {
+        val release = CountDownLatch(1)
+        val copy = BackgroundQueue("CopyTasks", TaskExecutor.PRIORITY_BACKGROUND, executor)
+        val import = BackgroundQueue("ImportTasks", TaskExecutor.PRIORITY_BACKGROUND, executor)
+        val loading = BackgroundQueue("LoadingTasks", TaskExecutor.PRIORITY_INTERACTIVE, executor)
+        val recording = BackgroundQueue("RecordingTasks", TaskExecutor.PRIORITY_RECORDING, executor)
+        repeat(3) {
+            copy.postRunnable { release.await() }
+            import.postRunnable { release.await() }
+        }
+        val loaded = CountDownLatch(2)
+        loading.postRunnable { loaded.countDown() }
+        recording.postRunnable { loaded.countDown() }
+
+        assertTrue(loaded.await(2, TimeUnit.SECONDS))
+        release.countDown()
+    }
+
+    @Test
+    fun queue_runs_tasks_in_order_and_skips_cancelled() {
+        val queue = BackgroundQueue("LoadingTasks", TaskExecutor.PRIORITY_INTERACTIVE, executor)
+        val order = Collections.synchronizedList(ArrayList<Int>())
+        val start = CountDownLatch(1)
+        queue.postRunnable { start.await() }
+        val handles = (1..5).map { i -> queue.postRunnable { order.add(i) } }
+        assertTrue(handles[1].cancel())
+        val skipped = Runnable { order.add(100) }
+        queue.postRunnable(skipped)
+        queue.cancelRunnable(skipped)
+        val done = CountDownLatch(1)
+        queue.postRunnable { done.countDown() }
+        start.countDown()
+
+        assertTrue(done.await(2, TimeUnit.SECONDS))
+        assertEquals(listOf(1, 3, 4, 5), order)
+        assertTrue(handles[0].isDone)
+        assertFalse(handles[0].cancel())
+        assertEquals(2L, executor.getStats().first { it.name == "LoadingTasks" }.cancelledCount)
+    }
+
+    @Test
+    fun delayed_task_runs_after_delay_unless_cancelled() {
+        val queue = BackgroundQueue("FileIndexTasks", TaskExecutor.PRIORITY_BACKGROUND, executor)
+        val ran = CountDownLatch(1)
+        val cancelled = queue.postRunnable({ throw AssertionError() }, 50)
+        val startNanos = System.nanoTime()
+        queue.postRunnable({ ran.countDown() }, 100)
+        cancelled.cancel()
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS))
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(100))
+        assertTrue(cancelled.isCancelled)
+    }
+
+    @Test
+    fun keyed_tasks_are_coalesced() {
+        val queue = BackgroundQueue("LoadingTasks", TaskExecutor.PRIORITY_INTERACTIVE, executor)
+        val loads = Collections.synchronizedList(ArrayList<Int>())
+        val start = CountDownLatch(1)
+        val running = CountDownLatch(1)
+        var runningCancelled = false
+        queue.postLatest("load") {
+            running.countDown()
+            start.await()
+            runningCancelled = TaskExecutor.isCurrentTaskCancelled()
+        }
+        assertTrue(running.await(2, TimeUnit.SECONDS))
+        for (i in 1..5) {
+            queue.postLatest("load") { loads.add(i) }
+        }
+        val page = queue.postOnce("page") { loads.add(100) }
+        assertTrue(page === queue.postOnce("page") { loads.add(200) })
+        val done = CountDownLatch(1)
+        queue.postRunnable { done.countDown() }
+        start.countDown()
+
+        assertTrue(done.await(2, TimeUnit.SECONDS))
+        assertTrue(runningCancelled)
+        assertEquals(listOf(5, 100), loads)
+        val stats = executor.getStats().first { it.name == "LoadingTasks" }
+        assertEquals(5L, stats.supersededCount)
+        assertEquals(1L, stats.joinedCount)
+    }
+}
@@ -0,0 +1,44 @@
+package com.dimowner.audiorecorder.audio
+
+import com.dimowner.audiorecorder.PerfTests
+import junit.framework.TestCase.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+/**
+ * Measures probing time of every corpus file, runs only with [PerfTests] enabled. Results of
+ * probing are checked by AudioHeaderProberTest. Budget is generous so the test is stable on
+ * slow CI machines, while MediaExtractor based probing takes milliseconds per file.
+ */
+class AudioHeaderProberBenchmarkTest {
+
+    @get:Rule
+    val tempFolder = TemporaryFolder()
+
+    @Test
+    fun benchmark_probe_corpus() {
+        assumeTrue(PerfTests.isEnabled)
+        val samples = SyntheticAudioCorpus(tempFolder.root).buildAll()
+        repeat(WARMUP_ITERATIONS) {
+            for (sample in samples) {
+                AudioHeaderProber.probe(sample.file)
+            }
+        }
+        for (sample in samples) {
+            val start = System.nanoTime()
+            repeat(ITERATIONS) {
+                AudioHeaderProber.probe(sample.file)
+            }
+            val averageUs = (System.nanoTime() - start) / 1000 / ITERATIONS
+            assertTrue("${sample.file.name} probe took $averageUs us", averageUs < BUDGET_US)
+        }
+    }
+
+    companion object {
+        private const val WARMUP_ITERATIONS = 200
+        private const val ITERATIONS = 1000
+        private const val BUDGET_US = 2000
+    }
+}
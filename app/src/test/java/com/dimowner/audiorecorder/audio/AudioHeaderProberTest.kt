@@ -0,0 +1,70 @@
+package com.dimowner.audiorecorder.audio
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertNotNull
+import junit.framework.TestCase.assertNull
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+class AudioHeaderProberTest {
+
+    @get:Rule
+    val tempFolder = TemporaryFolder()
+
+    private lateinit var corpus: SyntheticAudioCorpus
+
+    @Before
+    fun setUp() {
+        corpus = SyntheticAudioCorpus(tempFolder.root)
+    }
+
+    @Test
+    fun test_corpus() {
+        for (sample in corpus.buildAll()) {
+            val info = AudioHeaderProber.probe(sample.file)
+            val expected = sample.expected
+            if (expected == null) {
+                assertNull(sample.file.name, info)
+            } else {
+                assertNotNull(sample.file.name, info)
+                assertEquals(sample.file.name, expected.mime, info!!.mime)
+                assertEquals(sample.file.name, expected.durationUs, info.durationUs)
+                assertEquals(sample.file.name, expected.sampleRate, info.sampleRate)
+                assertEquals(sample.file.name, expected.channelCount, info.channelCount)
+                assertEquals(sample.file.name, expected.bitrate, info.bitrate)
+            }
+        }
+    }
+
+    @Test
+    fun test_format_detected_by_content() {
+        val sample = corpus.m4a()
+        val trashed = File(sample.file.parentFile, sample.file.name + ".del")
+        sample.file.renameTo(trashed)
+        val info = AudioHeaderProber.probe(trashed)
+        assertNotNull(info)
+        assertEquals(AudioHeaderProber.MIME_AAC, info!!.mime)
+        assertEquals(3000000L, info.durationUs)
+    }
+
+    @Test
+    fun test_truncated_files() {
+        for (sample in corpus.buildAll()) {
+            val bytes = sample.file.readBytes()
+            for (length in intArrayOf(0, 4, 11, 12, 27, 40)) {
+                val truncated = File(tempFolder.root, "truncated_" + sample.file.name)
+                truncated.writeBytes(bytes.copyOf(minOf(length, bytes.size)))
+                //Must not throw.
+                AudioHeaderProber.probe(truncated)
+            }
+        }
+    }
+
+    @Test
+    fun test_missing_file() {
+        assertNull(AudioHeaderProber.probe(File(tempFolder.root, "missing.m4a")))
+    }
+}
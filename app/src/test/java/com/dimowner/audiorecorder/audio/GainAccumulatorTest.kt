@@ -0,0 +1,155 @@
+package com.dimowner.audiorecorder.audio
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertTrue
+import org.junit.Assert.assertArrayEquals
+import org.junit.Before
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.nio.ShortBuffer
+import kotlin.random.Random
+
+class GainAccumulatorTest {
+
+    private val sampleRate = 44100
+    private val channelCount = 2
+    private val samplesPerFrame = 441
+    private val prerollUs = 100000L
+
+    private lateinit var random: Random
+    private lateinit var pcm: ShortArray
+
+    @Before
+    fun setUp() {
+        random = Random(42)
+        pcm = ShortArray(sampleRate * channelCount * 7 + 123 * channelCount) {
+            random.nextInt(Short.MIN_VALUE.toInt(), Short.MAX_VALUE.toInt() + 1).toShort()
+        }
+    }
+
+    @Test
+    fun test_interrupted_decode_at_random_offsets_equals_uninterrupted() {
+        val expected = decodeUninterrupted()
+        repeat(50) {
+            val chunkFrames = 512 + random.nextInt(1024)
+            val chunks = splitIntoChunks(chunkFrames)
+            val interruptAt = random.nextInt(chunks.size + 1)
+
+            val accumulator = GainAccumulator(sampleRate, channelCount, samplesPerFrame)
+            for (i in 0 until interruptAt) {
+                accumulator.addSamples(chunks[i].toBuffer())
+            }
+            val checkpoint = roundTrip(accumulator.toCheckpoint("path", 100L, 200L))
+
+            val result = resume(checkpoint, 1152)
+            assertArrayEquals("Interrupted at chunk $interruptAt of ${chunks.size}", expected, result)
+        }
+    }
+
+    @Test
+    fun test_decode_interrupted_several_times() {
+        val expected = decodeUninterrupted()
+        var checkpoint = roundTrip(GainAccumulator(sampleRate, channelCount, samplesPerFrame)
+            .toCheckpoint("path", 100L, 200L))
+        while (true) {
+            val accumulator = GainAccumulator.fromCheckpoint(checkpoint)
+            val chunks = chunksFrom(checkpoint.resumeTimeUs - prerollUs, 256 + random.nextInt(2048))
+            val interruptAt = random.nextInt(chunks.size + 1)
+            for (i in 0 until interruptAt) {
+                accumulator.addSamples(chunks[i].toBuffer(), chunks[i].ptsUs)
+            }
+            if (interruptAt == chunks.size) {
+                assertArrayEquals(expected, accumulator.gains)
+                break
+            }
+            checkpoint = roundTrip(accumulator.toCheckpoint("path", 100L, 200L))
+        }
+    }
+
+    @Test
+    fun test_checkpoint_at_start_and_end() {
+        val expected = decodeUninterrupted()
+
+        val empty = roundTrip(GainAccumulator(sampleRate, channelCount, samplesPerFrame)
+            .toCheckpoint("path", 100L, 200L))
+        assertEquals(0L, empty.resumeTimeUs)
+        assertArrayEquals(expected, resume(empty, 1024))
+
+        val full = GainAccumulator(sampleRate, channelCount, samplesPerFrame)
+        full.addSamples(ShortBuffer.wrap(pcm))
+        val fullCheckpoint = roundTrip(full.toCheckpoint("path", 100L, 200L))
+        assertArrayEquals(expected, resume(fullCheckpoint, 1024))
+    }
+
+    @Test
+    fun test_checkpoint_serialization() {
+        val accumulator = GainAccumulator(sampleRate, channelCount, samplesPerFrame)
+        accumulator.addSamples(ShortBuffer.wrap(pcm, 0, 10001 * channelCount))
+        val checkpoint = accumulator.toCheckpoint("/records/rec.m4a", 12345L, 67890L)
+        val restored = roundTrip(checkpoint)
+
+        assertEquals("/records/rec.m4a", restored.path)
+        assertEquals(12345L, restored.fileLength)
+        assertEquals(67890L, restored.fileLastModified)
+        assertEquals(10001L * channelCount, restored.consumedSamples)
+        assertEquals(10001L * 1000000L / sampleRate, restored.resumeTimeUs)
+        assertArrayEquals(checkpoint.gains, restored.gains)
+        assertArrayEquals(checkpoint.frameAmps, restored.frameAmps)
+        assertEquals(checkpoint.frameIndex, restored.frameIndex)
+        assertTrue(restored.isCompatible(sampleRate, channelCount, samplesPerFrame * channelCount))
+        assertFalse(restored.isCompatible(48000, channelCount, samplesPerFrame * channelCount))
+    }
+
+    private fun decodeUninterrupted(): IntArray {
+        val accumulator = GainAccumulator(sampleRate, channelCount, samplesPerFrame)
+        for (chunk in splitIntoChunks(1024)) {
+            accumulator.addSamples(chunk.toBuffer())
+        }
+        return accumulator.gains
+    }
+
+    /**
+     * Simulates resumed decoding: seek to previous sync sample before checkpoint and decode with
+     * buffers of different size than before interruption.
+     */
+    private fun resume(checkpoint: DecodeCheckpoint, chunkFrames: Int): IntArray {
+        val accumulator = GainAccumulator.fromCheckpoint(checkpoint)
+        for (chunk in chunksFrom(checkpoint.resumeTimeUs - prerollUs, chunkFrames)) {
+            accumulator.addSamples(chunk.toBuffer(), chunk.ptsUs)
+        }
+        return accumulator.gains
+    }
+
+    private fun chunksFrom(seekUs: Long, chunkFrames: Int): List<Chunk> {
+        val chunks = splitIntoChunks(chunkFrames)
+        val syncIndex = chunks.indexOfLast { it.ptsUs <= seekUs.coerceAtLeast(0) }
+        return chunks.subList(syncIndex.coerceAtLeast(0), chunks.size)
+    }
+
+    private fun splitIntoChunks(chunkFrames: Int): List<Chunk> {
+        val chunks = ArrayList<Chunk>()
+        val chunkSamples = chunkFrames * channelCount
+        var offset = 0
+        while (offset < pcm.size) {
+            val length = minOf(chunkSamples, pcm.size - offset)
+            val ptsUs = offset.toLong() / channelCount * 1000000L / sampleRate
+            chunks.add(Chunk(offset, length, ptsUs))
+            offset += length
+        }
+        return chunks
+    }
+
+    private fun Chunk.toBuffer(): ShortBuffer = ShortBuffer.wrap(pcm, offset, length).slice()
+
+    private fun roundTrip(checkpoint: DecodeCheckpoint): DecodeCheckpoint {
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use { checkpoint.writeTo(it) }
+        return DataInputStream(ByteArrayInputStream(bytes.toByteArray())).use { DecodeCheckpoint.readFrom(it) }
+    }
+
+    private data class Chunk(val offset: Int, val length: Int, val ptsUs: Long)
+}
@@ -0,0 +1,129 @@
+package com.dimowner.audiorecorder.audio
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertNotNull
+import junit.framework.TestCase.assertNull
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class SeekIndexTest {
+
+    @get:Rule
+    val tempFolder = TemporaryFolder()
+
+    private lateinit var corpus: SyntheticAudioCorpus
+
+    @Before
+    fun setUp() {
+        corpus = SyntheticAudioCorpus(tempFolder.root)
+    }
+
+    @Test
+    fun test_m4a_sample_tables() {
+        val (sample, offsets) = corpus.m4aWithSampleTables()
+        val index = SeekIndexBuilder.build(sample.file)
+        assertNotNull(index)
+
+        val expectedTimes = ArrayList<Long>()
+        val expectedOffsets = ArrayList<Long>()
+        for (i in offsets.indices) {
+            val timeUs = i * 1024L * 1000000 / 44100
+            if (expectedTimes.isEmpty() || timeUs - expectedTimes.last() >= SeekIndexBuilder.INTERVAL_US) {
+                expectedTimes.add(timeUs)
+                expectedOffsets.add(offsets[i])
+            }
+        }
+        assertIndex(expectedTimes, expectedOffsets, index!!)
+        assertEquals(sample.expected!!.durationUs, index.durationUs)
+    }
+
+    @Test
+    fun test_mp3_without_vbr_header() {
+        val sample = corpus.mp3VbrWithoutHeader()
+        val index = SeekIndexBuilder.build(sample.file)
+        assertNotNull(index)
+
+        val expectedTimes = ArrayList<Long>()
+        val expectedOffsets = ArrayList<Long>()
+        var offset = 0L
+        for (i in 0 until 400) {
+            val timeUs = i * 1152L * 1000000 / 44100
+            if (expectedTimes.isEmpty() || timeUs - expectedTimes.last() >= SeekIndexBuilder.INTERVAL_US) {
+                expectedTimes.add(timeUs)
+                expectedOffsets.add(offset)
+            }
+            offset += if (i % 2 == 0) 417 else 626
+        }
+        assertIndex(expectedTimes, expectedOffsets, index!!)
+        assertEquals(sample.expected!!.durationUs, index.durationUs)
+    }
+
+    @Test
+    fun test_mp3_vbr_header_frame_is_not_indexed() {
+        val index = SeekIndexBuilder.build(corpus.mp3Xing().file)
+        assertNotNull(index)
+        assertEquals(0L, index!!.getTimeUs(0))
+        assertEquals(417L, index.getOffset(0))
+        assertEquals(20 * 1152L * 1000000 / 44100, index.durationUs)
+    }
+
+    @Test
+    fun test_amr() {
+        val index = SeekIndexBuilder.build(corpus.amrNb().file)
+        assertNotNull(index)
+        //150 frames of 20 ms: a sync point every 25 frames.
+        assertEquals(6, index!!.size())
+        for (i in 0 until index.size()) {
+            assertEquals(i * 500000L, index.getTimeUs(i))
+            assertEquals(6L + i * 25 * 32, index.getOffset(i))
+        }
+        assertEquals(3000000L, index.durationUs)
+    }
+
+    @Test
+    fun test_formats_without_index() {
+        assertNull(SeekIndexBuilder.build(corpus.wav().file))
+        assertNull(SeekIndexBuilder.build(corpus.flac().file))
+        assertNull(SeekIndexBuilder.build(corpus.unknown().file))
+    }
+
+    @Test
+    fun test_find_sync_point() {
+        val index = SeekIndex(longArrayOf(0, 500000, 1000000), longArrayOf(10, 2000, 4000), 1400000)
+        assertEquals(0, index.findSyncPoint(-1))
+        assertEquals(0, index.findSyncPoint(499999))
+        assertEquals(1, index.findSyncPoint(500000))
+        assertEquals(2, index.findSyncPoint(5000000))
+        assertEquals(500000L, index.getSyncTimeUs(700000))
+        assertEquals(4000L, index.getSyncOffset(1200000))
+        assertEquals(-1, SeekIndex(LongArray(0), LongArray(0), 0).findSyncPoint(100))
+    }
+
+    @Test
+    fun test_serialization() {
+        val (sample, _) = corpus.m4aWithSampleTables()
+        val index = SeekIndexBuilder.build(sample.file)!!
+        val bytes = index.toBytes()
+        val restored = SeekIndex.fromBytes(bytes)
+        assertNotNull(restored)
+        assertEquals(index.durationUs, restored!!.durationUs)
+        assertEquals(index.size(), restored.size())
+        for (i in 0 until index.size()) {
+            assertEquals(index.getTimeUs(i), restored.getTimeUs(i))
+            assertEquals(index.getOffset(i), restored.getOffset(i))
+        }
+        assertNull(SeekIndex.fromBytes(bytes.copyOf(bytes.size / 2)))
+        assertNull(SeekIndex.fromBytes(ByteArray(16) { 0x7F }))
+        assertNull(SeekIndex.fromBytes(null))
+    }
+
+    private fun assertIndex(expectedTimes: List<Long>, expectedOffsets: List<Long>, index: SeekIndex) {
+        assertEquals(expectedTimes.size, index.size())
+        for (i in expectedTimes.indices) {
+            assertEquals(expectedTimes[i], index.getTimeUs(i))
+            assertEquals(expectedOffsets[i], index.getOffset(i))
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.dimowner.audiorecorder.audio
+
+import java.io.ByteArrayOutputStream
+import java.io.File
+
+/**
+ * Builds small audio files with valid container headers and known parameters.
+ * Payload is filled with zeros, only headers and frame structure are meaningful.
+ */
+class SyntheticAudioCorpus(private val dir: File) {
+
+    class Sample(val file: File, val expected: AudioHeaderInfo?)
+
+    fun buildAll(): List<Sample> = listOf(
+        wav(), rf64(), unfinishedWav(),
+        m4a(), m4aWithVideoTrack(), threeGp(), m4aWithSampleTables().first,
+        amrNb(), amrWb(),
+        mp3Cbr(), mp3Xing(), mp3Vbri(), mp3VbrWithoutHeader(), mp3Mpeg2Mono(),
+        flac(), flacWithId3(),
+        oggVorbis(), oggOpus(),
+        unknown()
+    )
+
+    fun wav(): Sample {
+        val data = ByteArray(44100 * 4 * 2)
+        val out = Bytes()
+        out.ascii("RIFF").u32le(36L + data.size).ascii("WAVE")
+        out.ascii("fmt ").u32le(16).u16le(1).u16le(2).u32le(44100).u32le(44100 * 4).u16le(4).u16le(16)
+        out.ascii("data").u32le(data.size.toLong()).bytes(data)
+        return Sample(write("pcm.wav", out), AudioHeaderInfo(AudioHeaderProber.MIME_RAW, 2000000, 44100, 2, 44100 * 4 * 8))
+    }
+
+    fun rf64(): Sample {
+        val data = ByteArray(48000 * 2 * 3)
+        val out = Bytes()
+        out.ascii("RF64").u32le(0xFFFFFFFFL).ascii("WAVE")
+        out.ascii("ds64").u32le(28).u64le(4L + 36 + 8 + data.size).u64le(data.size.toLong()).u64le(48000L * 3).u32le(0)
+        out.ascii("fmt ").u32le(16).u16le(1).u16le(1).u32le(48000).u32le(48000 * 2).u16le(2).u16le(16)
+        out.ascii("data").u32le(0xFFFFFFFFL).bytes(data)
+        return Sample(write("long.wav", out), AudioHeaderInfo(AudioHeaderProber.MIME_RAW, 3000000, 48000, 1, 48000 * 2 * 8))
+    }
+
+    fun unfinishedWav(): Sample {
+        val data = ByteArray(16000 * 2)
+        val out = Bytes()
+        out.ascii("RIFF").u32le(0).ascii("WAVE")
+        out.ascii("fmt ").u32le(16).u16le(1).u16le(1).u32le(16000).u32le(16000 * 2).u16le(2).u16le(16)
+        out.ascii("data").u32le(0).bytes(data)
+        return Sample(write("unfinished.wav", out), AudioHeaderInfo(AudioHeaderProber.MIME_RAW, 1000000, 16000, 1, 16000 * 2 * 8))
+    }
+
+    fun m4a(): Sample {
+        val out = Bytes()
+        out.bytes(box("ftyp", Bytes().ascii("M4A ").u32be(0).ascii("isomM4A ").toByteArray()))
+        out.bytes(box("mdat", ByteArray(4000)))
+        out.bytes(moov(mvhd(1000, 3000), audioTrak("mp4a", 44100, 2, 44100, 44100L * 3, 128000, false)))
+        return Sample(write("rec.m4a", out), AudioHeaderInfo(AudioHeaderProber.MIME_AAC, 3000000, 44100, 2, 128000))
+    }
+
+    fun m4aWithVideoTrack(): Sample {
+        val out = Bytes()
+        out.bytes(box("ftyp", Bytes().ascii("isom").u32be(0).ascii("isom").toByteArray()))
+        out.bytes(moov(mvhd(600, 6000), videoTrak(), audioTrak("mp4a", 48000, 1, 48000, 48000L * 10, 64000, false)))
+        out.bytes(box("mdat", ByteArray(1000)))
+        return Sample(write("video.mp4", out), AudioHeaderInfo(AudioHeaderProber.MIME_AAC, 10000000, 48000, 1, 64000))
+    }
+
+    fun threeGp(): Sample {
+        val out = Bytes()
+        out.bytes(box("ftyp", Bytes().ascii("3gp4").u32be(0).ascii("isom3gp4").toByteArray()))
+        out.bytes(box("mdat", ByteArray(1525)))
+        out.bytes(moov(mvhd(1000, 5000), audioTrak("samr", 8000, 1, 8000, 8000L * 5, 0, true)))
+        val file = write("rec.3gp", out)
+        val bitrate = (file.length() * 8 / 5).toInt()
+        return Sample(file, AudioHeaderInfo(AudioHeaderProber.MIME_AMR_NB, 5000000, 8000, 1, bitrate))
+    }
+
+    /**
+     * AAC track with real sample tables: variable sample sizes, two chunk layouts and a shorter
+     * last sample. Returns the file and byte offsets of all samples.
+     */
+    fun m4aWithSampleTables(): Pair<Sample, LongArray> {
+        val sampleCount = 200
+        val sizes = IntArray(sampleCount) { 300 + it % 7 * 10 }
+        val ftyp = box("ftyp", Bytes().ascii("M4A ").u32be(0).ascii("isomM4A ").toByteArray())
+        val dataStart = ftyp.size + 8L
+        val offsets = LongArray(sampleCount)
+        var offset = dataStart
+        for (i in 0 until sampleCount) {
+            offsets[i] = offset
+            offset += sizes[i]
+        }
+        //Chunks 1-10 contain 10 samples each, the rest contain 5 samples.
+        val chunkOffsets = ArrayList<Long>()
+        var sample = 0
+        while (sample < sampleCount) {
+            chunkOffsets.add(offsets[sample])
+            sample += if (chunkOffsets.size <= 10) 10 else 5
+        }
+        val stts = Bytes().u32be(0).u32be(2).u32be(sampleCount - 1L).u32be(1024).u32be(1).u32be(512)
+        val stsc = Bytes().u32be(0).u32be(2).u32be(1).u32be(10).u32be(1).u32be(11).u32be(5).u32be(1)
+        val stsz = Bytes().u32be(0).u32be(0).u32be(sampleCount.toLong())
+        sizes.forEach { stsz.u32be(it.toLong()) }
+        val stco = Bytes().u32be(0).u32be(chunkOffsets.size.toLong())
+        chunkOffsets.forEach { stco.u32be(it) }
+        val tables = box("stts", stts.toByteArray()) + box("stsc", stsc.toByteArray()) +
+                box("stsz", stsz.toByteArray()) + box("stco", stco.toByteArray())
+        val duration = (sampleCount - 1L) * 1024 + 512
+
+        val out = Bytes()
+        out.bytes(ftyp)
+        out.bytes(box("mdat", ByteArray(sizes.sum())))
+        out.bytes(moov(mvhd(1000, duration * 1000 / 44100), audioTrak("mp4a", 44100, 2, 44100, duration, 96000, false, tables)))
+        val info = AudioHeaderInfo(AudioHeaderProber.MIME_AAC, duration * 1000000 / 44100, 44100, 2, 96000)
+        return Pair(Sample(write("tables.m4a", out), info), offsets)
+    }
+
+    fun amrNb(): Sample {
+        val out = Bytes().ascii("#!AMR\n")
+        repeat(150) {
+            out.u8(7 shl 3 or 0x04).bytes(ByteArray(31))
+        }
+        return Sample(write("rec.amr", out), AudioHeaderInfo(AudioHeaderProber.MIME_AMR_NB, 3000000, 8000, 1, 12200))
+    }
+
+    fun amrWb(): Sample {
+        val out = Bytes().ascii("#!AMR-WB\n")
+        repeat(100) {
+            out.u8(8 shl 3 or 0x04).bytes(ByteArray(60))
+        }
+        return Sample(write("wb.amr", out), AudioHeaderInfo(AudioHeaderProber.MIME_AMR_WB, 2000000, 16000, 1, 23850))
+    }
+
+    fun mp3Cbr(): Sample {
+        val out = Bytes()
+        id3v2(out, 100)
+        val frames = 300
+        repeat(frames) { mp3Frame(out, 0xFFFB9000L, 417) }
+        out.ascii("TAG").bytes(ByteArray(125))
+        val durationUs = frames * 417L * 8 * 1000000 / 128000
+        return Sample(write("cbr.mp3", out), AudioHeaderInfo(AudioHeaderProber.MIME_MPEG, durationUs, 44100, 2, 128000))
+    }
+
+    fun mp3Xing(): Sample {
+        val out = Bytes()
+        val frames = 1000L
+        val bytes = 500000L
+        val first = ByteArray(417)
+        writeU32be(first, 0, 0xFFFB9000L)
+        "Xing".toByteArray().copyInto(first, 4 + 32)
+        writeU32be(first, 4 + 32 + 4, 3)
+        writeU32be(first, 4 + 32 + 8, frames)
+        writeU32be(first, 4 + 32 + 12, bytes)
+        out.bytes(first)
+        repeat(20) { mp3Frame(out, 0xFFFBB000L, 626) }
+        val durationUs = frames * 1152 * 1000000 / 44100
+        return Sample(write("xing.mp3", out), AudioHeaderInfo(AudioHeaderProber.MIME_MPEG, durationUs, 44100, 2, (bytes * 8 * 1000000 / durationUs).toInt()))
+    }
+
+    fun mp3Vbri(): Sample {
+        val out = Bytes()
+        val frames = 2000L
+        val bytes = 900000L
+        val first = ByteArray(417)
+        writeU32be(first, 0, 0xFFFB9000L)
+        "VBRI".toByteArray().copyInto(first, 36)
+        writeU32be(first, 36 + 10, bytes)
+        writeU32be(first, 36 + 14, frames)
+        out.bytes(first)
+        repeat(20) { mp3Frame(out, 0xFFFB9000L, 417) }
+        val durationUs = frames * 1152 * 1000000 / 44100
+        return Sample(write("vbri.mp3", out), AudioHeaderInfo(AudioHeaderProber.MIME_MPEG, durationUs, 44100, 2, (bytes * 8 * 1000000 / durationUs).toInt()))
+    }
+
+    fun mp3VbrWithoutHeader(): Sample {
+        val out = Bytes()
+        val frames = 400
+        var bytes = 0L
+        for (i in 0 until frames) {
+            if (i % 2 == 0) {
+                mp3Frame(out, 0xFFFB9000L, 417)
+                bytes += 417
+            } else {
+                mp3Frame(out, 0xFFFBB000L, 626)
+                bytes += 626
+            }
+        }
+        val durationUs = frames * 1152L * 1000000 / 44100
+        return Sample(write("vbr.mp3", out), AudioHeaderInfo(AudioHeaderProber.MIME_MPEG, durationUs, 44100, 2, (bytes * 8 * 1000000 / durationUs).toInt()))
+    }
+
+    fun mp3Mpeg2Mono(): Sample {
+        val out = Bytes()
+        val frames = 250
+        repeat(frames) { mp3Frame(out, 0xFFF380C0L, 208) }
+        val durationUs = frames * 208L * 8 * 1000000 / 64000
+        return Sample(write("mono.mp3", out), AudioHeaderInfo(AudioHeaderProber.MIME_MPEG, durationUs, 22050, 1, 64000))
+    }
+
+    fun flac(): Sample {
+        val out = Bytes().ascii("fLaC")
+        streamInfo(out, 44100, 2, 16, 44100L * 5)
+        out.bytes(ByteArray(20000))
+        val file = write("rec.flac", out)
+        return Sample(file, AudioHeaderInfo(AudioHeaderProber.MIME_FLAC, 5000000, 44100, 2, (file.length() * 8 / 5).toInt()))
+    }
+
+    fun flacWithId3(): Sample {
+        val out = Bytes()
+        id3v2(out, 50)
+        out.ascii("fLaC")
+        streamInfo(out, 96000, 1, 24, 96000L * 2)
+        out.bytes(ByteArray(10000))
+        val file = write("tagged.flac", out)
+        return Sample(file, AudioHeaderInfo(AudioHeaderProber.MIME_FLAC, 2000000, 96000, 1, ((file.length() - 60) * 8 / 2).toInt()))
+    }
+
+    fun oggVorbis(): Sample {
+        val id = Bytes().u8(1).ascii("vorbis").u32le(0).u8(2).u32le(44100)
+            .u32le(0).u32le(96000).u32le(0).u8(0xB8).u8(1)
+        val out = Bytes()
+        oggPage(out, 0x02, 0, 1234, 0, id.toByteArray())
+        oggPage(out, 0x00, 44100L * 2, 1234, 1, ByteArray(200))
+        oggPage(out, 0x04, 44100L * 4, 1234, 2, ByteArray(200))
+        return Sample(write("rec.ogg", out), AudioHeaderInfo(AudioHeaderProber.MIME_VORBIS, 4000000, 44100, 2, 96000))
+    }
+
+    fun oggOpus(): Sample {
+        val head = Bytes().ascii("OpusHead").u8(1).u8(2).u16le(312).u32le(48000).u16le(0).u8(0)
+        val out = Bytes()
+        oggPage(out, 0x02, 0, 77, 0, head.toByteArray())
+        oggPage(out, 0x00, 0, 77, 1, Bytes().ascii("OpusTags").bytes(ByteArray(20)).toByteArray())
+        oggPage(out, 0x04, 48000L * 2 + 312, 77, 2, ByteArray(300))
+        //Trailing page of another logical stream must be ignored.
+        oggPage(out, 0x04, 999999, 78, 0, ByteArray(10))
+        val file = write("rec.opus", out)
+        return Sample(file, AudioHeaderInfo(AudioHeaderProber.MIME_OPUS, 2000000, 48000, 2, (file.length() * 8 / 2).toInt()))
+    }
+
+    fun unknown(): Sample {
+        val out = Bytes().ascii("This is not an audio file at all").bytes(ByteArray(1000))
+        return Sample(write("text.aac", out), null)
+    }
+
+    private fun moov(vararg children: ByteArray): ByteArray {
+        val content = Bytes()
+        children.forEach { content.bytes(it) }
+        return box("moov", content.toByteArray())
+    }
+
+    private fun mvhd(timescale: Long, duration: Long): ByteArray {
+        val b = Bytes().u32be(0).u32be(0).u32be(0).u32be(timescale).u32be(duration).bytes(ByteArray(80))
+        return box("mvhd", b.toByteArray())
+    }
+
+    private fun videoTrak(): ByteArray {
+        val hdlr = box("hdlr", Bytes().u32be(0).u32be(0).ascii("vide").bytes(ByteArray(13)).toByteArray())
+        val mdhd = box("mdhd", Bytes().u32be(0).u32be(0).u32be(0).u32be(600).u32be(6000).u32be(0).toByteArray())
+        return box("trak", box("mdia", mdhd + hdlr))
+    }
+
+    private fun audioTrak(type: String, sampleRate: Int, channels: Int, timescale: Long, duration: Long,
+                          avgBitrate: Long, mdhdVersion1: Boolean,
+                          sampleTables: ByteArray = box("stts", ByteArray(8))): ByteArray {
+        val mdhd = if (mdhdVersion1) {
+            Bytes().u32be(0x01000000).u64be(0).u64be(0).u32be(timescale).u64be(duration).u32be(0)
+        } else {
+            Bytes().u32be(0).u32be(0).u32be(0).u32be(timescale).u32be(duration).u32be(0)
+        }
+        val hdlr = box("hdlr", Bytes().u32be(0).u32be(0).ascii("soun").bytes(ByteArray(13)).toByteArray())
+        val entry = Bytes().bytes(ByteArray(6)).u16be(1).bytes(ByteArray(8))
+            .u16be(channels).u16be(16).u16be(0).u16be(0).u32be(sampleRate.toLong() shl 16)
+        if (type == "mp4a") {
+            val decoderConfig = Bytes().u8(0x40).u8(0x15).u8(0).u16be(0).u32be(avgBitrate + 1000).u32be(avgBitrate)
+                .u8(0x05).u8(0x80).u8(0x80).u8(0x80).u8(2).u8(0x12).u8(0x10)
+            val es = Bytes().u16be(1).u8(0)
+                .u8(0x04).u8(0x80).u8(0x80).u8(0x80).u8(decoderConfig.size()).bytes(decoderConfig.toByteArray())
+                .u8(0x06).u8(1).u8(2)
+            val esds = Bytes().u32be(0).u8(0x03).u8(es.size()).bytes(es.toByteArray())
+            entry.bytes(box("esds", esds.toByteArray()))
+        } else {
+            entry.bytes(box("damr", ByteArray(9)))
+        }
+        val stsd = box("stsd", Bytes().u32be(0).u32be(1).bytes(box(type, entry.toByteArray())).toByteArray())
+        val stbl = box("stbl", stsd + sampleTables)
+        val minf = box("minf", box("smhd", ByteArray(8)) + stbl)
+        return box("trak", box("tkhd", ByteArray(84)) + box("mdia", box("mdhd", mdhd.toByteArray()) + hdlr + minf))
+    }
+
+    private fun box(type: String, content: ByteArray): ByteArray {
+        return Bytes().u32be(8L + content.size).ascii(type).bytes(content).toByteArray()
+    }
+
+    private fun id3v2(out: Bytes, size: Int) {
+        out.ascii("ID3").u8(4).u8(0).u8(0)
+            .u8(size shr 21 and 0x7F).u8(size shr 14 and 0x7F).u8(size shr 7 and 0x7F).u8(size and 0x7F)
+            .bytes(ByteArray(size))
+    }
+
+    private fun mp3Frame(out: Bytes, header: Long, length: Int) {
+        out.u32be(header).bytes(ByteArray(length - 4))
+    }
+
+    private fun streamInfo(out: Bytes, sampleRate: Int, channels: Int, bitsPerSample: Int, totalSamples: Long) {
+        out.u8(0x80).u8(0).u8(0).u8(34)
+        out.u16be(4096).u16be(4096).u8(0).u16be(0).u8(0).u16be(0)
+        val packed = (sampleRate.toLong() shl 44) or ((channels - 1).toLong() shl 41) or
+                ((bitsPerSample - 1).toLong() shl 36) or totalSamples
+        out.u64be(packed)
+        out.bytes(ByteArray(16))
+    }
+
+    private fun oggPage(out: Bytes, headerType: Int, granule: Long, serial: Long, sequence: Long, packet: ByteArray) {
+        out.ascii("OggS").u8(0).u8(headerType).u64le(granule).u32le(serial).u32le(sequence).u32le(0)
+        val segments = packet.size / 255 + 1
+        out.u8(segments)
+        repeat(segments - 1) { out.u8(255) }
+        out.u8(packet.size % 255)
+        out.bytes(packet)
+    }
+
+    private fun writeU32be(b: ByteArray, offset: Int, value: Long) {
+        b[offset] = (value shr 24).toByte()
+        b[offset + 1] = (value shr 16).toByte()
+        b[offset + 2] = (value shr 8).toByte()
+        b[offset + 3] = value.toByte()
+    }
+
+    private fun write(name: String, bytes: Bytes): File {
+        val file = File(dir, name)
+        file.writeBytes(bytes.toByteArray())
+        return file
+    }
+
+    private class Bytes {
+        private val out = ByteArrayOutputStream()
+
+        fun u8(v: Int) = apply { out.write(v and 0xFF) }
+        fun u16be(v: Int) = apply { u8(v shr 8).u8(v) }
+        fun u32be(v: Long) = apply { u8((v shr 24).toInt()).u8((v shr 16).toInt()).u8((v shr 8).toInt()).u8(v.toInt()) }
+        fun u64be(v: Long) = apply { u32be(v ushr 32).u32be(v and 0xFFFFFFFFL) }
+        fun u16le(v: Int) = apply { u8(v).u8(v shr 8) }
+        fun u32le(v: Long) = apply { u8(v.toInt()).u8((v shr 8).toInt()).u8((v shr 16).toInt()).u8((v shr 24).toInt()) }
+        fun u32le(v: Int) = u32le(v.toLong())
+        fun u64le(v: Long) = apply { u32le(v and 0xFFFFFFFFL).u32le(v ushr 32) }
+        fun ascii(s: String) = apply { out.write(s.toByteArray(Charsets.US_ASCII)) }
+        fun bytes(b: ByteArray) = apply { out.write(b) }
+        fun size() = out.size()
+        fun toByteArray(): ByteArray = out.toByteArray()
+    }
+}
@@ -0,0 +1,38 @@
+package com.dimowner.audiorecorder.audio.recorder
+
+import junit.framework.TestCase.assertEquals
+import org.junit.Test
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import kotlin.random.Random
+
+class WavUtilsTest {
+
+    @Test
+    fun level_is_mean_of_absolute_little_endian_samples() {
+        val samples = ShortArray(1792) { Random(it).nextInt(Short.MIN_VALUE.toInt(), Short.MAX_VALUE + 1).toShort() }
+        samples[0] = Short.MIN_VALUE
+        samples[1] = Short.MAX_VALUE
+        val buffer = ByteBuffer.allocate(samples.size * 2).order(ByteOrder.LITTLE_ENDIAN)
+        samples.forEach { buffer.putShort(it) }
+        val expected = samples.sumOf { Math.abs(it.toInt()).toLong() } / (samples.size * 2 / 16)
+
+        assertEquals(expected.toInt(), WavUtils.computeLevel(buffer.array(), samples.size * 2))
+    }
+
+    @Test
+    fun header_describes_pcm_data() {
+        val header = ByteBuffer.wrap(WavUtils.generateHeader(1000, 1036, 44100, 2, 176400))
+            .order(ByteOrder.LITTLE_ENDIAN)
+
+        assertEquals(WavUtils.HEADER_SIZE, header.capacity())
+        assertEquals(1036, header.getInt(4))
+        assertEquals(1, header.getShort(20).toInt())
+        assertEquals(2, header.getShort(22).toInt())
+        assertEquals(44100, header.getInt(24))
+        assertEquals(176400, header.getInt(28))
+        assertEquals(4, header.getShort(32).toInt())
+        assertEquals(16, header.getShort(34).toInt())
+        assertEquals(1000, header.getInt(40))
+    }
+}
@@ -0,0 +1,62 @@
+package com.dimowner.audiorecorder.audio.spectrogram
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.Test
+import kotlin.math.PI
+import kotlin.math.abs
+import kotlin.math.cos
+import kotlin.math.sin
+import kotlin.random.Random
+
+class RealFftTest {
+
+    @Test
+    fun test_power_spectrum_equals_naive_dft() {
+        val random = Random(7)
+        for (size in intArrayOf(4, 8, 64, 512, 2048)) {
+            val input = FloatArray(size) { random.nextInt(-32768, 32768).toFloat() }
+            val power = FloatArray(size / 2)
+            RealFft(size).powerSpectrum(input, 0, power)
+            val expected = naivePowerSpectrum(input)
+            val maxPower = expected.maxOrNull()!!
+            for (k in 0 until size / 2) {
+                assertEquals("size $size bin $k", expected[k], power[k].toDouble(), maxPower * 1e-4)
+            }
+        }
+    }
+
+    @Test
+    fun test_full_scale_sine_peak() {
+        val size = 2048
+        val bin = 100
+        val input = FloatArray(size + 10) { i ->
+            if (i < 10) 0f else (32767 * sin(2 * PI * bin * (i - 10) / size)).toFloat()
+        }
+        val power = FloatArray(size / 2)
+        val fft = RealFft(size)
+        fft.powerSpectrum(input, 10, power)
+        val peak = power.indices.maxByOrNull { power[it] }
+        assertEquals(bin, peak)
+        assertTrue(abs(power[bin] / fft.fullScalePower - 1) < 0.01)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun test_size_not_power_of_two() {
+        RealFft(1000)
+    }
+
+    private fun naivePowerSpectrum(input: FloatArray): DoubleArray {
+        val n = input.size
+        return DoubleArray(n / 2) { k ->
+            var re = 0.0
+            var im = 0.0
+            for (i in 0 until n) {
+                val w = 0.5 - 0.5 * cos(2 * PI * i / n)
+                re += input[i] * w * cos(2 * PI * k * i / n)
+                im -= input[i] * w * sin(2 * PI * k * i / n)
+            }
+            re * re + im * im
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dimowner.audiorecorder.audio.spectrogram
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.Assert.assertArrayEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.nio.ShortBuffer
+import kotlin.math.PI
+import kotlin.math.sin
+import kotlin.random.Random
+
+class SpectrogramAnalyzerTest {
+
+    @get:Rule
+    val tempFolder = TemporaryFolder()
+
+    private val sampleRate = 44100
+    private val channelCount = 2
+
+    @Test
+    fun test_tiles_started_from_the_middle_equal_full_run() {
+        val random = Random(3)
+        val frames = sampleRate * 35 + 777
+        val pcm = ShortArray(frames * channelCount) { random.nextInt(-20000, 20000).toShort() }
+        val expected = analyze(pcm, 0, 0)
+        assertEquals(SpectrogramTile.tileCount(frames * 1000L / sampleRate), expected.size)
+
+        val hop = sampleRate / SpectrogramTile.COLUMNS_PER_SECOND
+        for (firstTile in 1 until expected.size) {
+            //Decoder seeks to a sync frame before the tile start.
+            val startFrame = maxOf(0, firstTile * SpectrogramTile.COLUMNS * hop - random.nextInt(5000))
+            val tiles = analyze(pcm, firstTile, startFrame)
+            assertEquals(expected.size - firstTile, tiles.size)
+            for (tile in tiles) {
+                val full = expected[tile.index]
+                assertEquals(full.columnCount, tile.columnCount)
+                assertArrayEquals(full.data, tile.data)
+            }
+        }
+    }
+
+    @Test
+    fun test_sine_is_in_expected_bin() {
+        val frequency = 5000.0
+        val pcm = ShortArray(sampleRate * 12 * channelCount) { i ->
+            (16000 * sin(2 * PI * frequency * (i / channelCount) / sampleRate)).toInt().toShort()
+        }
+        val tiles = analyze(pcm, 0, 0)
+        val expectedBin = (frequency / (sampleRate / 2.0) * SpectrogramTile.BINS).toInt()
+        val tile = tiles[0]
+        for (col in 10 until tile.columnCount) {
+            val peak = (0 until SpectrogramTile.BINS).maxByOrNull { tile.getLevel(col, it) }
+            assertEquals(expectedBin, peak)
+            assertTrue(tile.getLevel(col, 0) < tile.getLevel(col, expectedBin) / 2)
+        }
+    }
+
+    @Test
+    fun test_tile_cache_round_trip() {
+        val audio = tempFolder.newFile("record.m4a")
+        audio.writeBytes(ByteArray(100))
+        val cache = SpectrogramTileCache(File(tempFolder.root, "cache"))
+        val data = ByteArray(SpectrogramTile.COLUMNS * SpectrogramTile.BINS) { it.toByte() }
+        cache.save(audio, SpectrogramTile(3, 100, data))
+        val loaded = cache.load(audio, 3)!!
+        assertEquals(3, loaded.index)
+        assertEquals(100, loaded.columnCount)
+        assertArrayEquals(data.copyOf(100 * SpectrogramTile.BINS),
+                loaded.data.copyOf(100 * SpectrogramTile.BINS))
+        assertEquals(null, cache.load(audio, 4))
+
+        //Changed file has new cache entry.
+        audio.writeBytes(ByteArray(200))
+        assertEquals(null, cache.load(audio, 3))
+    }
+
+    private fun analyze(pcm: ShortArray, firstTile: Int, startFrame: Int): List<SpectrogramTile> {
+        val tiles = ArrayList<SpectrogramTile>()
+        val analyzer = SpectrogramAnalyzer(sampleRate, channelCount, firstTile) { tiles.add(it) }
+        var frame = startFrame
+        val frames = pcm.size / channelCount
+        while (frame < frames) {
+            val count = minOf(1152, frames - frame)
+            val ptsUs = frame * 1000000L / sampleRate
+            analyzer.addSamples(ShortBuffer.wrap(pcm, frame * channelCount, count * channelCount), ptsUs)
+            frame += count
+        }
+        analyzer.finish()
+        return tiles
+    }
+}
@@ -0,0 +1,47 @@
+package com.dimowner.audiorecorder.audio.spectrogram
+
+import com.dimowner.audiorecorder.PerfTests
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.Test
+import java.nio.ShortBuffer
+import kotlin.random.Random
+
+/**
+ * Checks count of spectrogram tiles of a long stereo 44.1 kHz record. With [PerfTests] enabled
+ * the record is one hour long and throughput is measured, decoding is not included.
+ * Minimal speed is generous so the test is stable on slow CI machines.
+ */
+class SpectrogramBenchmarkTest {
+
+    @Test
+    fun benchmark_one_hour_record() {
+        val sampleRate = 44100
+        val channelCount = 2
+        val chunkFrames = 4096
+        val random = Random(1)
+        val chunk = ShortArray(chunkFrames * channelCount) { random.nextInt(-20000, 20000).toShort() }
+        var tileCount = 0
+        val analyzer = SpectrogramAnalyzer(sampleRate, channelCount, 0) { tileCount++ }
+        val totalFrames = sampleRate.toLong() * if (PerfTests.isEnabled) PERF_DURATION_SEC else DURATION_SEC
+        val start = System.nanoTime()
+        var frames = 0L
+        while (frames < totalFrames) {
+            analyzer.addSamples(ShortBuffer.wrap(chunk))
+            frames += chunkFrames
+        }
+        analyzer.finish()
+        val elapsedSec = (System.nanoTime() - start) / 1e9
+        assertEquals(SpectrogramTile.tileCount(frames * 1000 / sampleRate), tileCount)
+        if (PerfTests.isEnabled) {
+            val realtimeFactor = frames.toDouble() / sampleRate / elapsedSec
+            assertTrue("Realtime factor $realtimeFactor", realtimeFactor > MIN_REALTIME_FACTOR)
+        }
+    }
+
+    companion object {
+        private const val DURATION_SEC = 300
+        private const val PERF_DURATION_SEC = 3600
+        private const val MIN_REALTIME_FACTOR = 50
+    }
+}
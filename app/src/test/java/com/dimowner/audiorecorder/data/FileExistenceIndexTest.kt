@@ -0,0 +1,120 @@
+package com.dimowner.audiorecorder.data
+
+import android.app.Application
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.File
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = Application::class)
+class FileExistenceIndexTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var index: FileExistenceIndex
+
+    @Before
+    fun setUp() {
+        index = FileExistenceIndex()
+    }
+
+    @After
+    fun tearDown() {
+        index.clear()
+    }
+
+    @Test
+    fun lookup_uses_directory_listing() {
+        val existing = folder.newFile("record_1.m4a")
+        val missing = File(folder.root, "record_2.m4a")
+
+        assertTrue(index.exists(existing.absolutePath))
+        assertFalse(index.exists(missing.absolutePath))
+        assertFalse(index.exists(null))
+    }
+
+    @Test
+    fun own_writes_update_index() {
+        val file = folder.newFile("record_1.m4a")
+        assertTrue(index.exists(file.absolutePath))
+
+        val renamed = File(folder.root, "record_1.m4a.del")
+        assertTrue(file.renameTo(renamed))
+        index.onFileChanged(file.absolutePath)
+        index.onFileChanged(renamed.absolutePath)
+        assertFalse(index.exists(file.absolutePath))
+        assertTrue(index.exists(renamed.absolutePath))
+
+        assertTrue(renamed.delete())
+        index.onFileChanged(renamed.absolutePath)
+        assertFalse(index.exists(renamed.absolutePath))
+    }
+
+    @Test
+    fun reconcile_picks_up_external_changes() {
+        val file = folder.newFile("record_1.m4a")
+        val added = File(folder.root, "record_2.m4a")
+        assertTrue(index.exists(file.absolutePath))
+        assertFalse(index.exists(added.absolutePath))
+
+        //Changes made without notifying the index.
+        assertTrue(file.delete())
+        assertTrue(added.createNewFile())
+        index.reconcile()
+
+        assertFalse(index.exists(file.absolutePath))
+        assertTrue(index.exists(added.absolutePath))
+    }
+
+    @Test
+    fun missing_directory_is_not_indexed() {
+        val dir = File(folder.root, "records")
+        val file = File(dir, "record_1.m4a")
+        assertFalse(index.exists(file.absolutePath))
+
+        assertTrue(dir.mkdir())
+        assertTrue(file.createNewFile())
+        assertTrue(index.exists(file.absolutePath))
+    }
+
+    @Test
+    fun unavailable_directory_is_not_watched_until_reconcile() {
+        val dir = File(folder.root, "records")
+        val file = File(dir, "record_1.m4a")
+        assertFalse(index.exists(file.absolutePath))
+        assertTrue(index.isUnavailable(dir.path))
+
+        //Repeated lookups fall back to the file system without watching the directory.
+        assertTrue(dir.mkdir())
+        assertTrue(file.createNewFile())
+        assertTrue(index.exists(file.absolutePath))
+        assertFalse(index.isIndexed(dir.path))
+
+        index.reconcile()
+        assertFalse(index.isUnavailable(dir.path))
+        assertTrue(index.exists(file.absolutePath))
+        assertTrue(index.isIndexed(dir.path))
+    }
+
+    @Test
+    fun own_write_makes_directory_available() {
+        val dir = File(folder.root, "records")
+        val file = File(dir, "record_1.m4a")
+        assertFalse(index.exists(file.absolutePath))
+
+        assertTrue(dir.mkdir())
+        assertTrue(file.createNewFile())
+        index.onFileChanged(file.absolutePath)
+        assertTrue(index.exists(file.absolutePath))
+        assertTrue(index.isIndexed(dir.path))
+    }
+}
@@ -0,0 +1,91 @@
+package com.dimowner.audiorecorder.data.database
+
+import com.dimowner.audiorecorder.TaskExecutor
+import com.dimowner.audiorecorder.exception.FailedToRestoreRecord
+import io.mockk.MockKAnnotations
+import io.mockk.Runs
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.just
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class AsyncLocalRepositoryTest {
+
+    @MockK
+    lateinit var localRepository: LocalRepository
+
+    private lateinit var executor: TaskExecutor
+    private lateinit var repository: AsyncLocalRepository
+
+    @Before
+    fun setUp() {
+        MockKAnnotations.init(this)
+        every { localRepository.open() } just Runs
+        executor = TaskExecutor(3)
+        repository = AsyncLocalRepository(localRepository, executor) { it.run() }
+    }
+
+    @After
+    fun tearDown() {
+        repository.release()
+        executor.release()
+    }
+
+    @Test
+    fun long_write_does_not_delay_reads() {
+        val writeStarted = CountDownLatch(1)
+        val finishWrite = CountDownLatch(1)
+        every { localRepository.emptyTrash() } answers {
+            writeStarted.countDown()
+            finishWrite.await()
+            true
+        }
+        every { localRepository.getTrashRecordsCount() } returns 3
+        every { localRepository.removeFromTrash(5) } returns true
+
+        val purge = repository.write("emptyTrash") { it.emptyTrash() }
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS))
+        val remove = repository.removeFromTrash(5)
+
+        assertEquals(3, repository.trashRecordsCount.get(5, TimeUnit.SECONDS))
+        assertFalse(purge.isDone)
+        //Writes run one by one.
+        assertFalse(remove.isDone)
+        finishWrite.countDown()
+        assertTrue(purge.get(5, TimeUnit.SECONDS))
+        assertTrue(remove.get(5, TimeUnit.SECONDS))
+        assertTrue(remove.queueWaitMillis >= 0)
+        val names = executor.stats.map { it.name }
+        assertTrue(names.contains("repository.removeFromTrash"))
+        assertTrue(names.contains("repository.getTrashRecordsCount"))
+    }
+
+    @Test
+    fun result_and_error_are_delivered_to_listeners() {
+        every { localRepository.getTrashRecordsCount() } returns 2
+        every { localRepository.restoreFromTrash(7) } throws FailedToRestoreRecord()
+        val delivered = CountDownLatch(2)
+        var count = 0
+        var error: Exception? = null
+
+        repository.trashRecordsCount.onResult {
+            count = it
+            delivered.countDown()
+        }
+        repository.restoreFromTrash(7).onResult({}, {
+            error = it
+            delivered.countDown()
+        })
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS))
+        assertEquals(2, count)
+        assertTrue(error is FailedToRestoreRecord)
+    }
+}
@@ -0,0 +1,127 @@
+package com.dimowner.audiorecorder.data.database
+
+import android.app.Application
+import android.database.sqlite.SQLiteDatabaseLockedException
+import com.dimowner.audiorecorder.PerfTests
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.SQLiteMode
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+/**
+ * Readers load the records list while writers update records and move them into trash inside
+ * long transactions. Nobody fails on a locked database. With write-ahead logging readers never
+ * wait for the writers, read latency is checked with [PerfTests] enabled.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(application = Application::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class DatabaseConcurrencyTest {
+
+    @Test
+    fun readers_are_not_blocked_by_writers() {
+        val application = RuntimeEnvironment.getApplication()
+        val records = RecordsDataSource.getInstance(application)
+        val trash = TrashDataSource.getInstance(application)
+        records.open()
+        trash.open()
+        val ids = (0 until RECORDS_COUNT).map { records.insertItem(createRecord(it))!!.id }
+
+        val errors = Collections.synchronizedList(ArrayList<Throwable>())
+        val readLatenciesMs = Collections.synchronizedList(ArrayList<Long>())
+        val writes = AtomicInteger()
+        val start = CountDownLatch(1)
+        val db = SQLiteHelper.getInstance(application).writableDatabase
+        val deadline = System.currentTimeMillis() + DURATION_MILLS
+
+        val writers = (0 until WRITERS_COUNT).map { writer ->
+            thread {
+                start.await()
+                var i = writer
+                try {
+                    while (System.currentTimeMillis() < deadline) {
+                        db.beginTransaction()
+                        try {
+                            //Update after recording rewrites the record and its waveform.
+                            val rec = records.getItem(ids[i % ids.size])
+                            if (rec != null) {
+                                records.updateItem(rec)
+                                //Move to trash and back keeps the record id.
+                                trash.insertItem(rec)
+                                records.deleteItem(rec.id)
+                                records.insertItem(rec)
+                                trash.deleteItem(rec.id)
+                            }
+                            Thread.sleep(WRITE_TRANSACTION_MILLS)
+                            db.setTransactionSuccessful()
+                        } finally {
+                            db.endTransaction()
+                        }
+                        writes.incrementAndGet()
+                        i += WRITERS_COUNT
+                    }
+                } catch (e: Throwable) {
+                    errors.add(e)
+                }
+            }
+        }
+        val readers = (0 until READERS_COUNT).map {
+            thread {
+                start.await()
+                try {
+                    while (System.currentTimeMillis() < deadline) {
+                        val readStart = System.nanoTime()
+                        records.getRecords(SQLiteHelper.COLUMN_DATE_ADDED, true, null, 0)
+                        records.getCount()
+                        readLatenciesMs.add((System.nanoTime() - readStart) / 1_000_000)
+                    }
+                } catch (e: Throwable) {
+                    errors.add(e)
+                }
+            }
+        }
+        start.countDown()
+        (writers + readers).forEach { it.join() }
+
+        assertTrue("Locked: $errors", errors.none { it is SQLiteDatabaseLockedException })
+        assertEquals(emptyList<Throwable>(), errors)
+        assertTrue("No writes completed", writes.get() > 0)
+        assertTrue("No reads completed", readLatenciesMs.isNotEmpty())
+        if (PerfTests.isEnabled) {
+            val sorted = readLatenciesMs.sorted()
+            val p99 = sorted[sorted.size * 99 / 100]
+            //Reads would wait for every write transaction without WAL.
+            assertTrue("Read p99 latency $p99 ms", p99 < WRITE_TRANSACTION_MILLS / 2)
+        }
+    }
+
+    @After
+    fun tearDown() {
+        RecordsDataSource.clearInstance()
+        TrashDataSource.clearInstance()
+        SQLiteHelper.clearInstance()
+    }
+
+    private fun createRecord(index: Int) = Record(
+        Record.NO_ID, "Record-$index", 60_000L + index, 1_600_000_000_000L + index,
+        1_600_000_000_000L + index, 0, "/records/record_$index.m4a", "m4a", 1024, 44100, 1, 128000,
+        false, true, IntArray(1000) { it % 255 }
+    )
+
+    companion object {
+        private const val RECORDS_COUNT = 500
+        private const val WRITERS_COUNT = 2
+        private const val READERS_COUNT = 3
+        private const val DURATION_MILLS = 3000L
+        private const val WRITE_TRANSACTION_MILLS = 100L
+    }
+}
@@ -0,0 +1,311 @@
+package com.dimowner.audiorecorder.data.database
+
+import android.app.Application
+import android.content.Context
+import com.dimowner.audiorecorder.AppConstants
+import com.dimowner.audiorecorder.PerfTests
+import com.dimowner.audiorecorder.data.FileRepository
+import com.dimowner.audiorecorder.data.Prefs
+import io.mockk.mockk
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.SQLiteMode
+import java.io.File
+import kotlin.random.Random
+
+/**
+ * Seeds a library of 10k and 100k records with waveforms and checks results of operations of
+ * LocalRepositoryImpl. With [PerfTests] enabled it also checks that they stay within latency and
+ * memory budgets, and runs the 100k library. Budgets are generous so the test is stable on slow
+ * machines, while a full table scan or waveforms loaded with lists exceed them.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(application = Application::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class LocalRepositoryScaleTest {
+
+    private class Library(val ids: List<Int>, val paths: List<String>, val bookmarksCount: Int,
+                          val lostCount: Int, val outdatedTrashCount: Int)
+
+    private val files = LibraryFileRepository()
+    private lateinit var repository: LocalRepository
+
+    @Before
+    fun setUp() {
+        val application = RuntimeEnvironment.getApplication()
+        repository = LocalRepositoryImpl.getInstance(
+            RecordsDataSource.getInstance(application),
+            TrashDataSource.getInstance(application),
+            files,
+            mockk<Prefs>(relaxed = true)
+        )
+        repository.open()
+    }
+
+    @After
+    fun tearDown() {
+        LocalRepositoryImpl.clearInstance()
+        RecordsDataSource.clearInstance()
+        TrashDataSource.clearInstance()
+        SQLiteHelper.clearInstance()
+    }
+
+    @Test
+    fun scale_10k_records() {
+        runSuite(10_000)
+    }
+
+    @Test
+    fun scale_100k_records() {
+        assumeTrue(PerfTests.isEnabled)
+        runSuite(100_000)
+    }
+
+    private fun runSuite(count: Int) {
+        val random = Random(count)
+        val library = seed(RuntimeEnvironment.getApplication(), count, random)
+        checkPages(library, random)
+        checkFindByPath(library, random)
+        checkBookmarks(library)
+        checkLostRecords(library)
+        checkTrashExpiry(library)
+        checkBulkDeletes(library)
+    }
+
+    private fun checkPages(library: Library, random: Random) {
+        val orders = intArrayOf(
+            AppConstants.SORT_DATE, AppConstants.SORT_DATE_DESC,
+            AppConstants.SORT_NAME, AppConstants.SORT_NAME_DESC,
+            AppConstants.SORT_DURATION, AppConstants.SORT_DURATION_DESC
+        )
+        val afterRecords = List(PAGES) { repository.getRecord(library.ids[random.nextInt(library.ids.size)])!! }
+        for (order in orders) {
+            val first = median(PAGES) {
+                assertEquals(AppConstants.DEFAULT_PER_PAGE, repository.getRecords(null, order).size)
+            }
+            var page = 0
+            val deep = median(PAGES) {
+                repository.getRecords(afterRecords[page++], order)
+            }
+            assertBudget("First page of order $order took $first us", first < PAGE_BUDGET_US)
+            assertBudget("Page of order $order took $deep us", deep < PAGE_BUDGET_US)
+        }
+    }
+
+    private fun checkFindByPath(library: Library, random: Random) {
+        val time = median(LOOKUPS) {
+            val path = library.paths[random.nextInt(library.paths.size)]
+            assertEquals(path, repository.findRecordByPath(path)?.path)
+        }
+        assertBudget("Find by path took $time us", time < LOOKUP_BUDGET_US)
+    }
+
+    private fun checkBookmarks(library: Library) {
+        val time = median(LOOKUPS) {
+            assertEquals(library.bookmarksCount, repository.bookmarks.size)
+        }
+        val budget = LOOKUP_BUDGET_US + library.bookmarksCount * ROW_BUDGET_US
+        assertBudget("Bookmarks took $time us", time < budget)
+    }
+
+    private fun checkLostRecords(library: Library) {
+        var lost = 0
+        repository.setOnRecordsLostListener { lost += it.size }
+        val before = if (PerfTests.isEnabled) usedMemory() else 0
+        val start = System.nanoTime()
+        val records = repository.allRecords
+        val time = (System.nanoTime() - start) / 1000
+        val bytesPerRecord = if (PerfTests.isEnabled) (usedMemory() - before) / records.size else 0
+        repository.setOnRecordsLostListener(null)
+
+        assertEquals(library.ids.size, records.size)
+        assertEquals(library.lostCount, lost)
+        assertBudget("Lost records check took $time us", time < records.size * ROW_BUDGET_US)
+        //Waveforms are not loaded with lists of records.
+        assertBudget("Record in list takes $bytesPerRecord bytes", bytesPerRecord < RECORD_MEMORY_BUDGET_BYTES)
+    }
+
+    private fun checkTrashExpiry(library: Library) {
+        val trashCount = repository.trashRecordsCount
+        val start = System.nanoTime()
+        val removed = repository.removeOutdatedTrashRecords()
+        val time = (System.nanoTime() - start) / 1000
+
+        assertEquals(library.outdatedTrashCount, removed)
+        assertEquals(trashCount - removed, repository.trashRecordsCount)
+        assertBudget("Trash expiry took $time us", time < LOOKUP_BUDGET_US + removed * WRITE_BUDGET_US)
+    }
+
+    private fun checkBulkDeletes(library: Library) {
+        val ids = library.ids.takeLast(BULK_COUNT)
+        val trashCount = repository.trashRecordsCount
+        var start = System.nanoTime()
+        val moved = repository.moveToTrash(ids)
+        val moveTime = (System.nanoTime() - start) / 1000
+        start = System.nanoTime()
+        val removed = repository.removeFromTrash(ids)
+        val removeTime = (System.nanoTime() - start) / 1000
+
+        assertEquals(BULK_COUNT, moved.size)
+        assertEquals(BULK_COUNT, removed.size)
+        assertEquals(trashCount, repository.trashRecordsCount)
+        assertEquals(library.ids.size - BULK_COUNT, repository.allItemsIds.size)
+        assertBudget("Move into trash took $moveTime us", moveTime < BULK_COUNT * WRITE_BUDGET_US)
+        assertBudget("Remove from trash took $removeTime us", removeTime < BULK_COUNT * WRITE_BUDGET_US)
+    }
+
+    private fun assertBudget(message: String, condition: Boolean) {
+        if (PerfTests.isEnabled) {
+            assertTrue(message, condition)
+        }
+    }
+
+    /**
+     * Insert records with waveforms and trash records, a half of trash records is outdated.
+     * Every 100th record is bookmarked and file of every 50th record is missing.
+     */
+    private fun seed(application: Application, count: Int, random: Random): Library {
+        val waveforms = List(WAVEFORMS_COUNT) { WaveformCodec.encode(createWaveform(random)) }
+        val ids = ArrayList<Int>(count)
+        val paths = ArrayList<String>(count)
+        var bookmarks = 0
+        val db = SQLiteHelper.getInstance(application).writableDatabase
+        val insertRecord = db.compileStatement("INSERT INTO " + SQLiteHelper.TABLE_RECORDS + " ("
+                + SQLiteHelper.COLUMN_NAME + ", " + SQLiteHelper.COLUMN_DURATION + ", "
+                + SQLiteHelper.COLUMN_CREATION_DATE + ", " + SQLiteHelper.COLUMN_DATE_ADDED + ", "
+                + SQLiteHelper.COLUMN_PATH + ", " + SQLiteHelper.COLUMN_FORMAT + ", "
+                + SQLiteHelper.COLUMN_SIZE + ", " + SQLiteHelper.COLUMN_SAMPLE_RATE + ", "
+                + SQLiteHelper.COLUMN_CHANNEL_COUNT + ", " + SQLiteHelper.COLUMN_BITRATE + ", "
+                + SQLiteHelper.COLUMN_BOOKMARK + ", " + SQLiteHelper.COLUMN_WAVEFORM_PROCESSED
+                + ") VALUES (?, ?, ?, ?, ?, 'm4a', ?, 44100, 1, 128000, ?, 1)")
+        val insertTrash = db.compileStatement("INSERT INTO " + SQLiteHelper.TABLE_TRASH + " ("
+                + SQLiteHelper.COLUMN_ID + ", " + SQLiteHelper.COLUMN_NAME + ", "
+                + SQLiteHelper.COLUMN_DURATION + ", " + SQLiteHelper.COLUMN_CREATION_DATE + ", "
+                + SQLiteHelper.COLUMN_DATE_ADDED + ", " + SQLiteHelper.COLUMN_DATE_REMOVED + ", "
+                + SQLiteHelper.COLUMN_PATH + ") VALUES (?, ?, 60000, 1600000000000, 1600000000000, ?, ?)")
+        val insertWaveform = db.compileStatement("INSERT INTO " + SQLiteHelper.TABLE_WAVEFORMS + " ("
+                + SQLiteHelper.COLUMN_RECORD_ID + ", " + SQLiteHelper.COLUMN_DATA + ") VALUES (?, ?)")
+        val now = System.currentTimeMillis()
+        val trashCount = count / 10
+        db.beginTransaction()
+        try {
+            for (i in 0 until count) {
+                val added = 1_600_000_000_000L + random.nextLong(50_000_000) * 1000
+                val duration = random.nextLong(3600) * 1000
+                val path = "/records/record_$i.m4a"
+                val bookmark = i % 100 == 0
+                insertRecord.bindString(1, "Record-" + random.nextInt(count))
+                insertRecord.bindLong(2, duration)
+                insertRecord.bindLong(3, added)
+                insertRecord.bindLong(4, added)
+                insertRecord.bindString(5, path)
+                insertRecord.bindLong(6, duration * 16)
+                insertRecord.bindLong(7, if (bookmark) 1 else 0)
+                val id = insertRecord.executeInsert().toInt()
+                insertWaveform.bindLong(1, id.toLong())
+                insertWaveform.bindBlob(2, waveforms[i % WAVEFORMS_COUNT])
+                insertWaveform.executeInsert()
+                ids.add(id)
+                paths.add(path)
+                if (bookmark) {
+                    bookmarks++
+                }
+                if (i % 50 == 0) {
+                    files.missing.add(path)
+                }
+            }
+            for (i in 0 until trashCount) {
+                val removedAgo = if (i % 2 == 0) AppConstants.RECORD_IN_TRASH_MAX_DURATION * 2 else 0
+                insertTrash.bindLong(1, (count + 1 + i).toLong())
+                insertTrash.bindString(2, "Removed-$i")
+                insertTrash.bindLong(3, now - removedAgo - random.nextLong(1_000_000))
+                insertTrash.bindString(4, "/records/removed_$i.m4a.del")
+                insertTrash.executeInsert()
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+        insertRecord.close()
+        insertTrash.close()
+        insertWaveform.close()
+        return Library(ids, paths, bookmarks, files.missing.size, (trashCount + 1) / 2)
+    }
+
+    /**
+     * Peaks of a record change smoothly, like a random walk.
+     */
+    private fun createWaveform(random: Random): IntArray {
+        val amps = IntArray(200 + random.nextInt(1300))
+        var amp = random.nextInt(32768)
+        for (i in amps.indices) {
+            amp = (amp + random.nextInt(-60, 61)).coerceIn(0, 32767)
+            amps[i] = amp
+        }
+        return amps
+    }
+
+    /**
+     * @return Median duration of the action in microseconds.
+     */
+    private fun median(times: Int, action: () -> Unit): Long {
+        val durations = LongArray(times) {
+            val start = System.nanoTime()
+            action()
+            (System.nanoTime() - start) / 1000
+        }
+        durations.sort()
+        return durations[times / 2]
+    }
+
+    private fun usedMemory(): Long {
+        val runtime = Runtime.getRuntime()
+        repeat(3) {
+            System.gc()
+        }
+        return runtime.totalMemory() - runtime.freeMemory()
+    }
+
+    /**
+     * Records directory where all files exist except the missing ones.
+     */
+    private class LibraryFileRepository : FileRepository {
+        val missing = HashSet<String>()
+
+        override fun isFileExists(path: String?) = !missing.contains(path)
+        override fun deleteRecordFile(path: String?) = true
+        override fun markAsTrashRecord(path: String?) = "$path.${AppConstants.TRASH_MARK_EXTENSION}"
+        override fun unmarkTrashRecord(path: String?) = path?.removeSuffix("." + AppConstants.TRASH_MARK_EXTENSION)
+        override fun provideRecordFile(): File = throw UnsupportedOperationException()
+        override fun provideRecordFile(name: String?): File = throw UnsupportedOperationException()
+        override fun getPrivateDirFiles(context: Context?): Array<File> = emptyArray()
+        override fun getPublicDirFiles(): Array<File> = emptyArray()
+        override fun getPublicDir(): File? = null
+        override fun getPrivateDir(context: Context?): File? = null
+        override fun getRecordingDir(): File? = null
+        override fun deleteAllRecords() = true
+        override fun renameFile(path: String?, newName: String?, extension: String?) = true
+        override fun updateRecordingDir(context: Context?, prefs: Prefs?) {}
+        override fun hasAvailableSpace(context: Context?) = true
+    }
+
+    companion object {
+        private const val WAVEFORMS_COUNT = 64
+        private const val PAGES = 11
+        private const val LOOKUPS = 51
+        private const val BULK_COUNT = 1000
+        private const val PAGE_BUDGET_US = 30_000L
+        private const val LOOKUP_BUDGET_US = 10_000L
+        private const val ROW_BUDGET_US = 100L
+        private const val WRITE_BUDGET_US = 2_000L
+        private const val RECORD_MEMORY_BUDGET_BYTES = 2048L
+    }
+}
@@ -4,8 +4,10 @@ import com.dimowner.audiorecorder.data.FileRepository
 import com.dimowner.audiorecorder.data.Prefs
 import com.dimowner.audiorecorder.exception.FailedToRestoreRecord
 import io.mockk.MockKAnnotations
+import io.mockk.Runs
 import io.mockk.every
 import io.mockk.impl.annotations.MockK
+import io.mockk.just
 import io.mockk.slot
 import io.mockk.verify
 import io.mockk.verifyOrder
@@ -325,4 +327,109 @@ class LocalRepositoryTest {
             fileRepository.markAsTrashRecord("path")
         }
     }
+
+    @Test
+    fun test_moveToTrash_success() {
+        val path = testRecord.path
+        every { recordsDataSource.isOpen } returns true
+        every { recordsDataSource.getItems(listOf(101)) } returns arrayListOf(testRecord)
+        every { recordsDataSource.beginTransaction() } just Runs
+        every { recordsDataSource.setTransactionSuccessful() } just Runs
+        every { recordsDataSource.endTransaction() } just Runs
+        every { fileRepository.markAsTrashRecord(path) } returns "$path.deleted"
+        every { trashDataSource.insertItem(testRecord) } returns testRecord
+        every { recordsDataSource.deleteItem(101) } returns 1
+
+        val result = localRepository.moveToTrash(listOf(101))
+
+        assertEquals(listOf(101), result)
+        assertEquals("$path.deleted", testRecord.path)
+        verify(exactly = 0) {
+            fileRepository.unmarkTrashRecord(any())
+        }
+        verifyOrder {
+            recordsDataSource.beginTransaction()
+            fileRepository.markAsTrashRecord(path)
+            trashDataSource.insertItem(testRecord)
+            recordsDataSource.deleteItem(101)
+            recordsDataSource.setTransactionSuccessful()
+            recordsDataSource.endTransaction()
+        }
+    }
+
+    @Test
+    fun test_moveToTrash_fail_restores_all_renamed_files() {
+        val path = testRecord.path
+        val secondRecord = Record(
+            102, "name2", 100L, 100500L, 500100L, 0L, "path2", "format", 400L, 32000, 2, 128000,
+            false, true, intArrayOf()
+        )
+        every { recordsDataSource.isOpen } returns true
+        every { recordsDataSource.getItems(listOf(101, 102)) } returns arrayListOf(testRecord, secondRecord)
+        every { recordsDataSource.beginTransaction() } just Runs
+        every { recordsDataSource.endTransaction() } just Runs
+        every { fileRepository.markAsTrashRecord(path) } returns "$path.deleted"
+        every { fileRepository.markAsTrashRecord("path2") } returns "path2.deleted"
+        every { trashDataSource.insertItem(testRecord) } returns testRecord
+        every { trashDataSource.insertItem(secondRecord) } returns null
+        every { recordsDataSource.deleteItem(101) } returns 1
+        every { fileRepository.unmarkTrashRecord("$path.deleted") } returns path
+        every { fileRepository.unmarkTrashRecord("path2.deleted") } returns "path2"
+
+        val result = localRepository.moveToTrash(listOf(101, 102))
+
+        assertTrue(result.isEmpty())
+        verify(exactly = 0) {
+            recordsDataSource.setTransactionSuccessful()
+        }
+        verifyOrder {
+            recordsDataSource.endTransaction()
+            fileRepository.unmarkTrashRecord("$path.deleted")
+            fileRepository.unmarkTrashRecord("path2.deleted")
+        }
+    }
+
+    @Test
+    fun test_changes_are_reported_to_listeners() {
+        val changes = mutableListOf<RecordChange>()
+        val listener = OnRecordsChangedListener { changes.addAll(it) }
+        every { recordsDataSource.isOpen } returns true
+        every { recordsDataSource.getItem(101) } returns testRecord
+        every { recordsDataSource.updateItem(any(), any()) } returns 1
+        every { recordsDataSource.deleteItem(101) } returns 1
+        every { fileRepository.isFileExists("path") } returns true
+        localRepository.addOnRecordsChangedListener(listener)
+
+        assertTrue(localRepository.removeFromBookmarks(101))
+        localRepository.deleteRecordForever(101)
+        localRepository.removeOnRecordsChangedListener(listener)
+        localRepository.deleteRecordForever(101)
+
+        assertEquals(2, changes.size)
+        assertEquals(RecordChange.TYPE_UPDATED, changes[0].type)
+        assertEquals(101, changes[0].id)
+        assertEquals(RecordChange.CHANGED_BOOKMARK, changes[0].changedColumns)
+        assertFalse(changes[0].record!!.isBookmarked)
+        //Bookmark update doesn't write the same waveform again.
+        verify { recordsDataSource.updateItem(any(), false) }
+        assertEquals(RecordChange.TYPE_DELETED, changes[1].type)
+        assertEquals(101, changes[1].id)
+    }
+
+    @Test
+    fun test_removeOutdatedTrashRecords_deletes_in_batches() {
+        val firstBatch = (1..50).associateWith { "path$it.del" }
+        val secondBatch = mapOf(51 to "path51.del", 52 to "path52.del")
+        every { trashDataSource.getRemovedBefore(any(), 50) } returnsMany listOf(firstBatch, secondBatch)
+        every { fileRepository.deleteRecordFile(any()) } returns true
+        every { trashDataSource.deleteItems(firstBatch.keys.toList()) } returns 50
+        every { trashDataSource.deleteItems(secondBatch.keys.toList()) } returns 2
+
+        val count = localRepository.removeOutdatedTrashRecords()
+
+        assertEquals(52, count)
+        verify(exactly = 52) { fileRepository.deleteRecordFile(any()) }
+        //Repository construction doesn't read the trash.
+        verify(exactly = 0) { trashDataSource.getAll() }
+    }
 }
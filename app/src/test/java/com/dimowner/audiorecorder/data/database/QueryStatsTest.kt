@@ -0,0 +1,84 @@
+package com.dimowner.audiorecorder.data.database
+
+import com.dimowner.audiorecorder.metrics.MetricsRegistry
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+class QueryStatsTest {
+
+    private val metrics = MetricsRegistry.getInstance()
+
+    @Before
+    fun setUp() {
+        metrics.reset()
+        metrics.isEnabled = true
+    }
+
+    @After
+    fun tearDown() {
+        metrics.isEnabled = false
+    }
+
+    @Test
+    fun queries_differing_by_values_share_shape() {
+        assertEquals(
+            "SELECT _id FROM records WHERE _id IN (?...) AND removed < ? LIMIT ?",
+            QueryStats.normalize("SELECT _id FROM records WHERE _id IN (?, ?, ?) AND removed < 1600 LIMIT 50")
+        )
+        assertEquals("SELECT name2 FROM t1 WHERE a = ?", QueryStats.normalize("SELECT name2 FROM t1 WHERE a = ?"))
+    }
+
+    @Test
+    fun statements_are_recorded_by_shape() {
+        val stats = QueryStats()
+        stats.record("SELECT * FROM records LIMIT 20", 100_000, 20)
+        stats.record("SELECT * FROM records LIMIT 40", 3_000_000, 40)
+        stats.setQueueWait(2_000_000)
+        stats.record("SELECT * FROM records LIMIT 20", 200_000, 10)
+        stats.clearQueueWait()
+
+        val statements = stats.getStatements()
+        assertEquals(1, statements.size)
+        val statement = statements[0]
+        assertEquals("SELECT * FROM records LIMIT ?", statement.sql)
+        assertEquals(3L, statement.count)
+        assertEquals(3300L, statement.totalMicros)
+        assertEquals(3000L, statement.maxMicros)
+        assertEquals(70L, statement.rows)
+        assertEquals(40, statement.maxRows)
+        assertEquals(2000L, statement.averageQueueWaitMicros)
+        //Histogram bucket of 200us ends at 207us.
+        assertEquals(207L, statement.getPercentileMicros(0.5))
+        assertEquals(3000L, statement.getPercentileMicros(0.99))
+    }
+
+    @Test
+    fun nothing_is_recorded_while_metrics_are_disabled() {
+        val stats = QueryStats()
+        metrics.isEnabled = false
+        assertEquals(0L, stats.start())
+        stats.record("SELECT * FROM records LIMIT 20", 100_000_000, 20)
+        assertTrue(stats.getStatements().isEmpty())
+        assertTrue(stats.getSlowQueries().isEmpty())
+    }
+
+    @Test
+    fun slow_query_log_keeps_newest_statements() {
+        val stats = QueryStats()
+        stats.slowQueryThresholdMillis = 10
+        stats.record("DELETE FROM trash WHERE _id = ?", 5_000_000, 1)
+        for (i in 1..40) {
+            stats.record("SELECT * FROM records WHERE _id = $i", i * 20_000_000L, 1)
+        }
+
+        val slow = stats.getSlowQueries()
+        assertEquals(32, slow.size)
+        assertEquals(800_000L, slow[0].durationMicros)
+        assertEquals(180_000L, slow[31].durationMicros)
+        assertEquals("SELECT * FROM records WHERE _id = ?", slow[0].sql)
+        assertEquals(-1L, slow[0].queueWaitMicros)
+    }
+}
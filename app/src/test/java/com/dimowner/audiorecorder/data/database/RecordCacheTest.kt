@@ -0,0 +1,75 @@
+package com.dimowner.audiorecorder.data.database
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertFalse
+import junit.framework.TestCase.assertNotNull
+import junit.framework.TestCase.assertNull
+import org.junit.Assert.assertArrayEquals
+import org.junit.Test
+
+class RecordCacheTest {
+
+    @Test
+    fun least_recently_used_record_is_evicted() {
+        val cache = RecordCache(2)
+        cache.put(createRecord(1))
+        cache.put(createRecord(2))
+        assertNotNull(cache.get(1))
+        cache.put(createRecord(3))
+
+        assertNull(cache.get(2))
+        assertNotNull(cache.get(1))
+        assertNotNull(cache.get(3))
+        assertEquals(2, cache.size())
+        assertEquals(3L, cache.hitCount)
+        assertEquals(1L, cache.missCount)
+    }
+
+    @Test
+    fun cached_record_is_not_shared_with_callers() {
+        val cache = RecordCache(2)
+        val record = createRecord(1)
+        cache.put(record)
+        record.path = "/changed"
+        record.amps[0] = 255
+
+        val cached = cache.get(1)!!
+        cached.setBookmark(true)
+        assertEquals("/records/record_1.m4a", cached.path)
+        assertEquals(1, cached.amps[0])
+        assertFalse(cache.get(1)!!.isBookmarked)
+    }
+
+    @Test
+    fun update_without_waveform_keeps_cached_waveform() {
+        val cache = RecordCache(2)
+        cache.put(createRecord(1))
+
+        cache.update(createRecord(1, "Renamed", IntArray(0)))
+
+        val cached = cache.get(1)!!
+        assertEquals("Renamed", cached.name)
+        assertArrayEquals(intArrayOf(1, 2, 3), cached.amps)
+        //Record which is not cached is not added by update without waveform.
+        cache.update(createRecord(2, "Other", IntArray(0)))
+        assertNull(cache.get(2))
+    }
+
+    @Test
+    fun read_started_before_change_is_not_cached() {
+        val cache = RecordCache(2)
+        val version = cache.version
+        //Other thread changes the record while this one reads it from database.
+        cache.remove(1)
+        cache.putIfUnchanged(createRecord(1), version)
+        assertNull(cache.get(1))
+
+        cache.putIfUnchanged(createRecord(1), cache.version)
+        assertNotNull(cache.get(1))
+    }
+
+    private fun createRecord(id: Int, name: String = "Record-$id", amps: IntArray = intArrayOf(1, 2, 3)) = Record(
+        id, name, 60_000L, 1_600_000_000_000L, 1_600_000_000_000L, Long.MAX_VALUE,
+        "/records/record_$id.m4a", "m4a", 1024, 44100, 1, 128000, false, true, amps
+    )
+}
@@ -0,0 +1,126 @@
+package com.dimowner.audiorecorder.data.database
+
+import android.app.Application
+import com.dimowner.audiorecorder.AppConstants
+import com.dimowner.audiorecorder.PerfTests
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import kotlin.random.Random
+
+/**
+ * Seeds records table and loads pages from the beginning and from the end of every sort order,
+ * pages must follow the order. With [PerfTests] enabled the table has 100k rows and deep pages
+ * must cost about the same as first pages, since keyset pagination seeks the index.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(application = Application::class)
+class RecordsPagingBenchmarkTest {
+
+    private class Row(val id: Int, val name: String, val duration: Long, val added: Long)
+
+    private class Order(val column: String, val desc: Boolean, val key: (Row) -> Comparable<*>)
+
+    @Test
+    fun benchmark_deep_pages_cost_as_first_pages() {
+        val rowsCount = if (PerfTests.isEnabled) PERF_ROWS_COUNT else ROWS_COUNT
+        val rows = seed(RuntimeEnvironment.getApplication(), rowsCount)
+        val dataSource = RecordsDataSource.getInstance(RuntimeEnvironment.getApplication())
+        dataSource.open()
+
+        val orders = listOf(
+            Order(SQLiteHelper.COLUMN_DATE_ADDED, true) { it.added },
+            Order(SQLiteHelper.COLUMN_DATE_ADDED, false) { it.added },
+            Order(SQLiteHelper.COLUMN_NAME, false) { it.name },
+            Order(SQLiteHelper.COLUMN_NAME, true) { it.name },
+            Order(SQLiteHelper.COLUMN_DURATION, true) { it.duration },
+            Order(SQLiteHelper.COLUMN_DURATION, false) { it.duration },
+        )
+        for (order in orders) {
+            var comparator = compareBy<Row>(order.key).thenBy { it.id }
+            if (order.desc) {
+                comparator = comparator.reversed()
+            }
+            val expected = rows.sortedWith(comparator)
+            val firstPagesUs = loadPages(dataSource, order, expected, 0)
+            val deepPagesUs = loadPages(dataSource, order, expected, rowsCount - DEEP_OFFSET)
+            if (PerfTests.isEnabled) {
+                val first = firstPagesUs.sorted()[PAGES / 2]
+                val deep = deepPagesUs.sorted()[PAGES / 2]
+                assertTrue("Deep page took $deep us, first page $first us", deep < first * 3 + SLACK_US)
+            }
+        }
+        dataSource.close()
+    }
+
+    @After
+    fun tearDown() {
+        RecordsDataSource.clearInstance()
+        SQLiteHelper.clearInstance()
+    }
+
+    /**
+     * Load pages one after another starting after position and check them against expected order.
+     * @return Duration of every page load.
+     */
+    private fun loadPages(dataSource: RecordsDataSource, order: Order, expected: List<Row>, position: Int): List<Long> {
+        val result = ArrayList<Long>()
+        var after = if (position > 0) expected[position - 1] else null
+        var index = position
+        repeat(PAGES) {
+            val key = after?.let { order.key(it).toString() }
+            val start = System.nanoTime()
+            val page = dataSource.getRecords(order.column, order.desc, key, after?.id ?: 0)
+            result.add((System.nanoTime() - start) / 1000)
+            assertEquals(AppConstants.DEFAULT_PER_PAGE, page.size)
+            for (record in page) {
+                assertEquals(expected[index].id, record.id)
+                index++
+            }
+            after = expected[index - 1]
+        }
+        return result
+    }
+
+    private fun seed(application: Application, count: Int): List<Row> {
+        val random = Random(42)
+        val rows = ArrayList<Row>(count)
+        val db = SQLiteHelper.getInstance(application).writableDatabase
+        val statement = db.compileStatement("INSERT INTO " + SQLiteHelper.TABLE_RECORDS + " ("
+                + SQLiteHelper.COLUMN_NAME + ", " + SQLiteHelper.COLUMN_DURATION + ", "
+                + SQLiteHelper.COLUMN_CREATION_DATE + ", " + SQLiteHelper.COLUMN_DATE_ADDED + ", "
+                + SQLiteHelper.COLUMN_PATH + ") VALUES (?, ?, ?, ?, ?)")
+        db.beginTransaction()
+        try {
+            for (i in 0 until count) {
+                //Small ranges of values make a lot of ties, which are sorted by id.
+                val row = Row(0, "Record-" + random.nextInt(20000), random.nextLong(3000) * 1000, 1_600_000_000_000L + random.nextLong(50000) * 1000)
+                statement.bindString(1, row.name)
+                statement.bindLong(2, row.duration)
+                statement.bindLong(3, row.added)
+                statement.bindLong(4, row.added)
+                statement.bindString(5, "/records/record_$i.m4a")
+                rows.add(Row(statement.executeInsert().toInt(), row.name, row.duration, row.added))
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+        statement.close()
+        return rows
+    }
+
+    companion object {
+        private const val ROWS_COUNT = 10_000
+        private const val PERF_ROWS_COUNT = 100_000
+        /** Deep pages start this many rows before the end. */
+        private const val DEEP_OFFSET = 5_000
+        private const val PAGES = 21
+        private const val SLACK_US = 2000
+    }
+}
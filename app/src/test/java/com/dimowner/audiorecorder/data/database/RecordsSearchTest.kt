@@ -0,0 +1,131 @@
+package com.dimowner.audiorecorder.data.database
+
+import android.app.Application
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.SQLiteMode
+
+/**
+ * Search index follows inserts, renames, transcripts and moves into trash and back, and prefix
+ * queries over 100k records take milliseconds.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(application = Application::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class RecordsSearchTest {
+
+    private lateinit var records: RecordsDataSource
+    private lateinit var trash: TrashDataSource
+
+    @Before
+    fun setUp() {
+        records = RecordsDataSource.getInstance(RuntimeEnvironment.getApplication())
+        trash = TrashDataSource.getInstance(RuntimeEnvironment.getApplication())
+        records.open()
+        trash.open()
+    }
+
+    @After
+    fun tearDown() {
+        RecordsDataSource.clearInstance()
+        TrashDataSource.clearInstance()
+        SQLiteHelper.clearInstance()
+    }
+
+    @Test
+    fun index_follows_record_changes() {
+        val rec = records.insertItem(createRecord("Morning notes", 1))!!
+        records.insertItem(createRecord("Evening notes", 2))
+
+        assertEquals(listOf(rec.id), ids("morn"))
+        assertEquals(2, ids("NOTES").size)
+        assertEquals(emptyList<Int>(), ids("milk"))
+
+        records.saveTranscript(rec.id, "Buy milk and bread", "Added to the shopping list")
+        assertEquals(listOf(rec.id), ids("mil"))
+        assertEquals(listOf(rec.id), ids("bread morn"))
+        assertEquals(emptyList<Int>(), ids("bread evening"))
+
+        records.updateItem(createRecord("Shopping", 1, rec.id))
+        assertEquals(emptyList<Int>(), ids("morn"))
+        assertEquals(listOf(rec.id), ids("shop"))
+
+        //Move to trash and back keeps the record id and its transcript.
+        trash.insertItem(records.getItem(rec.id))
+        records.deleteItem(rec.id)
+        assertEquals(emptyList<Int>(), ids("milk"))
+        records.insertItem(trash.getItem(rec.id))
+        trash.deleteItem(rec.id)
+        assertEquals(listOf(rec.id), ids("milk"))
+
+        records.deleteItem(rec.id)
+        assertEquals(emptyList<Int>(), ids("shop"))
+        assertEquals(emptyList<Int>(), ids(" \"*OR- "))
+    }
+
+    @Test
+    fun benchmark_prefix_search() {
+        val db = SQLiteHelper.getInstance(RuntimeEnvironment.getApplication()).writableDatabase
+        val statement = db.compileStatement("INSERT INTO " + SQLiteHelper.TABLE_RECORDS + " ("
+                + SQLiteHelper.COLUMN_NAME + ", " + SQLiteHelper.COLUMN_DURATION + ", "
+                + SQLiteHelper.COLUMN_CREATION_DATE + ", " + SQLiteHelper.COLUMN_DATE_ADDED + ", "
+                + SQLiteHelper.COLUMN_PATH + ") VALUES (?, ?, ?, ?, ?)")
+        db.beginTransaction()
+        try {
+            for (i in 0 until ROWS_COUNT) {
+                statement.bindString(1, "Record-$i " + WORDS[i % WORDS.size])
+                statement.bindLong(2, 60_000L)
+                statement.bindLong(3, 1_600_000_000_000L + i)
+                statement.bindLong(4, 1_600_000_000_000L + i)
+                statement.bindString(5, "/records/record_$i.m4a")
+                val id = statement.executeInsert().toInt()
+                if (i % 100 == 0) {
+                    records.saveTranscript(id, "Transcript number $i about " + WORDS[(i / 100) % WORDS.size], null)
+                }
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+        statement.close()
+
+        for (query in listOf("re", "record", "meet", "groceries", "numb", "record 9999", "zustrich", "зуст")) {
+            //Warm up the page cache.
+            records.searchRecords(query, LIMIT)
+            val times = (0 until RUNS).map {
+                val start = System.nanoTime()
+                val found = records.searchRecords(query, LIMIT)
+                assertTrue(found.size <= LIMIT)
+                (System.nanoTime() - start) / 1000
+            }.sorted()
+            val median = times[RUNS / 2]
+            println("Search '$query': median $median us, max ${times.last()} us")
+            assertTrue("Search '$query' took $median us", median < MAX_MEDIAN_US)
+        }
+        assertEquals(LIMIT, records.searchRecords("record", LIMIT).size)
+        assertEquals(ROWS_COUNT, records.searchRecords("record", LIMIT)[0].id)
+        assertEquals(1, records.searchRecords("record 99999", LIMIT).size)
+    }
+
+    private fun ids(query: String) = records.searchRecords(query, LIMIT).map { it.id }
+
+    private fun createRecord(name: String, index: Int, id: Int = Record.NO_ID) = Record(
+        id, name, 60_000L, 1_600_000_000_000L + index, 1_600_000_000_000L + index, 0,
+        "/records/record_$index.m4a", "m4a", 1024, 44100, 1, 128000, false, true, IntArray(0)
+    )
+
+    companion object {
+        private const val ROWS_COUNT = 100_000
+        private const val LIMIT = 50
+        private const val RUNS = 21
+        private const val MAX_MEDIAN_US = 20_000
+        private val WORDS = listOf("meeting", "groceries", "call", "idea", "зустріч", "Café")
+    }
+}
@@ -0,0 +1,100 @@
+package com.dimowner.audiorecorder.data.database
+
+import android.app.Application
+import junit.framework.TestCase.assertEquals
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.SQLiteMode
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = Application::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class StatisticsDataSourceTest {
+
+    private lateinit var records: RecordsDataSource
+    private lateinit var trash: TrashDataSource
+    private lateinit var statistics: StatisticsDataSource
+
+    @Before
+    fun setUp() {
+        val application = RuntimeEnvironment.getApplication()
+        records = RecordsDataSource.getInstance(application)
+        trash = TrashDataSource.getInstance(application)
+        statistics = StatisticsDataSource.getInstance(application)
+        records.open()
+        trash.open()
+    }
+
+    @After
+    fun tearDown() {
+        RecordsDataSource.clearInstance()
+        TrashDataSource.clearInstance()
+        StatisticsDataSource.clearInstance()
+        SQLiteHelper.clearInstance()
+    }
+
+    @Test
+    fun statistics_follow_record_changes() {
+        assertTotals(0, 0, 0, statistics.getStatistics().records)
+
+        val first = records.insertItem(createRecord(1, "m4a", 60_000, 1000))!!
+        records.insertItem(createRecord(2, "m4a", 30_000, 500))
+        records.insertItem(createRecord(3, "wav", 10_000, 2000))
+        var stats = statistics.getStatistics()
+        assertTotals(3, 100_000, 3500, stats.records)
+        assertTotals(2, 90_000, 1500, stats.formats["m4a"]!!)
+        assertTotals(1, 10_000, 2000, stats.formats["wav"]!!)
+
+        //Format of a record is changed when it is read from the file.
+        records.updateItem(createRecord(1, "wav", 65_000, 1200, first.id))
+        stats = statistics.getStatistics()
+        assertTotals(3, 105_000, 3700, stats.records)
+        assertTotals(1, 30_000, 500, stats.formats["m4a"]!!)
+        assertTotals(2, 75_000, 3200, stats.formats["wav"]!!)
+
+        trash.insertItem(records.getItem(first.id))
+        records.deleteItem(first.id)
+        stats = statistics.getStatistics()
+        assertTotals(2, 40_000, 2500, stats.records)
+        assertTotals(1, 65_000, 1200, stats.trash)
+        assertTotals(1, 10_000, 2000, stats.formats["wav"]!!)
+
+        trash.deleteItem(first.id)
+        records.deleteAll()
+        stats = statistics.getStatistics()
+        assertTotals(0, 0, 0, stats.records)
+        assertTotals(0, 0, 0, stats.trash)
+        assertEquals(emptyMap<String, LibraryStatistics.Totals>(), stats.formats)
+    }
+
+    @Test
+    fun recompute_repairs_statistics() {
+        records.insertItem(createRecord(1, "m4a", 60_000, 1000))
+        records.insertItem(createRecord(2, "3gp", 30_000, 500))
+        val db = SQLiteHelper.getInstance(RuntimeEnvironment.getApplication()).writableDatabase
+        db.execSQL("UPDATE " + SQLiteHelper.TABLE_STATISTICS + " SET " + SQLiteHelper.COLUMN_COUNT + " = 100")
+
+        statistics.recompute()
+
+        val stats = statistics.getStatistics()
+        assertTotals(2, 90_000, 1500, stats.records)
+        assertTotals(1, 30_000, 500, stats.formats["3gp"]!!)
+        assertTotals(0, 0, 0, stats.trash)
+    }
+
+    private fun assertTotals(count: Int, duration: Long, size: Long, totals: LibraryStatistics.Totals) {
+        assertEquals(count, totals.count)
+        assertEquals(duration, totals.duration)
+        assertEquals(size, totals.size)
+    }
+
+    private fun createRecord(index: Int, format: String, duration: Long, size: Long, id: Int = Record.NO_ID) = Record(
+        id, "Record-$index", duration, 1_600_000_000_000L + index, 1_600_000_000_000L + index, 0,
+        "/records/record_$index.$format", format, size, 44100, 1, 128000, false, true, IntArray(0)
+    )
+}
@@ -0,0 +1,42 @@
+package com.dimowner.audiorecorder.data.database
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
+import org.junit.Assert.assertArrayEquals
+import org.junit.Test
+import kotlin.random.Random
+
+class WaveformCodecTest {
+
+    @Test
+    fun waveform_is_decoded_without_loss() {
+        val amps = intArrayOf(0, 5, 181, 180, 255, 300, -7, 70_000, Int.MAX_VALUE, Int.MIN_VALUE, 0)
+        val data = WaveformCodec.encode(amps)
+
+        assertEquals(amps.size, WaveformCodec.getSampleCount(data))
+        assertArrayEquals(amps, WaveformCodec.decode(data))
+        assertArrayEquals(IntArray(0), WaveformCodec.decode(WaveformCodec.encode(IntArray(0))))
+    }
+
+    @Test
+    fun long_waveform_is_smaller_than_byte_per_amplitude() {
+        val random = Random(42)
+        var amp = 90
+        val amps = IntArray(20_000) {
+            amp = (amp + random.nextInt(-6, 7)).coerceIn(0, 181)
+            amp
+        }
+        val data = WaveformCodec.encode(amps)
+
+        assertTrue("Encoded size ${data.size}", data.size < amps.size * 3 / 4)
+        assertArrayEquals(amps, WaveformCodec.decode(data))
+    }
+
+    @Test
+    fun legacy_waveform_is_decoded() {
+        val legacy = byteArrayOf(-128, -28, 0, 127)
+
+        assertArrayEquals(intArrayOf(0, 100, 128, 255), WaveformCodec.decode(legacy))
+        assertArrayEquals(intArrayOf(0, 100, 128, 255), WaveformCodec.decodeLegacy(legacy))
+    }
+}
@@ -0,0 +1,86 @@
+package com.dimowner.audiorecorder.metrics
+
+import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertSame
+import junit.framework.TestCase.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+class MetricsRegistryTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun disabled_registry_drops_updates() {
+        val registry = MetricsRegistry()
+        val counter = registry.counter("recorder.read_errors")
+        val histogram = registry.histogram("db.statement_us")
+        counter.inc()
+        histogram.record(100)
+        assertEquals(0L, histogram.start())
+        histogram.recordMicrosSince(histogram.start())
+
+        assertEquals(0L, counter.get())
+        assertEquals(0L, histogram.count)
+
+        registry.isEnabled = true
+        counter.add(3)
+        histogram.record(100)
+        assertEquals(3L, counter.get())
+        assertEquals(1L, histogram.count)
+        assertSame(counter, registry.counter("recorder.read_errors"))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun metric_name_is_bound_to_its_type() {
+        val registry = MetricsRegistry()
+        registry.counter("tasks.ready")
+        registry.gauge("tasks.ready")
+    }
+
+    @Test
+    fun histogram_percentiles_are_within_bucket_precision() {
+        val registry = MetricsRegistry()
+        registry.isEnabled = true
+        val histogram = registry.histogram("decoder.buffer_us")
+        for (v in 1..100_000L) {
+            histogram.record(v)
+        }
+        assertEquals(100_000L, histogram.count)
+        assertEquals(50_000L, histogram.mean)
+        assertEquals(100_000L, histogram.max)
+        for (p in listOf(0.5, 0.9, 0.99)) {
+            val expected = p * 100_000
+            val actual = histogram.getPercentile(p)
+            assertTrue("p$p = $actual", actual >= expected && actual <= expected * (1 + 1.0 / Histogram.SUB_BUCKET_COUNT))
+        }
+        //Every value falls into the bucket which bounds it.
+        for (v in listOf(0L, 15L, 16L, 17L, 1000L, 123_456_789L, Histogram.MAX_VALUE)) {
+            val index = Histogram.bucketIndex(v)
+            assertTrue(index < Histogram.BUCKET_COUNT)
+            assertTrue(v <= Histogram.bucketUpperBound(index))
+            assertTrue(index == 0 || v > Histogram.bucketUpperBound(index - 1))
+        }
+    }
+
+    @Test
+    fun snapshot_is_appended_to_file() {
+        val registry = MetricsRegistry()
+        registry.isEnabled = true
+        registry.gauge("tasks.ready").set(4)
+        registry.counter("network.errors").inc()
+        val file = File(folder.root, "snapshots.txt")
+
+        registry.writeSnapshot(file)
+        registry.writeSnapshot(file)
+
+        val lines = file.readLines()
+        assertEquals(6, lines.size)
+        assertTrue(lines[0].startsWith("# "))
+        assertEquals("network.errors counter 1", lines[1])
+        assertEquals("tasks.ready gauge 4 max=4", lines[2])
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.benchmarks;
+
+import com.dimowner.audiorecorder.app.SilenceDetector;
+import com.dimowner.audiorecorder.app.buttonpattern.ButtonPatternDetector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detectors fed while recording: silence detector gets every amplitude update, button pattern
+ * detector gets every volume key press. Time of one update.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DetectorsBenchmark {
+
+	private static final int EVENT_COUNT = 4096;
+	/** Recording amplitude is updated every 13 ms. */
+	private static final long AMPLITUDE_INTERVAL_MS = 13;
+
+	private final SilenceDetector silenceDetector = new SilenceDetector();
+	/** Four presses in two seconds, as ButtonPatternService uses. */
+	private final ButtonPatternDetector patternDetector = new ButtonPatternDetector(4, 2000);
+	private int[] amplitudes;
+	private long[] pressIntervals;
+	private int index = 0;
+	private long time = 0;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(1);
+		amplitudes = new int[EVENT_COUNT];
+		pressIntervals = new long[EVENT_COUNT];
+		for (int i = 0; i < EVENT_COUNT; i++) {
+			//Speech with pauses longer than the silence duration.
+			boolean isSilence = (i / 300) % 2 == 1;
+			amplitudes[i] = isSilence ? random.nextInt(300) : 1000 + random.nextInt(8000);
+			pressIntervals[i] = 100 + random.nextInt(1000);
+		}
+		silenceDetector.enable();
+	}
+
+	@Benchmark
+	public boolean checkSilence() {
+		index = (index + 1) & (EVENT_COUNT - 1);
+		time += AMPLITUDE_INTERVAL_MS;
+		return silenceDetector.checkSilence(amplitudes[index], time);
+	}
+
+	@Benchmark
+	public boolean addPress() {
+		index = (index + 1) & (EVENT_COUNT - 1);
+		time += pressIntervals[index];
+		return patternDetector.addPress(time);
+	}
+}
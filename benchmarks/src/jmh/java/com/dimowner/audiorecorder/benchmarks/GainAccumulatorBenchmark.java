@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.benchmarks;
+
+import com.dimowner.audiorecorder.audio.GainAccumulator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ShortBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waveform gains computed from samples decoded by AudioDecoder, per second of 44.1 kHz audio.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GainAccumulatorBenchmark {
+
+	private static final int SAMPLE_RATE = 44100;
+	/** Samples per frame of short records, AppConstants.SHORT_RECORD_DP_PER_SECOND is 25. */
+	private static final int SAMPLES_PER_FRAME = SAMPLE_RATE / 25;
+
+	@Param({"1", "2"})
+	public int channelCount;
+
+	private short[] samples;
+
+	@Setup
+	public void setUp() {
+		samples = Samples.pcm(SAMPLE_RATE * channelCount, new Random(1));
+	}
+
+	@Benchmark
+	public int[] addSamples() {
+		GainAccumulator accumulator = new GainAccumulator(SAMPLE_RATE, channelCount, SAMPLES_PER_FRAME);
+		accumulator.addSamples(ShortBuffer.wrap(samples));
+		return accumulator.getGains();
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.benchmarks;
+
+import com.dimowner.audiorecorder.IntArrayList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IntArrayList which collects recording amplitudes and decoded gains.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IntArrayListBenchmark {
+
+	@Param({"1500", "550000"})
+	public int size;
+
+	private int[] values;
+	private IntArrayList list;
+
+	@Setup
+	public void setUp() {
+		values = Samples.amplitudes(size, Short.MAX_VALUE, new Random(1));
+		list = new IntArrayList();
+		list.addAll(values);
+	}
+
+	@Benchmark
+	public IntArrayList add() {
+		IntArrayList result = new IntArrayList();
+		for (int value : values) {
+			result.add(value);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public IntArrayList addAll() {
+		IntArrayList result = new IntArrayList();
+		result.addAll(values);
+		return result;
+	}
+
+	@Benchmark
+	public long get() {
+		long sum = 0;
+		for (int i = 0; i < list.size(); i++) {
+			sum += list.get(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int[] getData() {
+		return list.getData();
+	}
+}
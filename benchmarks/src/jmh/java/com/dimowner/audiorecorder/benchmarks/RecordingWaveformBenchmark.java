@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.benchmarks;
+
+import com.dimowner.audiorecorder.IntArrayList;
+import com.dimowner.audiorecorder.audio.RecordingWaveform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waveform of a record made from amplitudes collected while recording, run by AppRecorderImpl
+ * when recording stops. Amplitudes are collected every 13 ms, so counts are 20 seconds,
+ * 10 minutes and 2 hours of recording.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecordingWaveformBenchmark {
+
+	/** Waveform samples of long records on a screen 400 dp wide. */
+	private static final int LONG_SAMPLE_COUNT = 600;
+
+	@Param({"1500", "46000", "550000"})
+	public int amplitudeCount;
+
+	private IntArrayList amplitudes;
+
+	@Setup
+	public void setUp() {
+		amplitudes = new IntArrayList();
+		amplitudes.addAll(Samples.amplitudes(amplitudeCount, Short.MAX_VALUE, new Random(1)));
+	}
+
+	@Benchmark
+	public int[] convertShortRecord() {
+		return RecordingWaveform.convert(amplitudes, 0);
+	}
+
+	@Benchmark
+	public int[] convertLongRecord() {
+		return RecordingWaveform.convert(amplitudes, LONG_SAMPLE_COUNT);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Test data of benchmarks.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+final class Samples {
+
+	private Samples() {
+	}
+
+	/**
+	 * Speech-like 16 bit PCM: a tone with noise and slowly changing loudness.
+	 */
+	static short[] pcm(int count, Random random) {
+		short[] samples = new short[count];
+		for (int i = 0; i < count; i++) {
+			double envelope = 0.5 + 0.5 * Math.sin(i / 4000.0);
+			double value = envelope * (8000 * Math.sin(i / 10.0) + 2000 * random.nextGaussian());
+			samples[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+		}
+		return samples;
+	}
+
+	/**
+	 * Little endian bytes of 16 bit PCM, as read from AudioRecord.
+	 */
+	static byte[] pcmBytes(int count, Random random) {
+		short[] samples = pcm(count, random);
+		byte[] bytes = new byte[count * 2];
+		for (int i = 0; i < count; i++) {
+			bytes[2 * i] = (byte) samples[i];
+			bytes[2 * i + 1] = (byte) (samples[i] >> 8);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Amplitudes from 0 to max which change smoothly like amplitudes of a waveform.
+	 */
+	static int[] amplitudes(int count, int max, Random random) {
+		int[] amps = new int[count];
+		int amp = max / 2;
+		for (int i = 0; i < count; i++) {
+			amp = Math.max(0, Math.min(max, amp + (int) (random.nextGaussian() * max / 20)));
+			amps[i] = amp;
+		}
+		return amps;
+	}
+}
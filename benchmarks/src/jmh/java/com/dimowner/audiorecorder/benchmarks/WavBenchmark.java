@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.benchmarks;
+
+import com.dimowner.audiorecorder.audio.recorder.WavUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WAV header and level of a PCM buffer computed by WavRecorder for every read from AudioRecord.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WavBenchmark {
+
+	/** Minimal AudioRecord buffer for 44.1 kHz mono on most devices. */
+	private static final int BUFFER_SIZE = 3584;
+
+	private byte[] buffer;
+	private long audioLength = 52_428_800;
+
+	@Setup
+	public void setUp() {
+		buffer = Samples.pcmBytes(BUFFER_SIZE / 2, new Random(1));
+	}
+
+	@Benchmark
+	public byte[] generateHeader() {
+		return WavUtils.generateHeader(audioLength, audioLength + 36, 44100, 2, 44100 * 2 * 2);
+	}
+
+	@Benchmark
+	public int computeLevel() {
+		return WavUtils.computeLevel(buffer, BUFFER_SIZE);
+	}
+
+	/**
+	 * Level computation of WavRecorder before it was moved into WavUtils, kept for comparison.
+	 */
+	@Benchmark
+	public int computeLevelWithByteBuffer() {
+		ByteBuffer shortBuffer = ByteBuffer.allocate(2);
+		shortBuffer.order(ByteOrder.LITTLE_ENDIAN);
+		long sum = 0;
+		for (int i = 0; i < BUFFER_SIZE; i+=2) {
+			shortBuffer.put(buffer[i]);
+			shortBuffer.put(buffer[i+1]);
+			sum += Math.abs(shortBuffer.getShort(0));
+			shortBuffer.clear();
+		}
+		return (int)(sum/(BUFFER_SIZE/16));
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dimowner.audiorecorder.benchmarks;
+
+import com.dimowner.audiorecorder.data.database.WaveformCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waveform blobs stored in the database. WaveformCodec replaced Record.int2byte/byte2int,
+ * legacy blobs of one byte per amplitude are decoded by {@link WaveformCodec#decodeLegacy(byte[])}.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaveformCodecBenchmark {
+
+	/** Waveform of a long record and of a long decoded record. */
+	@Param({"600", "20000"})
+	public int sampleCount;
+
+	private int[] amps;
+	private byte[] encoded;
+	private byte[] legacy;
+
+	@Setup
+	public void setUp() {
+		amps = Samples.amplitudes(sampleCount, 255, new Random(1));
+		encoded = WaveformCodec.encode(amps);
+		legacy = new byte[sampleCount];
+		for (int i = 0; i < sampleCount; i++) {
+			legacy[i] = (byte) (amps[i] - 128);
+		}
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return WaveformCodec.encode(amps);
+	}
+
+	@Benchmark
+	public int[] decode() {
+		return WaveformCodec.decode(encoded);
+	}
+
+	@Benchmark
+	public int[] decodeLegacy() {
+		return WaveformCodec.decodeLegacy(legacy);
+	}
+}
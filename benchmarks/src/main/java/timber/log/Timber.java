@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Dmytro Ponomarenko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package timber.log;
+
+/**
+ * Stand-in for Timber in benchmarks. Like Timber without planted trees, as in release builds of
+ * the app, it logs nothing, but arguments are still boxed by callers.
+ * Created on 18.10.2026.
+ * @author Dimowner
+ */
+public final class Timber {
+
+	private Timber() {
+	}
+
+	public static void d(String message, Object... args) {
+	}
+}